@@ -183,6 +183,38 @@ SET search_path TO geostore;
     create index idx_security_ip_range_ip_range_id on gs_security_ip_range using btree (ip_range_id);
     create index idx_security_ip_range_security_id on gs_security_ip_range using btree (security_id);
 
+    create table gs_resource_acl (
+        id int8 not null,
+        rule_id int8 not null,
+        resource_id int8 not null,
+        principal varchar(300),
+        ip_range_id int8,
+        ip_low numeric(39,0),
+        ip_high numeric(39,0),
+        canRead bool not null,
+        canWrite bool not null,
+        constraint gs_resource_acl_pkey primary key (id),
+        constraint fk_resource_acl_rule foreign key (rule_id) references gs_security(id) on delete cascade,
+        constraint fk_resource_acl_resource foreign key (resource_id) references gs_resource(id) on delete cascade,
+        constraint fk_resource_acl_ip_range foreign key (ip_range_id) references gs_ip_range(id) on delete cascade
+    );
+    create index idx_resource_acl_principal on gs_resource_acl (principal, resource_id);
+    create index idx_resource_acl_resource on gs_resource_acl (resource_id);
+    create index idx_resource_acl_rule on gs_resource_acl (rule_id);
+    create index idx_resource_acl_ip on gs_resource_acl (ip_low, ip_high);
+
+    create table gs_user_session (
+        id varchar(64) not null,
+        refresh_token varchar(64),
+        user_id int8,
+        user_name varchar(255),
+        user_data varchar(1000000) not null,
+        expiration timestamp,
+        expiration_interval int8 not null,
+        constraint gs_user_session_pkey primary key (id)
+    );
+    create index idx_user_session_expiration on gs_user_session (expiration);
+
     create index idx_attribute_name on gs_attribute (name);
 
     create index idx_attribute_resource on gs_attribute (resource_id);
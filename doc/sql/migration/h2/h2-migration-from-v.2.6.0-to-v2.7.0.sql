@@ -0,0 +1,34 @@
+-- ACL projection of the security rules (securityDAO.aclProjectionEnabled).
+-- The table is filled by GeoStore at startup when the projection is enabled and the table is empty.
+CREATE TABLE gs_resource_acl (
+    id BIGINT NOT NULL,
+    rule_id BIGINT NOT NULL,
+    resource_id BIGINT NOT NULL,
+    principal VARCHAR(300),
+    ip_range_id BIGINT,
+    ip_low NUMERIC(39,0),
+    ip_high NUMERIC(39,0),
+    canRead BOOLEAN NOT NULL,
+    canWrite BOOLEAN NOT NULL,
+    CONSTRAINT gs_resource_acl_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_resource_acl_rule FOREIGN KEY (rule_id) REFERENCES gs_security(id) ON DELETE CASCADE,
+    CONSTRAINT fk_resource_acl_resource FOREIGN KEY (resource_id) REFERENCES gs_resource(id) ON DELETE CASCADE,
+    CONSTRAINT fk_resource_acl_ip_range FOREIGN KEY (ip_range_id) REFERENCES gs_ip_range(id) ON DELETE CASCADE
+);
+CREATE INDEX idx_resource_acl_principal ON gs_resource_acl (principal, resource_id);
+CREATE INDEX idx_resource_acl_resource ON gs_resource_acl (resource_id);
+CREATE INDEX idx_resource_acl_rule ON gs_resource_acl (rule_id);
+CREATE INDEX idx_resource_acl_ip ON gs_resource_acl (ip_low, ip_high);
+
+-- Sessions shared by several GeoStore instances (DatabaseUserSessionServiceImpl).
+CREATE TABLE gs_user_session (
+    id VARCHAR(64) NOT NULL,
+    refresh_token VARCHAR(64),
+    user_id BIGINT,
+    user_name VARCHAR(255),
+    user_data VARCHAR(1000000) NOT NULL,
+    expiration TIMESTAMP,
+    expiration_interval BIGINT NOT NULL,
+    CONSTRAINT gs_user_session_pkey PRIMARY KEY (id)
+);
+CREATE INDEX idx_user_session_expiration ON gs_user_session (expiration);
@@ -0,0 +1,34 @@
+-- ACL projection of the security rules (securityDAO.aclProjectionEnabled).
+-- The table is filled by GeoStore at startup when the projection is enabled and the table is empty.
+create table gs_resource_acl (
+    id number(19,0) not null,
+    rule_id number(19,0) not null,
+    resource_id number(19,0) not null,
+    principal varchar2(300 char),
+    ip_range_id number(19,0),
+    ip_low number(39,0),
+    ip_high number(39,0),
+    canRead number(1,0) not null,
+    canWrite number(1,0) not null,
+    constraint gs_resource_acl_pkey primary key (id),
+    constraint fk_resource_acl_rule foreign key (rule_id) references gs_security(id) on delete cascade,
+    constraint fk_resource_acl_resource foreign key (resource_id) references gs_resource(id) on delete cascade,
+    constraint fk_resource_acl_ip_range foreign key (ip_range_id) references gs_ip_range(id) on delete cascade
+);
+create index idx_resource_acl_principal on gs_resource_acl (principal, resource_id);
+create index idx_resource_acl_resource on gs_resource_acl (resource_id);
+create index idx_resource_acl_rule on gs_resource_acl (rule_id);
+create index idx_resource_acl_ip on gs_resource_acl (ip_low, ip_high);
+
+-- Sessions shared by several GeoStore instances (DatabaseUserSessionServiceImpl).
+create table gs_user_session (
+    id varchar2(64 char) not null,
+    refresh_token varchar2(64 char),
+    user_id number(19,0),
+    user_name varchar2(255 char),
+    user_data CLOB not null,
+    expiration timestamp,
+    expiration_interval number(19,0) not null,
+    constraint gs_user_session_pkey primary key (id)
+);
+create index idx_user_session_expiration on gs_user_session (expiration);
@@ -130,6 +130,12 @@ public class Resource implements Serializable, CycleRecoverable {
     @OneToMany(mappedBy = "resource", cascade = CascadeType.ALL)
     private Set<UserFavorite> favorites;
 
+    /*
+     * Only used to filter the resources through the ACL projection of the security rules
+     */
+    @OneToMany(mappedBy = "resource", fetch = FetchType.LAZY)
+    private List<ResourceAcl> acl;
+
     /** @return the id */
     public Long getId() {
         return id;
@@ -280,6 +286,15 @@ public class Resource implements Serializable, CycleRecoverable {
         this.favorites = favorites;
     }
 
+    @XmlTransient
+    public List<ResourceAcl> getAcl() {
+        return acl;
+    }
+
+    public void setAcl(List<ResourceAcl> acl) {
+        this.acl = acl;
+    }
+
     /*
      * (non-Javadoc) @see java.lang.Object#toString()
      */
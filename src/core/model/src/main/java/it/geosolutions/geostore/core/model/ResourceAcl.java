@@ -0,0 +1,182 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.core.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.math.BigInteger;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Denormalized projection of a {@link SecurityRule}, used to filter the resources visible to a user
+ * with plain indexed lookups.
+ *
+ * <p>A rule is projected into one entry for each principal it refers to, keyed by {@link
+ * #userIdKey(Long)}, {@link #userKey(String)}, {@link #groupKey(Long)} or {@link
+ * #groupNameKey(String)}, plus one entry for each of its IP ranges. The rules bound to a user
+ * entity are keyed by the user id, so that they survive a rename of the user. Entries are deleted
+ * by the database together with their rule, resource or IP range.
+ */
+@Entity(name = "ResourceAcl")
+@Table(
+        name = "gs_resource_acl",
+        indexes = {
+            @Index(name = "idx_resource_acl_principal", columnList = "principal, resource_id"),
+            @Index(name = "idx_resource_acl_resource", columnList = "resource_id"),
+            @Index(name = "idx_resource_acl_rule", columnList = "rule_id"),
+            @Index(name = "idx_resource_acl_ip", columnList = "ip_low, ip_high")
+        })
+public class ResourceAcl implements Serializable {
+
+    private static final long serialVersionUID = 4816263125738361270L;
+
+    @Id @GeneratedValue private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(
+            name = "rule_id",
+            nullable = false,
+            foreignKey = @ForeignKey(name = "fk_resource_acl_rule"))
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private SecurityRule rule;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(
+            name = "resource_id",
+            nullable = false,
+            foreignKey = @ForeignKey(name = "fk_resource_acl_resource"))
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Resource resource;
+
+    /** The principal key, null for the entries of the IP ranges */
+    @Column(name = "principal", nullable = true, length = 300)
+    private String principal;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = true)
+    @JoinColumn(
+            name = "ip_range_id",
+            nullable = true,
+            foreignKey = @ForeignKey(name = "fk_resource_acl_ip_range"))
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private IPRange ipRange;
+
+    @Column(name = "ip_low", precision = 39, scale = 0)
+    private BigInteger ipLow;
+
+    @Column(name = "ip_high", precision = 39, scale = 0)
+    private BigInteger ipHigh;
+
+    @Column(nullable = false)
+    private boolean canRead;
+
+    @Column(nullable = false)
+    private boolean canWrite;
+
+    public ResourceAcl() {}
+
+    public ResourceAcl(SecurityRule rule, String principal) {
+        this.rule = rule;
+        this.resource = rule.getResource();
+        this.principal = principal;
+        this.canRead = rule.isCanRead();
+        this.canWrite = rule.isCanWrite();
+    }
+
+    public ResourceAcl(SecurityRule rule, IPRange ipRange) {
+        this(rule, (String) null);
+        this.ipRange = ipRange;
+        this.ipLow = ipRange.getIpLow();
+        this.ipHigh = ipRange.getIpHigh();
+    }
+
+    /** @return the principal key of the user with the given id */
+    public static String userIdKey(Long userId) {
+        return "uid:" + userId;
+    }
+
+    /** @return the principal key of the user with the given name */
+    public static String userKey(String userName) {
+        return "u:" + userName;
+    }
+
+    /** @return the principal key of the group with the given id */
+    public static String groupKey(Long groupId) {
+        return "gid:" + groupId;
+    }
+
+    /** @return the principal key of the group with the given name */
+    public static String groupNameKey(String groupName) {
+        return "g:" + groupName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public SecurityRule getRule() {
+        return rule;
+    }
+
+    public Resource getResource() {
+        return resource;
+    }
+
+    public String getPrincipal() {
+        return principal;
+    }
+
+    public IPRange getIpRange() {
+        return ipRange;
+    }
+
+    public BigInteger getIpLow() {
+        return ipLow;
+    }
+
+    public BigInteger getIpHigh() {
+        return ipHigh;
+    }
+
+    public boolean isCanRead() {
+        return canRead;
+    }
+
+    public boolean isCanWrite() {
+        return canWrite;
+    }
+}
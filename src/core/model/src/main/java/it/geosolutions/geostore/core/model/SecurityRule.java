@@ -27,6 +27,7 @@
  */
 package it.geosolutions.geostore.core.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -47,6 +48,8 @@ import jakarta.xml.bind.annotation.XmlTransient;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Class Security.
@@ -74,7 +77,8 @@ import java.util.Set;
             @Index(name = "idx_security_username", columnList = "username"),
             @Index(name = "idx_security_groupname", columnList = "groupname")
         })
-// @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "gs_security")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "gs_security")
 @XmlRootElement(name = "Security")
 public class SecurityRule implements Serializable {
 
@@ -28,6 +28,7 @@
  */
 package it.geosolutions.geostore.core.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Convert;
@@ -44,6 +45,8 @@ import jakarta.xml.bind.annotation.XmlTransient;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Class Group.
@@ -55,7 +58,8 @@ import java.util.List;
         name = "gs_usergroup",
         uniqueConstraints = {@UniqueConstraint(columnNames = {"groupName"})},
         indexes = {@Index(name = "idx_usergroup_name", columnList = "groupName")})
-// @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "gs_usergroup")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "gs_usergroup")
 @XmlRootElement(name = "UserGroup")
 public class UserGroup implements Serializable {
 
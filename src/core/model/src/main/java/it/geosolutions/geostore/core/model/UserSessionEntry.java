@@ -0,0 +1,135 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.core.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * A user session stored in the database, so that it is shared by all the GeoStore instances using
+ * the same database.
+ *
+ * <p>The user the session belongs to is kept as an opaque snapshot, written and read by the session
+ * service.
+ */
+@Entity(name = "UserSessionEntry")
+@Table(
+        name = "gs_user_session",
+        indexes = {@Index(name = "idx_user_session_expiration", columnList = "expiration")})
+public class UserSessionEntry implements Serializable {
+
+    private static final long serialVersionUID = -2437402127375416262L;
+
+    @Id
+    @Column(name = "id", length = 64)
+    private String id;
+
+    @Column(name = "refresh_token", length = 64)
+    private String refreshToken;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "user_name", length = 255)
+    private String userName;
+
+    @Column(name = "user_data", nullable = false, length = 1_000_000)
+    private String userData;
+
+    /** The expiration time, null for sessions that never expire */
+    @Column(name = "expiration")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date expiration;
+
+    /** Seconds a refresh of the session extends it by */
+    @Column(name = "expiration_interval", nullable = false)
+    private long expirationInterval;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public String getUserData() {
+        return userData;
+    }
+
+    public void setUserData(String userData) {
+        this.userData = userData;
+    }
+
+    public Date getExpiration() {
+        return expiration;
+    }
+
+    public void setExpiration(Date expiration) {
+        this.expiration = expiration;
+    }
+
+    public long getExpirationInterval() {
+        return expirationInterval;
+    }
+
+    public void setExpirationInterval(long expirationInterval) {
+        this.expirationInterval = expirationInterval;
+    }
+}
@@ -43,4 +43,13 @@ public interface CategoryDAO extends RestrictedGenericDAO<Category> {
      * @return
      */
     List<SecurityRule> findGroupSecurityRule(List<String> groupNames, long categoryId);
+
+    /**
+     * Looks a category up by name. The query is cached when the second-level query cache is
+     * enabled.
+     *
+     * @param name
+     * @return the category, or null if not found
+     */
+    Category findByName(String name);
 }
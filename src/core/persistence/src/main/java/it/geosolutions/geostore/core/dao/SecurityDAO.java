@@ -22,6 +22,7 @@ package it.geosolutions.geostore.core.dao;
 import com.googlecode.genericdao.search.Search;
 import it.geosolutions.geostore.core.model.SecurityRule;
 import it.geosolutions.geostore.core.model.User;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -55,4 +56,29 @@ public interface SecurityDAO extends RestrictedGenericDAO<SecurityRule> {
      * @return List<SecurityRule>
      */
     List<SecurityRule> findResourceSecurityRules(long resourceId);
+
+    /**
+     * Loads the rules of several resources with a single query.
+     *
+     * @param resourceIds
+     * @return List<SecurityRule>
+     */
+    List<SecurityRule> findResourcesSecurityRules(Collection<Long> resourceIds);
+
+    /** @return true if the security rules are projected into the ACL used to filter resources */
+    boolean isAclProjectionEnabled();
+
+    /**
+     * Rebuilds the ACL projection of the security rules used to filter the resources, when it is
+     * enabled.
+     *
+     * @return the number of projected rules
+     */
+    long rebuildAclProjection();
+
+    /**
+     * Rebuilds the ACL projection of the security rules if it is enabled but still empty, e.g. the
+     * first time it is enabled on an existing database.
+     */
+    void initAclProjection();
 }
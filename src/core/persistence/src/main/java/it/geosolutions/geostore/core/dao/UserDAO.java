@@ -19,11 +19,63 @@
  */
 package it.geosolutions.geostore.core.dao;
 
+import com.googlecode.genericdao.search.Filter;
+import com.googlecode.genericdao.search.Search;
 import it.geosolutions.geostore.core.model.User;
+import it.geosolutions.geostore.core.model.UserGroup;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Interface UserDAO.
  *
  * @author Tobia di Pisa (tobia.dipisa at geo-solutions.it)
  */
-public interface UserDAO extends RestrictedGenericDAO<User> {}
+public interface UserDAO extends RestrictedGenericDAO<User> {
+
+    /**
+     * Finds the members of several groups. The default implementation runs a search per group,
+     * implementations backed by a database load all the memberships with a single query.
+     *
+     * @param groups the groups
+     * @param full if <code>false</code> the members may be projections holding only their id, name
+     *     and role
+     * @return the members of each group, keyed by group id; groups without members may be missing
+     */
+    default Map<Long, List<User>> findGroupMembers(Collection<UserGroup> groups, boolean full) {
+        Map<Long, List<User>> members = new HashMap<>();
+        for (UserGroup group : groups) {
+            members.put(group.getId(), search(groupMembersSearch(group)));
+        }
+        return members;
+    }
+
+    /**
+     * Counts the members of several groups.
+     *
+     * @param groups the groups
+     * @return the number of members of each group, keyed by group id; groups without members may be
+     *     missing
+     */
+    default Map<Long, Long> countGroupMembers(Collection<UserGroup> groups) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (UserGroup group : groups) {
+            counts.put(group.getId(), (long) count(groupMembersSearch(group)));
+        }
+        return counts;
+    }
+
+    private static Search groupMembersSearch(UserGroup group) {
+        Search search = new Search(User.class);
+        // preferred search is by group name, revert back to id based search for compatibility
+        // if name is not present
+        if (group.getGroupName() != null) {
+            search.addFilterSome("groups", Filter.equal("groupName", group.getGroupName()));
+        } else {
+            search.addFilterSome("groups", Filter.equal("id", group.getId()));
+        }
+        return search;
+    }
+}
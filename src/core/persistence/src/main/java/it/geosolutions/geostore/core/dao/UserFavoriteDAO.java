@@ -21,10 +21,14 @@ package it.geosolutions.geostore.core.dao;
 
 import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.model.UserFavorite;
+import java.util.Collection;
 import java.util.List;
 
 public interface UserFavoriteDAO extends RestrictedGenericDAO<UserFavorite> {
     List<UserFavorite> findByResourceId(Long resourceId);
 
     List<UserFavorite> findByUser(User user);
+
+    /** Loads the favorites of a user among the given resources with a single query. */
+    List<UserFavorite> findByUserAndResourceIds(User user, Collection<Long> resourceIds);
 }
@@ -0,0 +1,60 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.core.dao;
+
+import it.geosolutions.geostore.core.model.UserSessionEntry;
+import java.util.Date;
+import java.util.Map;
+
+/** DAO of the user sessions stored in the database. */
+public interface UserSessionDAO {
+
+    UserSessionEntry find(String sessionId);
+
+    void persist(UserSessionEntry session);
+
+    boolean removeById(String sessionId);
+
+    /** @return the number of removed sessions */
+    int removeAll();
+
+    /**
+     * Removes the sessions expired before the given time.
+     *
+     * @return the number of removed sessions
+     */
+    int removeExpired(Date now);
+
+    /**
+     * Extends the expiration of the given sessions, in a single transaction. A session is never
+     * shortened: sessions already extended further (e.g. by another instance) are left untouched.
+     *
+     * @param expirations the new expiration of each session, by session id
+     */
+    void updateExpirations(Map<String, Date> expirations);
+}
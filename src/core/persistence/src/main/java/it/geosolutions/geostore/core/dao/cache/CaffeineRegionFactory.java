@@ -0,0 +1,178 @@
+/*
+ *  Copyright (C) 2026 GeoSolutions S.A.S.
+ *  http://www.geo-solutions.it
+ *
+ *  GPLv3 + Classpath exception
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.geosolutions.geostore.core.dao.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * Hibernate second-level cache {@link org.hibernate.cache.spi.RegionFactory} keeping each region in
+ * a bounded, time limited Caffeine cache.
+ *
+ * <p>The factory is a Spring bean handed to Hibernate through the {@code
+ * hibernate.cache.region.factory_class} setting, so that the size and expiration of the regions can
+ * be configured through the {@code geostore-datasource-ovr.properties} file, e.g.:
+ *
+ * <pre>
+ * geostoreEntityManagerFactory.jpaPropertyMap[hibernate.cache.use_second_level_cache]=true
+ * geostoreEntityManagerFactory.jpaPropertyMap[hibernate.cache.use_query_cache]=true
+ * geostoreCacheRegionFactory.defaultMaximumSize=10000
+ * geostoreCacheRegionFactory.regionMaximumSize[gs_security]=50000
+ * geostoreCacheRegionFactory.regionExpireAfterWriteSeconds[gs_category]=3600
+ * </pre>
+ *
+ * The update timestamps region is never bounded nor expired, since losing one of its entries would
+ * let the query cache return stale results.
+ */
+public class CaffeineRegionFactory extends RegionFactoryTemplate {
+
+    private static final Logger LOGGER = LogManager.getLogger(CaffeineRegionFactory.class);
+
+    private final Map<String, CaffeineStorageAccess> regions = new ConcurrentHashMap<>();
+
+    private volatile boolean active;
+
+    private volatile long defaultMaximumSize = 10000;
+
+    private volatile long defaultExpireAfterWriteSeconds = 600;
+
+    private Map<String, Long> regionMaximumSize = new HashMap<>();
+
+    private Map<String, Long> regionExpireAfterWriteSeconds = new HashMap<>();
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        active = true;
+        LOGGER.info(
+                "Starting second-level cache (default maximum size: {}, default expiration: {}s)",
+                defaultMaximumSize,
+                defaultExpireAfterWriteSeconds);
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        active = false;
+        regions.values().forEach(CaffeineStorageAccess::release);
+        regions.clear();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(
+            DomainDataRegionConfig regionConfig, DomainDataRegionBuildingContext buildingContext) {
+        return createStorageAccess(regionConfig.getRegionName(), true);
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(
+            String regionName, SessionFactoryImplementor sessionFactory) {
+        return createStorageAccess(regionName, true);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(
+            String regionName, SessionFactoryImplementor sessionFactory) {
+        return createStorageAccess(regionName, false);
+    }
+
+    private CaffeineStorageAccess createStorageAccess(String regionName, boolean bounded) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (bounded) {
+            long maximumSize = regionMaximumSize.getOrDefault(regionName, defaultMaximumSize);
+            long expireAfterWrite =
+                    regionExpireAfterWriteSeconds.getOrDefault(
+                            regionName, defaultExpireAfterWriteSeconds);
+            builder.maximumSize(maximumSize);
+            if (expireAfterWrite > 0) {
+                builder.expireAfterWrite(expireAfterWrite, TimeUnit.SECONDS);
+            }
+            LOGGER.debug(
+                    "Creating cache region '{}' (maximum size: {}, expiration: {}s)",
+                    regionName,
+                    maximumSize,
+                    expireAfterWrite);
+        }
+
+        Cache<Object, Object> cache = builder.build();
+        CaffeineStorageAccess storageAccess = new CaffeineStorageAccess(regionName, cache);
+        regions.put(regionName, storageAccess);
+        return storageAccess;
+    }
+
+    /** @return the regions created so far, with their statistics */
+    public Collection<CaffeineStorageAccess> getRegions() {
+        List<CaffeineStorageAccess> result = new ArrayList<>(regions.values());
+        result.sort((r1, r2) -> r1.getRegionName().compareTo(r2.getRegionName()));
+        return result;
+    }
+
+    /** @return true if Hibernate started this factory, i.e. if the second-level cache is enabled */
+    public boolean isActive() {
+        return active;
+    }
+
+    public long getDefaultMaximumSize() {
+        return defaultMaximumSize;
+    }
+
+    public void setDefaultMaximumSize(long defaultMaximumSize) {
+        this.defaultMaximumSize = defaultMaximumSize;
+    }
+
+    public long getDefaultExpireAfterWriteSeconds() {
+        return defaultExpireAfterWriteSeconds;
+    }
+
+    /** @param defaultExpireAfterWriteSeconds expiration of the entries, 0 to never expire them */
+    public void setDefaultExpireAfterWriteSeconds(long defaultExpireAfterWriteSeconds) {
+        this.defaultExpireAfterWriteSeconds = defaultExpireAfterWriteSeconds;
+    }
+
+    public Map<String, Long> getRegionMaximumSize() {
+        return regionMaximumSize;
+    }
+
+    public void setRegionMaximumSize(Map<String, Long> regionMaximumSize) {
+        this.regionMaximumSize = regionMaximumSize;
+    }
+
+    public Map<String, Long> getRegionExpireAfterWriteSeconds() {
+        return regionExpireAfterWriteSeconds;
+    }
+
+    public void setRegionExpireAfterWriteSeconds(Map<String, Long> regionExpireAfterWriteSeconds) {
+        this.regionExpireAfterWriteSeconds = regionExpireAfterWriteSeconds;
+    }
+}
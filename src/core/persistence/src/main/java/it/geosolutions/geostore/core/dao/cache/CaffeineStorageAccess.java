@@ -0,0 +1,90 @@
+/*
+ *  Copyright (C) 2026 GeoSolutions S.A.S.
+ *  http://www.geo-solutions.it
+ *
+ *  GPLv3 + Classpath exception
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.geosolutions.geostore.core.dao.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Storage of a single second-level cache region, backed by a Caffeine {@link Cache}.
+ *
+ * @see CaffeineRegionFactory
+ */
+public class CaffeineStorageAccess implements DomainDataStorageAccess {
+
+    private final String regionName;
+
+    private final Cache<Object, Object> cache;
+
+    CaffeineStorageAccess(String regionName, Cache<Object, Object> cache) {
+        this.regionName = regionName;
+        this.cache = cache;
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return cache.asMap().containsKey(key);
+    }
+
+    @Override
+    public void evictData() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void evictData(Object key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void release() {
+        cache.invalidateAll();
+        cache.cleanUp();
+    }
+
+    /** @return the name of the region */
+    public String getRegionName() {
+        return regionName;
+    }
+
+    /** @return the approximate number of entries held by the region */
+    public long getSize() {
+        // run the pending evictions, so that the reported size honours the region bounds
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    /** @return hit, miss and eviction counts of the region */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+}
@@ -28,6 +28,7 @@ import it.geosolutions.geostore.core.model.SecurityRule;
 import java.util.List;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -106,6 +107,16 @@ public class CategoryDAOImpl extends BaseDAO<Category, Long> implements Category
         return super.removeById(id);
     }
 
+    @Override
+    public Category findByName(String name) {
+        List<Category> categories =
+                em().createQuery("from Category c where c.name = :name", Category.class)
+                        .setParameter("name", name)
+                        .setHint(HibernateHints.HINT_CACHEABLE, true)
+                        .getResultList();
+        return categories.isEmpty() ? null : categories.get(0);
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -22,11 +22,13 @@ package it.geosolutions.geostore.core.dao.impl;
 import com.googlecode.genericdao.search.Filter;
 import com.googlecode.genericdao.search.ISearch;
 import com.googlecode.genericdao.search.Search;
+import it.geosolutions.geostore.core.model.ResourceAcl;
 import it.geosolutions.geostore.core.model.SecurityRule;
 import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.model.UserGroup;
 import it.geosolutions.geostore.core.model.enums.Role;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -97,6 +99,18 @@ public class ExternalSecurityDAOImpl extends SecurityDAOImpl {
             return;
         }
 
+        if (isAclProjectionEnabled()) {
+            List<String> principals = new ArrayList<>();
+            principals.add(ResourceAcl.userKey(user.getName()));
+            if (user.getGroups() != null) {
+                for (UserGroup group : user.getGroups()) {
+                    principals.add(ResourceAcl.groupNameKey(group.getGroupName()));
+                }
+            }
+            addAclConstraints(searchCriteria, Filter.in("principal", principals));
+            return;
+        }
+
         Filter userFiltering = Filter.equal("username", user.getName());
 
         if (user.getGroups() != null && !user.getGroups().isEmpty()) {
@@ -141,6 +155,11 @@ public class ExternalSecurityDAOImpl extends SecurityDAOImpl {
         return fillFromNames(super.findResourceSecurityRules(resourceId));
     }
 
+    @Override
+    public List<SecurityRule> findResourcesSecurityRules(Collection<Long> resourceIds) {
+        return fillFromNames(super.findResourcesSecurityRules(resourceIds));
+    }
+
     /* (non-Javadoc)
      * @see it.geosolutions.geostore.core.dao.ResourceDAO#findGroupSecurityRule(java.lang.String, long)
      */
@@ -22,6 +22,7 @@ package it.geosolutions.geostore.core.dao.impl;
 
 import com.googlecode.genericdao.search.ISearch;
 import it.geosolutions.geostore.core.dao.IpRangeDAO;
+import it.geosolutions.geostore.core.dao.SecurityDAO;
 import it.geosolutions.geostore.core.model.IPRange;
 import java.util.List;
 import org.apache.logging.log4j.LogManager;
@@ -33,6 +34,10 @@ public class IpRangeDAOImpl extends BaseDAO<IPRange, Long> implements IpRangeDAO
 
     private static final Logger LOGGER = LogManager.getLogger(IpRangeDAOImpl.class);
 
+    private SecurityDAO securityDAO;
+
+    private SecurityDAO externalSecurityDAO;
+
     @Override
     public void persist(IPRange... entities) {
         if (LOGGER.isDebugEnabled()) {
@@ -55,7 +60,19 @@ public class IpRangeDAOImpl extends BaseDAO<IPRange, Long> implements IpRangeDAO
 
     @Override
     public IPRange merge(IPRange entity) {
-        return super.merge(entity);
+        IPRange merged = super.merge(entity);
+        if (!isAclProjectionEnabled()) {
+            return merged;
+        }
+        // keep the bounds copied into the ACL projection of the security rules aligned
+        em().createQuery(
+                        "update ResourceAcl a set a.ipLow = :ipLow, a.ipHigh = :ipHigh"
+                                + " where a.ipRange.id = :id")
+                .setParameter("ipLow", merged.getIpLow())
+                .setParameter("ipHigh", merged.getIpHigh())
+                .setParameter("id", merged.getId())
+                .executeUpdate();
+        return merged;
     }
 
     @Override
@@ -72,4 +89,18 @@ public class IpRangeDAOImpl extends BaseDAO<IPRange, Long> implements IpRangeDAO
     public int count(ISearch search) {
         return super.count(search);
     }
+
+    /** @return true if one of the security DAOs projects the rules into the ACL */
+    private boolean isAclProjectionEnabled() {
+        return (securityDAO != null && securityDAO.isAclProjectionEnabled())
+                || (externalSecurityDAO != null && externalSecurityDAO.isAclProjectionEnabled());
+    }
+
+    public void setSecurityDAO(SecurityDAO securityDAO) {
+        this.securityDAO = securityDAO;
+    }
+
+    public void setExternalSecurityDAO(SecurityDAO externalSecurityDAO) {
+        this.externalSecurityDAO = externalSecurityDAO;
+    }
 }
@@ -25,13 +25,16 @@ import com.googlecode.genericdao.search.Search;
 import it.geosolutions.geostore.core.dao.ResourceDAO;
 import it.geosolutions.geostore.core.dao.SecurityDAO;
 import it.geosolutions.geostore.core.dao.UserGroupDAO;
+import it.geosolutions.geostore.core.model.IPRange;
 import it.geosolutions.geostore.core.model.Resource;
+import it.geosolutions.geostore.core.model.ResourceAcl;
 import it.geosolutions.geostore.core.model.SecurityRule;
 import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.model.UserGroup;
 import it.geosolutions.geostore.core.model.enums.Role;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -52,6 +55,14 @@ public class SecurityDAOImpl extends BaseDAO<SecurityRule, Long> implements Secu
 
     private ResourceDAO resourceDAO;
 
+    /**
+     * When enabled, the security rules are projected into {@link ResourceAcl} entries, which are
+     * used to filter the resources instead of the security rules.
+     */
+    private boolean aclProjectionEnabled = false;
+
+    private int aclRebuildPageSize = 1000;
+
     /*
      * (non-Javadoc)
      *
@@ -67,6 +78,11 @@ public class SecurityDAOImpl extends BaseDAO<SecurityRule, Long> implements Secu
             updateResourceCreatorIfEmpty(rule);
         }
         super.persist(entities);
+        if (aclProjectionEnabled) {
+            for (SecurityRule rule : entities) {
+                projectRule(rule);
+            }
+        }
     }
 
     protected void validateGroup(SecurityRule rule) throws InternalError {
@@ -122,7 +138,12 @@ public class SecurityDAOImpl extends BaseDAO<SecurityRule, Long> implements Secu
      */
     @Override
     public SecurityRule merge(SecurityRule entity) {
-        return super.merge(entity);
+        SecurityRule merged = super.merge(entity);
+        if (aclProjectionEnabled) {
+            removeRuleProjection(merged.getId());
+            projectRule(merged);
+        }
+        return merged;
     }
 
     /*
@@ -132,6 +153,10 @@ public class SecurityDAOImpl extends BaseDAO<SecurityRule, Long> implements Secu
      */
     @Override
     public boolean remove(SecurityRule entity) {
+        if (aclProjectionEnabled) {
+            // entries are also removed by the database, this keeps the session consistent
+            removeRuleProjection(entity.getId());
+        }
         return super.remove(entity);
     }
 
@@ -142,6 +167,9 @@ public class SecurityDAOImpl extends BaseDAO<SecurityRule, Long> implements Secu
      */
     @Override
     public boolean removeById(Long id) {
+        if (aclProjectionEnabled) {
+            removeRuleProjection(id);
+        }
         return super.removeById(id);
     }
 
@@ -152,6 +180,17 @@ public class SecurityDAOImpl extends BaseDAO<SecurityRule, Long> implements Secu
             return;
         }
 
+        if (aclProjectionEnabled) {
+            List<String> principals = getUserPrincipals(user);
+            if (user.getGroups() != null) {
+                for (UserGroup group : user.getGroups()) {
+                    principals.add(ResourceAcl.groupKey(group.getId()));
+                }
+            }
+            addAclConstraints(searchCriteria, Filter.in("principal", principals));
+            return;
+        }
+
         // User filtering based on user and groups
         Filter userFiltering =
                 Filter.or(
@@ -182,6 +221,11 @@ public class SecurityDAOImpl extends BaseDAO<SecurityRule, Long> implements Secu
             return;
         }
 
+        if (aclProjectionEnabled) {
+            addAclConstraints(searchCriteria, createAclOwnershipFilter(user, true), user);
+            return;
+        }
+
         Filter securityFilter = createOwnershipFilter(user);
 
         if (user.getIpAddress() != null) {
@@ -230,6 +274,175 @@ public class SecurityDAOImpl extends BaseDAO<SecurityRule, Long> implements Secu
                         Filter.greaterOrEqual("ipHigh", decimalIPAddress)));
     }
 
+    /**
+     * Creates the filter on the {@link ResourceAcl} entries granted to the user or, for advertised
+     * resources, to one of the user groups.
+     *
+     * @param matchGroupIds whether the groups should be matched by id as well as by name
+     */
+    protected Filter createAclOwnershipFilter(User user, boolean matchGroupIds) {
+        Filter ownershipFilter = Filter.in("principal", getUserPrincipals(user));
+
+        if (user.getGroups() != null && !user.getGroups().isEmpty()) {
+            List<String> groupPrincipals = new ArrayList<>();
+            for (UserGroup group : user.getGroups()) {
+                if (matchGroupIds && group.getId() != null) {
+                    groupPrincipals.add(ResourceAcl.groupKey(group.getId()));
+                }
+                if (group.getGroupName() != null) {
+                    groupPrincipals.add(ResourceAcl.groupNameKey(group.getGroupName()));
+                }
+            }
+            ownershipFilter =
+                    Filter.or(
+                            ownershipFilter,
+                            Filter.and(
+                                    Filter.in("principal", groupPrincipals),
+                                    Filter.equal("resource.advertised", true)));
+        }
+        return ownershipFilter;
+    }
+
+    /** @return the principal keys matching the user by id and by name */
+    private List<String> getUserPrincipals(User user) {
+        List<String> principals = new ArrayList<>();
+        if (user.getId() != null) {
+            principals.add(ResourceAcl.userIdKey(user.getId()));
+        }
+        principals.add(ResourceAcl.userKey(user.getName()));
+        return principals;
+    }
+
+    /** Filters the resources having a readable {@link ResourceAcl} entry matching the filter. */
+    protected void addAclConstraints(Search searchCriteria, Filter principalFilter) {
+        searchCriteria.addFilter(
+                Filter.some("acl", Filter.and(Filter.equal("canRead", true), principalFilter)));
+    }
+
+    /**
+     * Filters the resources having a readable {@link ResourceAcl} entry matching the filter or the
+     * IP address of the user.
+     */
+    protected void addAclConstraints(Search searchCriteria, Filter principalFilter, User user) {
+        Filter aclFilter = principalFilter;
+        if (user.getIpAddress() != null) {
+            BigInteger decimalIPAddress = user.getIpAddress().getValue();
+            aclFilter =
+                    Filter.or(
+                            aclFilter,
+                            Filter.and(
+                                    Filter.lessOrEqual("ipLow", decimalIPAddress),
+                                    Filter.greaterOrEqual("ipHigh", decimalIPAddress)));
+        }
+        addAclConstraints(searchCriteria, aclFilter);
+    }
+
+    /** Adds the {@link ResourceAcl} entries of a persisted rule. */
+    private void projectRule(SecurityRule rule) {
+        if (rule.getResource() == null || rule.getId() == null) {
+            return;
+        }
+        for (String principal : getPrincipals(rule)) {
+            em().persist(new ResourceAcl(rule, principal));
+        }
+        if (rule.getIpRanges() != null) {
+            for (IPRange ipRange : rule.getIpRanges()) {
+                IPRange managed = ipRange;
+                if (ipRange.getIpLow() == null || ipRange.getIpHigh() == null) {
+                    managed = em().find(IPRange.class, ipRange.getId());
+                }
+                if (managed != null) {
+                    em().persist(new ResourceAcl(rule, managed));
+                }
+            }
+        }
+    }
+
+    private List<String> getPrincipals(SecurityRule rule) {
+        List<String> principals = new ArrayList<>();
+        if (rule.getUser() != null && rule.getUser().getId() != null) {
+            principals.add(ResourceAcl.userIdKey(rule.getUser().getId()));
+        }
+        if (rule.getUsername() != null) {
+            principals.add(ResourceAcl.userKey(rule.getUsername()));
+        }
+        if (rule.getGroup() != null && rule.getGroup().getId() != null) {
+            principals.add(ResourceAcl.groupKey(rule.getGroup().getId()));
+        }
+        if (rule.getGroupname() != null) {
+            principals.add(ResourceAcl.groupNameKey(rule.getGroupname()));
+        }
+        return principals;
+    }
+
+    private void removeRuleProjection(Long ruleId) {
+        if (ruleId != null) {
+            em().createQuery("delete from ResourceAcl a where a.rule.id = :ruleId")
+                    .setParameter("ruleId", ruleId)
+                    .executeUpdate();
+        }
+    }
+
+    @Override
+    public long rebuildAclProjection() {
+        if (!aclProjectionEnabled) {
+            return 0;
+        }
+        LOGGER.info("Rebuilding the ACL projection of the security rules");
+        em().createQuery("delete from ResourceAcl").executeUpdate();
+        long projected = 0;
+        Long lastId = 0L;
+        while (true) {
+            List<Long> ids =
+                    em().createQuery(
+                                    "select r.id from Security r where r.id > :lastId"
+                                            + " and r.resource is not null order by r.id",
+                                    Long.class)
+                            .setParameter("lastId", lastId)
+                            .setMaxResults(aclRebuildPageSize)
+                            .getResultList();
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<SecurityRule> rules =
+                    em().createQuery(
+                                    "select distinct r from Security r left join fetch r.user"
+                                            + " left join fetch r.ipRanges where r.id in :ids",
+                                    SecurityRule.class)
+                            .setParameter("ids", ids)
+                            .getResultList();
+            for (SecurityRule rule : rules) {
+                projectRule(rule);
+            }
+            projected += rules.size();
+            lastId = ids.get(ids.size() - 1);
+            em().flush();
+            em().clear();
+        }
+        LOGGER.info("Projected {} security rules into the ACL", projected);
+        return projected;
+    }
+
+    @Override
+    public void initAclProjection() {
+        if (!aclProjectionEnabled) {
+            return;
+        }
+        Long entries =
+                em().createQuery("select count(a) from ResourceAcl a", Long.class)
+                        .getSingleResult();
+        // projections written before the user rules were keyed by id must be rebuilt as well
+        Long nameKeyedUserEntries =
+                em().createQuery(
+                                "select count(a) from ResourceAcl a where a.principal like 'u:%'"
+                                        + " and a.rule.user is not null and a.rule.username is null",
+                                Long.class)
+                        .getSingleResult();
+        if (entries == 0 || nameKeyedUserEntries > 0) {
+            rebuildAclProjection();
+        }
+    }
+
     /**
      * @param userName
      * @param resourceId
@@ -275,6 +488,27 @@ public class SecurityDAOImpl extends BaseDAO<SecurityRule, Long> implements Secu
         return super.search(searchCriteria);
     }
 
+    /**
+     * @param resourceIds
+     * @return List<SecurityRule>
+     */
+    @Override
+    public List<SecurityRule> findResourcesSecurityRules(Collection<Long> resourceIds) {
+        if (resourceIds == null || resourceIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Search searchCriteria = new Search(SecurityRule.class);
+
+        searchCriteria.addFilterIn("resource.id", resourceIds);
+
+        searchCriteria.addFetch("ipRanges");
+
+        searchCriteria.setDistinct(true);
+
+        return super.search(searchCriteria);
+    }
+
     @Override
     public List<SecurityRule> findGroupSecurityRule(List<String> groupNames, long resourceId) {
         List<SecurityRule> rules = findResourceSecurityRules(resourceId);
@@ -303,4 +537,21 @@ public class SecurityDAOImpl extends BaseDAO<SecurityRule, Long> implements Secu
     public void setResourceDAO(ResourceDAO resourceDAO) {
         this.resourceDAO = resourceDAO;
     }
+
+    @Override
+    public boolean isAclProjectionEnabled() {
+        return aclProjectionEnabled;
+    }
+
+    public void setAclProjectionEnabled(boolean aclProjectionEnabled) {
+        this.aclProjectionEnabled = aclProjectionEnabled;
+    }
+
+    public int getAclRebuildPageSize() {
+        return aclRebuildPageSize;
+    }
+
+    public void setAclRebuildPageSize(int aclRebuildPageSize) {
+        this.aclRebuildPageSize = aclRebuildPageSize;
+    }
 }
@@ -24,8 +24,13 @@ import it.geosolutions.geostore.core.dao.UserDAO;
 import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.model.UserAttribute;
 import it.geosolutions.geostore.core.model.UserGroup;
+import it.geosolutions.geostore.core.model.enums.Role;
 import it.geosolutions.geostore.core.security.password.PwEncoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -43,6 +48,8 @@ public class UserDAOImpl extends BaseDAO<User, Long> implements UserDAO {
 
     private static final Logger LOGGER = LogManager.getLogger(UserDAOImpl.class);
 
+    private static final int MEMBERSHIP_QUERY_BATCH = 500;
+
     /*
      * (non-Javadoc)
      *
@@ -146,6 +153,92 @@ public class UserDAOImpl extends BaseDAO<User, Long> implements UserDAO {
         return user;
     }
 
+    /**
+     * Loads the members of all the given groups with one query per {@value #MEMBERSHIP_QUERY_BATCH}
+     * groups: either id/name/role projections of the members, or the members with their groups
+     * fetched in the same query.
+     */
+    @Override
+    public Map<Long, List<User>> findGroupMembers(Collection<UserGroup> groups, boolean full) {
+        Map<Long, List<User>> members = new HashMap<>();
+        for (List<Long> ids : groupIdBatches(groups)) {
+            if (full) {
+                List<User> users =
+                        em().createQuery(
+                                        "select distinct u from User u left join fetch u.groups"
+                                                + " where u.id in (select m.id from User m"
+                                                + " join m.groups mg where mg.id in :ids)"
+                                                + " order by u.name",
+                                        User.class)
+                                .setParameter("ids", ids)
+                                .getResultList();
+                for (User user : users) {
+                    for (UserGroup group : user.getGroups()) {
+                        if (ids.contains(group.getId())) {
+                            members.computeIfAbsent(group.getId(), k -> new ArrayList<>())
+                                    .add(user);
+                        }
+                    }
+                }
+            } else {
+                List<Object[]> rows =
+                        em().createQuery(
+                                        "select g.id, u.id, u.name, u.role from User u"
+                                                + " join u.groups g where g.id in :ids"
+                                                + " order by u.name",
+                                        Object[].class)
+                                .setParameter("ids", ids)
+                                .getResultList();
+                for (Object[] row : rows) {
+                    User user = new User();
+                    user.setId((Long) row[1]);
+                    user.setName((String) row[2]);
+                    user.setRole((Role) row[3]);
+                    members.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add(user);
+                }
+            }
+        }
+        return members;
+    }
+
+    @Override
+    public Map<Long, Long> countGroupMembers(Collection<UserGroup> groups) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (List<Long> ids : groupIdBatches(groups)) {
+            List<Object[]> rows =
+                    em().createQuery(
+                                    "select g.id, count(u.id) from User u join u.groups g"
+                                            + " where g.id in :ids group by g.id",
+                                    Object[].class)
+                            .setParameter("ids", ids)
+                            .getResultList();
+            for (Object[] row : rows) {
+                counts.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+        }
+        return counts;
+    }
+
+    // keeps the IN lists within the limits of all the supported databases
+    private static List<List<Long>> groupIdBatches(Collection<UserGroup> groups) {
+        List<List<Long>> batches = new ArrayList<>();
+        List<Long> batch = new ArrayList<>();
+        for (UserGroup group : groups) {
+            if (group.getId() == null) {
+                continue;
+            }
+            if (batch.size() == MEMBERSHIP_QUERY_BATCH) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+            }
+            batch.add(group.getId());
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -26,6 +26,8 @@ import com.googlecode.genericdao.search.Search;
 import it.geosolutions.geostore.core.dao.UserFavoriteDAO;
 import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.model.UserFavorite;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -88,4 +90,21 @@ public class UserFavoriteDAOImpl extends BaseDAO<UserFavorite, Long> implements
 
         return super.search(searchCriteria);
     }
+
+    @Override
+    public List<UserFavorite> findByUserAndResourceIds(User user, Collection<Long> resourceIds) {
+        if (resourceIds == null || resourceIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Search searchCriteria =
+                new Search(UserFavorite.class)
+                        .addFilterIn("resource.id", resourceIds)
+                        .addFilter(
+                                Filter.or(
+                                        Filter.equal("user.id", user.getId()),
+                                        Filter.equal("username", user.getName())));
+
+        return super.search(searchCriteria);
+    }
 }
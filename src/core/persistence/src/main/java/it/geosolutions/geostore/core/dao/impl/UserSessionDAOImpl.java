@@ -0,0 +1,94 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.core.dao.impl;
+
+import it.geosolutions.geostore.core.dao.UserSessionDAO;
+import it.geosolutions.geostore.core.model.UserSessionEntry;
+import jakarta.persistence.Query;
+import java.util.Date;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.transaction.annotation.Transactional;
+
+@Transactional(value = "geostoreTransactionManager")
+public class UserSessionDAOImpl extends BaseDAO<UserSessionEntry, String>
+        implements UserSessionDAO {
+
+    private static final Logger LOGGER = LogManager.getLogger(UserSessionDAOImpl.class);
+
+    @Override
+    public UserSessionEntry find(String sessionId) {
+        return super.find(sessionId);
+    }
+
+    @Override
+    public void persist(UserSessionEntry session) {
+        super.persist(session);
+    }
+
+    @Override
+    public boolean removeById(String sessionId) {
+        return em().createQuery("delete from UserSessionEntry s where s.id = :id")
+                        .setParameter("id", sessionId)
+                        .executeUpdate()
+                > 0;
+    }
+
+    @Override
+    public int removeAll() {
+        return em().createQuery("delete from UserSessionEntry").executeUpdate();
+    }
+
+    @Override
+    public int removeExpired(Date now) {
+        return em().createQuery("delete from UserSessionEntry s where s.expiration < :now")
+                .setParameter("now", now)
+                .executeUpdate();
+    }
+
+    @Override
+    public void updateExpirations(Map<String, Date> expirations) {
+        if (expirations.isEmpty()) {
+            return;
+        }
+        // mapped statement, so that the table is qualified with the configured default schema
+        Query query =
+                em().createQuery(
+                                "update UserSessionEntry s set s.expiration = :expiration"
+                                        + " where s.id = :id and s.expiration < :expiration");
+        for (Map.Entry<String, Date> entry : expirations.entrySet()) {
+            query.setParameter("expiration", entry.getValue())
+                    .setParameter("id", entry.getKey())
+                    .executeUpdate();
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Extended the expiration of {} sessions", expirations.size());
+        }
+    }
+}
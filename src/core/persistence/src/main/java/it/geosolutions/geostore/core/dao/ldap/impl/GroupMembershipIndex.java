@@ -0,0 +1,118 @@
+/*
+ *  Copyright (C) 2026 GeoSolutions S.A.S.
+ *  http://www.geo-solutions.it
+ *
+ *  GPLv3 + Classpath exception
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.geosolutions.geostore.core.dao.ldap.impl;
+
+import it.geosolutions.geostore.core.model.UserGroup;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.naming.InvalidNameException;
+import javax.naming.ldap.LdapName;
+
+/**
+ * In memory index of the LDAP groups, loaded with a single group search, that resolves the groups
+ * of a user without further LDAP requests.
+ *
+ * <p>Groups are indexed both by their DN, to resolve <code>memberOf</code> values, and by the
+ * values of their member attribute. DNs are compared the way the LDAP server does, ignoring case
+ * and spacing; other member values, such as plain user names, are compared ignoring case.
+ */
+class GroupMembershipIndex {
+
+    private final Map<Object, List<UserGroup>> byMember = new HashMap<>();
+
+    private final Map<Object, UserGroup> byDn = new HashMap<>();
+
+    private final long loadedAt = System.nanoTime();
+
+    private UserGroup everyoneGroup;
+
+    void addGroup(UserGroup group, String dn, String[] members) {
+        byDn.put(key(dn), group);
+        if (members != null) {
+            for (String member : members) {
+                byMember.computeIfAbsent(key(member), k -> new ArrayList<>()).add(group);
+            }
+        }
+    }
+
+    /** Sets a group every user belongs to, unless it is already one of its groups. */
+    void setEveryoneGroup(UserGroup everyoneGroup) {
+        this.everyoneGroup = everyoneGroup;
+    }
+
+    /**
+     * @param member the DN (or name) of a user, as stored in the group member attribute
+     * @return the groups having the given member
+     */
+    List<UserGroup> groupsOfMember(String member) {
+        return withEveryone(byMember.getOrDefault(key(member), Collections.emptyList()));
+    }
+
+    /**
+     * @param dns the DNs of the groups of a user, e.g. the values of its memberOf attribute
+     * @return the indexed groups with the given DNs
+     */
+    List<UserGroup> groupsByDn(String[] dns) {
+        List<UserGroup> groups = new ArrayList<>();
+        if (dns != null) {
+            for (String dn : dns) {
+                UserGroup group = byDn.get(key(dn));
+                if (group != null) {
+                    groups.add(group);
+                }
+            }
+        }
+        return withEveryone(groups);
+    }
+
+    boolean isOlderThan(long nanos) {
+        return System.nanoTime() - loadedAt >= nanos;
+    }
+
+    private List<UserGroup> withEveryone(List<UserGroup> groups) {
+        if (everyoneGroup == null) {
+            return groups;
+        }
+        for (UserGroup group : groups) {
+            if (everyoneGroup.getGroupName().equals(group.getGroupName())) {
+                return groups;
+            }
+        }
+        List<UserGroup> result = new ArrayList<>(groups);
+        result.add(everyoneGroup);
+        return result;
+    }
+
+    private static Object key(String value) {
+        if (value == null) {
+            return "";
+        }
+        try {
+            // LdapName equality ignores case and the spacing of the DN components
+            return new LdapName(value);
+        } catch (InvalidNameException | IllegalArgumentException e) {
+            return value.toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -22,18 +22,34 @@ package it.geosolutions.geostore.core.dao.ldap.impl;
 
 import com.googlecode.genericdao.search.Filter;
 import com.googlecode.genericdao.search.ISearch;
+import com.googlecode.genericdao.search.SearchUtil;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BooleanSupplier;
+import javax.naming.Binding;
+import javax.naming.NameClassPair;
+import javax.naming.NamingException;
 import javax.naming.directory.DirContext;
+import javax.naming.directory.SearchControls;
+import javax.naming.ldap.LdapContext;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.ldap.control.PagedResultsCookie;
+import org.springframework.ldap.control.PagedResultsDirContextProcessor;
 import org.springframework.ldap.control.SortControlDirContextProcessor;
+import org.springframework.ldap.core.ContextMapper;
 import org.springframework.ldap.core.ContextSource;
 import org.springframework.ldap.core.DirContextProcessor;
 import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.ldap.core.NameClassPairCallbackHandler;
+import org.springframework.ldap.core.support.AggregateDirContextProcessor;
+import org.springframework.ldap.core.support.CountNameClassPairCallbackHandler;
+import org.springframework.ldap.core.support.SingleContextSource;
+import org.springframework.ldap.pool2.DelegatingLdapContext;
+import org.springframework.ldap.support.LdapUtils;
 
 /**
  * Class LdapBaseDAOImpl. Base class for LDAP (read-only) based DAOs.
@@ -57,6 +73,7 @@ public abstract class LdapBaseDAOImpl {
     protected String nameAttribute = "cn";
     protected String descriptionAttribute = "description";
     protected boolean sortEnabled = false;
+    protected int pageSize = 500;
 
     protected ContextSource contextSource;
     protected LdapTemplate template;
@@ -144,6 +161,205 @@ public abstract class LdapBaseDAOImpl {
         this.sortEnabled = sortEnabled;
     }
 
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Size of the pages requested with the LDAP paged results control (RFC 2696), so that large
+     * result sets are not truncated by the server size limit, 0 to disable paging.
+     *
+     * @param pageSize
+     */
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Searches the entries matching the given filter, mapping only the ones in the page requested
+     * by the search (firstResult or page, and maxResults).
+     *
+     * <p>Entries are read from the server in pages, following the paged results cookie, and the
+     * search stops as soon as the requested page is complete.
+     *
+     * @param filter
+     * @param controls
+     * @param mapper
+     * @param search the search, providing sorting and paging, or null
+     * @return the collected page
+     */
+    protected <T> PageCollector<T> pagedSearch(
+            String filter, SearchControls controls, ContextMapper<T> mapper, ISearch search) {
+        int firstResult = search != null ? SearchUtil.calcFirstResult(search) : 0;
+        int maxResults = search != null ? search.getMaxResults() : 0;
+        PageCollector<T> collector = new PageCollector<>(mapper, firstResult, maxResults);
+        // the mapper needs the entry object, which the server returns only when asked to (the
+        // LdapTemplate methods taking a ContextMapper set this flag as well)
+        controls.setReturningObjFlag(true);
+        DirContextProcessor processor =
+                search != null ? getProcessorForSearch(search) : new NullDirContextProcessor();
+        int size = maxResults > 0 ? Math.min(pageSize, firstResult + maxResults) : pageSize;
+        pagedLdapSearch(filter, controls, collector, processor, size, collector::isComplete);
+        return collector;
+    }
+
+    /**
+     * Counts the entries matching the given filter, without reading any of their attributes.
+     *
+     * @param filter
+     * @return the number of matching entries
+     */
+    protected int ldapCount(String filter) {
+        SearchControls controls = new SearchControls();
+        controls.setSearchScope(SearchControls.SUBTREE_SCOPE);
+        // "1.1" asks the server to return no attributes
+        controls.setReturningAttributes(new String[] {"1.1"});
+        CountNameClassPairCallbackHandler handler = new CountNameClassPairCallbackHandler();
+        pagedLdapSearch(
+                filter, controls, handler, new NullDirContextProcessor(), pageSize, () -> false);
+        return handler.getNoOfRows();
+    }
+
+    private void pagedLdapSearch(
+            String filter,
+            SearchControls controls,
+            NameClassPairCallbackHandler handler,
+            DirContextProcessor processor,
+            int size,
+            BooleanSupplier done) {
+        // all the pages must be requested on the same connection
+        DirContext ctx = contextSource.getReadOnlyContext();
+        // pooled connections refuse request controls, so they are set on the underlying one
+        DirContext target =
+                ctx instanceof DelegatingLdapContext
+                        ? ((DelegatingLdapContext) ctx).getInnermostDelegateLdapContext()
+                        : ctx;
+        try {
+            LdapTemplate single = new LdapTemplate(new SingleContextSource(target));
+            AggregateDirContextProcessor processors = new AggregateDirContextProcessor();
+            processors.addDirContextProcessor(processor);
+            PagedResultsProcessor paged = null;
+            if (size > 0) {
+                paged = new PagedResultsProcessor(size);
+                processors.addDirContextProcessor(paged);
+            }
+            do {
+                single.search(searchBase, filter, controls, handler, processors);
+            } while (paged != null && paged.hasMore() && !done.getAsBoolean());
+            if (paged != null && paged.hasMore()) {
+                // the search stopped early: a request with a page size of 0 tells the server to
+                // release the results it keeps for the cookie (RFC 2696)
+                AggregateDirContextProcessor abandon = new AggregateDirContextProcessor();
+                abandon.addDirContextProcessor(processor);
+                abandon.addDirContextProcessor(new PagedResultsProcessor(0, paged.getCookie()));
+                single.search(searchBase, filter, controls, nameClassPair -> {}, abandon);
+            }
+        } finally {
+            if (target != ctx) {
+                // do not leave the paging or sorting controls on a connection going back to the
+                // pool
+                clearRequestControls((LdapContext) target);
+            }
+            LdapUtils.closeContext(ctx);
+        }
+    }
+
+    private static void clearRequestControls(LdapContext ctx) {
+        try {
+            ctx.setRequestControls(null);
+        } catch (NamingException e) {
+            throw LdapUtils.convertLdapException(e);
+        }
+    }
+
+    /**
+     * Collects the mapped entries of the requested page, skipping the previous ones without mapping
+     * them.
+     */
+    protected static class PageCollector<T> implements NameClassPairCallbackHandler {
+
+        private final ContextMapper<T> mapper;
+
+        private final int firstResult;
+
+        private final int maxResults;
+
+        private final List<T> results = new ArrayList<>();
+
+        private int matched;
+
+        PageCollector(ContextMapper<T> mapper, int firstResult, int maxResults) {
+            this.mapper = mapper;
+            this.firstResult = firstResult;
+            this.maxResults = maxResults;
+        }
+
+        @Override
+        public void handleNameClassPair(NameClassPair nameClassPair) throws NamingException {
+            if (matched++ >= firstResult && !isComplete()) {
+                results.add(mapper.mapFromContext(((Binding) nameClassPair).getObject()));
+            }
+        }
+
+        /** @return true if the requested page is full */
+        public boolean isComplete() {
+            return maxResults > 0 && results.size() >= maxResults;
+        }
+
+        /** @return the entries of the page */
+        public List<T> getResults() {
+            return results;
+        }
+
+        /**
+         * @return the number of matching entries read, all of them when the page is not complete
+         */
+        public int getMatched() {
+            return matched;
+        }
+
+        public int getFirstResult() {
+            return firstResult;
+        }
+    }
+
+    /**
+     * Paged results processor that sends a single, non paged, request on contexts without support
+     * for request controls.
+     */
+    private static class PagedResultsProcessor extends PagedResultsDirContextProcessor {
+
+        private boolean supported = true;
+
+        PagedResultsProcessor(int pageSize) {
+            super(pageSize);
+        }
+
+        PagedResultsProcessor(int pageSize, PagedResultsCookie cookie) {
+            super(pageSize, cookie);
+        }
+
+        @Override
+        public void preProcess(DirContext ctx) throws NamingException {
+            supported = ctx instanceof LdapContext;
+            if (supported) {
+                super.preProcess(ctx);
+            }
+        }
+
+        @Override
+        public void postProcess(DirContext ctx) throws NamingException {
+            if (supported) {
+                super.postProcess(ctx);
+            }
+        }
+
+        @Override
+        public boolean hasMore() {
+            return supported && super.hasMore();
+        }
+    }
+
     /**
      * Returns a combined filter (AND) from the given two. If any is empty, the other filter is
      * returned.
@@ -19,6 +19,8 @@
  */
 package it.geosolutions.geostore.core.dao.ldap.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.googlecode.genericdao.search.Filter;
 import com.googlecode.genericdao.search.ISearch;
 import com.googlecode.genericdao.search.Search;
@@ -31,14 +33,15 @@ import it.geosolutions.geostore.core.model.enums.Role;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.naming.directory.SearchControls;
 import org.springframework.ldap.core.ContextSource;
 import org.springframework.ldap.core.DirContextOperations;
-import org.springframework.ldap.core.DirContextProcessor;
 import org.springframework.ldap.core.support.AbstractContextMapper;
 
 /**
@@ -48,10 +51,29 @@ import org.springframework.ldap.core.support.AbstractContextMapper;
  * @author Mauro Bartolomeoli (mauro.bartolomeoli at geo-solutions.it)
  */
 public class UserDAOImpl extends LdapBaseDAOImpl implements UserDAO {
+
+    /** How the groups of the users returned by a search are found. */
+    public enum MembershipLookup {
+        /** A group search with a membership filter (member=&lt;userDN&gt;) for each user. */
+        SEARCH,
+        /** A single search of all the groups, indexed in memory by their member attribute. */
+        INDEX,
+        /** The group DNs listed in an attribute of the user entry, such as memberOf. */
+        MEMBER_OF
+    }
+
     protected Map<String, String> attributesMapper = new HashMap<String, String>();
     private Pattern memberPattern = Pattern.compile("^(.*)$");
     private String adminRoleGroup = "ADMIN";
 
+    private MembershipLookup membershipLookup = MembershipLookup.INDEX;
+    private String memberOfAttribute = "memberOf";
+    private volatile long membershipCacheTtlSeconds = 60;
+    private volatile long membershipCacheMaxSize = 10000;
+
+    private volatile GroupMembershipIndex membershipIndex;
+    private volatile Cache<String, List<UserGroup>> membershipCache;
+
     UserGroupDAOImpl userGroupDAO = null;
 
     public UserDAOImpl(ContextSource contextSource) {
@@ -92,6 +114,70 @@ public class UserDAOImpl extends LdapBaseDAOImpl implements UserDAO {
         this.memberPattern = Pattern.compile(memberPattern);
     }
 
+    public MembershipLookup getMembershipLookup() {
+        return membershipLookup;
+    }
+
+    /**
+     * How the groups of the users are found: SEARCH runs a group search per user, INDEX (the
+     * default) a single group search per user search, MEMBER_OF reads the group DNs from the
+     * memberOfAttribute of the users and resolves them with the same single group search. With
+     * INDEX, a search returning a single user (e.g. on authentication) runs a membership search for
+     * that user instead of loading all the groups.
+     *
+     * @param membershipLookup the membership lookup strategy
+     */
+    public void setMembershipLookup(MembershipLookup membershipLookup) {
+        this.membershipLookup = membershipLookup;
+    }
+
+    public String getMemberOfAttribute() {
+        return memberOfAttribute;
+    }
+
+    /**
+     * User attribute listing the DNs of the groups of the user, used by the MEMBER_OF lookup.
+     *
+     * @param memberOfAttribute the attribute name (defaults to memberOf)
+     */
+    public void setMemberOfAttribute(String memberOfAttribute) {
+        this.memberOfAttribute = memberOfAttribute;
+    }
+
+    public long getMembershipCacheTtlSeconds() {
+        return membershipCacheTtlSeconds;
+    }
+
+    /**
+     * How long the group memberships read from LDAP are reused, 0 to read them for every search.
+     *
+     * @param membershipCacheTtlSeconds the time to live in seconds (defaults to 60)
+     */
+    public void setMembershipCacheTtlSeconds(long membershipCacheTtlSeconds) {
+        this.membershipCacheTtlSeconds = membershipCacheTtlSeconds;
+        invalidateMembershipCache();
+    }
+
+    public long getMembershipCacheMaxSize() {
+        return membershipCacheMaxSize;
+    }
+
+    /**
+     * Maximum number of users whose groups are cached by the SEARCH lookup.
+     *
+     * @param membershipCacheMaxSize the maximum number of cached users (defaults to 10000)
+     */
+    public void setMembershipCacheMaxSize(long membershipCacheMaxSize) {
+        this.membershipCacheMaxSize = membershipCacheMaxSize;
+        invalidateMembershipCache();
+    }
+
+    /** Discards the cached group memberships, so that they are read again from LDAP. */
+    public void invalidateMembershipCache() {
+        membershipIndex = null;
+        membershipCache = null;
+    }
+
     public Map<String, String> getAttributesMapper() {
         return attributesMapper;
     }
@@ -125,7 +211,7 @@ public class UserDAOImpl extends LdapBaseDAOImpl implements UserDAO {
      */
     @Override
     public List<User> findAll() {
-        return ldapSearch(baseFilter, new NullDirContextProcessor());
+        return ldapSearch(baseFilter, null);
     }
 
     /*
@@ -145,8 +231,7 @@ public class UserDAOImpl extends LdapBaseDAOImpl implements UserDAO {
             return users;
         } else {
             return ldapSearch(
-                    combineFilters(baseFilter, getLdapFilter(search, getPropertyMapper())),
-                    getProcessorForSearch(search));
+                    combineFilters(baseFilter, getLdapFilter(search, getPropertyMapper())), search);
         }
     }
 
@@ -168,28 +253,53 @@ public class UserDAOImpl extends LdapBaseDAOImpl implements UserDAO {
         return mapper;
     }
 
-    protected List<User> ldapSearch(String filter, DirContextProcessor processor) {
+    protected List<User> ldapSearch(String filter, ISearch search) {
         SearchControls controls = new SearchControls();
         controls.setSearchScope(SearchControls.SUBTREE_SCOPE);
-        return template.search(
-                searchBase,
-                filter,
-                controls,
-                new AbstractContextMapper() {
-                    int counter = 1;
-
-                    @Override
-                    protected User doMapFromContext(DirContextOperations ctx) {
-                        User user = new User();
-                        user.setId((long) counter++); // TODO: optionally map an attribute to the id
-                        user.setEnabled(true);
-                        user.setName(ctx.getStringAttribute(nameAttribute));
-                        user.setAttribute(fetchAttributes(ctx));
-                        assignGroupsAndRole(ctx, user);
-                        return user;
-                    }
-                },
-                processor);
+        if (userGroupDAO != null && membershipLookup == MembershipLookup.MEMBER_OF) {
+            // memberOf is an operational attribute on some servers
+            controls.setReturningAttributes(new String[] {"*", memberOfAttribute});
+        }
+        // entries of the users whose groups are resolved once the search is complete
+        Map<User, DirContextOperations> entries = new IdentityHashMap<>();
+        List<User> users =
+                pagedSearch(
+                                filter,
+                                controls,
+                                new AbstractContextMapper<User>() {
+                                    int counter = 1;
+
+                                    @Override
+                                    protected User doMapFromContext(DirContextOperations ctx) {
+                                        User user = new User();
+                                        user.setId((long) counter++); // TODO: optionally map an
+                                        // attribute to the id
+                                        user.setEnabled(true);
+                                        user.setName(ctx.getStringAttribute(nameAttribute));
+                                        user.setAttribute(fetchAttributes(ctx));
+                                        if (userGroupDAO != null
+                                                && membershipLookup != MembershipLookup.SEARCH) {
+                                            entries.put(user, ctx);
+                                        } else {
+                                            assignGroupsAndRole(ctx, user, null);
+                                        }
+                                        return user;
+                                    }
+                                },
+                                search)
+                        .getResults();
+        if (!entries.isEmpty()) {
+            // a single user (e.g. on authentication) is resolved with a membership search, the
+            // whole group index is only worth loading for lists of users
+            GroupMembershipIndex index =
+                    membershipLookup == MembershipLookup.INDEX && entries.size() == 1
+                            ? null
+                            : getMembershipIndex();
+            for (User user : users) {
+                assignGroupsAndRole(entries.get(user), user, index);
+            }
+        }
+        return users;
     }
 
     /**
@@ -212,31 +322,98 @@ public class UserDAOImpl extends LdapBaseDAOImpl implements UserDAO {
     }
 
     /**
-     * If UserGroupDAO is defined, fetches all the groups using a membership filter
-     * (member=<userDN>) on groups.
+     * If UserGroupDAO is defined, fetches the groups of the user, using the membership index when
+     * given or a membership filter (member=<userDN>) on groups otherwise.
      *
      * <p>Assigns the ADMIN role to users belonging to the adminRoleGroup group.
      *
      * @param ctx
      * @param user
+     * @param index
      */
-    private void assignGroupsAndRole(DirContextOperations ctx, User user) {
+    private void assignGroupsAndRole(
+            DirContextOperations ctx, User user, GroupMembershipIndex index) {
         // defaults to no groups and USER role
         user.setGroups(new HashSet<UserGroup>());
         user.setRole(Role.USER);
         if (userGroupDAO != null) {
-            Search searchCriteria = new Search(UserGroup.class);
-            searchCriteria.addFilterSome(
-                    "user", new Filter("name", ctx.getNameInNamespace(), Filter.OP_EQUAL));
-            GeoStoreISearchWrapper searchWrapper =
-                    new GeoStoreISearchWrapper(searchCriteria, this.getClass());
-            for (UserGroup ug : userGroupDAO.search(searchWrapper)) {
+            List<UserGroup> groups;
+            if (index == null) {
+                groups = searchGroups(ctx.getNameInNamespace());
+            } else if (membershipLookup == MembershipLookup.MEMBER_OF) {
+                groups = index.groupsByDn(ctx.getStringAttributes(memberOfAttribute));
+            } else {
+                groups = index.groupsOfMember(ctx.getNameInNamespace());
+            }
+            for (UserGroup ug : groups) {
                 if (isAdminGroup(ug)) {
                     user.setRole(Role.ADMIN);
                 }
-                user.getGroups().add(ug);
+                // copied, groups are cached and shared by several users
+                user.getGroups().add(copyGroup(ug));
+            }
+        }
+    }
+
+    private List<UserGroup> searchGroups(String userDn) {
+        Cache<String, List<UserGroup>> cache = getMembershipCache();
+        if (cache == null) {
+            return searchGroupsByMember(userDn);
+        }
+        return cache.get(userDn, this::searchGroupsByMember);
+    }
+
+    private List<UserGroup> searchGroupsByMember(String userDn) {
+        Search searchCriteria = new Search(UserGroup.class);
+        searchCriteria.addFilterSome("user", new Filter("name", userDn, Filter.OP_EQUAL));
+        GeoStoreISearchWrapper searchWrapper =
+                new GeoStoreISearchWrapper(searchCriteria, this.getClass());
+        return userGroupDAO.search(searchWrapper);
+    }
+
+    private Cache<String, List<UserGroup>> getMembershipCache() {
+        if (membershipCacheTtlSeconds <= 0) {
+            return null;
+        }
+        Cache<String, List<UserGroup>> result = membershipCache;
+        if (result == null) {
+            synchronized (this) {
+                result = membershipCache;
+                if (result == null) {
+                    result =
+                            Caffeine.newBuilder()
+                                    .maximumSize(membershipCacheMaxSize)
+                                    .expireAfterWrite(membershipCacheTtlSeconds, TimeUnit.SECONDS)
+                                    .build();
+                    membershipCache = result;
+                }
             }
         }
+        return result;
+    }
+
+    private GroupMembershipIndex getMembershipIndex() {
+        long ttl = TimeUnit.SECONDS.toNanos(membershipCacheTtlSeconds);
+        GroupMembershipIndex result = membershipIndex;
+        if (result == null || result.isOlderThan(ttl)) {
+            synchronized (this) {
+                result = membershipIndex;
+                if (result == null || result.isOlderThan(ttl)) {
+                    result = userGroupDAO.loadMembershipIndex();
+                    membershipIndex = ttl > 0 ? result : null;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static UserGroup copyGroup(UserGroup group) {
+        UserGroup copy = new UserGroup();
+        copy.setId(group.getId());
+        copy.setEnabled(group.isEnabled());
+        copy.setGroupName(group.getGroupName());
+        copy.setDescription(group.getDescription());
+        return copy;
     }
 
     /**
@@ -315,8 +492,11 @@ public class UserDAOImpl extends LdapBaseDAOImpl implements UserDAO {
 
     @Override
     public int count(ISearch search) {
-        // TODO: optimize
-        return search(search).size();
+        if (isNested(search)) {
+            return search(search).size();
+        }
+        // counts the matching entries without mapping them to users or loading their groups
+        return ldapCount(combineFilters(baseFilter, getLdapFilter(search, getPropertyMapper())));
     }
 
     /**
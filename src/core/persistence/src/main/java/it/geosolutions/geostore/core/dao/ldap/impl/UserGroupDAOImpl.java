@@ -41,7 +41,6 @@ import javax.naming.directory.SearchControls;
 import org.springframework.expression.Expression;
 import org.springframework.ldap.core.ContextSource;
 import org.springframework.ldap.core.DirContextOperations;
-import org.springframework.ldap.core.DirContextProcessor;
 import org.springframework.ldap.core.support.AbstractContextMapper;
 
 /**
@@ -114,7 +113,7 @@ public class UserGroupDAOImpl extends LdapBaseDAOImpl implements UserGroupDAO {
      */
     @Override
     public List<UserGroup> findAll() {
-        return addEveryOne(ldapSearch(baseFilter, new NullDirContextProcessor(), null), null);
+        return addEveryOne(searchPage(baseFilter, null), null);
     }
 
     /*
@@ -213,11 +212,7 @@ public class UserGroupDAOImpl extends LdapBaseDAOImpl implements UserGroupDAO {
             filter = getLdapFilter(search, getPropertyMapper());
         }
 
-        List<UserGroup> ldapGroups =
-                ldapSearch(
-                        combineFilters(baseFilter, filter), getProcessorForSearch(search), search);
-
-        return addEveryOne(ldapGroups, search);
+        return addEveryOne(searchPage(combineFilters(baseFilter, filter), search), search);
     }
 
     /**
@@ -232,15 +227,17 @@ public class UserGroupDAOImpl extends LdapBaseDAOImpl implements UserGroupDAO {
         return mapper;
     }
 
-    protected List<UserGroup> ldapSearch(
-            String filter, DirContextProcessor processor, final ISearch search) {
+    protected List<UserGroup> ldapSearch(String filter, final ISearch search) {
+        return searchPage(filter, search).getResults();
+    }
+
+    private PageCollector<UserGroup> searchPage(String filter, final ISearch search) {
         SearchControls controls = new SearchControls();
         controls.setSearchScope(SearchControls.SUBTREE_SCOPE);
-        return template.search(
-                searchBase,
+        return pagedSearch(
                 filter,
                 controls,
-                new AbstractContextMapper() {
+                new AbstractContextMapper<UserGroup>() {
                     int counter = 1;
 
                     @Override
@@ -264,7 +261,50 @@ public class UserGroupDAOImpl extends LdapBaseDAOImpl implements UserGroupDAO {
                         return group;
                     }
                 },
-                processor);
+                search);
+    }
+
+    /**
+     * Loads all the groups matching the base filter with a single search, indexed by their DN and
+     * by the values of their member attribute. The users of the groups are not loaded.
+     *
+     * @return the membership index
+     */
+    GroupMembershipIndex loadMembershipIndex() {
+        SearchControls controls = new SearchControls();
+        controls.setSearchScope(SearchControls.SUBTREE_SCOPE);
+        final GroupMembershipIndex index = new GroupMembershipIndex();
+        List<UserGroup> groups =
+                pagedSearch(
+                                baseFilter,
+                                controls,
+                                new AbstractContextMapper<UserGroup>() {
+                                    int counter = 1;
+
+                                    @Override
+                                    protected UserGroup doMapFromContext(DirContextOperations ctx) {
+                                        UserGroup group = new UserGroup();
+                                        group.setId((long) counter++);
+                                        group.setEnabled(true);
+                                        group.setGroupName(ctx.getStringAttribute(nameAttribute));
+                                        group.setDescription(
+                                                ctx.getStringAttribute(descriptionAttribute));
+                                        index.addGroup(
+                                                group,
+                                                ctx.getNameInNamespace(),
+                                                "".equals(memberAttribute)
+                                                        ? null
+                                                        : ctx.getStringAttributes(memberAttribute));
+                                        return group;
+                                    }
+                                },
+                                null)
+                        .getResults();
+        // as for membership searches, everyone is added to the groups of each user
+        if (addEveryOneGroup) {
+            index.setEveryoneGroup(createEveryoneGroup(groups.size() + 1));
+        }
+        return index;
     }
 
     /**
@@ -279,11 +319,18 @@ public class UserGroupDAOImpl extends LdapBaseDAOImpl implements UserGroupDAO {
      *   <li>there is a wildcard ("*") search for the group name
      * </ul>
      *
-     * @param groups
+     * <p>The "everyone" group follows the LDAP groups, so it is added only to the page that ends
+     * the search results.
+     *
+     * @param page
      * @param search
      * @return
      */
-    private List<UserGroup> addEveryOne(List<UserGroup> groups, ISearch search) {
+    private List<UserGroup> addEveryOne(PageCollector<UserGroup> page, ISearch search) {
+        List<UserGroup> groups = page.getResults();
+        if (page.isComplete() || page.getMatched() < page.getFirstResult()) {
+            return groups;
+        }
         UserGroup everyoneGroup = createEveryoneGroup(groups.size() + 1);
         if (search == null
                 || matchFilters(everyoneGroup, search)
@@ -111,4 +111,20 @@ public class CategoryDAOTest extends BaseDAOTest {
             // assertNull("SecurityRule not deleted", securityDAO.find(securityId));
         }
     }
+
+    @Test
+    public void testFindByName() throws Exception {
+        Category category = new Category();
+        category.setName("MAP");
+        categoryDAO.persist(category);
+
+        Category loaded = categoryDAO.findByName("MAP");
+        assertNotNull("Can't retrieve Category by name", loaded);
+        assertEquals(category.getId(), loaded.getId());
+
+        assertNull(categoryDAO.findByName("SLD"));
+
+        categoryDAO.removeById(category.getId());
+        assertNull("Category not deleted", categoryDAO.findByName("MAP"));
+    }
 }
@@ -20,12 +20,17 @@
 package it.geosolutions.geostore.core.dao;
 
 import it.geosolutions.geostore.core.model.Category;
+import it.geosolutions.geostore.core.model.IPRange;
 import it.geosolutions.geostore.core.model.Resource;
 import it.geosolutions.geostore.core.model.SecurityRule;
 import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.model.UserGroup;
 import it.geosolutions.geostore.core.model.enums.Role;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.Statement;
 import java.util.Date;
+import javax.sql.DataSource;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.Test;
@@ -332,4 +337,64 @@ public class SecurityDAOTest extends BaseDAOTest {
             assertNull("Security not deleted", securityDAO.find(categoryId));
         }
     }
+
+    /**
+     * With the ACL projection disabled the rules and the IP ranges are handled without any
+     * statement on the ACL table, which is hidden here so that such a statement would fail.
+     */
+    @Test
+    public void testRemoveSecurityWithoutAclProjection() throws Exception {
+        assertFalse(securityDAO.isAclProjectionEnabled());
+        assertFalse(externalSecurityDAO.isAclProjectionEnabled());
+
+        Category category = new Category();
+        category.setName("MAP");
+        categoryDAO.persist(category);
+
+        Resource resource = new Resource();
+        resource.setName("NAME");
+        resource.setCreation(new Date());
+        resource.setCategory(category);
+        resourceDAO.persist(resource);
+
+        IPRange ipRange = new IPRange();
+        ipRange.setCidr("10.0.0.1/32");
+        ipRange.setIpLow(BigInteger.ONE);
+        ipRange.setIpHigh(BigInteger.ONE);
+        ipRange.setDescription("ranged");
+        ipRangeDAO.persist(ipRange);
+
+        SecurityRule removed = new SecurityRule();
+        removed.setCanRead(true);
+        removed.setResource(resource);
+        SecurityRule removedById = new SecurityRule();
+        removedById.setCanRead(true);
+        removedById.setResource(resource);
+        securityDAO.persist(removed, removedById);
+        assertEquals(2, securityDAO.count(null));
+
+        DataSource dataSource = (DataSource) ctx.getBean("geostoreDataSource");
+        renameTable(dataSource, "gs_resource_acl", "gs_resource_acl_hidden");
+        try {
+            ipRange.setIpHigh(BigInteger.TEN);
+            ipRangeDAO.merge(ipRange);
+
+            assertTrue(securityDAO.remove(securityDAO.find(removed.getId())));
+            assertTrue(securityDAO.removeById(removedById.getId()));
+        } finally {
+            renameTable(dataSource, "gs_resource_acl_hidden", "gs_resource_acl");
+        }
+
+        assertEquals(0, securityDAO.count(null));
+        assertEquals(BigInteger.TEN, ipRangeDAO.find(ipRange.getId()).getIpHigh());
+        ipRangeDAO.removeById(ipRange.getId());
+    }
+
+    private static void renameTable(DataSource dataSource, String from, String to)
+            throws Exception {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("alter table " + from + " rename to " + to);
+        }
+    }
 }
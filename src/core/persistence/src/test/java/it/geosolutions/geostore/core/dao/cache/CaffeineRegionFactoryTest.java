@@ -0,0 +1,81 @@
+/*
+ *  Copyright (C) 2026 GeoSolutions S.A.S.
+ *  http://www.geo-solutions.it
+ *
+ *  GPLv3 + Classpath exception
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.geosolutions.geostore.core.dao.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class CaffeineRegionFactoryTest {
+
+    @Test
+    public void testRegionSizeAndStatistics() {
+        CaffeineRegionFactory factory = new CaffeineRegionFactory();
+        factory.setDefaultMaximumSize(100);
+        factory.setRegionMaximumSize(Map.of("gs_category", 1L));
+
+        CaffeineStorageAccess category =
+                (CaffeineStorageAccess)
+                        factory.createQueryResultsRegionStorageAccess("gs_category", null);
+        CaffeineStorageAccess timestamps =
+                (CaffeineStorageAccess)
+                        factory.createTimestampsRegionStorageAccess("timestamps", null);
+
+        for (int i = 0; i < 10; i++) {
+            category.putIntoCache(i, "value" + i, null);
+            timestamps.putIntoCache(i, (long) i, null);
+        }
+        category.getFromCache(-1, null);
+
+        assertEquals(1, category.getSize());
+        assertTrue(category.getStats().evictionCount() > 0);
+        assertEquals(1, category.getStats().missCount());
+        assertEquals(10, timestamps.getSize());
+
+        List<CaffeineStorageAccess> regions = List.copyOf(factory.getRegions());
+        assertEquals("gs_category", regions.get(0).getRegionName());
+        assertEquals("timestamps", regions.get(1).getRegionName());
+        assertFalse(factory.isActive());
+    }
+
+    @Test
+    public void testEvict() {
+        CaffeineRegionFactory factory = new CaffeineRegionFactory();
+        CaffeineStorageAccess region =
+                (CaffeineStorageAccess)
+                        factory.createQueryResultsRegionStorageAccess("gs_tag", null);
+
+        region.putIntoCache("a", "A", null);
+        region.putIntoCache("b", "B", null);
+        assertTrue(region.contains("a"));
+
+        region.evictData("a");
+        assertNull(region.getFromCache("a", null));
+        assertEquals("B", region.getFromCache("b", null));
+
+        region.evictData();
+        assertFalse(region.contains("b"));
+    }
+}
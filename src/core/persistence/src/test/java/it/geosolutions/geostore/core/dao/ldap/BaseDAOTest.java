@@ -23,6 +23,7 @@ import it.geosolutions.geostore.core.ldap.IterableNamingEnumeration;
 import it.geosolutions.geostore.core.ldap.MockDirContextOperations;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
 import javax.naming.directory.BasicAttributes;
@@ -336,4 +337,91 @@ public abstract class BaseDAOTest {
             }
         };
     }
+
+    /** Groups context for the membership index, counting the group searches. */
+    protected DirContext buildContextForGroupsIndex(final AtomicInteger searches) {
+        return new DirContextAdapter() {
+            @Override
+            public NamingEnumeration<SearchResult> search(
+                    String name, String filter, SearchControls cons) throws NamingException {
+                if ("ou=groups".equals(name) && "cn=*".equals(filter)) {
+                    searches.incrementAndGet();
+                    return new IterableNamingEnumeration(
+                            Arrays.asList(
+                                    buildEntry(
+                                            "cn=group,ou=groups",
+                                            "group",
+                                            "member",
+                                            "cn=username,ou=users",
+                                            "CN=username2, OU=users"),
+                                    buildEntry(
+                                            "cn=admin,ou=groups",
+                                            "admin",
+                                            "member",
+                                            "cn=username,ou=users")));
+                }
+                return new IterableNamingEnumeration(Collections.EMPTY_LIST);
+            }
+        };
+    }
+
+    /** Users context where the groups of each user are listed in its memberOf attribute. */
+    protected DirContext buildContextForUsersWithMemberOf() {
+        return new DirContextAdapter() {
+            @Override
+            public NamingEnumeration<SearchResult> search(
+                    String name, String filter, SearchControls cons) throws NamingException {
+                if ("ou=users".equals(name) && "cn=*".equals(filter)) {
+                    return new IterableNamingEnumeration(
+                            Arrays.asList(
+                                    buildEntry(
+                                            "cn=username,ou=users",
+                                            "username",
+                                            "memberOf",
+                                            "cn=admin,ou=groups"),
+                                    buildEntry(
+                                            "cn=username2,ou=users",
+                                            "username2",
+                                            "memberOf",
+                                            "CN=group,ou=groups",
+                                            "cn=unknown,ou=groups")));
+                }
+                return new IterableNamingEnumeration(Collections.EMPTY_LIST);
+            }
+        };
+    }
+
+    protected SearchResult buildEntry(
+            final String dn,
+            final String cn,
+            final String multiValuedAttribute,
+            final String... values) {
+        return new SearchResult(
+                "cn=*",
+                null,
+                new MockDirContextOperations() {
+
+                    @Override
+                    public String getNameInNamespace() {
+                        return dn;
+                    }
+
+                    @Override
+                    public String getStringAttribute(String name) {
+                        if ("cn".equals(name)) {
+                            return cn;
+                        }
+                        return "";
+                    }
+
+                    @Override
+                    public String[] getStringAttributes(String name) {
+                        if (multiValuedAttribute.equals(name)) {
+                            return values;
+                        }
+                        return new String[] {};
+                    }
+                },
+                new BasicAttributes());
+    }
 }
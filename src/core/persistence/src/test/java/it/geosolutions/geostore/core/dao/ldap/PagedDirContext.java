@@ -0,0 +1,161 @@
+/*
+ *  Copyright (C) 2026 GeoSolutions S.A.S.
+ *  http://www.geo-solutions.it
+ *
+ *  GPLv3 + Classpath exception
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.geosolutions.geostore.core.dao.ldap;
+
+import it.geosolutions.geostore.core.ldap.IterableNamingEnumeration;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.SearchControls;
+import javax.naming.directory.SearchResult;
+import javax.naming.ldap.Control;
+import javax.naming.ldap.ExtendedRequest;
+import javax.naming.ldap.ExtendedResponse;
+import javax.naming.ldap.LdapContext;
+import javax.naming.ldap.PagedResultsControl;
+import javax.naming.ldap.PagedResultsResponseControl;
+import org.springframework.ldap.core.DirContextAdapter;
+
+/**
+ * LDAP context returning the given entries, whatever the filter, in pages when the paged results
+ * control is sent. The cookie is the offset of the next page. As a real server, the context returns
+ * the entry objects only when the returning object flag of the search controls is set.
+ */
+public class PagedDirContext extends DirContextAdapter implements LdapContext {
+
+    private final List<SearchResult> entries;
+
+    private final List<Integer> requestedPageSizes = new ArrayList<>();
+
+    private int abandonedSearches;
+
+    private Control[] requestControls;
+
+    private Control[] responseControls;
+
+    public PagedDirContext(List<SearchResult> entries) {
+        this.entries = entries;
+    }
+
+    /** @return the number of paged searches abandoned with a page size of 0 */
+    public int getAbandonedSearches() {
+        return abandonedSearches;
+    }
+
+    /** @return the page size of each search request, 0 for requests without paging */
+    public List<Integer> getRequestedPageSizes() {
+        return requestedPageSizes;
+    }
+
+    @Override
+    public NamingEnumeration<SearchResult> search(String name, String filter, SearchControls cons)
+            throws NamingException {
+        byte[] request = null;
+        if (requestControls != null) {
+            for (Control control : requestControls) {
+                if (PagedResultsControl.OID.equals(control.getID())) {
+                    request = control.getEncodedValue();
+                }
+            }
+        }
+        List<SearchResult> results = entries;
+        if (cons == null || !cons.getReturningObjFlag()) {
+            results = new ArrayList<>();
+            for (SearchResult entry : entries) {
+                results.add(new SearchResult(entry.getName(), null, entry.getAttributes()));
+            }
+        }
+        if (request == null) {
+            requestedPageSizes.add(0);
+            return new IterableNamingEnumeration(results);
+        }
+        // SEQUENCE { INTEGER size, OCTET STRING cookie }
+        int sizeLength = request[3];
+        int size = 0;
+        for (int i = 0; i < sizeLength; i++) {
+            size = (size << 8) | (request[4 + i] & 0xff);
+        }
+        int cookieLength = request[5 + sizeLength];
+        int offset = cookieLength > 0 ? request[6 + sizeLength] : 0;
+        int end = Math.min(entries.size(), offset + size);
+        requestedPageSizes.add(size);
+        if (size == 0 && offset > 0) {
+            abandonedSearches++;
+            end = entries.size();
+        }
+
+        byte[] cookie = end < entries.size() ? new byte[] {(byte) end} : new byte[0];
+        byte[] response = new byte[7 + cookie.length];
+        response[0] = 0x30;
+        response[1] = (byte) (5 + cookie.length);
+        response[2] = 0x02;
+        response[3] = 0x01;
+        response[4] = (byte) entries.size();
+        response[5] = 0x04;
+        response[6] = (byte) cookie.length;
+        System.arraycopy(cookie, 0, response, 7, cookie.length);
+        try {
+            responseControls =
+                    new Control[] {
+                        new PagedResultsResponseControl(
+                                PagedResultsResponseControl.OID, false, response)
+                    };
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return new IterableNamingEnumeration(
+                size == 0 ? new ArrayList<>() : results.subList(offset, end));
+    }
+
+    @Override
+    public void setRequestControls(Control[] requestControls) {
+        this.requestControls = requestControls;
+    }
+
+    @Override
+    public Control[] getRequestControls() {
+        return requestControls;
+    }
+
+    @Override
+    public Control[] getResponseControls() {
+        return responseControls;
+    }
+
+    @Override
+    public ExtendedResponse extendedOperation(ExtendedRequest request) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public LdapContext newInstance(Control[] requestControls) {
+        return this;
+    }
+
+    @Override
+    public void reconnect(Control[] connCtls) {}
+
+    @Override
+    public Control[] getConnectControls() {
+        return null;
+    }
+}
@@ -19,6 +19,8 @@
  */
 package it.geosolutions.geostore.core.dao.ldap;
 
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static org.junit.Assert.*;
 
 import com.googlecode.genericdao.search.Filter;
@@ -29,10 +31,21 @@ import it.geosolutions.geostore.core.ldap.MockContextSource;
 import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.model.UserGroup;
 import it.geosolutions.geostore.core.model.enums.Role;
+import it.geosolutions.geostore.core.security.ldap.PooledLdapContextSource;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.SearchControls;
+import javax.naming.directory.SearchResult;
 import org.junit.Test;
+import org.springframework.ldap.core.DirContextAdapter;
+import org.springframework.ldap.pool2.factory.PoolConfig;
 
 public class UserDAOTest extends BaseDAOTest {
 
@@ -65,6 +78,7 @@ public class UserDAOTest extends BaseDAOTest {
                 new UserGroupDAOImpl(new MockContextSource(buildContextForGroups()));
         userGroupDAO.setSearchBase("ou=groups");
         userDAO.setUserGroupDAO(userGroupDAO);
+        userDAO.setMembershipLookup(UserDAOImpl.MembershipLookup.SEARCH);
 
         Search search = new Search(User.class);
         List<User> users = userDAO.search(search.addFilter(Filter.equal("name", "username")));
@@ -82,6 +96,7 @@ public class UserDAOTest extends BaseDAOTest {
                 new UserGroupDAOImpl(new MockContextSource(buildContextForGroups()));
         userGroupDAO.setSearchBase("ou=groups");
         userDAO.setUserGroupDAO(userGroupDAO);
+        userDAO.setMembershipLookup(UserDAOImpl.MembershipLookup.SEARCH);
 
         Search search = new Search(User.class);
         List<User> users = userDAO.search(search.addFilter(Filter.equal("name", "username")));
@@ -159,6 +174,7 @@ public class UserDAOTest extends BaseDAOTest {
                 new UserGroupDAOImpl(new MockContextSource(buildContextForGroups()));
         userGroupDAO.setSearchBase("ou=groups");
         userDAO.setUserGroupDAO(userGroupDAO);
+        userDAO.setMembershipLookup(UserDAOImpl.MembershipLookup.SEARCH);
 
         Search search = new Search(User.class);
         List<User> users = userDAO.search(search.addFilter(Filter.equal("name", "username")));
@@ -178,4 +194,174 @@ public class UserDAOTest extends BaseDAOTest {
         List<UserGroup> groups = userGroupDAO.search(search1);
         assertFalse(groups.get(0).getUsers().isEmpty());
     }
+
+    @Test
+    public void testGroupsAreFetchedWithOneSearch() {
+        AtomicInteger groupSearches = new AtomicInteger();
+        UserDAOImpl userDAO = new UserDAOImpl(new MockContextSource(buildContextForUsers()));
+        userDAO.setSearchBase("ou=users");
+        userDAO.setAdminRoleGroup("admin");
+        UserGroupDAOImpl userGroupDAO =
+                new UserGroupDAOImpl(
+                        new MockContextSource(buildContextForGroupsIndex(groupSearches)));
+        userGroupDAO.setSearchBase("ou=groups");
+        userGroupDAO.setAddEveryOneGroup(true);
+        userDAO.setUserGroupDAO(userGroupDAO);
+
+        List<User> users = userDAO.findAll();
+        assertEquals(1, groupSearches.get());
+        assertEquals(2, users.size());
+        User user = users.get(0);
+        assertEquals(Role.ADMIN, user.getRole());
+        assertEquals(
+                Set.of("group", "admin", "everyone"),
+                user.getGroups().stream().map(UserGroup::getGroupName).collect(toSet()));
+        User user2 = users.get(1);
+        assertEquals(Role.USER, user2.getRole());
+        assertEquals(
+                Set.of("group", "everyone"),
+                user2.getGroups().stream().map(UserGroup::getGroupName).collect(toSet()));
+
+        // memberships are cached
+        userDAO.findAll();
+        assertEquals(1, groupSearches.get());
+
+        // and read once per search without the cache
+        userDAO.setMembershipCacheTtlSeconds(0);
+        userDAO.findAll();
+        userDAO.findAll();
+        assertEquals(3, groupSearches.get());
+    }
+
+    @Test
+    public void testSingleUserGroupsAreFetchedWithMembershipSearch() throws Exception {
+        AtomicInteger indexSearches = new AtomicInteger();
+        DirContext groups = buildContextForGroups();
+        UserDAOImpl userDAO = new UserDAOImpl(new MockContextSource(buildContextForUsers()));
+        userDAO.setSearchBase("ou=users");
+        userDAO.setAdminRoleGroup("admin");
+        UserGroupDAOImpl userGroupDAO =
+                new UserGroupDAOImpl(
+                        new MockContextSource(
+                                new DirContextAdapter() {
+                                    @Override
+                                    public NamingEnumeration<SearchResult> search(
+                                            String name, String filter, SearchControls cons)
+                                            throws NamingException {
+                                        if ("cn=*".equals(filter)) {
+                                            indexSearches.incrementAndGet();
+                                        }
+                                        return groups.search(name, filter, cons);
+                                    }
+                                }));
+        userGroupDAO.setSearchBase("ou=groups");
+        userDAO.setUserGroupDAO(userGroupDAO);
+        assertEquals(UserDAOImpl.MembershipLookup.INDEX, userDAO.getMembershipLookup());
+
+        // a single user, e.g. on authentication, does not load the whole group index
+        Search search = new Search(User.class);
+        List<User> users = userDAO.search(search.addFilter(Filter.equal("name", "username")));
+        assertEquals(1, users.size());
+        assertEquals(Role.ADMIN, users.get(0).getRole());
+        assertEquals(
+                Set.of("group", "admin"),
+                users.get(0).getGroups().stream().map(UserGroup::getGroupName).collect(toSet()));
+        assertEquals(0, indexSearches.get());
+
+        // lists of users still use it
+        userDAO.findAll();
+        assertEquals(1, indexSearches.get());
+    }
+
+    @Test
+    public void testGroupsAreFetchedFromMemberOf() {
+        UserDAOImpl userDAO =
+                new UserDAOImpl(new MockContextSource(buildContextForUsersWithMemberOf()));
+        userDAO.setSearchBase("ou=users");
+        userDAO.setAdminRoleGroup("admin");
+        userDAO.setMembershipLookup(UserDAOImpl.MembershipLookup.MEMBER_OF);
+        UserGroupDAOImpl userGroupDAO =
+                new UserGroupDAOImpl(
+                        new MockContextSource(buildContextForGroupsIndex(new AtomicInteger())));
+        userGroupDAO.setSearchBase("ou=groups");
+        userDAO.setUserGroupDAO(userGroupDAO);
+
+        List<User> users = userDAO.findAll();
+        assertEquals(2, users.size());
+        assertEquals(Role.ADMIN, users.get(0).getRole());
+        assertEquals(
+                Set.of("admin"),
+                users.get(0).getGroups().stream().map(UserGroup::getGroupName).collect(toSet()));
+        assertEquals(Role.USER, users.get(1).getRole());
+        assertEquals(
+                Set.of("group"),
+                users.get(1).getGroups().stream().map(UserGroup::getGroupName).collect(toSet()));
+    }
+
+    @Test
+    public void testCountDoesNotFetchGroups() {
+        AtomicInteger groupSearches = new AtomicInteger();
+        UserDAOImpl userDAO = new UserDAOImpl(new MockContextSource(buildContextForUsers()));
+        userDAO.setSearchBase("ou=users");
+        UserGroupDAOImpl userGroupDAO =
+                new UserGroupDAOImpl(
+                        new MockContextSource(buildContextForGroupsIndex(groupSearches)));
+        userGroupDAO.setSearchBase("ou=groups");
+        userDAO.setUserGroupDAO(userGroupDAO);
+
+        Search search = new Search(User.class);
+        assertEquals(1, userDAO.count(search.addFilter(Filter.equal("name", "username"))));
+        assertEquals(0, groupSearches.get());
+    }
+
+    @Test
+    public void testPagedSearch() {
+        List<SearchResult> entries = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            entries.add(buildEntry("cn=user" + i + ",ou=users", "user" + i, "member"));
+        }
+        PagedDirContext ctx = new PagedDirContext(entries);
+        UserDAOImpl userDAO = new UserDAOImpl(new MockContextSource(ctx));
+        userDAO.setSearchBase("ou=users");
+        userDAO.setPageSize(2);
+
+        Search search = new Search(User.class);
+        search.setMaxResults(2);
+        search.setPage(1);
+        List<User> users = userDAO.search(search);
+        assertEquals(
+                List.of("user2", "user3"), users.stream().map(User::getName).collect(toList()));
+        // the search stops as soon as the requested page is complete, abandoning the cookie
+        assertEquals(List.of(2, 2, 0), ctx.getRequestedPageSizes());
+        assertEquals(1, ctx.getAbandonedSearches());
+
+        ctx.getRequestedPageSizes().clear();
+        assertEquals(5, userDAO.findAll().size());
+        assertEquals(List.of(2, 2, 2), ctx.getRequestedPageSizes());
+        assertEquals(1, ctx.getAbandonedSearches());
+
+        ctx.getRequestedPageSizes().clear();
+        assertEquals(5, userDAO.count(new Search(User.class)));
+        assertEquals(List.of(2, 2, 2), ctx.getRequestedPageSizes());
+    }
+
+    @Test
+    public void testPagedSearchOnPooledConnections() {
+        List<SearchResult> entries = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            entries.add(buildEntry("cn=user" + i + ",ou=users", "user" + i, "member"));
+        }
+        PagedDirContext ctx = new PagedDirContext(entries);
+        PooledLdapContextSource contextSource =
+                new PooledLdapContextSource(new MockContextSource(ctx), new PoolConfig());
+        UserDAOImpl userDAO = new UserDAOImpl(contextSource);
+        userDAO.setSearchBase("ou=users");
+        userDAO.setPageSize(2);
+
+        assertEquals(5, userDAO.findAll().size());
+        assertEquals(List.of(2, 2, 2), ctx.getRequestedPageSizes());
+        // the paging control is not left on the connection returned to the pool
+        assertNull(ctx.getRequestControls());
+        assertEquals(1, contextSource.getNumIdle());
+    }
 }
@@ -28,9 +28,11 @@ import it.geosolutions.geostore.core.dao.ldap.impl.UserGroupDAOImpl;
 import it.geosolutions.geostore.core.ldap.MockContextSource;
 import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.model.UserGroup;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.naming.directory.SearchResult;
 import org.junit.Test;
 
 public class UserGroupDAOTest extends BaseDAOTest {
@@ -164,4 +166,30 @@ public class UserGroupDAOTest extends BaseDAOTest {
         List<String> groupsNames = groups.stream().map(UserGroup::getGroupName).toList();
         assertTrue(groupsNames.containsAll(List.of("group", "group2", "everyone")));
     }
+
+    @Test
+    public void testPagedSearchAddsEveryOneToTheLastPage() {
+        List<SearchResult> entries = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            entries.add(buildEntry("cn=group" + i + ",ou=groups", "group" + i, "member"));
+        }
+        UserGroupDAOImpl userGroupDAO =
+                new UserGroupDAOImpl(new MockContextSource(new PagedDirContext(entries)));
+        userGroupDAO.setSearchBase("ou=groups");
+        userGroupDAO.setAddEveryOneGroup(true);
+        userGroupDAO.setPageSize(2);
+
+        assertEquals(List.of("group0", "group1"), groupNames(userGroupDAO, 0));
+        assertEquals(List.of("group2", "everyone"), groupNames(userGroupDAO, 1));
+        assertEquals(List.of(), groupNames(userGroupDAO, 2));
+    }
+
+    private List<String> groupNames(UserGroupDAOImpl userGroupDAO, int page) {
+        Search search = new Search(UserGroup.class);
+        search.setMaxResults(2);
+        search.setPage(page);
+        return userGroupDAO.search(search).stream()
+                .map(UserGroup::getGroupName)
+                .collect(Collectors.toList());
+    }
 }
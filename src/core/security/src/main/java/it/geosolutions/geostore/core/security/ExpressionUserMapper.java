@@ -32,7 +32,10 @@ import it.geosolutions.geostore.core.model.UserAttribute;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
@@ -41,22 +44,39 @@ import org.springframework.expression.spel.support.StandardEvaluationContext;
  * attributes. Mappings are expressed using SpEL expressions.
  *
  * <p>Inherited classes should add their propertyAccessor implementations to the evaluationContext.
+ * The evaluation context is configured in the constructors only and shared, read only, by the
+ * concurrent mappings.
+ *
+ * <p>The expressions are parsed once, when the mapper is configured, and compiled to bytecode by
+ * the SpEL compiler (in mixed mode) when they are evaluated often enough and their property
+ * accessors support it.
  *
  * @author Mauro Bartolomeoli
  */
 public abstract class ExpressionUserMapper implements UserMapper {
     Map<String, String> attributeMappings;
 
-    public static SpelExpressionParser parser = new SpelExpressionParser();
+    public static SpelExpressionParser parser =
+            new SpelExpressionParser(
+                    new SpelParserConfiguration(
+                            SpelCompilerMode.MIXED, ExpressionUserMapper.class.getClassLoader()));
 
     protected StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
 
+    // parsed expressions, keyed by their source
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
     /**
      * @param attributeMappings maps attribute names to SpEL expressions (using a
      *     UserDetailsWithAttributes source)
      */
     public ExpressionUserMapper(Map<String, String> attributeMappings) {
         this.attributeMappings = attributeMappings;
+        if (attributeMappings != null) {
+            for (String expression : attributeMappings.values()) {
+                getExpression(expression);
+            }
+        }
     }
 
     @Override
@@ -68,11 +88,11 @@ public abstract class ExpressionUserMapper implements UserMapper {
     public void mapUser(Object details, User user) {
         List<UserAttribute> attributes = new ArrayList<UserAttribute>();
         details = preProcessDetails(details);
-        for (String attributeName : attributeMappings.keySet()) {
+        for (Map.Entry<String, String> mapping : attributeMappings.entrySet()) {
 
-            Expression exp = parser.parseExpression(attributeMappings.get(attributeName));
+            Expression exp = getExpression(mapping.getValue());
             UserAttribute userAttribute = new UserAttribute();
-            userAttribute.setName(attributeName);
+            userAttribute.setName(mapping.getKey());
             Object value = exp.getValue(evaluationContext, details);
             userAttribute.setValue(value == null ? null : value.toString());
             attributes.add(userAttribute);
@@ -80,6 +100,17 @@ public abstract class ExpressionUserMapper implements UserMapper {
         user.setAttribute(attributes);
     }
 
+    /**
+     * Returns the parsed form of an expression, parsing it on first use only: mappings added after
+     * the mapper was configured are parsed on their first evaluation.
+     *
+     * @param expression the SpEL expression
+     * @return the parsed expression
+     */
+    protected Expression getExpression(String expression) {
+        return expressions.computeIfAbsent(expression, parser::parseExpression);
+    }
+
     protected Object preProcessDetails(Object details) {
         return details;
     }
@@ -0,0 +1,55 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.core.security.ldap;
+
+import org.springframework.ldap.core.ContextSource;
+import org.springframework.ldap.core.support.BaseLdapPathContextSource;
+import org.springframework.ldap.pool2.factory.PoolConfig;
+import org.springframework.ldap.pool2.factory.PooledContextSource;
+import org.springframework.ldap.pool2.validation.DefaultDirContextValidator;
+
+/**
+ * Pool of the read only and read/write connections opened by a {@link ContextSource}, so that
+ * searches reuse established (and possibly TLS protected) connections instead of opening a new one
+ * each time.
+ *
+ * <p>Pool size, validation and idle eviction are configured through the {@link PoolConfig}.
+ * Connections are validated, when enabled, with a {@link DefaultDirContextValidator}.
+ *
+ * <p>Only the connections bound with the configured manager credentials are pooled: {@link
+ * #getContext(String, String)} is not supported, so the authenticators binding as the user must
+ * keep using the target context source.
+ */
+public class PooledLdapContextSource extends PooledContextSource
+        implements BaseLdapPathContextSource {
+
+    public PooledLdapContextSource(ContextSource contextSource, PoolConfig poolConfig) {
+        super(contextSource, poolConfig);
+        setDirContextValidator(new DefaultDirContextValidator());
+    }
+}
@@ -85,4 +85,19 @@ public class ExpressionUserMapperTest {
         assertEquals("transformed", user.getAttribute().get(0).getName());
         assertEquals("myemail@email.com", user.getAttribute().get(0).getValue());
     }
+
+    @Test
+    public void testRepeatedMapping() {
+        // enough evaluations for the SpEL compiler to kick in
+        mapper = new MapExpressionUserMapper(attributeMappings);
+        attributeMappings.put("email", "my_email.toUpperCase()");
+        for (int i = 0; i < 300; i++) {
+            User user = new User();
+            Map<String, String> attributes = new HashMap<String, String>();
+            attributes.put("my_email", "user" + i + "@email.com");
+            mapper.mapUser(attributes, user);
+
+            assertEquals("USER" + i + "@EMAIL.COM", user.getAttribute().get(0).getValue());
+        }
+    }
 }
@@ -37,4 +37,33 @@ public interface ResourcePermissionService {
      *     properly
      */
     boolean canResourceBeWrittenByUser(Resource resource, User user);
+
+    /**
+     * Returns the permissions of the given user, meant to check many resources (e.g. the ones of a
+     * page of results) against the same user: the keys of the user matched against the security
+     * rules are computed once, when this method is called. A change of the user made afterwards is
+     * not seen by the returned permissions.
+     *
+     * @param user the user whose permissions are checked
+     * @return the permissions of the user
+     */
+    UserPermissions forUser(User user);
+
+    /** Read and write permissions of a user, checked one resource at a time. */
+    interface UserPermissions {
+
+        /**
+         * @param resource a resource whose security rules have been fetched
+         * @return true if the resource can be read by the user
+         * @see ResourcePermissionService#canResourceBeReadByUser(Resource, User)
+         */
+        boolean canRead(Resource resource);
+
+        /**
+         * @param resource a resource whose security rules have been fetched
+         * @return true if the resource can be written by the user
+         * @see ResourcePermissionService#canResourceBeWrittenByUser(Resource, User)
+         */
+        boolean canWrite(Resource resource);
+    }
 }
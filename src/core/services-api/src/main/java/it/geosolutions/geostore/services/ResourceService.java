@@ -64,6 +64,20 @@ public interface ResourceService extends SecurityService {
     long insert(Resource resource)
             throws BadRequestServiceEx, NotFoundServiceEx, DuplicatedResourceNameServiceEx;
 
+    /**
+     * Inserts the given resources in a single transaction: either all of them are inserted or none
+     * is. The categories and the user groups referenced by the resources are resolved once for the
+     * whole list, and the rows are written using JDBC batches.
+     *
+     * @param resources the resources to insert, as accepted by {@link #insert(Resource)}
+     * @return the ids of the inserted resources, in the same order
+     * @throws BadRequestServiceEx
+     * @throws NotFoundServiceEx
+     * @throws DuplicatedResourceNameServiceEx
+     */
+    List<Long> insertAll(List<Resource> resources)
+            throws BadRequestServiceEx, NotFoundServiceEx, DuplicatedResourceNameServiceEx;
+
     /**
      * @param resource
      * @return long
@@ -267,4 +281,21 @@ public interface ResourceService extends SecurityService {
      * @param resource
      */
     void fetchFavorites(Resource resource);
+
+    /**
+     * Update a page of resource entities by fetching their security rules and the favorites of the
+     * given user. Implementations should load them with a constant number of queries, whatever the
+     * number of resources.
+     *
+     * @param resources
+     * @param user the user whose favorites are fetched, no favorites are fetched if null
+     */
+    default void fetchSecurityRulesAndFavorites(List<Resource> resources, User user) {
+        for (Resource resource : resources) {
+            fetchSecurityRules(resource);
+            if (user != null) {
+                fetchFavorites(resource);
+            }
+        }
+    }
 }
@@ -33,8 +33,11 @@ import it.geosolutions.geostore.core.model.UserAttribute;
 import it.geosolutions.geostore.core.model.UserGroup;
 import it.geosolutions.geostore.services.exception.BadRequestServiceEx;
 import it.geosolutions.geostore.services.exception.NotFoundServiceEx;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Class UserInterface.
@@ -147,6 +150,38 @@ public interface UserService {
 
     Collection<User> getByGroup(UserGroup group);
 
+    /**
+     * Returns the members of several groups, e.g. of a page of groups, keyed by group id.
+     *
+     * <p>The default implementation performs a {@link #getByGroup(UserGroup)} per group:
+     * implementations backed by a database should load all the memberships with a single query.
+     *
+     * @param groups the groups
+     * @param full if <code>false</code> only the id, name and role of the members are loaded
+     * @return the members of each group, keyed by group id; groups without members may be missing
+     */
+    default Map<Long, List<User>> getByGroups(Collection<UserGroup> groups, boolean full) {
+        Map<Long, List<User>> members = new HashMap<>();
+        for (UserGroup group : groups) {
+            members.put(group.getId(), new ArrayList<>(getByGroup(group)));
+        }
+        return members;
+    }
+
+    /**
+     * Counts the members of several groups, keyed by group id.
+     *
+     * @param groups the groups
+     * @return the number of members of each group; groups without members may be missing
+     */
+    default Map<Long, Long> countByGroups(Collection<UserGroup> groups) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (UserGroup group : groups) {
+            counts.put(group.getId(), (long) getByGroup(group).size());
+        }
+        return counts;
+    }
+
     /**
      * Update the user entity by fetching its favorites resources from the database.
      *
@@ -0,0 +1,239 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services.dto;
+
+import it.geosolutions.geostore.core.model.Resource;
+import it.geosolutions.geostore.services.dto.search.BaseField;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Position of a keyset (cursor based) resource search.
+ *
+ * <p>A cursor holds the sort key and the id of the last resource of a page, so that the next page
+ * can be loaded by seeking past that resource instead of skipping all the previous rows. Clients
+ * only see the opaque token returned by {@link #toToken()}, which is also bound to the sort field
+ * and order it has been created for.
+ *
+ * <p>Only the fields that are mandatory on a resource (id, name and creation date) can be used to
+ * sort a cursor based search, so that the seek condition never has to deal with null values.
+ */
+public final class ResourceSearchCursor {
+
+    private static final String VERSION = "1";
+
+    private static final String SEPARATOR = "|";
+
+    private final BaseField sortField;
+
+    private final boolean descending;
+
+    private final long lastId;
+
+    private final Object lastValue;
+
+    private ResourceSearchCursor(
+            BaseField sortField, boolean descending, long lastId, Object lastValue) {
+        this.sortField = sortField;
+        this.descending = descending;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    /**
+     * Resolves the field a cursor based search is sorted by.
+     *
+     * @param sortBy the requested sort field, null or blank for the default one (name)
+     * @return the sort field
+     * @throws IllegalArgumentException if the field cannot be used to sort a cursor based search
+     */
+    public static BaseField getSortField(String sortBy) {
+        if (sortBy == null || sortBy.isBlank()) {
+            return BaseField.NAME;
+        }
+        for (BaseField field : new BaseField[] {BaseField.ID, BaseField.NAME, BaseField.CREATION}) {
+            if (field.getFieldName().equalsIgnoreCase(sortBy)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException(
+                "Cursor pagination is not supported when sorting by '" + sortBy + "'");
+    }
+
+    /**
+     * Creates the cursor pointing after the last resource of a page.
+     *
+     * @param resources the page of resources, in search order
+     * @param entries the requested page size
+     * @param sortBy the sort field the page has been searched with
+     * @param sortOrder the sort order the page has been searched with
+     * @return the token of the next page, or null if the page is the last one or the sort field
+     *     does not support cursor pagination
+     */
+    public static String nextToken(
+            List<Resource> resources, Integer entries, String sortBy, String sortOrder) {
+        if (resources == null || entries == null || resources.size() < entries) {
+            return null;
+        }
+        BaseField field;
+        try {
+            field = getSortField(sortBy);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        Resource last = resources.get(resources.size() - 1);
+        Object value;
+        switch (field) {
+            case ID:
+                value = last.getId();
+                break;
+            case CREATION:
+                value = last.getCreation();
+                break;
+            default:
+                value = last.getName();
+        }
+        if (last.getId() == null || value == null) {
+            return null;
+        }
+        return new ResourceSearchCursor(field, isDescending(sortBy, sortOrder), last.getId(), value)
+                .toToken();
+    }
+
+    /**
+     * Decodes a token created by {@link #toToken()}.
+     *
+     * @param token the opaque token
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ResourceSearchCursor fromToken(String token) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        // the value is the last element, so that it can contain the separator
+        String[] parts = decoded.split("\\" + SEPARATOR, 5);
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            BaseField field = getSortField(parts[1]);
+            boolean descending = "d".equals(parts[2]);
+            long lastId = Long.parseLong(parts[3]);
+            return new ResourceSearchCursor(field, descending, lastId, parseValue(field, parts[4]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /** @return the opaque token representing this cursor */
+    public String toToken() {
+        String decoded =
+                VERSION
+                        + SEPARATOR
+                        + sortField.getFieldName()
+                        + SEPARATOR
+                        + (descending ? "d" : "a")
+                        + SEPARATOR
+                        + lastId
+                        + SEPARATOR
+                        + formatValue(lastValue);
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(decoded.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Checks that this cursor has been created for a search with the given sort.
+     *
+     * @param sortBy the requested sort field
+     * @param sortOrder the requested sort order
+     * @return true if the cursor can be used to continue the search
+     */
+    public boolean matches(String sortBy, String sortOrder) {
+        return sortField == getSortField(sortBy) && descending == isDescending(sortBy, sortOrder);
+    }
+
+    public BaseField getSortField() {
+        return sortField;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    public Object getLastValue() {
+        return lastValue;
+    }
+
+    private static boolean isDescending(String sortBy, String sortOrder) {
+        // the default sort by name is always ascending
+        return sortBy != null && !sortBy.isBlank() && "DESC".equalsIgnoreCase(sortOrder);
+    }
+
+    private static String formatValue(Object value) {
+        if (value instanceof Date) {
+            // keep the sub-millisecond precision of the stored timestamp, or the seek would
+            // return the last resource again
+            Date date = (Date) value;
+            int nanos =
+                    date instanceof Timestamp
+                            ? ((Timestamp) date).getNanos()
+                            : (int) Math.floorMod(date.getTime(), 1000L) * 1000000;
+            return date.getTime() + "." + nanos;
+        }
+        return String.valueOf(value);
+    }
+
+    private static Object parseValue(BaseField field, String value) {
+        switch (field) {
+            case ID:
+                return Long.valueOf(value);
+            case CREATION:
+                int dot = value.indexOf('.');
+                if (dot < 0) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                Timestamp timestamp = new Timestamp(Long.parseLong(value.substring(0, dot)));
+                timestamp.setNanos(Integer.parseInt(value.substring(dot + 1)));
+                return timestamp;
+            default:
+                return value;
+        }
+    }
+}
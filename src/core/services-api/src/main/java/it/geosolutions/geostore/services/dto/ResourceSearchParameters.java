@@ -7,6 +7,7 @@ public class ResourceSearchParameters {
     private final SearchFilter filter;
     private final Integer page;
     private final Integer entries;
+    private final String cursor;
     private final String sortBy;
     private final String sortOrder;
     private final String nameLike;
@@ -20,6 +21,7 @@ public class ResourceSearchParameters {
             SearchFilter filter,
             Integer page,
             Integer entries,
+            String cursor,
             String sortBy,
             String sortOrder,
             String nameLike,
@@ -31,6 +33,7 @@ public class ResourceSearchParameters {
         this.filter = filter;
         this.page = page;
         this.entries = entries;
+        this.cursor = cursor;
         this.sortBy = sortBy;
         this.sortOrder = sortOrder;
         this.nameLike = nameLike;
@@ -53,6 +56,15 @@ public class ResourceSearchParameters {
         return entries;
     }
 
+    /**
+     * @return the token returned with the previous page of a cursor based search, or null for an
+     *     offset based search
+     * @see ResourceSearchCursor
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
     public String getSortBy() {
         return sortBy;
     }
@@ -93,6 +105,7 @@ public class ResourceSearchParameters {
         private SearchFilter filter;
         private Integer page;
         private Integer entries;
+        private String cursor;
         private String sortBy;
         private String sortOrder;
         private String nameLike;
@@ -119,6 +132,11 @@ public class ResourceSearchParameters {
             return this;
         }
 
+        public Builder cursor(String cursor) {
+            this.cursor = cursor;
+            return this;
+        }
+
         public Builder sortBy(String sortBy) {
             this.sortBy = sortBy;
             return this;
@@ -164,6 +182,7 @@ public class ResourceSearchParameters {
                     filter,
                     page,
                     entries,
+                    cursor,
                     sortBy,
                     sortOrder,
                     nameLike,
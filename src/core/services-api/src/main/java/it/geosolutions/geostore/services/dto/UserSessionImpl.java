@@ -104,6 +104,10 @@ public class UserSessionImpl implements UserSession {
         }
     }
 
+    public Calendar getExpiration() {
+        return expiration;
+    }
+
     public void setExpiration(Calendar expiration) {
         this.expiration = expiration;
     }
@@ -0,0 +1,526 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import it.geosolutions.geostore.core.dao.UserSessionDAO;
+import it.geosolutions.geostore.core.model.User;
+import it.geosolutions.geostore.core.model.UserAttribute;
+import it.geosolutions.geostore.core.model.UserGroup;
+import it.geosolutions.geostore.core.model.UserSessionEntry;
+import it.geosolutions.geostore.core.model.enums.Role;
+import it.geosolutions.geostore.services.dto.UserSession;
+import it.geosolutions.geostore.services.dto.UserSessionImpl;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Hibernate;
+
+/**
+ * UserSessionService storing the sessions in the GeoStore database, so that several GeoStore
+ * instances behind a load balancer share them.
+ *
+ * <p>Sessions read from the database are kept in a local near cache for a short time
+ * (nearCacheTtlSeconds), so a session removed by another instance may still be accepted here for
+ * that long. Refreshing a session only updates the local copy; the new expirations are written in a
+ * single batch every flushSeconds, unless the stored expiration is about to pass, in which case it
+ * is written immediately. Sessions expired for more than cleanUpGraceSeconds are deleted every
+ * cleanUpSeconds; reads never delete them.
+ *
+ * <p>The user of a session is stored as a JSON snapshot of its name, id, role, groups and
+ * attributes.
+ */
+public class DatabaseUserSessionServiceImpl implements UserSessionService {
+
+    private static final Logger LOGGER = LogManager.getLogger(DatabaseUserSessionServiceImpl.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private UserSessionDAO userSessionDAO;
+
+    private final Map<String, Date> pendingExpirations = new ConcurrentHashMap<>();
+
+    private volatile int nearCacheTtlSeconds = 30;
+
+    private volatile long nearCacheMaxSize = 10000;
+
+    private volatile Cache<String, StoredSession> nearCache;
+
+    private volatile int flushSeconds = 5;
+
+    private volatile int cleanUpSeconds = 60;
+
+    private volatile int cleanUpGraceSeconds = 60;
+
+    private volatile ScheduledExecutorService scheduler;
+
+    public void setUserSessionDAO(UserSessionDAO userSessionDAO) {
+        this.userSessionDAO = userSessionDAO;
+    }
+
+    /**
+     * Seconds a session read from the database is kept in memory (defaults to 30s, 0 disables the
+     * near cache).
+     *
+     * @param nearCacheTtlSeconds
+     */
+    public void setNearCacheTtlSeconds(int nearCacheTtlSeconds) {
+        this.nearCacheTtlSeconds = nearCacheTtlSeconds;
+        this.nearCache = null;
+    }
+
+    public void setNearCacheMaxSize(long nearCacheMaxSize) {
+        this.nearCacheMaxSize = nearCacheMaxSize;
+        this.nearCache = null;
+    }
+
+    /**
+     * Seconds between the writes of the refreshed expirations (defaults to 5s).
+     *
+     * @param flushSeconds
+     */
+    public void setFlushSeconds(int flushSeconds) {
+        this.flushSeconds = flushSeconds;
+    }
+
+    /**
+     * Seconds between the removals of the expired sessions (defaults to 60s).
+     *
+     * @param cleanUpSeconds
+     */
+    public void setCleanUpSeconds(int cleanUpSeconds) {
+        this.cleanUpSeconds = cleanUpSeconds;
+    }
+
+    /**
+     * Seconds a session must have been expired for before it is deleted (defaults to 60s), so that
+     * a refresh still on its way from another instance, or a clock skew between the instances, does
+     * not lose the session.
+     *
+     * @param cleanUpGraceSeconds
+     */
+    public void setCleanUpGraceSeconds(int cleanUpGraceSeconds) {
+        this.cleanUpGraceSeconds = cleanUpGraceSeconds;
+    }
+
+    /** Starts the background writes and clean up. */
+    public synchronized void init() {
+        if (scheduler == null) {
+            ScheduledExecutorService executor =
+                    Executors.newSingleThreadScheduledExecutor(
+                            r -> {
+                                Thread thread = new Thread(r, "geostore-user-sessions");
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+            executor.scheduleWithFixedDelay(
+                    this::flushSafely, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+            executor.scheduleWithFixedDelay(
+                    this::removeExpiredSafely, cleanUpSeconds, cleanUpSeconds, TimeUnit.SECONDS);
+            scheduler = executor;
+        }
+    }
+
+    /** Stops the background tasks, writing the pending expirations. */
+    public synchronized void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        flushSafely();
+    }
+
+    @Override
+    public User getUserData(String sessionId) {
+        UserSession session = getSession(sessionId);
+        // expired sessions are left to removeExpired, another instance may be refreshing them
+        if (session == null || session.isExpired()) {
+            return null;
+        }
+        return session.getUser();
+    }
+
+    @Override
+    public String getRefreshToken(String sessionId) {
+        UserSession session = getSession(sessionId);
+        return session != null ? session.getRefreshToken() : null;
+    }
+
+    @Override
+    public UserSession refreshSession(String sessionId, String refreshToken) {
+        StoredSession stored = getStoredSession(sessionId);
+        if (stored == null) {
+            return null;
+        }
+        UserSession session = stored.session;
+        if (session.getRefreshToken() != null && session.getRefreshToken().equals(refreshToken)) {
+            session.refresh();
+            Date expiration = getExpiration(session);
+            if (expiration != null) {
+                if (isAboutToExpire(stored.getExpiration())) {
+                    // the row could be removed before the next flush
+                    pendingExpirations.remove(sessionId);
+                    userSessionDAO.updateExpirations(Map.of(sessionId, expiration));
+                    stored.setExpiration(expiration);
+                } else {
+                    pendingExpirations.merge(sessionId, expiration, (a, b) -> a.after(b) ? a : b);
+                }
+            }
+        }
+        return session;
+    }
+
+    @Override
+    public void registerNewSession(String sessionId, UserSession session) {
+        session.setId(sessionId);
+        UserSessionEntry entry = toEntry(sessionId, session);
+        userSessionDAO.persist(entry);
+        Cache<String, StoredSession> cache = getNearCache();
+        if (cache != null) {
+            cache.put(sessionId, new StoredSession(session, entry.getExpiration()));
+        }
+    }
+
+    @Override
+    public UserSession registerNewSession(UserSession session) {
+        session.setRefreshToken(createSessionId());
+        registerNewSession(createSessionId(), session);
+        return session;
+    }
+
+    private String createSessionId() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Override
+    public void removeSession(String sessionId) {
+        pendingExpirations.remove(sessionId);
+        Cache<String, StoredSession> cache = nearCache;
+        if (cache != null) {
+            cache.invalidate(sessionId);
+        }
+        userSessionDAO.removeById(sessionId);
+    }
+
+    @Override
+    public void removeAllSessions() {
+        pendingExpirations.clear();
+        Cache<String, StoredSession> cache = nearCache;
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+        userSessionDAO.removeAll();
+    }
+
+    /**
+     * Checks that owner is the user bound to the given sessionId, comparing the user id with the
+     * string representation of owner or the user with owner.
+     */
+    @Override
+    public boolean isOwner(String sessionId, Object owner) {
+        UserSession session = getSession(sessionId);
+        if (session != null) {
+            return owner.toString().equals(String.valueOf(session.getUser().getId()))
+                    || owner.equals(session.getUser());
+        }
+        return false;
+    }
+
+    /** Writes the refreshed expirations collected since the last flush. */
+    public void flush() {
+        if (pendingExpirations.isEmpty()) {
+            return;
+        }
+        Map<String, Date> batch = new HashMap<>();
+        for (String sessionId : new ArrayList<>(pendingExpirations.keySet())) {
+            Date expiration = pendingExpirations.remove(sessionId);
+            if (expiration != null) {
+                batch.put(sessionId, expiration);
+            }
+        }
+        userSessionDAO.updateExpirations(batch);
+        Cache<String, StoredSession> cache = nearCache;
+        if (cache != null) {
+            for (Map.Entry<String, Date> written : batch.entrySet()) {
+                StoredSession stored = cache.getIfPresent(written.getKey());
+                if (stored != null) {
+                    stored.setExpiration(written.getValue());
+                }
+            }
+        }
+    }
+
+    /** Removes the sessions expired for more than cleanUpGraceSeconds from the database. */
+    public void removeExpired() {
+        long grace = TimeUnit.SECONDS.toMillis(Math.max(cleanUpGraceSeconds, 0));
+        int removed = userSessionDAO.removeExpired(new Date(System.currentTimeMillis() - grace));
+        if (removed > 0 && LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Removed {} expired sessions", removed);
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Error writing the session expirations: {}", e.getMessage(), e);
+        }
+    }
+
+    private void removeExpiredSafely() {
+        try {
+            removeExpired();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Error removing the expired sessions: {}", e.getMessage(), e);
+        }
+    }
+
+    /** @return true if the stored expiration has passed or will before the next flush */
+    private boolean isAboutToExpire(Date storedExpiration) {
+        return storedExpiration != null
+                && storedExpiration.getTime()
+                        <= System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(flushSeconds);
+    }
+
+    private UserSession getSession(String sessionId) {
+        StoredSession stored = getStoredSession(sessionId);
+        return stored != null ? stored.session : null;
+    }
+
+    private StoredSession getStoredSession(String sessionId) {
+        if (sessionId == null) {
+            return null;
+        }
+        Cache<String, StoredSession> cache = getNearCache();
+        if (cache != null) {
+            StoredSession cached = cache.getIfPresent(sessionId);
+            // an expired copy may have been refreshed by another instance
+            if (cached != null && !cached.session.isExpired()) {
+                return cached;
+            }
+        }
+        UserSessionEntry entry = userSessionDAO.find(sessionId);
+        if (entry == null) {
+            if (cache != null) {
+                cache.invalidate(sessionId);
+            }
+            return null;
+        }
+        UserSession session = toSession(entry);
+        if (session == null) {
+            return null;
+        }
+        StoredSession stored = new StoredSession(session, entry.getExpiration());
+        if (cache != null) {
+            cache.put(sessionId, stored);
+        }
+        return stored;
+    }
+
+    private Cache<String, StoredSession> getNearCache() {
+        if (nearCacheTtlSeconds <= 0) {
+            return null;
+        }
+        Cache<String, StoredSession> result = nearCache;
+        if (result == null) {
+            synchronized (this) {
+                result = nearCache;
+                if (result == null) {
+                    result =
+                            Caffeine.newBuilder()
+                                    .maximumSize(nearCacheMaxSize)
+                                    .expireAfterWrite(nearCacheTtlSeconds, TimeUnit.SECONDS)
+                                    .build();
+                    nearCache = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Date getExpiration(UserSession session) {
+        if (session instanceof UserSessionImpl) {
+            Calendar expiration = ((UserSessionImpl) session).getExpiration();
+            return expiration != null ? expiration.getTime() : null;
+        }
+        return null;
+    }
+
+    private static UserSessionEntry toEntry(String sessionId, UserSession session) {
+        User user = session.getUser();
+        UserSessionEntry entry = new UserSessionEntry();
+        entry.setId(sessionId);
+        entry.setRefreshToken(session.getRefreshToken());
+        entry.setUserId(user.getId());
+        entry.setUserName(user.getName());
+        entry.setUserData(writeUser(user));
+        entry.setExpiration(getExpiration(session));
+        entry.setExpirationInterval(session.getExpirationInterval());
+        return entry;
+    }
+
+    private static UserSession toSession(UserSessionEntry entry) {
+        User user = readUser(entry.getUserData());
+        if (user == null) {
+            return null;
+        }
+        Calendar expiration = null;
+        if (entry.getExpiration() != null) {
+            expiration = Calendar.getInstance();
+            expiration.setTime(entry.getExpiration());
+        }
+        UserSessionImpl session = new UserSessionImpl(entry.getId(), user, expiration);
+        session.setRefreshToken(entry.getRefreshToken());
+        session.setExpirationInterval(entry.getExpirationInterval());
+        return session;
+    }
+
+    /** Writes a JSON snapshot of the user, without password and lazy associations. */
+    private static String writeUser(User user) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("id", user.getId());
+        node.put("name", user.getName());
+        node.put("role", user.getRole() != null ? user.getRole().name() : null);
+        node.put("enabled", user.isEnabled());
+        if (user.getGroups() != null && Hibernate.isInitialized(user.getGroups())) {
+            ArrayNode groups = node.putArray("groups");
+            for (UserGroup group : user.getGroups()) {
+                ObjectNode groupNode = groups.addObject();
+                groupNode.put("id", group.getId());
+                groupNode.put("groupName", group.getGroupName());
+                groupNode.put("description", group.getDescription());
+                groupNode.put("enabled", group.isEnabled());
+            }
+        }
+        if (user.getAttribute() != null && Hibernate.isInitialized(user.getAttribute())) {
+            ArrayNode attributes = node.putArray("attributes");
+            for (UserAttribute attribute : user.getAttribute()) {
+                ObjectNode attributeNode = attributes.addObject();
+                attributeNode.put("id", attribute.getId());
+                attributeNode.put("name", attribute.getName());
+                attributeNode.put("value", attribute.getValue());
+            }
+        }
+        try {
+            return MAPPER.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to store the session user", e);
+        }
+    }
+
+    private static User readUser(String userData) {
+        try {
+            JsonNode node = MAPPER.readTree(userData);
+            if (node == null || !node.isObject()) {
+                throw new IllegalArgumentException("not a JSON object");
+            }
+            User user = new User();
+            user.setId(longValue(node.get("id")));
+            user.setName(textValue(node.get("name")));
+            String role = textValue(node.get("role"));
+            user.setRole(role != null ? Role.valueOf(role) : null);
+            user.setEnabled(node.path("enabled").asBoolean(false));
+            if (node.has("groups")) {
+                Set<UserGroup> groups = new HashSet<>();
+                for (JsonNode groupNode : node.get("groups")) {
+                    UserGroup group = new UserGroup();
+                    group.setId(longValue(groupNode.get("id")));
+                    group.setGroupName(textValue(groupNode.get("groupName")));
+                    group.setDescription(textValue(groupNode.get("description")));
+                    group.setEnabled(groupNode.path("enabled").asBoolean(false));
+                    groups.add(group);
+                }
+                user.setGroups(groups);
+            }
+            if (node.has("attributes")) {
+                List<UserAttribute> attributes = new ArrayList<>();
+                for (JsonNode attributeNode : node.get("attributes")) {
+                    UserAttribute attribute = new UserAttribute();
+                    attribute.setId(longValue(attributeNode.get("id")));
+                    attribute.setName(textValue(attributeNode.get("name")));
+                    attribute.setValue(textValue(attributeNode.get("value")));
+                    attributes.add(attribute);
+                }
+                user.setAttribute(attributes);
+            }
+            return user;
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            LOGGER.warn("Unable to read the session user: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static Long longValue(JsonNode node) {
+        return node != null && node.isNumber() ? node.asLong() : null;
+    }
+
+    private static String textValue(JsonNode node) {
+        return node != null && node.isTextual() ? node.asText() : null;
+    }
+
+    /** A session, with the expiration last written in the database. */
+    private static final class StoredSession {
+
+        private final UserSession session;
+
+        private Date expiration;
+
+        StoredSession(UserSession session, Date expiration) {
+            this.session = session;
+            this.expiration = expiration;
+        }
+
+        synchronized Date getExpiration() {
+            return expiration;
+        }
+
+        synchronized void setExpiration(Date expiration) {
+            if (this.expiration == null || expiration.after(this.expiration)) {
+                this.expiration = expiration;
+            }
+        }
+    }
+}
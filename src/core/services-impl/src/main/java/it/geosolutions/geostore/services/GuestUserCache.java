@@ -0,0 +1,187 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services;
+
+import it.geosolutions.geostore.core.model.User;
+import it.geosolutions.geostore.core.model.enums.UserReservedNames;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Holds the guest user, together with its groups, used to authorize the unauthenticated requests.
+ *
+ * <p>Anonymous requests are usually the bulk of the traffic of a public instance, and they would
+ * otherwise load the same guest user from the database every time. The {@link UserService} and
+ * {@link UserGroupService} implementations invalidate the cached user whenever the guest user or a
+ * group is changed; the entry also expires after a configurable time, to pick up the changes made
+ * outside of the services.
+ *
+ * <p>Callers always get a copy of the cached user, so that per-request data (e.g. the IP address)
+ * is never set on the shared instance.
+ */
+public class GuestUserCache {
+
+    private static final Logger LOGGER = LogManager.getLogger(GuestUserCache.class);
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private volatile boolean enabled = true;
+
+    private volatile long ttlSeconds = 300;
+
+    private volatile Entry entry;
+
+    /**
+     * Returns a copy of the guest user, loading it with the given loader if it is not cached.
+     *
+     * @param loader loads the guest user, must not return null
+     * @return a copy of the guest user
+     */
+    public User get(Supplier<User> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Entry current = entry;
+        if (current != null && current.expiration > System.nanoTime()) {
+            hitCount.increment();
+            return copy(current.user);
+        }
+        missCount.increment();
+
+        long loadGeneration = generation.get();
+        User user = loader.get();
+        synchronized (this) {
+            // do not cache a user loaded while it was being changed
+            if (loadGeneration == generation.get()) {
+                entry =
+                        new Entry(
+                                copy(user),
+                                System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds));
+            }
+        }
+        return copy(user);
+    }
+
+    /**
+     * Removes the cached guest user if the given user name is the guest one.
+     *
+     * @param userName the name of a user that has been changed
+     */
+    public void invalidate(String userName) {
+        if (UserReservedNames.GUEST.userName().equals(userName)) {
+            invalidate();
+        }
+    }
+
+    /**
+     * Removes the cached guest user. When called within a transaction, the user is removed again
+     * once the transaction completes, so that a concurrent request cannot cache the state that
+     * preceded the change.
+     */
+    public void invalidate() {
+        doInvalidate();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            doInvalidate();
+                        }
+                    });
+        }
+    }
+
+    private synchronized void doInvalidate() {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Invalidating the cached guest user");
+        }
+        generation.incrementAndGet();
+        entry = null;
+    }
+
+    /** @return the number of lookups that found the cached guest user */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /** @return the number of lookups that had to load the guest user */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            doInvalidate();
+        }
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+        doInvalidate();
+    }
+
+    private static User copy(User user) {
+        User ret = new User(user);
+        if (user.getGroups() != null) {
+            ret.setGroups(new HashSet<>(user.getGroups()));
+        }
+        return ret;
+    }
+
+    private static final class Entry {
+
+        private final User user;
+
+        private final long expiration;
+
+        private Entry(User user, long expiration) {
+            this.user = user;
+            this.expiration = expiration;
+        }
+    }
+}
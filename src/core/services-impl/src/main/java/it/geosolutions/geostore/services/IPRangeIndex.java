@@ -0,0 +1,366 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services;
+
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.IPAddressString;
+import it.geosolutions.geostore.core.dao.IpRangeDAO;
+import it.geosolutions.geostore.core.model.IPRange;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory index of the IP ranges, answering which ranges contain an address with a binary search
+ * instead of parsing the CIDR of every range referenced by the security rules.
+ *
+ * <p>The index is an immutable snapshot of all the ranges, loaded on first use and rebuilt after
+ * the {@link IPRangeService} implementation changes a range. Ranges are matched by id only when the
+ * indexed bounds are the ones of the range being checked, so that a snapshot that is not aligned
+ * with the database (e.g. a range changed by another instance) never gives a wrong answer: such
+ * ranges are checked directly against their bounds.
+ */
+public class IPRangeIndex {
+
+    private static final Logger LOGGER = LogManager.getLogger(IPRangeIndex.class);
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private IpRangeDAO ipRangeDAO;
+
+    private volatile Snapshot snapshot;
+
+    public void setIpRangeDAO(IpRangeDAO ipRangeDAO) {
+        this.ipRangeDAO = ipRangeDAO;
+    }
+
+    /**
+     * Returns the ids of the indexed ranges containing the given address.
+     *
+     * @param address the address to look up
+     * @return the ids of the ranges containing the address
+     */
+    public Set<Long> getRangesContaining(IPAddress address) {
+        return getSnapshot().rangesContaining(address);
+    }
+
+    /**
+     * Checks whether any of the given ranges contains the given address.
+     *
+     * @param ranges the ranges to check
+     * @param address the address to check
+     * @return <code>true</code> if at least one of the ranges contains the address
+     */
+    public boolean anyContains(Collection<IPRange> ranges, IPAddress address) {
+        return matcher(address).anyContains(ranges);
+    }
+
+    /**
+     * Returns a matcher of the ranges containing the given address, to check several sets of ranges
+     * against the same address. The indexed ranges containing the address are looked up once, on
+     * first use, and then intersected with the checked ones.
+     *
+     * @param address the address to check
+     * @return the matcher of the address
+     */
+    public Matcher matcher(IPAddress address) {
+        return new Matcher(getSnapshot(), address);
+    }
+
+    /**
+     * Returns a matcher checking every range directly against its bounds, for when no index is
+     * available.
+     *
+     * @param address the address to check
+     * @return the matcher of the address
+     */
+    public static Matcher unindexedMatcher(IPAddress address) {
+        return new Matcher(Snapshot.EMPTY, address);
+    }
+
+    /**
+     * Checks ranges against an address, using the snapshot of the index taken when created. Not
+     * thread safe.
+     */
+    public static final class Matcher {
+
+        private final Snapshot snapshot;
+
+        private final IPAddress address;
+
+        private Set<Long> containing;
+
+        private Matcher(Snapshot snapshot, IPAddress address) {
+            this.snapshot = snapshot;
+            this.address = address;
+        }
+
+        /**
+         * @param ranges the ranges to check
+         * @return <code>true</code> if at least one of the ranges contains the address
+         */
+        public boolean anyContains(Collection<IPRange> ranges) {
+            for (IPRange range : ranges) {
+                if (contains(range)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean contains(IPRange range) {
+            if (!snapshot.isIndexed(range)) {
+                return IPRangeIndex.contains(range, address);
+            }
+            if (containing == null) {
+                containing = snapshot.rangesContaining(address);
+            }
+            return containing.contains(range.getId());
+        }
+    }
+
+    /**
+     * Removes the indexed ranges, so that they are loaded again on next use. When called within a
+     * transaction, the index is removed again once the transaction completes, so that a concurrent
+     * request cannot index the state that preceded the change.
+     */
+    public void invalidate() {
+        doInvalidate();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            doInvalidate();
+                        }
+                    });
+        }
+    }
+
+    private synchronized void doInvalidate() {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Invalidating the IP ranges index");
+        }
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    /**
+     * Checks a range against an address without the index, using the bounds of the range or, when
+     * missing, its CIDR.
+     *
+     * @param range the range to check
+     * @param address the address to check
+     * @return <code>true</code> if the range contains the address
+     */
+    public static boolean contains(IPRange range, IPAddress address) {
+        Bounds bounds = Bounds.of(range);
+        return bounds.isIPv6 == address.isIPv6()
+                && bounds.low.compareTo(address.getValue()) <= 0
+                && bounds.high.compareTo(address.getValue()) >= 0;
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        if (ipRangeDAO == null) {
+            return Snapshot.EMPTY;
+        }
+
+        long loadGeneration = generation.get();
+        current = Snapshot.of(ipRangeDAO.findAll());
+        synchronized (this) {
+            // do not keep ranges loaded while they were being changed
+            if (loadGeneration == generation.get()) {
+                snapshot = current;
+            }
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Indexed {} IP ranges", current.bounds.size());
+        }
+        return current;
+    }
+
+    /** Lower and upper bound of a range, as the value of the first and last address. */
+    private static final class Bounds {
+
+        private final boolean isIPv6;
+
+        private final BigInteger low;
+
+        private final BigInteger high;
+
+        private Bounds(boolean isIPv6, BigInteger low, BigInteger high) {
+            this.isIPv6 = isIPv6;
+            this.low = low;
+            this.high = high;
+        }
+
+        private static Bounds of(IPRange range) {
+            if (range.getIpLow() != null && range.getIpHigh() != null) {
+                boolean isIPv6 = range.getCidr() != null && range.getCidr().indexOf(':') >= 0;
+                return new Bounds(isIPv6, range.getIpLow(), range.getIpHigh());
+            }
+            IPAddress block = new IPAddressString(range.getCidr()).getAddress().toPrefixBlock();
+            return new Bounds(
+                    block.isIPv6(), block.getLower().getValue(), block.getUpper().getValue());
+        }
+
+        private boolean isSameAs(IPRange range) {
+            return low.equals(range.getIpLow()) && high.equals(range.getIpHigh());
+        }
+    }
+
+    /** Immutable index of all the ranges, split by address family. */
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = of(Collections.emptyList());
+
+        private final Map<Long, Bounds> bounds;
+
+        private final Intervals ipv4;
+
+        private final Intervals ipv6;
+
+        private Snapshot(Map<Long, Bounds> bounds) {
+            this.bounds = bounds;
+            this.ipv4 = new Intervals(bounds, false);
+            this.ipv6 = new Intervals(bounds, true);
+        }
+
+        private static Snapshot of(List<IPRange> ranges) {
+            Map<Long, Bounds> bounds = new HashMap<>();
+            for (IPRange range : ranges) {
+                if (range.getId() != null && range.getCidr() != null) {
+                    bounds.put(range.getId(), Bounds.of(range));
+                }
+            }
+            return new Snapshot(bounds);
+        }
+
+        private boolean isIndexed(IPRange range) {
+            if (range.getId() == null) {
+                return false;
+            }
+            Bounds indexed = bounds.get(range.getId());
+            return indexed != null && indexed.isSameAs(range);
+        }
+
+        private Set<Long> rangesContaining(IPAddress address) {
+            return (address.isIPv6() ? ipv6 : ipv4).containing(address.getValue());
+        }
+    }
+
+    /**
+     * Ranges of one address family, sorted by lower bound and, for the same lower bound, from the
+     * widest. CIDR blocks are either disjoint or nested, so the ranges containing an address are
+     * the last range starting at or before it, and its enclosing ones.
+     */
+    private static final class Intervals {
+
+        private final long[] ids;
+
+        private final BigInteger[] lows;
+
+        private final BigInteger[] highs;
+
+        /** Index of the nearest enclosing range, or -1 */
+        private final int[] parents;
+
+        private Intervals(Map<Long, Bounds> bounds, boolean isIPv6) {
+            List<Map.Entry<Long, Bounds>> entries = new ArrayList<>();
+            for (Map.Entry<Long, Bounds> entry : bounds.entrySet()) {
+                if (entry.getValue().isIPv6 == isIPv6) {
+                    entries.add(entry);
+                }
+            }
+            entries.sort(
+                    Comparator.comparing((Map.Entry<Long, Bounds> e) -> e.getValue().low)
+                            .thenComparing(e -> e.getValue().high, Comparator.reverseOrder())
+                            .thenComparing(Map.Entry::getKey));
+
+            int size = entries.size();
+            ids = new long[size];
+            lows = new BigInteger[size];
+            highs = new BigInteger[size];
+            parents = new int[size];
+            Deque<Integer> enclosing = new ArrayDeque<>();
+            for (int i = 0; i < size; i++) {
+                Map.Entry<Long, Bounds> entry = entries.get(i);
+                ids[i] = entry.getKey();
+                lows[i] = entry.getValue().low;
+                highs[i] = entry.getValue().high;
+                while (!enclosing.isEmpty() && highs[enclosing.peek()].compareTo(lows[i]) < 0) {
+                    enclosing.pop();
+                }
+                parents[i] = enclosing.isEmpty() ? -1 : enclosing.peek();
+                enclosing.push(i);
+            }
+        }
+
+        private Set<Long> containing(BigInteger value) {
+            // last range starting at or before the value
+            int low = 0;
+            int high = lows.length - 1;
+            int last = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (lows[mid].compareTo(value) <= 0) {
+                    last = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+
+            Set<Long> result = new HashSet<>();
+            for (int i = last; i >= 0; i = parents[i]) {
+                if (highs[i].compareTo(value) >= 0) {
+                    result.add(ids[i]);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -40,10 +40,16 @@ public class IPRangeServiceImpl implements IPRangeService {
 
     private IpRangeDAO ipRangeDAO;
 
+    private IPRangeIndex ipRangeIndex;
+
     public void setIpRangeDAO(IpRangeDAO ipRangeDAO) {
         this.ipRangeDAO = ipRangeDAO;
     }
 
+    public void setIpRangeIndex(IPRangeIndex ipRangeIndex) {
+        this.ipRangeIndex = ipRangeIndex;
+    }
+
     @Override
     @Transactional(value = "geostoreTransactionManager")
     public long insert(IPRange ipRange) throws BadRequestServiceEx {
@@ -64,6 +70,7 @@ public class IPRangeServiceImpl implements IPRangeService {
         updateIPRangeBounds(ipRange);
 
         ipRangeDAO.persist(ipRange);
+        invalidateIndex();
 
         return ipRange.getId();
     }
@@ -123,6 +130,7 @@ public class IPRangeServiceImpl implements IPRangeService {
         ipRange.setId(id);
 
         ipRangeDAO.merge(ipRange);
+        invalidateIndex();
 
         return id;
     }
@@ -138,6 +146,13 @@ public class IPRangeServiceImpl implements IPRangeService {
         if (get(id) == null || !ipRangeDAO.removeById(id)) {
             throw new NotFoundServiceEx("IPRange not found");
         }
+        invalidateIndex();
+    }
+
+    private void invalidateIndex() {
+        if (ipRangeIndex != null) {
+            ipRangeIndex.invalidate();
+        }
     }
 
     public long count() {
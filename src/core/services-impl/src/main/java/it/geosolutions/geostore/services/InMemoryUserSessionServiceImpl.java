@@ -27,60 +27,78 @@
  */
 package it.geosolutions.geostore.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
 import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.services.dto.UserSession;
-import java.util.Map;
+import it.geosolutions.geostore.services.dto.UserSessionImpl;
+import java.util.Calendar;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
  * In memory implementation of a UserSessionService.
  *
+ * <p>Sessions are kept ordered by expiration, so each session is removed refreshGraceSeconds after
+ * it expires, without scanning the others. Within that grace period an expired session is no longer
+ * accepted, but can still be refreshed.
+ *
  * @author Mauro Bartolomeoli
  * @author Lorenzo Natali
  */
 public class InMemoryUserSessionServiceImpl implements UserSessionService {
 
-    private Map<String, UserSession> sessions = new ConcurrentHashMap<String, UserSession>();
-    private int cleanUpSeconds = 60;
-
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-
-    private Runnable evictionTask =
-            new Runnable() {
-                @Override
-                public void run() {
-                    for (String sessionId : sessions.keySet()) {
-                        UserSession session = sessions.get(sessionId);
-                        if (session.isExpired()) {
-                            removeSession(sessionId);
-                        }
-                    }
-                }
-            };
+    private volatile long refreshGraceSeconds = 60;
+
+    private final Cache<String, UserSession> sessions =
+            Caffeine.newBuilder()
+                    .expireAfter(new SessionExpiry())
+                    .scheduler(Scheduler.systemScheduler())
+                    .recordStats()
+                    .build();
 
     public InMemoryUserSessionServiceImpl() {
         super();
-        // schedule eviction thread
-        scheduler.scheduleAtFixedRate(
-                evictionTask, cleanUpSeconds, cleanUpSeconds, TimeUnit.SECONDS);
     }
 
-    public void setCleanUpSeconds(int cleanUpSeconds) {
-        this.cleanUpSeconds = cleanUpSeconds;
+    /**
+     * @deprecated expired sessions are removed when they expire, there is no periodic clean up any
+     *     more
+     */
+    @Deprecated
+    public void setCleanUpSeconds(int cleanUpSeconds) {}
+
+    public long getRefreshGraceSeconds() {
+        return refreshGraceSeconds;
+    }
+
+    /**
+     * Seconds an expired session is kept so that it can still be refreshed (defaults to 60s, the
+     * delay of the former periodic clean up), 0 to remove the sessions as soon as they expire.
+     *
+     * @param refreshGraceSeconds
+     */
+    public void setRefreshGraceSeconds(long refreshGraceSeconds) {
+        this.refreshGraceSeconds = refreshGraceSeconds;
+    }
+
+    /** @return the approximate number of sessions */
+    public long getSize() {
+        return sessions.estimatedSize();
+    }
+
+    /** @return the number of sessions removed because they expired */
+    public long getEvictionCount() {
+        return sessions.stats().evictionCount();
     }
 
     @Override
     public User getUserData(String sessionId) {
-        if (sessions.containsKey(sessionId)) {
-            UserSession session = sessions.get(sessionId);
-            if (session.isExpired()) {
-                removeSession(sessionId);
-                return null;
-            }
+        UserSession session = sessions.getIfPresent(sessionId);
+        // an expired session is kept for the grace period, so that it can be refreshed
+        if (session != null && !session.isExpired()) {
             return session.getUser();
         }
         return null;
@@ -107,12 +125,12 @@ public class InMemoryUserSessionServiceImpl implements UserSessionService {
 
     @Override
     public void removeSession(String sessionId) {
-        sessions.remove(sessionId);
+        sessions.invalidate(sessionId);
     }
 
     @Override
     public void removeAllSessions() {
-        sessions.clear();
+        sessions.invalidateAll();
     }
 
     /**
@@ -125,7 +143,7 @@ public class InMemoryUserSessionServiceImpl implements UserSessionService {
      * @return
      */
     public boolean isOwner(String sessionId, Object owner) {
-        UserSession session = sessions.get(sessionId);
+        UserSession session = sessions.getIfPresent(sessionId);
         if (session != null) {
             return owner.toString().equals(String.valueOf(session.getUser().getId()))
                     || owner.equals(session.getUser());
@@ -135,19 +153,56 @@ public class InMemoryUserSessionServiceImpl implements UserSessionService {
 
     @Override
     public UserSession refreshSession(String sessionId, String refreshToken) {
-        if (sessions.containsKey(sessionId)) {
-            UserSession sess = sessions.get(sessionId);
-            if (sess != null && sess.getRefreshToken().equals(refreshToken)) sess.refresh();
-            return sess;
-        }
-        return null;
+        // updating the entry moves it to its new expiration
+        return sessions.asMap()
+                .computeIfPresent(
+                        sessionId,
+                        (id, sess) -> {
+                            if (sess.getRefreshToken().equals(refreshToken)) sess.refresh();
+                            return sess;
+                        });
     }
 
     @Override
     public String getRefreshToken(String sessionId) {
-        if (sessions.containsKey(sessionId)) {
-            return sessions.get(sessionId).getRefreshToken();
+        UserSession session = sessions.getIfPresent(sessionId);
+        if (session != null) {
+            return session.getRefreshToken();
         }
         return null;
     }
+
+    /**
+     * Expires each session after its expiration time and the refresh grace period, sessions without
+     * one never expire.
+     */
+    private final class SessionExpiry implements Expiry<String, UserSession> {
+
+        @Override
+        public long expireAfterCreate(String sessionId, UserSession session, long currentTime) {
+            if (session instanceof UserSessionImpl) {
+                Calendar expiration = ((UserSessionImpl) session).getExpiration();
+                if (expiration != null) {
+                    long remaining =
+                            expiration.getTimeInMillis()
+                                    + TimeUnit.SECONDS.toMillis(Math.max(refreshGraceSeconds, 0))
+                                    - System.currentTimeMillis();
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public long expireAfterUpdate(
+                String sessionId, UserSession session, long currentTime, long currentDuration) {
+            return expireAfterCreate(sessionId, session, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(
+                String sessionId, UserSession session, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -1,16 +1,14 @@
 package it.geosolutions.geostore.services;
 
 import inet.ipaddr.IPAddress;
-import inet.ipaddr.IPAddressString;
-import it.geosolutions.geostore.core.model.IPRange;
 import it.geosolutions.geostore.core.model.Resource;
 import it.geosolutions.geostore.core.model.SecurityRule;
 import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.model.UserGroup;
 import it.geosolutions.geostore.core.model.enums.Role;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.function.BiPredicate;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -18,80 +16,25 @@ public class ResourcePermissionServiceImpl implements ResourcePermissionService
 
     private static final Logger LOGGER = LogManager.getLogger(ResourcePermissionServiceImpl.class);
 
-    private final BiPredicate<SecurityRule, User> resourceUserOwnership =
-            (rule, user) ->
-                    rule.getUsername() != null && rule.getUsername().equals(user.getName())
-                            || rule.getUser() != null
-                                    && rule.getUser().getId() != null
-                                    && rule.getUser().getId().equals(user.getId());
+    private IPRangeIndex ipRangeIndex;
 
-    private final BiPredicate<SecurityRule, UserGroup> resourceGroupOwnership =
-            (rule, group) ->
-                    rule.getGroupname() != null && rule.getGroupname().equals(group.getGroupName())
-                            || rule.getGroup() != null
-                                    && rule.getGroup().getId() != null
-                                    && rule.getGroup().getId().equals(group.getId());
-
-    private final BiPredicate<SecurityRule, User> resourceUserIPAccess =
-            (rule, user) -> isUserIPAllowed(user, rule.getIpRanges());
-
-    private final BiPredicate<SecurityRule, User> resourceUserOwnershipWithReadPermission =
-            (rule, user) -> resourceUserOwnership.test(rule, user) && rule.isCanRead();
-
-    private final BiPredicate<SecurityRule, UserGroup> resourceGroupOwnershipWithReadPermission =
-            (rule, group) -> resourceGroupOwnership.test(rule, group) && rule.isCanRead();
-
-    private final BiPredicate<SecurityRule, User> resourceUserIPAccessWithReadPermission =
-            (rule, user) -> resourceUserIPAccess.test(rule, user) && rule.isCanRead();
-
-    private final BiPredicate<SecurityRule, User> resourceUserOwnershipWithWritePermission =
-            (rule, user) -> resourceUserOwnership.test(rule, user) && rule.isCanWrite();
-
-    private final BiPredicate<SecurityRule, UserGroup> resourceGroupOwnershipWithWritePermission =
-            (rule, group) -> resourceGroupOwnership.test(rule, group) && rule.isCanWrite();
-
-    private final BiPredicate<SecurityRule, User> resourceUserIPAccessWithWritePermission =
-            (rule, user) -> resourceUserIPAccess.test(rule, user) && rule.isCanWrite();
+    public void setIpRangeIndex(IPRangeIndex ipRangeIndex) {
+        this.ipRangeIndex = ipRangeIndex;
+    }
 
     @Override
     public boolean canResourceBeReadByUser(Resource resource, User user) {
-        if (user.getRole() != null && user.getRole().equals(Role.ADMIN)) {
-            return true;
-        }
-        checkResourceSecurityRules(resource);
-        return canUserAccessWithReadPermission(resource, user);
-    }
-
-    private boolean canUserAccessWithReadPermission(Resource resource, User user) {
-        return hasUserOwnershipWithReadPermission(user, resource)
-                || haveUserGroupsOwnershipWithReadPermission(user, resource)
-                || hasUserAccessByIpWithReadPermission(user, resource);
-    }
-
-    private boolean hasUserOwnershipWithReadPermission(User user, Resource resource) {
-        return checkSecurityRulesAgainstUser(
-                resource.getSecurity(), user, resourceUserOwnershipWithReadPermission);
+        return forUser(user).canRead(resource);
     }
 
-    private boolean haveUserGroupsOwnershipWithReadPermission(User user, Resource resource) {
-        return checkResourceSecurityRulesAgainstUserGroup(
-                user, resource, resourceGroupOwnershipWithReadPermission);
-    }
-
-    private boolean hasUserAccessByIpWithReadPermission(User user, Resource resource) {
-        return checkSecurityRulesAgainstUser(
-                resource.getSecurity(), user, resourceUserIPAccessWithReadPermission);
+    @Override
+    public boolean canResourceBeWrittenByUser(Resource resource, User user) {
+        return forUser(user).canWrite(resource);
     }
 
     @Override
-    public boolean canResourceBeWrittenByUser(Resource resource, User user) {
-        if (user.getRole() != null
-                && !user.getRole().equals(Role.GUEST)
-                && user.getRole().equals(Role.ADMIN)) {
-            return true;
-        }
-        checkResourceSecurityRules(resource);
-        return canUserAccessWithWritePermission(resource, user);
+    public UserPermissions forUser(User user) {
+        return new PrincipalKeys(user);
     }
 
     private void checkResourceSecurityRules(Resource resource) {
@@ -101,75 +44,141 @@ public class ResourcePermissionServiceImpl implements ResourcePermissionService
         }
     }
 
-    private boolean canUserAccessWithWritePermission(Resource resource, User user) {
-        return hasUserOwnershipWithWritePermission(user, resource)
-                || haveUserGroupsOwnershipWithWritePermission(user, resource)
-                || hasUserAccessByIpWithWritePermission(user, resource);
-    }
-
-    private boolean hasUserOwnershipWithWritePermission(User user, Resource resource) {
-        return checkSecurityRulesAgainstUser(
-                resource.getSecurity(), user, resourceUserOwnershipWithWritePermission);
+    /**
+     * Checks the rules granting the permission against the user, then against its groups, and
+     * finally against its IP address.
+     */
+    private boolean canUserAccess(
+            List<SecurityRule> rules, PrincipalKeys principal, boolean write) {
+        for (SecurityRule rule : rules) {
+            if (grants(rule, write) && principal.isOwner(rule)) {
+                return true;
+            }
+        }
+        if (principal.hasGroups()) {
+            for (SecurityRule rule : rules) {
+                if (grants(rule, write) && principal.isGroupOwner(rule)) {
+                    return true;
+                }
+            }
+        }
+        for (SecurityRule rule : rules) {
+            if (grants(rule, write) && isUserIPAllowed(principal, rule)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private boolean checkSecurityRulesAgainstUser(
-            List<SecurityRule> rules, User user, BiPredicate<SecurityRule, User> check) {
-        return rules.stream().anyMatch(rule -> check.test(rule, user));
+    private static boolean grants(SecurityRule rule, boolean write) {
+        return write ? rule.isCanWrite() : rule.isCanRead();
     }
 
-    private boolean haveUserGroupsOwnershipWithWritePermission(User user, Resource resource) {
-        return checkResourceSecurityRulesAgainstUserGroup(
-                user, resource, resourceGroupOwnershipWithWritePermission);
-    }
+    private boolean isUserIPAllowed(PrincipalKeys principal, SecurityRule rule) {
+        if (rule.getIpRanges() == null || rule.getIpRanges().isEmpty()) {
+            return false;
+        }
 
-    private boolean checkResourceSecurityRulesAgainstUserGroup(
-            User user, Resource resource, BiPredicate<SecurityRule, UserGroup> check) {
+        boolean userAllowed = principal.ipMatcher().anyContains(rule.getIpRanges());
 
-        if (user.getGroups() == null || user.getGroups().isEmpty()) {
-            return false;
+        if (!userAllowed) {
+            LOGGER.debug("User not allowed to access resource due to IP address restriction");
         }
 
-        return user.getGroups().stream()
-                .anyMatch(
-                        group ->
-                                checkSecurityRulesAgainstUserGroup(
-                                        resource.getSecurity(), group, check));
+        return userAllowed;
     }
 
-    private boolean checkSecurityRulesAgainstUserGroup(
-            List<SecurityRule> rules, UserGroup group, BiPredicate<SecurityRule, UserGroup> check) {
-        return rules.stream().anyMatch(rule -> check.test(rule, group));
-    }
+    /**
+     * Permissions of a user: the identifiers of the user and of its groups, matched against the
+     * owners of the security rules with hash lookups, and the ranges containing its IP address,
+     * looked up on first use.
+     */
+    private final class PrincipalKeys implements UserPermissions {
 
-    private boolean hasUserAccessByIpWithWritePermission(User user, Resource resource) {
-        return checkSecurityRulesAgainstUser(
-                resource.getSecurity(), user, resourceUserIPAccessWithWritePermission);
-    }
+        private final boolean admin;
 
-    private boolean isUserIPAllowed(User user, Set<IPRange> ipRanges) {
-        if (ipRanges == null || ipRanges.isEmpty()) {
-            return false;
+        private final int groupCount;
+
+        private final Long userId;
+
+        private final String userName;
+
+        private final Set<Long> groupIds = new HashSet<>();
+
+        private final Set<String> groupNames = new HashSet<>();
+
+        private final IPAddress ipAddress;
+
+        private IPRangeIndex.Matcher ipMatcher;
+
+        private PrincipalKeys(User user) {
+            this.admin = user.getRole() != null && user.getRole().equals(Role.ADMIN);
+            // admins can access every resource, their groups are not needed
+            Set<UserGroup> groups = admin ? null : user.getGroups();
+            this.groupCount = groups != null ? groups.size() : 0;
+            this.userId = user.getId();
+            this.userName = user.getName();
+            this.ipAddress = user.getIpAddress();
+            if (groups != null) {
+                for (UserGroup group : groups) {
+                    if (group.getId() != null) {
+                        groupIds.add(group.getId());
+                    }
+                    if (group.getGroupName() != null) {
+                        groupNames.add(group.getGroupName());
+                    }
+                }
+            }
         }
 
-        boolean userAllowed =
-                ipRanges.stream()
-                        .anyMatch(ipRange -> isUserIPInRange(user.getIpAddress(), ipRange));
+        @Override
+        public boolean canRead(Resource resource) {
+            if (admin) {
+                return true;
+            }
+            checkResourceSecurityRules(resource);
+            return canUserAccess(resource.getSecurity(), this, false);
+        }
 
-        if (!userAllowed) {
-            LOGGER.debug("User not allowed to access resource due to IP address restriction");
+        @Override
+        public boolean canWrite(Resource resource) {
+            if (admin) {
+                return true;
+            }
+            checkResourceSecurityRules(resource);
+            return canUserAccess(resource.getSecurity(), this, true);
         }
 
-        return userAllowed;
-    }
+        private boolean isOwner(SecurityRule rule) {
+            return rule.getUsername() != null && rule.getUsername().equals(userName)
+                    || rule.getUser() != null
+                            && rule.getUser().getId() != null
+                            && rule.getUser().getId().equals(userId);
+        }
 
-    private boolean isUserIPInRange(IPAddress userIPAddress, IPRange ipRange) {
-        if (userIPAddress == null) {
-            throw new IllegalStateException(
-                    "Missing IP address for the requesting user. Cannot proceed.");
+        private boolean hasGroups() {
+            return groupCount > 0;
         }
 
-        IPAddress cidr = new IPAddressString(ipRange.getCidr()).getAddress().toPrefixBlock();
+        private boolean isGroupOwner(SecurityRule rule) {
+            return rule.getGroupname() != null && groupNames.contains(rule.getGroupname())
+                    || rule.getGroup() != null
+                            && rule.getGroup().getId() != null
+                            && groupIds.contains(rule.getGroup().getId());
+        }
 
-        return cidr.contains(userIPAddress);
+        private IPRangeIndex.Matcher ipMatcher() {
+            if (ipAddress == null) {
+                throw new IllegalStateException(
+                        "Missing IP address for the requesting user. Cannot proceed.");
+            }
+            if (ipMatcher == null) {
+                ipMatcher =
+                        ipRangeIndex != null
+                                ? ipRangeIndex.matcher(ipAddress)
+                                : IPRangeIndex.unindexedMatcher(ipAddress);
+            }
+            return ipMatcher;
+        }
     }
 }
@@ -45,11 +45,15 @@ import it.geosolutions.geostore.core.model.Resource;
 import it.geosolutions.geostore.core.model.SecurityRule;
 import it.geosolutions.geostore.core.model.StoredData;
 import it.geosolutions.geostore.core.model.User;
+import it.geosolutions.geostore.core.model.UserFavorite;
 import it.geosolutions.geostore.core.model.UserGroup;
 import it.geosolutions.geostore.core.model.enums.DataType;
+import it.geosolutions.geostore.services.ResourcePermissionService.UserPermissions;
+import it.geosolutions.geostore.services.dto.ResourceSearchCursor;
 import it.geosolutions.geostore.services.dto.ResourceSearchParameters;
 import it.geosolutions.geostore.services.dto.ShortAttribute;
 import it.geosolutions.geostore.services.dto.ShortResource;
+import it.geosolutions.geostore.services.dto.search.BaseField;
 import it.geosolutions.geostore.services.dto.search.SearchFilter;
 import it.geosolutions.geostore.services.exception.BadRequestServiceEx;
 import it.geosolutions.geostore.services.exception.DuplicatedResourceNameServiceEx;
@@ -58,9 +62,13 @@ import it.geosolutions.geostore.services.exception.NotFoundServiceEx;
 import it.geosolutions.geostore.util.SearchConverter;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.regex.Matcher;
@@ -69,6 +77,7 @@ import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Class ResourceServiceImpl.
@@ -166,49 +175,16 @@ public class ResourceServiceImpl implements ResourceService {
             }
 
         } else if (category.getName() != null) {
-            Search searchCriteria = new Search(Category.class);
-            searchCriteria.addFilterEqual("name", category.getName());
-
-            List<Category> categories = categoryDAO.search(searchCriteria);
-            if (categories.isEmpty()) {
+            loadedCategory = categoryDAO.findByName(category.getName());
+            if (loadedCategory == null) {
                 throw new NotFoundServiceEx(
                         "Resource Category not found [name:" + category.getName() + "]");
             }
-            loadedCategory = categories.get(0);
         }
 
-        Resource r = new Resource();
-        r.setCreation(new Date());
-        r.setDescription(resource.getDescription());
-        r.setMetadata(resource.getMetadata());
-        r.setName(resource.getName());
-        r.setCategory(loadedCategory);
-        r.setAdvertised(resource.isAdvertised());
-
-        // Extract "owner"/"creator" and "editor" values
+        Resource r = newResource(resource, loadedCategory);
         List<SecurityRule> rules = resource.getSecurity();
 
-        if (rules != null) {
-            for (SecurityRule securityRule : rules) {
-                if ((securityRule.getUser() != null || securityRule.getUsername() != null)
-                        && securityRule.isCanWrite()) {
-                    final String owner =
-                            securityRule.getUser() != null
-                                    ? securityRule.getUser().getName()
-                                    : securityRule.getUsername();
-                    r.setCreator(owner);
-                    if (resource.getEditor() != null) {
-                        r.setEditor(owner);
-                    } else {
-                        r.setEditor(resource.getEditor());
-                    }
-                }
-            }
-        } else {
-            r.setCreator(resource.getCreator());
-            r.setEditor(resource.getEditor());
-        }
-
         try {
             resourceDAO.persist(r);
         } catch (DataIntegrityViolationException exc) {
@@ -255,6 +231,232 @@ public class ResourceServiceImpl implements ResourceService {
         }
     }
 
+    /**
+     * Creates the entity to be persisted for the given resource, extracting the "owner"/"creator"
+     * and "editor" values from its security rules.
+     */
+    private Resource newResource(Resource resource, Category category) {
+        Resource r = new Resource();
+        r.setCreation(new Date());
+        r.setDescription(resource.getDescription());
+        r.setMetadata(resource.getMetadata());
+        r.setName(resource.getName());
+        r.setCategory(category);
+        r.setAdvertised(resource.isAdvertised());
+
+        // Extract "owner"/"creator" and "editor" values
+        List<SecurityRule> rules = resource.getSecurity();
+
+        if (rules != null) {
+            for (SecurityRule securityRule : rules) {
+                if ((securityRule.getUser() != null || securityRule.getUsername() != null)
+                        && securityRule.isCanWrite()) {
+                    final String owner =
+                            securityRule.getUser() != null
+                                    ? securityRule.getUser().getName()
+                                    : securityRule.getUsername();
+                    r.setCreator(owner);
+                    if (resource.getEditor() != null) {
+                        r.setEditor(owner);
+                    } else {
+                        r.setEditor(resource.getEditor());
+                    }
+                }
+            }
+        } else {
+            r.setCreator(resource.getCreator());
+            r.setEditor(resource.getEditor());
+        }
+        return r;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see it.geosolutions.geostore.services.ResourceService#insertAll(java.util.List)
+     */
+    @Override
+    @Transactional(value = "geostoreTransactionManager")
+    public List<Long> insertAll(List<Resource> resources)
+            throws BadRequestServiceEx, NotFoundServiceEx, DuplicatedResourceNameServiceEx {
+        if (resources == null || resources.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Persisting {} Resources ... ", resources.size());
+        }
+
+        //
+        // Checking the names, both within the list and against the stored resources
+        //
+        Set<String> names = new HashSet<>();
+        for (Resource resource : resources) {
+            if (resource.getCategory() == null) {
+                throw new BadRequestServiceEx("Category type must be specified");
+            }
+            if (!names.add(resource.getName())) {
+                throw new DuplicatedResourceNameServiceEx(resource.getName());
+            }
+        }
+        Search byName = new Search(Resource.class);
+        byName.addFilterIn("name", names);
+        List<Resource> existing = resourceDAO.search(byName);
+        if (!existing.isEmpty()) {
+            throw new DuplicatedResourceNameServiceEx(
+                    suggestValidResourceName(existing.get(0).getName()));
+        }
+
+        //
+        // Resolving categories and user groups once for the whole list
+        //
+        Set<Long> categoryIds = new HashSet<>();
+        Set<String> categoryNames = new HashSet<>();
+        for (Resource resource : resources) {
+            if (resource.getCategory().getId() != null) {
+                categoryIds.add(resource.getCategory().getId());
+            } else {
+                categoryNames.add(resource.getCategory().getName());
+            }
+        }
+        List<Filter> categoryFilters = new ArrayList<>();
+        if (!categoryIds.isEmpty()) {
+            categoryFilters.add(Filter.in("id", categoryIds));
+        }
+        if (!categoryNames.isEmpty()) {
+            categoryFilters.add(Filter.in("name", categoryNames));
+        }
+        Search byCategory = new Search(Category.class);
+        byCategory.addFilterOr(categoryFilters.toArray(new Filter[0]));
+        Map<Long, Category> categoriesById = new HashMap<>();
+        Map<String, Category> categoriesByName = new HashMap<>();
+        for (Category category : categoryDAO.search(byCategory)) {
+            categoriesById.put(category.getId(), category);
+            categoriesByName.put(category.getName(), category);
+        }
+        Map<Long, UserGroup> groups = loadRuleGroups(resources);
+
+        //
+        // Building the entities, the input objects are left untouched so that the caller can
+        // retry them if the transaction is rolled back
+        //
+        List<Resource> entities = new ArrayList<>(resources.size());
+        for (Resource resource : resources) {
+            Category category = resource.getCategory();
+            Category loadedCategory =
+                    category.getId() != null
+                            ? categoriesById.get(category.getId())
+                            : categoriesByName.get(category.getName());
+            if (loadedCategory == null) {
+                throw new NotFoundServiceEx(
+                        "Resource Category not found ["
+                                + (category.getId() != null
+                                        ? "id:" + category.getId()
+                                        : "name:" + category.getName())
+                                + "]");
+            }
+            entities.add(newResource(resource, loadedCategory));
+        }
+
+        try {
+            resourceDAO.persist(entities.toArray(new Resource[0]));
+        } catch (DataIntegrityViolationException exc) {
+            throw new BadRequestServiceEx(exc.getLocalizedMessage());
+        }
+
+        List<Attribute> attributes = new ArrayList<>();
+        List<StoredData> data = new ArrayList<>();
+        List<SecurityRule> rules = new ArrayList<>();
+        List<Long> ids = new ArrayList<>(resources.size());
+        for (int i = 0; i < resources.size(); i++) {
+            Resource resource = resources.get(i);
+            Resource r = entities.get(i);
+            ids.add(r.getId());
+
+            if (resource.getAttribute() != null) {
+                for (Attribute a : resource.getAttribute()) {
+                    Attribute attribute = new Attribute();
+                    attribute.setName(a.getName());
+                    attribute.setType(a.getType());
+                    attribute.setTextValue(a.getTextValue());
+                    attribute.setNumberValue(a.getNumberValue());
+                    attribute.setDateValue(a.getDateValue());
+                    attribute.setResource(r);
+                    attributes.add(attribute);
+                }
+            }
+
+            if (resource.getData() != null) {
+                StoredData storedData = new StoredData();
+                storedData.setId(r.getId());
+                storedData.setData(resource.getData().getData());
+                storedData.setResource(r);
+                data.add(storedData);
+            }
+
+            if (resource.getSecurity() != null) {
+                for (SecurityRule sr : resource.getSecurity()) {
+                    SecurityRule rule = new SecurityRule();
+                    rule.setUser(sr.getUser());
+                    rule.setUsername(sr.getUsername());
+                    rule.setGroup(sr.getGroup() != null ? groups.get(sr.getGroup().getId()) : null);
+                    rule.setGroupname(sr.getGroupname());
+                    rule.setCanRead(sr.isCanRead());
+                    rule.setCanWrite(sr.isCanWrite());
+                    if (sr.getIpRanges() != null) {
+                        rule.setIpRanges(new HashSet<>(sr.getIpRanges()));
+                    }
+                    rule.setResource(r);
+                    rules.add(rule);
+                }
+            }
+        }
+
+        // one call per entity type: with hibernate.jdbc.batch_size and hibernate.order_inserts
+        // the rows are sent to the database in JDBC batches when the transaction is flushed
+        if (!attributes.isEmpty()) {
+            attributeDAO.persist(attributes.toArray(new Attribute[0]));
+        }
+        if (!data.isEmpty()) {
+            storedDataDAO.persist(data.toArray(new StoredData[0]));
+        }
+        if (!rules.isEmpty()) {
+            securityDAO.persist(rules.toArray(new SecurityRule[0]));
+        }
+
+        return ids;
+    }
+
+    /** Loads, with a single query, the user groups referenced by the rules of the resources. */
+    private Map<Long, UserGroup> loadRuleGroups(List<Resource> resources) throws NotFoundServiceEx {
+        Set<Long> groupIds = new HashSet<>();
+        for (Resource resource : resources) {
+            if (resource.getSecurity() != null) {
+                for (SecurityRule rule : resource.getSecurity()) {
+                    if (rule.getGroup() != null) {
+                        if (rule.getGroup().getId() == null) {
+                            throw new NotFoundServiceEx("The usergroup id must be specified");
+                        }
+                        groupIds.add(rule.getGroup().getId());
+                    }
+                }
+            }
+        }
+        Map<Long, UserGroup> groups = new HashMap<>();
+        if (!groupIds.isEmpty()) {
+            Search search = new Search(UserGroup.class);
+            search.addFilterIn("id", groupIds);
+            for (UserGroup group : userGroupDAO.search(search)) {
+                groups.put(group.getId(), group);
+            }
+            for (Long id : groupIds) {
+                if (!groups.containsKey(id)) {
+                    throw new NotFoundServiceEx("UserGroup not found [id:" + id + "]");
+                }
+            }
+        }
+        return groups;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -309,6 +511,20 @@ public class ResourceServiceImpl implements ResourceService {
             a.setResource(resource);
             attributeDAO.persist(a);
         }
+
+        touch(id);
+    }
+
+    /*
+     * Bumps the last update date of a resource, which versions the representations of the
+     * resource returned to the clients (see the ETag handling of the REST services).
+     */
+    private void touch(long id) {
+        Resource resource = resourceDAO.find(id);
+        if (resource != null) {
+            // the DAO sets the last update date on merge
+            resourceDAO.merge(resource);
+        }
     }
 
     /*
@@ -535,6 +751,7 @@ public class ResourceServiceImpl implements ResourceService {
         }
 
         attribute = this.attributeDAO.merge(attribute);
+        touch(id);
 
         return attribute.getId();
     }
@@ -570,6 +787,7 @@ public class ResourceServiceImpl implements ResourceService {
             }
 
             attribute = this.attributeDAO.merge(attribute);
+            touch(id);
 
             return attribute.getId();
         } else {
@@ -598,7 +816,10 @@ public class ResourceServiceImpl implements ResourceService {
                     throw new IllegalStateException("Unknown type " + attribute.getType());
             }
 
-            return this.attributeDAO.merge(attribute).getId();
+            long attributeId = this.attributeDAO.merge(attribute).getId();
+            touch(id);
+
+            return attributeId;
         }
     }
 
@@ -677,21 +898,37 @@ public class ResourceServiceImpl implements ResourceService {
     private List<Resource> searchResources(ResourceSearchParameters parameters)
             throws BadRequestServiceEx, InternalErrorServiceEx {
 
-        if (((parameters.getPage() != null) && (parameters.getEntries() == null))
+        if (parameters.getCursor() != null) {
+            if (parameters.getPage() != null || parameters.getEntries() == null) {
+                throw new BadRequestServiceEx(
+                        "Cursor should be declared with entries and without page");
+            }
+        } else if (((parameters.getPage() != null) && (parameters.getEntries() == null))
                 || ((parameters.getPage() == null) && (parameters.getEntries() != null))) {
             throw new BadRequestServiceEx("Page and entries params should be declared together");
         }
 
         Search searchCriteria = SearchConverter.convert(parameters.getFilter());
 
-        if (parameters.getPage() != null) {
+        if (parameters.getCursor() != null) {
+            searchCriteria.setMaxResults(parameters.getEntries());
+            addCursorConstraints(searchCriteria, parameters);
+        } else if (parameters.getPage() != null) {
             searchCriteria.setMaxResults(parameters.getEntries());
             searchCriteria.setPage(parameters.getPage());
         }
 
+        boolean descending = false;
         if (parameters.getSortBy() != null && !parameters.getSortBy().isBlank()) {
-            searchCriteria.addSort(
-                    parameters.getSortBy(), "DESC".equalsIgnoreCase(parameters.getSortOrder()));
+            descending = "DESC".equalsIgnoreCase(parameters.getSortOrder());
+            searchCriteria.addSort(parameters.getSortBy(), descending);
+        } else {
+            searchCriteria.addSort(BaseField.NAME.getFieldName(), false);
+        }
+        // the id breaks the ties of the sort field, so that pages are stable and can be
+        // continued with a cursor
+        if (!BaseField.ID.getFieldName().equals(searchCriteria.getSorts().get(0).getProperty())) {
+            searchCriteria.addSort(BaseField.ID.getFieldName(), descending);
         }
 
         if (parameters.getNameLike() != null) {
@@ -706,26 +943,71 @@ public class ResourceServiceImpl implements ResourceService {
                     Filter.or(Filter.equal("user.id", userId), Filter.equal("username", userName)));
         }
 
-        searchCriteria.addFetches("security", "security.ipRanges");
+        // security rules are loaded per page by fetchSecurityRulesAndFavorites: fetching them
+        // here would force the pagination to be applied in memory
         searchCriteria.setDistinct(true);
 
         securityDAO.addSecurityConstraintsToSearch(searchCriteria, parameters.getAuthUser());
         return this.search(searchCriteria);
     }
 
+    /**
+     * Restricts a search to the resources following the position of the cursor, in the order given
+     * by the sort field and the resource id.
+     */
+    private void addCursorConstraints(Search searchCriteria, ResourceSearchParameters parameters)
+            throws BadRequestServiceEx {
+        ResourceSearchCursor cursor;
+        try {
+            cursor = ResourceSearchCursor.fromToken(parameters.getCursor());
+            if (!cursor.matches(parameters.getSortBy(), parameters.getSortOrder())) {
+                throw new BadRequestServiceEx(
+                        "Cursor does not match the requested sort field and order");
+            }
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestServiceEx(e.getMessage());
+        }
+
+        String id = BaseField.ID.getFieldName();
+        String field = cursor.getSortField().getFieldName();
+        Object value = cursor.getLastValue();
+        if (cursor.isDescending()) {
+            searchCriteria.addFilter(
+                    cursor.getSortField() == BaseField.ID
+                            ? Filter.lessThan(id, cursor.getLastId())
+                            : Filter.or(
+                                    Filter.lessThan(field, value),
+                                    Filter.and(
+                                            Filter.equal(field, value),
+                                            Filter.lessThan(id, cursor.getLastId()))));
+        } else {
+            searchCriteria.addFilter(
+                    cursor.getSortField() == BaseField.ID
+                            ? Filter.greaterThan(id, cursor.getLastId())
+                            : Filter.or(
+                                    Filter.greaterThan(field, value),
+                                    Filter.and(
+                                            Filter.equal(field, value),
+                                            Filter.greaterThan(id, cursor.getLastId()))));
+        }
+    }
+
     /**
      * @param resources
      * @param user
      * @return List<ShortResource>
      */
     private List<ShortResource> convertToShortResourceList(List<Resource> resources, User user) {
-        return resources.stream().map(r -> createShortResource(user, r)).toList();
+        fetchSecurityRules(resources);
+        // the keys of the user are computed once for the whole list
+        UserPermissions permissions = user != null ? resourcePermissionService.forUser(user) : null;
+        return resources.stream().map(r -> createShortResource(permissions, r)).toList();
     }
 
-    private ShortResource createShortResource(User user, Resource resource) {
+    private ShortResource createShortResource(UserPermissions permissions, Resource resource) {
         ShortResource shortResource = new ShortResource(resource);
 
-        if (user != null && resourcePermissionService.canResourceBeWrittenByUser(resource, user)) {
+        if (permissions != null && permissions.canWrite(resource)) {
             shortResource.setCanEdit(true);
             shortResource.setCanDelete(true);
             shortResource.setCanCopy(true);
@@ -822,6 +1104,8 @@ public class ResourceServiceImpl implements ResourceService {
 
                 securityDAO.persist(rule);
             }
+
+            touch(id);
         } else {
             throw new NotFoundServiceEx("Resource not found " + id);
         }
@@ -895,4 +1179,48 @@ public class ResourceServiceImpl implements ResourceService {
 
         resource.setFavorites(new HashSet<>(userFavoriteDAO.findByResourceId(resource.getId())));
     }
+
+    @Override
+    public void fetchSecurityRulesAndFavorites(List<Resource> resources, User user) {
+        if (resources == null || resources.isEmpty()) {
+            return;
+        }
+
+        fetchSecurityRules(resources);
+
+        if (user != null) {
+            Map<Long, Set<UserFavorite>> favorites = new HashMap<>();
+            for (UserFavorite favorite :
+                    userFavoriteDAO.findByUserAndResourceIds(user, getIds(resources))) {
+                favorites
+                        .computeIfAbsent(favorite.getResource().getId(), id -> new HashSet<>())
+                        .add(favorite);
+            }
+            for (Resource resource : resources) {
+                resource.setFavorites(favorites.getOrDefault(resource.getId(), new HashSet<>()));
+            }
+        }
+    }
+
+    /** Loads the security rules of all the given resources with a single query. */
+    private void fetchSecurityRules(List<Resource> resources) {
+        if (resources.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<SecurityRule>> rules = new HashMap<>();
+        for (SecurityRule rule : securityDAO.findResourcesSecurityRules(getIds(resources))) {
+            rules.computeIfAbsent(rule.getResource().getId(), id -> new ArrayList<>()).add(rule);
+        }
+        for (Resource resource : resources) {
+            resource.setSecurity(rules.getOrDefault(resource.getId(), new ArrayList<>()));
+        }
+    }
+
+    private Set<Long> getIds(List<Resource> resources) {
+        return resources.stream()
+                .map(Resource::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
 }
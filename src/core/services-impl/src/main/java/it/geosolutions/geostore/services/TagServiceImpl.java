@@ -93,6 +93,7 @@ public class TagServiceImpl implements TagService {
     }
 
     @Override
+    @Transactional(value = "geostoreTransactionManager")
     public long update(long id, Tag tag)
             throws BadRequestServiceEx, NotFoundServiceEx, DuplicatedTagNameServiceException {
         Tag original = get(id);
@@ -106,6 +107,9 @@ public class TagServiceImpl implements TagService {
         tag.setResources(original.getResources());
 
         tagDAO.merge(tag);
+        for (Resource resource : original.getResources()) {
+            touch(resource);
+        }
 
         return id;
     }
@@ -129,8 +133,16 @@ public class TagServiceImpl implements TagService {
     }
 
     @Override
+    @Transactional(value = "geostoreTransactionManager")
     public void delete(long id) throws NotFoundServiceEx {
-        if (get(id) == null || !tagDAO.removeById(id)) {
+        Tag tag = get(id);
+        if (tag == null) {
+            throw new NotFoundServiceEx("Tag not found");
+        }
+        for (Resource resource : tag.getResources()) {
+            touch(resource);
+        }
+        if (!tagDAO.removeById(id)) {
             throw new NotFoundServiceEx("Tag not found");
         }
     }
@@ -164,6 +176,7 @@ public class TagServiceImpl implements TagService {
         tag.getResources().add(resource);
 
         tagDAO.persist(tag);
+        touch(resource);
     }
 
     @Override
@@ -183,5 +196,16 @@ public class TagServiceImpl implements TagService {
         tag.getResources().remove(resource);
 
         tagDAO.persist(tag);
+        touch(resource);
+    }
+
+    /*
+     * Bumps the last update date of a resource whose tags have changed, which versions the
+     * representations of the resource returned to the clients (see the ETag handling of the REST
+     * services).
+     */
+    private void touch(Resource resource) {
+        // the DAO sets the last update date on merge
+        resourceDAO.merge(resource);
     }
 }
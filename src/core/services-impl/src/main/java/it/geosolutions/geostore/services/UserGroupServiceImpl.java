@@ -52,6 +52,10 @@ public class UserGroupServiceImpl implements UserGroupService {
 
     private UserGroupAttributeDAO userGroupAttributeDAO;
 
+    private VerifiedCredentialsCache verifiedCredentialsCache;
+
+    private GuestUserCache guestUserCache;
+
     /** @param userGroupDAO the userGroupDAO to set */
     public void setUserGroupDAO(UserGroupDAO userGroupDAO) {
         this.userGroupDAO = userGroupDAO;
@@ -76,6 +80,16 @@ public class UserGroupServiceImpl implements UserGroupService {
         this.userGroupAttributeDAO = userGroupAttributeDAO;
     }
 
+    /** @param verifiedCredentialsCache the cache holding the groups of authenticated users */
+    public void setVerifiedCredentialsCache(VerifiedCredentialsCache verifiedCredentialsCache) {
+        this.verifiedCredentialsCache = verifiedCredentialsCache;
+    }
+
+    /** @param guestUserCache the cache holding the guest user and its groups */
+    public void setGuestUserCache(GuestUserCache guestUserCache) {
+        this.guestUserCache = guestUserCache;
+    }
+
     /* (non-Javadoc)
      * @see it.geosolutions.geostore.services.UserGroupService#insert(it.geosolutions.geostore.core.model.UserGroup)
      */
@@ -137,9 +151,11 @@ public class UserGroupServiceImpl implements UserGroupService {
         for (User u : getUsersByGroup(id)) {
             u.removeGroup(id);
             userDAO.merge(u);
+            invalidateCredentials(u.getName());
         }
 
         userGroupDAO.remove(group);
+        invalidateGuestUser();
         return true;
     }
 
@@ -174,6 +190,7 @@ public class UserGroupServiceImpl implements UserGroupService {
             targetUser.getGroups().add(groupToAssign);
         }
         userDAO.merge(targetUser);
+        invalidateCredentials(targetUser.getName());
     }
 
     /* (non-Javadoc)
@@ -195,6 +212,23 @@ public class UserGroupServiceImpl implements UserGroupService {
 
         if (targetUser.removeGroup(groupId)) {
             userDAO.merge(targetUser);
+            invalidateCredentials(targetUser.getName());
+        }
+    }
+
+    private void invalidateCredentials(String userName) {
+        if (verifiedCredentialsCache != null) {
+            verifiedCredentialsCache.invalidate(userName);
+        }
+        if (guestUserCache != null) {
+            guestUserCache.invalidate(userName);
+        }
+    }
+
+    /** The changed group may be among the ones of the guest user. */
+    private void invalidateGuestUser() {
+        if (guestUserCache != null) {
+            guestUserCache.invalidate();
         }
     }
 
@@ -286,6 +320,9 @@ public class UserGroupServiceImpl implements UserGroupService {
         List<Resource> resourceToSet = resourceDAO.findResources(resourcesIds);
 
         for (Resource resource : resourceToSet) {
+            // the DAO bumps the last update date on merge, which versions the representations
+            // of the resource returned to the clients (see the ETag handling of the REST services)
+            resourceDAO.merge(resource);
             SecurityRule sr = getRuleForGroup(resource.getSecurity(), group);
             if (sr == null) {
                 // Create new rule
@@ -350,6 +387,7 @@ public class UserGroupServiceImpl implements UserGroupService {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Special UserGroup '{}' persisted!", ug.getGroupName());
         }
+        invalidateGuestUser();
         return true;
     }
 
@@ -365,6 +403,7 @@ public class UserGroupServiceImpl implements UserGroupService {
         if (ugEveryone.size() == 1) {
             UserGroup ug = ugEveryone.get(0);
             boolean res = userGroupDAO.removeById(ug.getId());
+            invalidateGuestUser();
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Special UserGroup '{}' removed!", ug.getGroupName());
             }
@@ -454,6 +493,7 @@ public class UserGroupServiceImpl implements UserGroupService {
 
         // (optional) keep the in-memory association coherent
         group.setAttributes(attributes != null ? new ArrayList<>(attributes) : new ArrayList<>());
+        invalidateGuestUser();
     }
 
     @Override
@@ -463,6 +503,11 @@ public class UserGroupServiceImpl implements UserGroupService {
         if (old == null) old = get(group.getGroupName());
         group.setId(old.getId());
         userGroupDAO.merge(group);
+        // a renamed or disabled group changes the authorities of all of its members
+        for (User u : getUsersByGroup(old.getId())) {
+            invalidateCredentials(u.getName());
+        }
+        invalidateGuestUser();
         return old.getId();
     }
 
@@ -584,5 +629,6 @@ public class UserGroupServiceImpl implements UserGroupService {
             }
             current.add(a);
         }
+        invalidateGuestUser();
     }
 }
@@ -41,8 +41,10 @@ import it.geosolutions.geostore.services.exception.NotFoundServiceEx;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.apache.cxf.common.util.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -74,6 +76,10 @@ public class UserServiceImpl implements UserService {
 
     private CategoryService categoryService;
 
+    private VerifiedCredentialsCache verifiedCredentialsCache;
+
+    private GuestUserCache guestUserCache;
+
     public void setUserDAO(UserDAO userDAO) {
         this.userDAO = userDAO;
     }
@@ -98,6 +104,14 @@ public class UserServiceImpl implements UserService {
         this.userFavoriteDAO = userFavoriteDAO;
     }
 
+    public void setVerifiedCredentialsCache(VerifiedCredentialsCache verifiedCredentialsCache) {
+        this.verifiedCredentialsCache = verifiedCredentialsCache;
+    }
+
+    public void setGuestUserCache(GuestUserCache guestUserCache) {
+        this.guestUserCache = guestUserCache;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -248,6 +262,7 @@ public class UserServiceImpl implements UserService {
         user.getGroups().addAll(existingGroups);
 
         userDAO.merge(user);
+        invalidateCredentials(orig.getName());
 
         return orig.getId();
     }
@@ -284,6 +299,7 @@ public class UserServiceImpl implements UserService {
             a.setUser(user);
             userAttributeDAO.persist(a);
         }
+        invalidateCredentials(user.getName());
     }
 
     /*
@@ -332,9 +348,22 @@ public class UserServiceImpl implements UserService {
 
         cascadeDeleteResources(id, cascadeResourceCategories);
 
+        User user = userDAO.find(id);
+        if (user != null) {
+            invalidateCredentials(user.getName());
+        }
         return userDAO.removeById(id);
     }
 
+    private void invalidateCredentials(String userName) {
+        if (verifiedCredentialsCache != null) {
+            verifiedCredentialsCache.invalidate(userName);
+        }
+        if (guestUserCache != null) {
+            guestUserCache.invalidate(userName);
+        }
+    }
+
     private void cascadeDeleteResources(long userId, String cascadeResourceCategories) {
         List<String> categories = parseCategoryNames(cascadeResourceCategories);
         if (!categories.isEmpty()) {
@@ -581,6 +610,22 @@ public class UserServiceImpl implements UserService {
         return userDAO.search(searchByGroup);
     }
 
+    @Override
+    public Map<Long, List<User>> getByGroups(Collection<UserGroup> groups, boolean full) {
+        if (groups == null || groups.isEmpty()) {
+            return new HashMap<>();
+        }
+        return userDAO.findGroupMembers(groups, full);
+    }
+
+    @Override
+    public Map<Long, Long> countByGroups(Collection<UserGroup> groups) {
+        if (groups == null || groups.isEmpty()) {
+            return new HashMap<>();
+        }
+        return userDAO.countGroupMembers(groups);
+    }
+
     @Override
     public void fetchFavorites(User user) {
         if (user == null || user.getId() == null) {
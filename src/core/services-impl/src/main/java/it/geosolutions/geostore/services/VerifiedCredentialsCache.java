@@ -0,0 +1,342 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import it.geosolutions.geostore.core.model.User;
+import it.geosolutions.geostore.core.model.UserAttribute;
+import it.geosolutions.geostore.core.model.UserGroup;
+import it.geosolutions.geostore.core.model.UserGroupAttribute;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.Hibernate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Bounded, time limited cache of the credentials that have been successfully verified against the
+ * GeoStore user database.
+ *
+ * <p>Checking a password against its stored digest is deliberately expensive, and HTTP Basic
+ * clients send their credentials on every request. Entries are keyed by username and hold an
+ * HMAC-SHA256 of the raw password, computed with a random key generated when the cache is created,
+ * so the cleartext password is never kept in memory and the cached hash is useless outside this
+ * JVM.
+ *
+ * <p>The {@link UserService} implementation invalidates the entry of a user whenever that user is
+ * changed or removed, so that a password change or a disabled account is honoured on the next
+ * request. Within a transaction the entry is removed again once the transaction completes, and the
+ * credentials of a user loaded before an invalidation are not cached, so that a concurrent login
+ * cannot cache the state that preceded the change.
+ */
+public class VerifiedCredentialsCache {
+
+    private static final Logger LOGGER = LogManager.getLogger(VerifiedCredentialsCache.class);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final SecretKeySpec hmacKey;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private volatile boolean enabled = true;
+
+    private volatile long maxSize = 1000;
+
+    private volatile long ttlSeconds = 300;
+
+    private volatile Cache<String, Entry> cache;
+
+    public VerifiedCredentialsCache() {
+        byte[] key = new byte[32];
+        RANDOM.nextBytes(key);
+        this.hmacKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+    }
+
+    /**
+     * Returns a copy of the user verified with the given credentials, if a valid entry is cached.
+     *
+     * @param username the name of the user
+     * @param rawPassword the cleartext password provided by the client
+     * @return a copy of the cached user, or null if the credentials are not cached
+     */
+    public User get(String username, String rawPassword) {
+        if (!enabled || username == null || rawPassword == null) {
+            return null;
+        }
+        Entry entry = getCache().getIfPresent(username);
+        if (entry != null && MessageDigest.isEqual(entry.passwordHash, hash(rawPassword))) {
+            hitCount.increment();
+            // callers may set per-request data (e.g. the IP address) on the returned user
+            return copy(entry.user);
+        }
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * Caches the credentials of a user that has been successfully authenticated, whatever has been
+     * invalidated while the user was loaded; see {@link #put(String, String, User, long)}.
+     *
+     * @param username the name the user authenticated with
+     * @param rawPassword the cleartext password the user authenticated with
+     * @param user the authenticated user
+     */
+    public void put(String username, String rawPassword, User user) {
+        put(username, rawPassword, user, generation.get());
+    }
+
+    /**
+     * Caches the credentials of a user that has been successfully authenticated, unless cached
+     * credentials have been invalidated since the user was loaded.
+     *
+     * @param username the name the user authenticated with
+     * @param rawPassword the cleartext password the user authenticated with
+     * @param user the authenticated user
+     * @param loadGeneration the {@link #getGeneration() generation} read before loading the user
+     */
+    public void put(String username, String rawPassword, User user, long loadGeneration) {
+        if (!enabled || username == null || rawPassword == null || user == null) {
+            return;
+        }
+        Entry entry = new Entry(hash(rawPassword), copy(user));
+        synchronized (this) {
+            // do not cache a user loaded while it was being changed
+            if (loadGeneration == generation.get()) {
+                getCache().put(username, entry);
+            }
+        }
+    }
+
+    /**
+     * @return the current generation of the cache, changed by every invalidation, to be read before
+     *     loading a user whose credentials are then cached
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Removes the cached credentials of a user. When called within a transaction, the credentials
+     * are removed again once the transaction completes.
+     *
+     * @param username the name of the user
+     */
+    public void invalidate(String username) {
+        if (username == null) {
+            return;
+        }
+        doInvalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            doInvalidate(username);
+                        }
+                    });
+        }
+    }
+
+    /** Removes all the cached credentials. */
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private synchronized void doInvalidate(String username) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Invalidating cached credentials of user '{}'", username);
+        }
+        generation.incrementAndGet();
+        if (cache != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    /** @return the number of lookups that found valid cached credentials */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /** @return the number of lookups that did not find valid cached credentials */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /** @return the number of entries removed because of the size bound or of their expiration */
+    public long getEvictionCount() {
+        return cache != null ? cache.stats().evictionCount() : 0;
+    }
+
+    /** @return the approximate number of cached entries */
+    public long getSize() {
+        return cache != null ? cache.estimatedSize() : 0;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            invalidateAll();
+        }
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+        this.cache = null;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+        this.cache = null;
+    }
+
+    private Cache<String, Entry> getCache() {
+        Cache<String, Entry> result = cache;
+        if (result == null) {
+            synchronized (this) {
+                result = cache;
+                if (result == null) {
+                    result =
+                            Caffeine.newBuilder()
+                                    .maximumSize(maxSize)
+                                    .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                                    .recordStats()
+                                    .build();
+                    cache = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copies the user together with its groups and attributes, so that neither the callers nor the
+     * code that loaded the user can change the cached entry. Collections that have not been loaded
+     * yet are kept as they are, since they cannot be read outside of the session anyway.
+     */
+    private static User copy(User user) {
+        User ret = new User(user);
+        if (user.getGroups() != null && Hibernate.isInitialized(user.getGroups())) {
+            Set<UserGroup> groups = new HashSet<>();
+            for (UserGroup group : user.getGroups()) {
+                groups.add(copy(group));
+            }
+            ret.setGroups(groups);
+        }
+        if (user.getAttribute() != null && Hibernate.isInitialized(user.getAttribute())) {
+            List<UserAttribute> attributes = new ArrayList<>(user.getAttribute().size());
+            for (UserAttribute attribute : user.getAttribute()) {
+                UserAttribute copy = new UserAttribute();
+                copy.setId(attribute.getId());
+                copy.setName(attribute.getName());
+                copy.setValue(attribute.getValue());
+                attributes.add(copy);
+            }
+            ret.setAttribute(attributes);
+        }
+        return ret;
+    }
+
+    private static UserGroup copy(UserGroup group) {
+        UserGroup ret = new UserGroup();
+        ret.setId(group.getId());
+        ret.setGroupName(group.getGroupName());
+        ret.setDescription(group.getDescription());
+        ret.setEnabled(group.isEnabled());
+        if (group.getAttributes() != null && Hibernate.isInitialized(group.getAttributes())) {
+            List<UserGroupAttribute> attributes = new ArrayList<>(group.getAttributes().size());
+            for (UserGroupAttribute attribute : group.getAttributes()) {
+                UserGroupAttribute copy = new UserGroupAttribute();
+                copy.setId(attribute.getId());
+                copy.setName(attribute.getName());
+                copy.setValue(attribute.getValue());
+                copy.setUserGroup(ret);
+                attributes.add(copy);
+            }
+            ret.setAttributes(attributes);
+        }
+        return ret;
+    }
+
+    private byte[] hash(String rawPassword) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(hmacKey);
+            return mac.doFinal(rawPassword.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to compute the credentials hash", e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final byte[] passwordHash;
+
+        private final User user;
+
+        private Entry(byte[] passwordHash, User user) {
+            this.passwordHash = passwordHash;
+            this.user = user;
+        }
+    }
+}
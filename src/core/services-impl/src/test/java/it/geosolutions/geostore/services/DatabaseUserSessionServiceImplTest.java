@@ -0,0 +1,180 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services;
+
+import it.geosolutions.geostore.core.dao.UserSessionDAO;
+import it.geosolutions.geostore.core.model.User;
+import it.geosolutions.geostore.core.model.UserGroup;
+import it.geosolutions.geostore.core.model.UserSessionEntry;
+import it.geosolutions.geostore.core.model.enums.Role;
+import it.geosolutions.geostore.services.dto.UserSession;
+import it.geosolutions.geostore.services.dto.UserSessionImpl;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import org.junit.Test;
+
+public class DatabaseUserSessionServiceImplTest extends ServiceTestBase {
+
+    private UserSessionDAO userSessionDAO;
+
+    private DatabaseUserSessionServiceImpl node1;
+
+    private DatabaseUserSessionServiceImpl node2;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        userSessionDAO = (UserSessionDAO) ctx.getBean("userSessionDAO");
+        userSessionDAO.removeAll();
+        node1 = newService();
+        node2 = newService();
+    }
+
+    private DatabaseUserSessionServiceImpl newService() {
+        DatabaseUserSessionServiceImpl service = new DatabaseUserSessionServiceImpl();
+        service.setUserSessionDAO(userSessionDAO);
+        return service;
+    }
+
+    private static UserSession newSession(int expiresInSeconds) {
+        User user = new User();
+        user.setId(1L);
+        user.setName("TEST");
+        user.setPassword("secret");
+        user.setRole(Role.USER);
+        UserGroup group = new UserGroup();
+        group.setId(2L);
+        group.setGroupName("editors");
+        user.setGroups(Collections.singleton(group));
+        Calendar expiration = new GregorianCalendar();
+        expiration.add(Calendar.SECOND, expiresInSeconds);
+        UserSession session = new UserSessionImpl(user, expiration);
+        session.setExpirationInterval(3600);
+        return session;
+    }
+
+    @Test
+    public void testSessionsAreShared() throws Exception {
+        UserSession session = node1.registerNewSession(newSession(3600));
+
+        User user = node2.getUserData(session.getId());
+        assertNotNull(user);
+        assertEquals("TEST", user.getName());
+        assertEquals(Long.valueOf(1), user.getId());
+        assertEquals(Role.USER, user.getRole());
+        assertNull(user.getPassword());
+        assertEquals("editors", user.getGroups().iterator().next().getGroupName());
+        assertEquals(session.getRefreshToken(), node2.getRefreshToken(session.getId()));
+        assertTrue(node2.isOwner(session.getId(), 1L));
+
+        node2.removeSession(session.getId());
+        assertNull(userSessionDAO.find(session.getId()));
+        node1.setNearCacheTtlSeconds(0);
+        assertNull(node1.getUserData(session.getId()));
+    }
+
+    @Test
+    public void testRefreshIsWrittenOnFlush() throws Exception {
+        UserSession session = node1.registerNewSession(newSession(60));
+        Date expiration = userSessionDAO.find(session.getId()).getExpiration();
+
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(node1.refreshSession(session.getId(), session.getRefreshToken()));
+        }
+        // not written yet
+        assertEquals(expiration, userSessionDAO.find(session.getId()).getExpiration());
+
+        node1.flush();
+        UserSessionEntry entry = userSessionDAO.find(session.getId());
+        assertTrue(entry.getExpiration().getTime() > expiration.getTime() + 3000 * 1000);
+
+        // a wrong refresh token does not extend the session
+        node2.refreshSession(session.getId(), "wrong");
+        node2.flush();
+        assertEquals(entry.getExpiration(), userSessionDAO.find(session.getId()).getExpiration());
+    }
+
+    @Test
+    public void testRefreshIsWrittenThroughWhenAboutToExpire() throws Exception {
+        // the stored expiration would pass before the next flush
+        UserSession session = node1.registerNewSession(newSession(2));
+        Date expiration = userSessionDAO.find(session.getId()).getExpiration();
+
+        assertNotNull(node1.refreshSession(session.getId(), session.getRefreshToken()));
+        Date written = userSessionDAO.find(session.getId()).getExpiration();
+        assertTrue(written.getTime() > expiration.getTime() + 3000 * 1000);
+
+        // later refreshes wait for the flush again
+        node1.refreshSession(session.getId(), session.getRefreshToken());
+        assertEquals(written, userSessionDAO.find(session.getId()).getExpiration());
+    }
+
+    @Test
+    public void testUserIsStoredAsJson() throws Exception {
+        UserSession session = node1.registerNewSession(newSession(3600));
+        UserSessionEntry entry = userSessionDAO.find(session.getId());
+        assertTrue(entry.getUserData().startsWith("{"));
+        assertFalse(entry.getUserData().contains("secret"));
+
+        // unreadable snapshots are not accepted
+        UserSessionEntry invalid = new UserSessionEntry();
+        invalid.setId("invalid");
+        invalid.setUserName("TEST");
+        invalid.setUserData("rO0ABXNyAA==");
+        invalid.setExpiration(entry.getExpiration());
+        userSessionDAO.persist(invalid);
+        assertNull(node2.getUserData("invalid"));
+    }
+
+    @Test
+    public void testExpiredSessionsAreRemoved() throws Exception {
+        UserSession expired = node1.registerNewSession(newSession(-10));
+        UserSession valid = node1.registerNewSession(newSession(3600));
+
+        // reads do not delete the expired sessions
+        assertNull(node2.getUserData(expired.getId()));
+        assertNotNull(userSessionDAO.find(expired.getId()));
+
+        // nor does the clean up, within the grace period
+        UserSession longExpired = node1.registerNewSession(newSession(-120));
+        node1.removeExpired();
+        assertNull(userSessionDAO.find(longExpired.getId()));
+        assertNotNull(userSessionDAO.find(expired.getId()));
+        assertNotNull(userSessionDAO.find(valid.getId()));
+
+        node1.setCleanUpGraceSeconds(0);
+        node1.removeExpired();
+        assertNull(userSessionDAO.find(expired.getId()));
+        assertNotNull(userSessionDAO.find(valid.getId()));
+
+        node1.removeAllSessions();
+        assertNull(userSessionDAO.find(valid.getId()));
+    }
+}
@@ -0,0 +1,108 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import it.geosolutions.geostore.core.model.User;
+import it.geosolutions.geostore.core.model.enums.Role;
+import it.geosolutions.geostore.core.model.enums.UserReservedNames;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GuestUserCacheTest {
+
+    private GuestUserCache cache;
+
+    private AtomicInteger loads;
+
+    @Before
+    public void setUp() {
+        cache = new GuestUserCache();
+        loads = new AtomicInteger();
+    }
+
+    private User loadGuest() {
+        loads.incrementAndGet();
+        User user = new User();
+        user.setName(UserReservedNames.GUEST.userName());
+        user.setRole(Role.GUEST);
+        return user;
+    }
+
+    @Test
+    public void testLoadedOnceAndCopied() {
+        User first = cache.get(this::loadGuest);
+        User second = cache.get(this::loadGuest);
+
+        assertNotSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testInvalidate() {
+        cache.get(this::loadGuest);
+
+        cache.invalidate("someone");
+        cache.get(this::loadGuest);
+        assertEquals(1, loads.get());
+
+        cache.invalidate(UserReservedNames.GUEST.userName());
+        cache.get(this::loadGuest);
+        assertEquals(2, loads.get());
+
+        cache.invalidate();
+        cache.get(this::loadGuest);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testNotCachedWhenInvalidatedWhileLoading() {
+        cache.get(
+                () -> {
+                    cache.invalidate();
+                    return loadGuest();
+                });
+        cache.get(this::loadGuest);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testDisabled() {
+        cache.setEnabled(false);
+        cache.get(this::loadGuest);
+        cache.get(this::loadGuest);
+
+        assertEquals(2, loads.get());
+    }
+}
@@ -21,11 +21,14 @@ package it.geosolutions.geostore.services;
 
 import static org.junit.Assert.assertThrows;
 
+import inet.ipaddr.IPAddress;
+import inet.ipaddr.IPAddressString;
 import it.geosolutions.geostore.core.model.IPRange;
 import it.geosolutions.geostore.services.exception.BadRequestServiceEx;
 import it.geosolutions.geostore.services.exception.NotFoundServiceEx;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Set;
 
 public class IPRangeServiceImplTest extends ServiceTestBase {
 
@@ -331,4 +334,46 @@ public class IPRangeServiceImplTest extends ServiceTestBase {
         /* 192.255.255.255 */
         assertEquals(new BigInteger("2147483647"), ipRange.getIpHigh());
     }
+
+    public void testIndex() throws Exception {
+        IPRangeIndex index = (IPRangeIndex) ctx.getBean("ipRangeIndex");
+        long wide = insertRange("10.0.0.0/8");
+        long nested = insertRange("10.1.0.0/16");
+        long narrow = insertRange("10.1.2.0/24");
+        long other = insertRange("192.168.0.0/16");
+
+        assertEquals(Set.of(wide, nested, narrow), index.getRangesContaining(address("10.1.2.3")));
+        assertEquals(Set.of(wide, nested), index.getRangesContaining(address("10.1.3.1")));
+        assertEquals(Set.of(wide), index.getRangesContaining(address("10.200.0.1")));
+        assertEquals(Set.of(other), index.getRangesContaining(address("192.168.255.255")));
+        assertEquals(Set.of(), index.getRangesContaining(address("8.8.8.8")));
+        assertEquals(Set.of(), index.getRangesContaining(address("::1")));
+
+        // the index is rebuilt after the ranges change
+        IPRange moved = new IPRange();
+        moved.setCidr("10.1.3.0/24");
+        ipRangeService.update(narrow, moved);
+        assertEquals(Set.of(wide, nested), index.getRangesContaining(address("10.1.2.3")));
+        assertEquals(Set.of(wide, nested, narrow), index.getRangesContaining(address("10.1.3.1")));
+
+        ipRangeService.delete(nested);
+        assertEquals(Set.of(wide, narrow), index.getRangesContaining(address("10.1.3.1")));
+
+        // a stale range is checked against its own bounds
+        IPRange stale = ipRangeDAO.find(other);
+        stale.setIpLow(new BigInteger("134744064")); // 8.8.8.0
+        stale.setIpHigh(new BigInteger("134744319")); // 8.8.8.255
+        assertTrue(index.anyContains(List.of(stale), address("8.8.8.8")));
+        assertFalse(index.anyContains(List.of(stale), address("192.168.0.1")));
+    }
+
+    private long insertRange(String cidr) throws Exception {
+        IPRange ipRange = new IPRange();
+        ipRange.setCidr(cidr);
+        return ipRangeService.insert(ipRange);
+    }
+
+    private static IPAddress address(String address) {
+        return new IPAddressString(address).getAddress();
+    }
 }
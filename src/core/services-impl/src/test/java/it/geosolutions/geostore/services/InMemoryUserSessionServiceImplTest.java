@@ -22,6 +22,7 @@ package it.geosolutions.geostore.services;
 import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.services.dto.UserSession;
 import it.geosolutions.geostore.services.dto.UserSessionImpl;
+import java.util.Calendar;
 import java.util.GregorianCalendar;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -84,4 +85,59 @@ public class InMemoryUserSessionServiceImplTest extends ServiceTestBase {
         assertNull(service.getRefreshToken("NOT_A SESSION"));
         assertNull(service.getUserData("NOT_A SESSION"));
     }
+
+    @Test
+    public void testExpiredSessionsAreEvicted() throws Exception {
+        InMemoryUserSessionServiceImpl service = new InMemoryUserSessionServiceImpl();
+        service.setRefreshGraceSeconds(0);
+        User u = new User();
+        u.setId(1L);
+        u.setName("TEST");
+        Calendar soon = new GregorianCalendar();
+        soon.add(Calendar.SECOND, 1);
+        UserSession expiring = service.registerNewSession(new UserSessionImpl(u, soon));
+        Calendar refreshed = new GregorianCalendar();
+        refreshed.add(Calendar.SECOND, 1);
+        UserSession session = new UserSessionImpl(u, refreshed);
+        session.setExpirationInterval(3600);
+        session = service.registerNewSession(session);
+        service.registerNewSession(new UserSessionImpl(u, new GregorianCalendar(3000, 1, 1)));
+        assertEquals(3, service.getSize());
+
+        // the refresh moves the session to its new expiration
+        service.refreshSession(session.getId(), session.getRefreshToken());
+
+        for (int i = 0; i < 100 && service.getEvictionCount() == 0; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, service.getEvictionCount());
+        assertEquals(2, service.getSize());
+        assertNull(service.getUserData(expiring.getId()));
+        assertNotNull(service.getUserData(session.getId()));
+    }
+
+    @Test
+    public void testExpiredSessionsCanBeRefreshedWithinGracePeriod() throws Exception {
+        InMemoryUserSessionServiceImpl service = new InMemoryUserSessionServiceImpl();
+        User u = new User();
+        u.setId(1L);
+        u.setName("TEST");
+        Calendar expired = new GregorianCalendar();
+        expired.add(Calendar.SECOND, -5);
+        UserSession session = new UserSessionImpl(u, expired);
+        session.setExpirationInterval(3600);
+        session = service.registerNewSession(session);
+
+        // the expired session is not accepted, but is kept for the refresh
+        assertNull(service.getUserData(session.getId()));
+        assertNotNull(service.refreshSession(session.getId(), session.getRefreshToken()));
+        assertEquals(u, service.getUserData(session.getId()));
+
+        // past the grace period it is gone
+        service.setRefreshGraceSeconds(0);
+        Calendar alsoExpired = new GregorianCalendar();
+        alsoExpired.add(Calendar.SECOND, -5);
+        UserSession late = service.registerNewSession(new UserSessionImpl(u, alsoExpired));
+        assertNull(service.refreshSession(late.getId(), late.getRefreshToken()));
+    }
 }
@@ -18,6 +18,7 @@
  */
 package it.geosolutions.geostore.services;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
@@ -30,7 +31,9 @@ import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.model.UserGroup;
 import it.geosolutions.geostore.core.model.enums.GroupReservedNames;
 import it.geosolutions.geostore.core.model.enums.Role;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import org.junit.Before;
@@ -450,4 +453,96 @@ public class ResourcePermissionServiceImplTest {
         assertTrue(service.canResourceBeReadByUser(resource, user));
         assertTrue(service.canResourceBeWrittenByUser(resource, user));
     }
+
+    @Test
+    public void testManyGroupsAndRules() {
+        Set<UserGroup> groups = new HashSet<>();
+        for (long i = 0; i < 40; i++) {
+            UserGroup group = new UserGroup();
+            group.setId(i);
+            group.setGroupName("group" + i);
+            groups.add(group);
+        }
+        User user = new User();
+        user.setId(100L);
+        user.setName("carol");
+        user.setRole(Role.USER);
+        user.setGroups(groups);
+
+        List<Resource> resources = new ArrayList<>();
+        for (long r = 0; r < 100; r++) {
+            List<SecurityRule> rules = new ArrayList<>();
+            for (long i = 100; i < 150; i++) {
+                UserGroup other = new UserGroup();
+                other.setId(i);
+                SecurityRule rule = new SecurityRule();
+                rule.setGroup(other);
+                rule.setCanRead(true);
+                rules.add(rule);
+            }
+            // only the even resources are readable by one of the groups of the user
+            if (r % 2 == 0) {
+                SecurityRule rule = new SecurityRule();
+                rule.setGroupname("group" + (r % 40));
+                rule.setCanRead(true);
+                rules.add(rule);
+            }
+            Resource resource = new Resource();
+            resource.setSecurity(rules);
+            resources.add(resource);
+        }
+
+        for (int r = 0; r < resources.size(); r++) {
+            assertEquals(r % 2 == 0, service.canResourceBeReadByUser(resources.get(r), user));
+            assertFalse(service.canResourceBeWrittenByUser(resources.get(r), user));
+        }
+
+        // a listing checks the whole page with the keys of the user computed once
+        ResourcePermissionService.UserPermissions permissions = service.forUser(user);
+        for (int r = 0; r < resources.size(); r++) {
+            assertEquals(r % 2 == 0, permissions.canRead(resources.get(r)));
+            assertFalse(permissions.canWrite(resources.get(r)));
+        }
+    }
+
+    @Test
+    public void testUserChangesAreHonoured() {
+        UserGroup group = new UserGroup();
+        group.setId(10L);
+        group.setGroupName("editors");
+
+        SecurityRule rule = new SecurityRule();
+        rule.setGroupname("editors");
+        rule.setCanRead(true);
+        Resource resource = new Resource();
+        resource.setSecurity(Collections.singletonList(rule));
+
+        User user = new User();
+        user.setId(200L);
+        user.setName("bob");
+        user.setRole(Role.USER);
+        user.setGroups(new HashSet<>());
+        assertFalse(service.canResourceBeReadByUser(resource, user));
+
+        // the same user instance, now in the group
+        user.getGroups().add(group);
+        assertTrue(service.canResourceBeReadByUser(resource, user));
+
+        user.setGroups(Collections.emptySet());
+        assertFalse(service.canResourceBeReadByUser(resource, user));
+    }
+
+    @Test
+    public void testAdminPermissions() {
+        User admin = new User();
+        admin.setId(1L);
+        admin.setName("admin");
+        admin.setRole(Role.ADMIN);
+        Resource resource = new Resource();
+        resource.setSecurity(Collections.emptyList());
+
+        ResourcePermissionService.UserPermissions permissions = service.forUser(admin);
+        assertTrue(permissions.canRead(resource));
+        assertTrue(permissions.canWrite(resource));
+    }
 }
@@ -19,13 +19,19 @@
  */
 package it.geosolutions.geostore.services;
 
+import inet.ipaddr.IPAddressString;
+import it.geosolutions.geostore.core.dao.impl.SecurityDAOImpl;
+import it.geosolutions.geostore.core.model.Attribute;
 import it.geosolutions.geostore.core.model.Category;
 import it.geosolutions.geostore.core.model.IPRange;
 import it.geosolutions.geostore.core.model.Resource;
 import it.geosolutions.geostore.core.model.SecurityRule;
+import it.geosolutions.geostore.core.model.StoredData;
 import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.model.UserGroup;
+import it.geosolutions.geostore.core.model.enums.DataType;
 import it.geosolutions.geostore.core.model.enums.Role;
+import it.geosolutions.geostore.services.dto.ResourceSearchCursor;
 import it.geosolutions.geostore.services.dto.ResourceSearchParameters;
 import it.geosolutions.geostore.services.dto.ShortResource;
 import it.geosolutions.geostore.services.dto.search.BaseField;
@@ -34,15 +40,20 @@ import it.geosolutions.geostore.services.dto.search.FieldFilter;
 import it.geosolutions.geostore.services.dto.search.GroupFilter;
 import it.geosolutions.geostore.services.dto.search.SearchFilter;
 import it.geosolutions.geostore.services.dto.search.SearchOperator;
+import it.geosolutions.geostore.services.exception.BadRequestServiceEx;
 import it.geosolutions.geostore.services.exception.DuplicatedResourceNameServiceEx;
+import it.geosolutions.geostore.services.exception.NotFoundServiceEx;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.springframework.test.util.AopTestUtils;
 
 /**
  * Class ResourceServiceImplTest.
@@ -92,6 +103,19 @@ public class ResourceServiceImplTest extends ServiceTestBase {
         }
     }
 
+    public void testAttributeUpdateBumpsLastUpdate() throws Exception {
+        long resourceId = createResource("lastUpdate", "description", "LAST_UPDATE");
+        assertNull(resourceService.get(resourceId).getLastUpdate());
+
+        resourceService.insertAttribute(resourceId, "attr", "value", DataType.STRING);
+        Date inserted = resourceService.get(resourceId).getLastUpdate();
+        assertNotNull(inserted);
+
+        Thread.sleep(5);
+        resourceService.updateAttribute(resourceId, "attr", "other");
+        assertTrue(resourceService.get(resourceId).getLastUpdate().after(inserted));
+    }
+
     public void testGetAllData() throws Exception {
         assertEquals(
                 0,
@@ -241,6 +265,101 @@ public class ResourceServiceImplTest extends ServiceTestBase {
         assertTrue(isSorted(nameContain2Result));
     }
 
+    public void testCursorPagination() throws Exception {
+        for (int i = 0; i < 7; i++) {
+            createResource("cursor " + i, "description" + i, "CURSOR" + i);
+        }
+        SearchFilter filter = new CategoryFilter("CURSOR%", SearchOperator.LIKE);
+
+        for (String sortOrder : List.of("asc", "desc")) {
+            List<String> offsetNames =
+                    resourceService
+                            .getResources(
+                                    ResourceSearchParameters.builder()
+                                            .filter(filter)
+                                            .sortBy("creation")
+                                            .sortOrder(sortOrder)
+                                            .authUser(buildFakeAdminUser())
+                                            .build())
+                            .stream()
+                            .map(Resource::getName)
+                            .collect(Collectors.toList());
+
+            List<String> cursorNames = new ArrayList<>();
+            List<Resource> page =
+                    resourceService.getResources(
+                            ResourceSearchParameters.builder()
+                                    .filter(filter)
+                                    .page(0)
+                                    .entries(3)
+                                    .sortBy("creation")
+                                    .sortOrder(sortOrder)
+                                    .authUser(buildFakeAdminUser())
+                                    .build());
+            int pages = 1;
+            while (true) {
+                page.forEach(r -> cursorNames.add(r.getName()));
+                String cursor = ResourceSearchCursor.nextToken(page, 3, "creation", sortOrder);
+                if (cursor == null) {
+                    break;
+                }
+                page =
+                        resourceService.getResources(
+                                ResourceSearchParameters.builder()
+                                        .filter(filter)
+                                        .entries(3)
+                                        .cursor(cursor)
+                                        .sortBy("creation")
+                                        .sortOrder(sortOrder)
+                                        .authUser(buildFakeAdminUser())
+                                        .build());
+                pages++;
+            }
+            assertEquals(3, pages);
+            assertEquals(offsetNames, cursorNames);
+        }
+    }
+
+    public void testCursorPaginationErrors() throws Exception {
+        createResource("cursor a", "description", "CURSOR_A");
+        createResource("cursor b", "description", "CURSOR_B");
+        List<Resource> page =
+                resourceService.getResources(
+                        ResourceSearchParameters.builder()
+                                .page(0)
+                                .entries(1)
+                                .authUser(buildFakeAdminUser())
+                                .build());
+        String cursor = ResourceSearchCursor.nextToken(page, 1, null, null);
+        assertNotNull(cursor);
+
+        // the cursor is bound to the sort it has been created with
+        assertBadCursor(ResourceSearchParameters.builder().entries(1).cursor(cursor).sortBy("id"));
+        assertBadCursor(ResourceSearchParameters.builder().entries(1).cursor("not a cursor"));
+        assertBadCursor(ResourceSearchParameters.builder().page(0).entries(1).cursor(cursor));
+        // fields that may be null cannot be used with a cursor
+        assertNull(ResourceSearchCursor.nextToken(page, 1, "lastUpdate", null));
+
+        List<Resource> next =
+                resourceService.getResources(
+                        ResourceSearchParameters.builder()
+                                .entries(1)
+                                .cursor(cursor)
+                                .authUser(buildFakeAdminUser())
+                                .build());
+        assertEquals(1, next.size());
+        assertEquals("cursor b", next.get(0).getName());
+    }
+
+    private void assertBadCursor(ResourceSearchParameters.Builder builder) throws Exception {
+        try {
+            resourceService.getResources(builder.authUser(buildFakeAdminUser()).build());
+            fail("BadRequestServiceEx expected");
+        } catch (BadRequestServiceEx e) {
+            // expected
+        }
+    }
+
     /**
      * Check if the List passed is sorted by name
      *
@@ -436,6 +555,151 @@ public class ResourceServiceImplTest extends ServiceTestBase {
         assertEquals((Long) resourceId, groupRule.getResource().getId());
     }
 
+    public void testFetchSecurityRulesAndFavorites() throws Exception {
+        long userId = createUser("user1", Role.USER, "password");
+        User user = userService.get(userId);
+
+        SecurityRule rule = new SecurityRule();
+        rule.setUser(user);
+        rule.setCanRead(true);
+        rule.setCanWrite(true);
+        long firstId = createResource("name1", "description1", "MAP1", List.of(rule));
+
+        rule = new SecurityRule();
+        rule.setUser(user);
+        rule.setCanRead(true);
+        long secondId = createResource("name2", "description2", "MAP2", List.of(rule));
+
+        long thirdId = createResource("name3", "description3", "MAP3");
+
+        favoriteService.addFavorite(user, secondId);
+
+        List<Resource> resources =
+                List.of(
+                        resourceService.get(firstId),
+                        resourceService.get(secondId),
+                        resourceService.get(thirdId));
+        resourceService.fetchSecurityRulesAndFavorites(resources, user);
+
+        assertEquals(1, resources.get(0).getSecurity().size());
+        assertTrue(resources.get(0).getSecurity().get(0).isCanWrite());
+        assertTrue(resources.get(0).getFavorites().isEmpty());
+
+        assertEquals(1, resources.get(1).getSecurity().size());
+        assertFalse(resources.get(1).getSecurity().get(0).isCanWrite());
+        assertEquals(1, resources.get(1).getFavorites().size());
+
+        assertTrue(resources.get(2).getSecurity().isEmpty());
+        assertTrue(resources.get(2).getFavorites().isEmpty());
+
+        List<ShortResource> shortResources =
+                resourceService.getShortResources(
+                        ResourceSearchParameters.builder()
+                                .filter(
+                                        new FieldFilter(
+                                                BaseField.NAME, "name%", SearchOperator.LIKE))
+                                .authUser(user)
+                                .build());
+        assertEquals(2, shortResources.size());
+        assertTrue(shortResources.get(0).isCanEdit());
+        assertFalse(shortResources.get(1).isCanEdit());
+    }
+
+    public void testInsertAll() throws Exception {
+        long userId = createUser("user1", Role.USER, "password");
+        long groupId = createGroup("group1");
+        long categoryId = createCategory("MAP");
+        createCategory("DASHBOARD");
+
+        List<Resource> resources = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Category category = new Category();
+            if (i == 0) {
+                category.setId(categoryId);
+            } else {
+                category.setName(i == 1 ? "MAP" : "DASHBOARD");
+            }
+
+            Attribute attribute = new Attribute();
+            attribute.setName("attr");
+            attribute.setType(DataType.STRING);
+            attribute.setTextValue("value" + i);
+
+            StoredData data = new StoredData();
+            data.setData("data" + i);
+
+            User user = new User();
+            user.setId(userId);
+            user.setName("user1");
+            UserGroup group = new UserGroup();
+            group.setId(groupId);
+            SecurityRule userRule = new SecurityRule();
+            userRule.setUser(user);
+            userRule.setCanRead(true);
+            userRule.setCanWrite(true);
+            SecurityRule groupRule = new SecurityRule();
+            groupRule.setGroup(group);
+            groupRule.setCanRead(true);
+
+            Resource resource = new Resource();
+            resource.setName("bulk" + i);
+            resource.setCategory(category);
+            resource.setAttribute(List.of(attribute));
+            resource.setData(data);
+            resource.setSecurity(List.of(userRule, groupRule));
+            resources.add(resource);
+        }
+
+        List<Long> ids = resourceService.insertAll(resources);
+        assertEquals(3, ids.size());
+
+        for (int i = 0; i < 3; i++) {
+            Resource resource = resourceService.getResource(ids.get(i), true, true, false);
+            assertEquals("bulk" + i, resource.getName());
+            assertEquals(i == 2 ? "DASHBOARD" : "MAP", resource.getCategory().getName());
+            assertEquals("user1", resource.getCreator());
+            assertEquals("value" + i, resource.getAttribute().get(0).getTextValue());
+            assertEquals("data" + i, storedDataService.get(ids.get(i)).getData());
+            assertEquals(2, resource.getSecurity().size());
+        }
+        // the input resources are left untouched
+        assertNull(resources.get(0).getAttribute().get(0).getResource());
+    }
+
+    public void testInsertAllIsAtomic() throws Exception {
+        createResource("existing", "description", "MAP");
+
+        List<Resource> resources = new ArrayList<>();
+        for (String name : List.of("new", "existing")) {
+            Category category = new Category();
+            category.setName("MAP");
+            Resource resource = new Resource();
+            resource.setName(name);
+            resource.setCategory(category);
+            resources.add(resource);
+        }
+
+        try {
+            resourceService.insertAll(resources);
+            fail("DuplicatedResourceNameServiceEx expected");
+        } catch (DuplicatedResourceNameServiceEx e) {
+            // expected
+        }
+
+        Category unknown = new Category();
+        unknown.setName("UNKNOWN");
+        resources.get(1).setName("other");
+        resources.get(1).setCategory(unknown);
+        try {
+            resourceService.insertAll(resources);
+            fail("NotFoundServiceEx expected");
+        } catch (NotFoundServiceEx e) {
+            // expected
+        }
+
+        assertEquals(1, resourceService.getCount(null));
+    }
+
     public void testUpdateSecurityRules() throws Exception {
         long resourceId = createResource("name1", "description1", "MAP");
 
@@ -814,4 +1078,147 @@ public class ResourceServiceImplTest extends ServiceTestBase {
                                         .build())
                         .size());
     }
+
+    public void testAclProjection() throws Exception {
+        SecurityDAOImpl dao = AopTestUtils.getTargetObject(securityDAO);
+        dao.setAclProjectionEnabled(true);
+        try {
+            long groupId = createGroup("acl_group");
+            UserGroup group = new UserGroup();
+            group.setId(groupId);
+            group.setGroupName("acl_group");
+
+            long userId = createUser("acl_user", Role.USER, "password", groupId);
+            User user = new User();
+            user.setId(userId);
+            user.setName("acl_user");
+            user.setRole(Role.USER);
+            user.setGroups(new HashSet<>(Collections.singletonList(group)));
+
+            long otherId = createUser("acl_other", Role.USER, "password");
+            User other = new User();
+            other.setId(otherId);
+            other.setName("acl_other");
+
+            IPRange ipRange = new IPRange();
+            ipRange.setCidr("10.0.0.0/8");
+            ipRangeService.insert(ipRange);
+
+            SecurityRule groupNameRule = new SecurityRule();
+            groupNameRule.setGroupname("acl_group");
+            groupNameRule.setCanRead(true);
+
+            long ownedId =
+                    createResource(
+                            "acl_owned",
+                            "d",
+                            "ACL1",
+                            false,
+                            List.of(new SecurityRuleBuilder().user(user).canRead(true).build()));
+            createResource(
+                    "acl_group_hidden",
+                    "d",
+                    "ACL2",
+                    false,
+                    List.of(new SecurityRuleBuilder().group(group).canRead(true).build()));
+            createResource(
+                    "acl_group_advertised",
+                    "d",
+                    "ACL3",
+                    true,
+                    List.of(new SecurityRuleBuilder().group(group).canRead(true).build()));
+            createResource("acl_group_name", "d", "ACL4", true, List.of(groupNameRule));
+            createResource(
+                    "acl_ip",
+                    "d",
+                    "ACL5",
+                    true,
+                    List.of(
+                            new SecurityRuleBuilder()
+                                    .ipRanges(Set.of(ipRange))
+                                    .canRead(true)
+                                    .build()));
+            createResource(
+                    "acl_not_readable",
+                    "d",
+                    "ACL6",
+                    true,
+                    List.of(new SecurityRuleBuilder().user(user).canRead(false).build()));
+
+            SearchFilter filter = new FieldFilter(BaseField.NAME, "acl_%", SearchOperator.LIKE);
+            Set<String> visible = Set.of("acl_owned", "acl_group_advertised", "acl_group_name");
+            assertEquals(visible, searchNames(filter, user));
+            assertEquals(3, resourceService.count(filter, user));
+
+            user.setIpAddress(new IPAddressString("10.1.2.3").getAddress());
+            Set<String> visibleFromRange = new HashSet<>(visible);
+            visibleFromRange.add("acl_ip");
+            assertEquals(visibleFromRange, searchNames(filter, user));
+
+            // same result as filtering through the security rules
+            dao.setAclProjectionEnabled(false);
+            assertEquals(visibleFromRange, searchNames(filter, user));
+            dao.setAclProjectionEnabled(true);
+
+            // rule changes are projected
+            resourceService.updateSecurityRules(
+                    ownedId, List.of(new SecurityRuleBuilder().user(other).canRead(true).build()));
+            assertFalse(searchNames(filter, user).contains("acl_owned"));
+
+            assertEquals(6, securityDAO.rebuildAclProjection());
+            visibleFromRange.remove("acl_owned");
+            assertEquals(visibleFromRange, searchNames(filter, user));
+
+            // entries are dropped together with their resource
+            resourceService.delete(ownedId);
+            assertEquals(visibleFromRange, searchNames(filter, user));
+        } finally {
+            dao.setAclProjectionEnabled(false);
+        }
+    }
+
+    public void testAclProjectionSurvivesUserRename() throws Exception {
+        SecurityDAOImpl dao = AopTestUtils.getTargetObject(securityDAO);
+        dao.setAclProjectionEnabled(true);
+        try {
+            long userId = createUser("acl_renamed", Role.USER, "password");
+            User user = userService.get(userId);
+            createResource(
+                    "acl_renamed_owned",
+                    "d",
+                    "ACL7",
+                    false,
+                    List.of(new SecurityRuleBuilder().user(user).canRead(true).build()));
+
+            SearchFilter filter = new FieldFilter(BaseField.NAME, "acl_%", SearchOperator.LIKE);
+            user.setName("acl_renamed_new");
+            userService.update(user);
+            User renamed = userService.get(userId);
+            assertEquals(Set.of("acl_renamed_owned"), searchNames(filter, renamed));
+
+            // the entries follow the user id, not the name the user had when the rule was set
+            renamed.setName("acl_renamed_other");
+            assertEquals(Set.of("acl_renamed_owned"), searchNames(filter, renamed));
+
+            // a new user taking the name of a deleted one does not inherit its rules
+            userService.delete(userId);
+            long newcomerId = createUser("acl_renamed", Role.USER, "password");
+            User newcomer = userService.get(newcomerId);
+            assertTrue(searchNames(filter, newcomer).isEmpty());
+
+            dao.setAclProjectionEnabled(false);
+            assertTrue(searchNames(filter, newcomer).isEmpty());
+        } finally {
+            dao.setAclProjectionEnabled(false);
+        }
+    }
+
+    private Set<String> searchNames(SearchFilter filter, User user) throws Exception {
+        return resourceService
+                .getShortResources(
+                        ResourceSearchParameters.builder().filter(filter).authUser(user).build())
+                .stream()
+                .map(ShortResource::getName)
+                .collect(Collectors.toSet());
+    }
 }
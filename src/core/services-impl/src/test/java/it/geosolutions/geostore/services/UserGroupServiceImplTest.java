@@ -138,9 +138,14 @@ public class UserGroupServiceImplTest extends ServiceTestBase {
         List<Long> listR = new ArrayList<>();
         listR.add(r.getId());
 
+        Date lastUpdate = r.getLastUpdate();
         List<ShortResource> listsr =
                 userGroupService.updateSecurityRules(ug1.getId(), listR, true, true);
         assertEquals(1, listsr.size());
+        // the rule change versions the resource representations
+        Date touched = resourceService.get(id).getLastUpdate();
+        assertNotNull(touched);
+        assertFalse(touched.equals(lastUpdate));
         assertTrue("Expected TRUE", listsr.get(0).isCanDelete());
         assertTrue("Expected TRUE", listsr.get(0).isCanEdit());
         assertTrue("Expected TRUE", listsr.get(0).isCanCopy());
@@ -219,6 +224,22 @@ public class UserGroupServiceImplTest extends ServiceTestBase {
         assertEquals("Updated Description", updated.getDescription());
     }
 
+    @Test
+    public void testDisablingGroupInvalidatesVerifiedCredentials() throws Exception {
+        VerifiedCredentialsCache cache =
+                (VerifiedCredentialsCache) ctx.getBean("verifiedCredentialsCache");
+        long groupId = createGroup("cachedGroup");
+        long userId = createUser("cachedMember", Role.USER, "testPW", groupId);
+        cache.put("cachedMember", "testPW", userService.get(userId));
+        assertNotNull(cache.get("cachedMember", "testPW"));
+
+        UserGroup group = userGroupService.get(groupId);
+        group.setEnabled(false);
+        userGroupService.update(group);
+
+        assertNull(cache.get("cachedMember", "testPW"));
+    }
+
     @Test
     public void testUpdateUserGroupAttributes() throws BadRequestServiceEx, NotFoundServiceEx {
         UserGroup group = new UserGroup();
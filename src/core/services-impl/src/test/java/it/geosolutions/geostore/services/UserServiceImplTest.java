@@ -29,6 +29,9 @@ import it.geosolutions.geostore.core.model.enums.Role;
 import it.geosolutions.geostore.core.security.password.PwEncoder;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -134,6 +137,41 @@ public class UserServiceImplTest extends ServiceTestBase {
         assertEquals(1, users.size());
     }
 
+    @Test
+    public void testGetByGroups() throws Exception {
+        long groupA = createGroup("groupA");
+        long groupB = createGroup("groupB");
+        long groupC = createGroup("groupC");
+        long bob = createUser("bob", Role.USER, "bobPW", groupA);
+        long alice = createUser("alice", Role.USER, "alicePW", groupA);
+        createUserGroup("groupD", new long[] {bob});
+
+        List<UserGroup> groups =
+                Arrays.asList(
+                        userGroupService.get(groupA),
+                        userGroupService.get(groupB),
+                        userGroupService.get(groupC));
+
+        Map<Long, List<User>> names = userService.getByGroups(groups, false);
+        assertEquals(1, names.size());
+        List<User> members = names.get(groupA);
+        assertEquals(2, members.size());
+        assertEquals("alice", members.get(0).getName());
+        assertEquals(alice, members.get(0).getId().longValue());
+        assertEquals(Role.USER, members.get(0).getRole());
+        assertEquals("bob", members.get(1).getName());
+
+        List<User> full = userService.getByGroups(groups, true).get(groupA);
+        assertEquals(2, full.size());
+        assertEquals(bob, full.get(1).getId().longValue());
+        assertEquals(2, full.get(1).getGroups().size());
+
+        Map<Long, Long> counts = userService.countByGroups(groups);
+        assertEquals(Long.valueOf(2), counts.get(groupA));
+        assertNull(counts.get(groupB));
+        assertTrue(userService.countByGroups(Collections.emptyList()).isEmpty());
+    }
+
     @Test
     public void testUpdateByUserId() throws Exception {
         final String NAME = "name1";
@@ -350,6 +388,34 @@ public class UserServiceImplTest extends ServiceTestBase {
         return resourceService.insert(resource);
     }
 
+    @Test
+    public void testUpdateInvalidatesVerifiedCredentials() throws Exception {
+        VerifiedCredentialsCache cache =
+                (VerifiedCredentialsCache) ctx.getBean("verifiedCredentialsCache");
+        long userId = createUser("cached", Role.USER, "testPW");
+        User user = userService.get(userId);
+        cache.put("cached", "testPW", user);
+        assertNotNull(cache.get("cached", "testPW"));
+
+        user.setNewPassword("testPW2");
+        userService.update(user);
+
+        assertNull(cache.get("cached", "testPW"));
+    }
+
+    @Test
+    public void testDeleteInvalidatesVerifiedCredentials() throws Exception {
+        VerifiedCredentialsCache cache =
+                (VerifiedCredentialsCache) ctx.getBean("verifiedCredentialsCache");
+        long userId = createUser("cached", Role.USER, "testPW");
+        cache.put("cached", "testPW", userService.get(userId));
+        assertNotNull(cache.get("cached", "testPW"));
+
+        userService.delete(userId);
+
+        assertNull(cache.get("cached", "testPW"));
+    }
+
     private SecurityRule ownerRule(User user) {
         SecurityRule rule = new SecurityRule();
         rule.setUser(user);
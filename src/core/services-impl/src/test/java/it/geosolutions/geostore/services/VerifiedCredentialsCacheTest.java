@@ -0,0 +1,155 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import it.geosolutions.geostore.core.model.User;
+import it.geosolutions.geostore.core.model.UserGroup;
+import it.geosolutions.geostore.core.model.enums.Role;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class VerifiedCredentialsCacheTest {
+
+    private VerifiedCredentialsCache cache;
+
+    private User user;
+
+    @Before
+    public void setUp() {
+        cache = new VerifiedCredentialsCache();
+        user = new User();
+        user.setId(1L);
+        user.setName("alice");
+        user.setRole(Role.USER);
+    }
+
+    @Test
+    public void testHitReturnsCopy() {
+        cache.put("alice", "secret", user);
+
+        User cached = cache.get("alice", "secret");
+        assertNotNull(cached);
+        assertEquals("alice", cached.getName());
+        assertNotSame(cached, cache.get("alice", "secret"));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void testCallersCannotChangeCachedGroups() {
+        UserGroup group = new UserGroup();
+        group.setId(2L);
+        group.setGroupName("editors");
+        user.setGroups(new HashSet<>(Collections.singleton(group)));
+        cache.put("alice", "secret", user);
+
+        // changes made to the loaded user after caching it
+        group.setEnabled(false);
+        user.getGroups().clear();
+
+        User cached = cache.get("alice", "secret");
+        assertEquals(1, cached.getGroups().size());
+        cached.getGroups().iterator().next().setGroupName("admins");
+        cached.getGroups().clear();
+
+        User again = cache.get("alice", "secret");
+        assertEquals(1, again.getGroups().size());
+        UserGroup cachedGroup = again.getGroups().iterator().next();
+        assertEquals("editors", cachedGroup.getGroupName());
+        assertTrue(cachedGroup.isEnabled());
+    }
+
+    @Test
+    public void testWrongPasswordIsAMiss() {
+        cache.put("alice", "secret", user);
+
+        assertNull(cache.get("alice", "wrong"));
+        assertNull(cache.get("bob", "secret"));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testInvalidate() {
+        cache.put("alice", "secret", user);
+        cache.invalidate("alice");
+
+        assertNull(cache.get("alice", "secret"));
+    }
+
+    @Test
+    public void testNotCachedWhenInvalidatedWhileLoading() {
+        long generation = cache.getGeneration();
+        cache.invalidate("alice");
+        cache.put("alice", "secret", user, generation);
+
+        assertNull(cache.get("alice", "secret"));
+
+        cache.put("alice", "secret", user, cache.getGeneration());
+        assertNotNull(cache.get("alice", "secret"));
+    }
+
+    @Test
+    public void testInvalidatedAgainWhenTheTransactionCompletes() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate("alice");
+            // a concurrent login caching the state that preceded the commit
+            cache.put("alice", "secret", user);
+            assertNotNull(cache.get("alice", "secret"));
+
+            for (TransactionSynchronization synchronization :
+                    TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNull(cache.get("alice", "secret"));
+    }
+
+    @Test
+    public void testDisabled() {
+        cache.setEnabled(false);
+        cache.put("alice", "secret", user);
+
+        assertNull(cache.get("alice", "secret"));
+        assertEquals(0, cache.getSize());
+    }
+}
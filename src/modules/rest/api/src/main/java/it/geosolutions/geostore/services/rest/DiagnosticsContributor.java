@@ -0,0 +1,44 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services.rest;
+
+import java.util.Map;
+
+/**
+ * A component adding its runtime counters to the full report of the {@link RESTDiagnosticsService}.
+ * The beans implementing this interface are looked up in the application context, so that optional
+ * modules can be reported without the diagnostics service depending on them.
+ */
+public interface DiagnosticsContributor {
+
+    /** @return the name of the report section holding the counters */
+    String getDiagnosticsName();
+
+    /** @return the counters by name, the values must be serializable to JSON */
+    Map<String, Object> getDiagnostics();
+}
@@ -35,8 +35,10 @@ import it.geosolutions.geostore.services.exception.InternalErrorServiceEx;
 import it.geosolutions.geostore.services.rest.exception.BadRequestWebEx;
 import it.geosolutions.geostore.services.rest.exception.InternalErrorWebEx;
 import it.geosolutions.geostore.services.rest.exception.NotFoundWebEx;
+import it.geosolutions.geostore.services.rest.model.BulkInsertResultList;
 import it.geosolutions.geostore.services.rest.model.RESTAttribute;
 import it.geosolutions.geostore.services.rest.model.RESTResource;
+import it.geosolutions.geostore.services.rest.model.RESTResourceList;
 import it.geosolutions.geostore.services.rest.model.ResourceList;
 import it.geosolutions.geostore.services.rest.model.SecurityRuleList;
 import it.geosolutions.geostore.services.rest.model.ShortAttributeList;
@@ -82,6 +84,25 @@ public interface RESTResourceService {
     long insert(@Context SecurityContext sc, @Multipart("resource") RESTResource resource)
             throws InternalErrorWebEx;
 
+    /**
+     * Inserts a list of resources. The resources are inserted in chunks, each one in its own
+     * transaction; the outcome of each resource is reported in the result, in the order of the
+     * request.
+     *
+     * @param resources
+     * @return BulkInsertResultList
+     * @throws BadRequestWebEx
+     */
+    @POST
+    @Path("/bulk")
+    @Consumes({MediaType.APPLICATION_XML, MediaType.TEXT_XML, MediaType.APPLICATION_JSON})
+    @Produces({MediaType.APPLICATION_XML, MediaType.TEXT_XML, MediaType.APPLICATION_JSON})
+    // @RolesAllowed({ "ADMIN", "USER" })
+    @Secured({"ROLE_USER", "ROLE_ADMIN"})
+    BulkInsertResultList insertAll(
+            @Context SecurityContext sc, @Multipart("resources") RESTResourceList resources)
+            throws BadRequestWebEx;
+
     /**
      * @param id
      * @param resource
@@ -192,12 +213,21 @@ public interface RESTResourceService {
             throws BadRequestWebEx, InternalErrorWebEx;
 
     /**
+     * Searches the resources, sorted by name.
+     *
+     * <p>Pages can be requested either by number, with <code>page</code> and <code>entries</code>,
+     * or with the <code>cursor</code> returned as <code>NextCursor</code> by the previous page,
+     * together with the same <code>entries</code>. Cursor pages do not get slower as the client
+     * moves forward in the result set.
+     *
      * @param sc
      * @param filter
      * @param page
      * @param entries
+     * @param cursor the token returned with the previous page, used in place of page
      * @param includeAttributes
      * @param includeData
+     * @param includeCount whether to count all the resources matching the filter
      * @return ResourceList
      * @throws BadRequestWebEx
      * @throws InternalErrorWebEx
@@ -213,11 +243,30 @@ public interface RESTResourceService {
             @Context SecurityContext sc,
             @QueryParam("page") Integer page,
             @QueryParam("entries") Integer entries,
+            @QueryParam("cursor") String cursor,
             @QueryParam("includeAttributes") @DefaultValue("false") boolean includeAttributes,
             @QueryParam("includeData") @DefaultValue("false") boolean includeData,
+            @QueryParam("includeCount") @DefaultValue("false") boolean includeCount,
             @Multipart("filter") SearchFilter filter)
             throws BadRequestWebEx, InternalErrorWebEx;
 
+    /**
+     * Page number based variant of {@link #getResourcesList(SecurityContext, Integer, Integer,
+     * String, boolean, boolean, boolean, SearchFilter)}.
+     */
+    @Secured({"ROLE_USER", "ROLE_ADMIN", "ROLE_ANONYMOUS"})
+    default ResourceList getResourcesList(
+            SecurityContext sc,
+            Integer page,
+            Integer entries,
+            boolean includeAttributes,
+            boolean includeData,
+            SearchFilter filter)
+            throws BadRequestWebEx, InternalErrorWebEx {
+        return getResourcesList(
+                sc, page, entries, null, includeAttributes, includeData, false, filter);
+    }
+
     /**
      * @param nameLike
      * @return long
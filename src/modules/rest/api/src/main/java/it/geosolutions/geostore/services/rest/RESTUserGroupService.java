@@ -96,6 +96,9 @@ public interface RESTUserGroupService {
      * @param all if <code>true</code> adds to result the 'everyone' group if it matches the
      *     searching criteria
      * @param includeUsers if to include group users in the results
+     * @param members how to return the group members, one of <code>none</code>, <code>count
+     *     </code>, <code>names</code> or <code>full</code>; overrides <code>users</code>, which
+     *     stands for <code>full</code> when true and <code>none</code> when false
      * @return a list of groups that match searching criteria with pagination.
      * @throws BadRequestWebEx Exception
      */
@@ -109,9 +112,26 @@ public interface RESTUserGroupService {
             @QueryParam("entries") Integer entries,
             @QueryParam("all") @DefaultValue("false") boolean all,
             @QueryParam("users") @DefaultValue("true") boolean includeUsers,
+            @QueryParam("members") String members,
             @QueryParam("nameLike") String nameLike)
             throws BadRequestWebEx;
 
+    /**
+     * Variant of {@link #getAll(SecurityContext, Integer, Integer, boolean, boolean, String,
+     * String)} where the members are selected by the <code>includeUsers</code> flag only.
+     */
+    @Secured({"ROLE_ADMIN"})
+    default UserGroupList getAll(
+            SecurityContext sc,
+            Integer page,
+            Integer entries,
+            boolean all,
+            boolean includeUsers,
+            String nameLike)
+            throws BadRequestWebEx {
+        return getAll(sc, page, entries, all, includeUsers, null, nameLike);
+    }
+
     @PUT
     @Path("/update_security_rules/{groupId}/{canRead}/{canWrite}")
     @Consumes({MediaType.APPLICATION_XML, MediaType.TEXT_XML, MediaType.APPLICATION_JSON})
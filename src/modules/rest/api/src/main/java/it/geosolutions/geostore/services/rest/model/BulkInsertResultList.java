@@ -0,0 +1,127 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services.rest.model;
+
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import java.util.ArrayList;
+import java.util.List;
+
+/** The outcome of a bulk insert, one result for each resource of the request. */
+@XmlRootElement(name = "BulkInsertResults")
+public class BulkInsertResultList {
+
+    private List<BulkInsertResult> list = new ArrayList<>();
+
+    public BulkInsertResultList() {}
+
+    public BulkInsertResultList(List<BulkInsertResult> list) {
+        this.list = list;
+    }
+
+    @XmlElement(name = "Result")
+    public List<BulkInsertResult> getList() {
+        return list;
+    }
+
+    public void setList(List<BulkInsertResult> list) {
+        this.list = list;
+    }
+
+    /** The outcome of the insert of a single resource. */
+    public static class BulkInsertResult {
+
+        /** Status of a resource that has been inserted. */
+        public static final String CREATED = "CREATED";
+
+        /** Status of a resource that could not be inserted, see the message. */
+        public static final String FAILED = "FAILED";
+
+        private int index;
+
+        private String name;
+
+        private Long id;
+
+        private String status;
+
+        private String message;
+
+        public BulkInsertResult() {}
+
+        public BulkInsertResult(int index, String name, Long id, String status, String message) {
+            this.index = index;
+            this.name = name;
+            this.id = id;
+            this.status = status;
+            this.message = message;
+        }
+
+        /** @return the position of the resource in the request */
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        /** @return the id of the inserted resource, null if the insert failed */
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
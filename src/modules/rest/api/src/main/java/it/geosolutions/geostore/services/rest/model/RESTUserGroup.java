@@ -25,8 +25,8 @@ import it.geosolutions.geostore.core.model.UserGroupAttribute;
 import jakarta.xml.bind.annotation.XmlRootElement;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 /** @author DamianoG */
 @XmlRootElement(name = "UserGroup")
@@ -40,6 +40,8 @@ public class RESTUserGroup implements Serializable {
 
     private UserList restUsers;
 
+    private Long memberCount;
+
     private String description;
 
     private List<UserGroupAttribute> attributes;
@@ -50,7 +52,7 @@ public class RESTUserGroup implements Serializable {
      * @param id
      * @param groupName
      */
-    public RESTUserGroup(Long id, String groupName, Set<User> users, String description) {
+    public RESTUserGroup(Long id, String groupName, Collection<User> users, String description) {
         this.id = id;
         this.groupName = groupName;
         List<RESTUser> list = new ArrayList<RESTUser>();
@@ -61,7 +63,7 @@ public class RESTUserGroup implements Serializable {
         this.description = description;
     }
 
-    public RESTUserGroup(UserGroup group, Set<User> users) {
+    public RESTUserGroup(UserGroup group, Collection<User> users) {
         this(group.getId(), group.getGroupName(), users, group.getDescription());
     }
 
@@ -95,6 +97,16 @@ public class RESTUserGroup implements Serializable {
         this.restUsers = restUsers;
     }
 
+    /** @return the number of members, when only the count of the members has been requested */
+    public Long getMemberCount() {
+        return memberCount;
+    }
+
+    /** @param memberCount the number of members to set */
+    public void setMemberCount(Long memberCount) {
+        this.memberCount = memberCount;
+    }
+
     /** @return the description */
     public String getDescription() {
         return description;
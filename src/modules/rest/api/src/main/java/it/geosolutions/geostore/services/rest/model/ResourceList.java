@@ -44,6 +44,10 @@ public class ResourceList {
 
     private List<Resource> list;
 
+    private Long count;
+
+    private String nextCursor;
+
     public ResourceList() {}
 
     /** @param list */
@@ -62,6 +66,26 @@ public class ResourceList {
         this.list = list;
     }
 
+    /** @return the number of resources matching the search, or null if it has not been counted */
+    @XmlElement(name = "ResourceCount")
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    /** @return the token to request the next page with, or null if there are no more pages */
+    @XmlElement(name = "NextCursor")
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     @XmlTransient
     public boolean isEmpty() {
         return list == null || list.isEmpty();
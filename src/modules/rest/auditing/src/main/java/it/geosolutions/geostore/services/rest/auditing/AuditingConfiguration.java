@@ -46,6 +46,22 @@ final class AuditingConfiguration {
     static final String TEMPLATES_VERSION = "auditing.templates.version";
     static final String MAX_RESQUEST_PER_FILE = "auditing.max.requests.per.file";
     static final String OUTPUT_FILES_EXTENSION = "auditing.output.files.extension";
+    static final String QUEUE_SIZE = "auditing.queue.size";
+    static final String BATCH_SIZE = "auditing.batch.size";
+    static final String FLUSH_INTERVAL = "auditing.flush.interval.ms";
+    static final String FSYNC_ON_FLUSH = "auditing.fsync.on.flush";
+    static final String OVERFLOW_POLICY = "auditing.overflow.policy";
+    static final String OVERFLOW_BLOCK_TIMEOUT = "auditing.overflow.block.timeout.ms";
+
+    /** What to do with a message when the queue of the messages waiting to be written is full. */
+    enum OverflowPolicy {
+        /** wait for free space, up to the configured timeout, then drop the message */
+        BLOCK,
+        /** drop the oldest queued message to make room for the new one */
+        DROP_OLDEST,
+        /** append the message to a spill file, written to the output once the queue drains */
+        SPILL
+    }
 
     private final File configurationFile;
     private final long configurationFileChecksum;
@@ -56,6 +72,12 @@ final class AuditingConfiguration {
     private final int templatesVersion;
     private final int maxRequestPerFile;
     private final String outputFilesExtension;
+    private final int queueSize;
+    private final int batchSize;
+    private final long flushInterval;
+    private final boolean fsyncOnFlush;
+    private final OverflowPolicy overflowPolicy;
+    private final long overflowBlockTimeout;
 
     AuditingConfiguration() {
         this(null, 0l);
@@ -77,6 +99,17 @@ final class AuditingConfiguration {
         templatesVersion = Integer.parseInt(getProperty(properties, TEMPLATES_VERSION));
         maxRequestPerFile = Integer.parseInt(getProperty(properties, MAX_RESQUEST_PER_FILE));
         outputFilesExtension = getProperty(properties, OUTPUT_FILES_EXTENSION);
+        queueSize = Integer.parseInt(getProperty(properties, QUEUE_SIZE, "10000"));
+        batchSize = Integer.parseInt(getProperty(properties, BATCH_SIZE, "500"));
+        flushInterval = Long.parseLong(getProperty(properties, FLUSH_INTERVAL, "1000"));
+        fsyncOnFlush = Boolean.parseBoolean(getProperty(properties, FSYNC_ON_FLUSH, "false"));
+        overflowPolicy =
+                OverflowPolicy.valueOf(
+                        getProperty(properties, OVERFLOW_POLICY, "DROP_OLDEST")
+                                .trim()
+                                .toUpperCase());
+        overflowBlockTimeout =
+                Long.parseLong(getProperty(properties, OVERFLOW_BLOCK_TIMEOUT, "1000"));
     }
 
     static boolean configurationExists() {
@@ -107,6 +140,30 @@ final class AuditingConfiguration {
         return outputFilesExtension;
     }
 
+    int getQueueSize() {
+        return queueSize;
+    }
+
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    long getFlushInterval() {
+        return flushInterval;
+    }
+
+    boolean isFsyncOnFlush() {
+        return fsyncOnFlush;
+    }
+
+    OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    long getOverflowBlockTimeout() {
+        return overflowBlockTimeout;
+    }
+
     AuditingConfiguration checkForNewConfiguration() {
         File candidateConfigurationFile = findConfigurationFile();
         long candidateConfigurationFileChecksum = checksum(candidateConfigurationFile);
@@ -165,4 +222,9 @@ final class AuditingConfiguration {
         }
         return propertyValue;
     }
+
+    private static String getProperty(
+            Properties properties, String propertyName, String defaultValue) {
+        return properties.getProperty(propertyName, defaultValue);
+    }
 }
@@ -27,22 +27,63 @@
  */
 package it.geosolutions.geostore.services.rest.auditing;
 
-import java.io.FileWriter;
+import freemarker.template.TemplateException;
+import it.geosolutions.geostore.services.rest.DiagnosticsContributor;
+import it.geosolutions.geostore.services.rest.auditing.AuditingConfiguration.OverflowPolicy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-final class AuditingOutput {
+/**
+ * Writes the audit messages to the output files. Messages are queued by the request threads and
+ * written in batches by a single background thread through a buffered writer, which is flushed at
+ * the configured interval. When the queue is full the configured {@link OverflowPolicy} decides
+ * whether the request thread waits, the oldest message is dropped or the message is spilled to
+ * disk.
+ *
+ * <p>Spilled messages are appended to a spill file kept open until the background thread replays
+ * it. While spilled messages are pending, the new messages are spilled as well, so that the output
+ * keeps the order in which the messages have been offered.
+ */
+final class AuditingOutput implements DiagnosticsContributor {
 
     private static final Logger LOGGER = LogManager.getLogger(AuditingOutput.class);
 
-    private final BlockingQueue<Map<String, String>> messagesQueue =
-            new ArrayBlockingQueue<Map<String, String>>(10000);
+    private static final int WRITER_BUFFER_SIZE = 64 * 1024;
+
+    private static final String SPILL_FILE_NAME = "audit-geostore-spill.dat";
+
+    private final LongAdder queuedMessages = new LongAdder();
+    private final LongAdder droppedMessages = new LongAdder();
+    private final LongAdder spilledMessages = new LongAdder();
+    private final LongAdder writtenMessages = new LongAdder();
+
+    private final Object spillLock = new Object();
+
+    private BlockingQueue<Map<String, String>> messagesQueue;
 
     private AuditingConfiguration configuration;
 
@@ -51,39 +92,50 @@ final class AuditingOutput {
 
     private boolean auditEnable = false;
 
-    private FileWriter writer;
+    private FileOutputStream outputStream;
+    private Writer writer;
+
+    private File spillFile;
+    private Writer spillWriter;
+    private volatile boolean spillPending;
 
     private int requestsProcessed;
 
+    private Consumer consumer;
+    private Thread consumerThread;
+
     AuditingOutput() {
+        this(true);
+    }
+
+    /**
+     * @param startConsumer whether the background writer should be started immediately, tests start
+     *     it later with {@link #startConsumer()} to fill the queue first
+     */
+    AuditingOutput(boolean startConsumer) {
         if (AuditingConfiguration.configurationExists()) {
             configuration = new AuditingConfiguration();
             if (configuration.isAuditEnable()) {
                 LOGGER.info("Auditing enable.");
                 auditEnable = true;
+                messagesQueue =
+                        new ArrayBlockingQueue<Map<String, String>>(configuration.getQueueSize());
                 templates = new AuditingTemplates(configuration.getTemplatesDirectory());
                 auditingFilesManager =
                         new AuditingFilesManager(
                                 configuration.getOutputDirectory(),
                                 configuration.getOutputFilesExtension());
+                spillFile = new File(configuration.getOutputDirectory(), SPILL_FILE_NAME);
+                spillPending = spillFile.exists() || getReplayFile().exists();
                 openWriter();
-                final Consumer consumer = new Consumer();
-                final Thread consumerThread = new Thread(consumer);
-                consumerThread.start();
+                if (startConsumer) {
+                    startConsumer();
+                }
                 Runtime.getRuntime()
                         .addShutdownHook(
                                 new Thread() {
                                     public void run() {
-                                        consumer.running = false;
-                                        try {
-                                            consumerThread.interrupt();
-                                            consumerThread.join(500);
-                                        } catch (InterruptedException exception) {
-                                            LOGGER.error(
-                                                    "Interrupted when waiting for consumer thread.",
-                                                    exception);
-                                        }
-                                        closeWriter();
+                                        close();
                                     }
                                 });
             } else {
@@ -94,16 +146,104 @@ final class AuditingOutput {
         }
     }
 
+    synchronized void startConsumer() {
+        if (auditEnable && consumerThread == null) {
+            consumer = new Consumer();
+            consumerThread = new Thread(consumer, "geostore-auditing-writer");
+            consumerThread.setDaemon(true);
+            consumerThread.start();
+        }
+    }
+
+    /**
+     * Stops the background writer, writes the messages still queued or spilled and closes the
+     * current output file.
+     */
+    synchronized void close() {
+        if (consumerThread == null) {
+            return;
+        }
+        consumer.running = false;
+        try {
+            consumerThread.join(configuration.getFlushInterval() + 5000);
+            if (consumerThread.isAlive()) {
+                consumerThread.interrupt();
+                consumerThread.join(5000);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("Interrupted when waiting for consumer thread.", exception);
+        }
+        if (consumerThread.isAlive()) {
+            // the output still belongs to the consumer, it cannot be written from here
+            LOGGER.error("Auditing writer did not stop, the pending messages are not written.");
+            consumerThread = null;
+            return;
+        }
+        consumerThread = null;
+        // the consumer has stopped, the remaining messages are written from this thread
+        writePendingMessages();
+        LOGGER.info(
+                "Auditing stopped: {} messages queued, {} written, {} dropped, {} spilled.",
+                getQueuedMessages(),
+                getWrittenMessages(),
+                getDroppedMessages(),
+                getSpilledMessages());
+        closeWriter();
+    }
+
     void offerMessage(Map<String, String> message) {
         if (auditEnable) {
             try {
-                messagesQueue.offer(message);
+                if (spillPending && configuration.getOverflowPolicy() == OverflowPolicy.SPILL) {
+                    // queuing it would write the message before the ones spilled earlier
+                    spill(message);
+                } else if (messagesQueue.offer(message) || handleOverflow(message)) {
+                    queuedMessages.increment();
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                messageDropped();
             } catch (Exception exception) {
                 LOGGER.error("Error offering message.", exception);
             }
         }
     }
 
+    /** @return true if the message has been queued, false if it has been spilled or dropped */
+    private boolean handleOverflow(Map<String, String> message) throws InterruptedException {
+        switch (configuration.getOverflowPolicy()) {
+            case BLOCK:
+                if (messagesQueue.offer(
+                        message, configuration.getOverflowBlockTimeout(), TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+                messageDropped();
+                return false;
+            case SPILL:
+                spill(message);
+                return false;
+            default:
+                while (!messagesQueue.offer(message)) {
+                    if (messagesQueue.poll() != null) {
+                        messageDropped();
+                    }
+                }
+                return true;
+        }
+    }
+
+    private void messageDropped() {
+        droppedMessages.increment();
+        long dropped = droppedMessages.sum();
+        if (dropped == 1 || dropped % 1000 == 0) {
+            LOGGER.warn(
+                    "Auditing queue is full, {} messages dropped so far (overflow policy {}).",
+                    dropped,
+                    configuration.getOverflowPolicy());
+        }
+    }
+
     boolean isAuditEnable() {
         return auditEnable;
     }
@@ -112,9 +252,59 @@ final class AuditingOutput {
         return auditingFilesManager;
     }
 
+    /** @return the number of messages accepted in the queue */
+    long getQueuedMessages() {
+        return queuedMessages.sum();
+    }
+
+    /** @return the number of messages lost because the queue was full */
+    long getDroppedMessages() {
+        return droppedMessages.sum();
+    }
+
+    /** @return the number of messages written to the spill file because the queue was full */
+    long getSpilledMessages() {
+        return spilledMessages.sum();
+    }
+
+    /** @return the number of messages written to the output files */
+    long getWrittenMessages() {
+        return writtenMessages.sum();
+    }
+
+    /** @return the number of messages waiting to be written */
+    int getQueueSize() {
+        return messagesQueue != null ? messagesQueue.size() : 0;
+    }
+
+    @Override
+    public String getDiagnosticsName() {
+        return "auditing";
+    }
+
+    @Override
+    public Map<String, Object> getDiagnostics() {
+        Map<String, Object> diagnostics = new LinkedHashMap<>();
+        diagnostics.put("enabled", auditEnable);
+        if (auditEnable) {
+            diagnostics.put("overflowPolicy", configuration.getOverflowPolicy().name());
+            diagnostics.put("queueSize", getQueueSize());
+            diagnostics.put("queuedMessages", getQueuedMessages());
+            diagnostics.put("writtenMessages", getWrittenMessages());
+            diagnostics.put("droppedMessages", getDroppedMessages());
+            diagnostics.put("spilledMessages", getSpilledMessages());
+            diagnostics.put("spillPending", spillPending);
+        }
+        return diagnostics;
+    }
+
     private void openWriter() {
         try {
-            writer = new FileWriter(auditingFilesManager.getOutputFile());
+            outputStream = new FileOutputStream(auditingFilesManager.getOutputFile());
+            writer =
+                    new BufferedWriter(
+                            new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                            WRITER_BUFFER_SIZE);
         } catch (Exception exception) {
             throw new AuditingException(
                     exception,
@@ -124,6 +314,7 @@ final class AuditingOutput {
         try {
 
             templates.getHeaderTemplate().process(Collections.EMPTY_MAP, writer);
+            flushWriter();
         } catch (Exception exception) {
             throw new AuditingException(
                     exception,
@@ -133,9 +324,10 @@ final class AuditingOutput {
     }
 
     private void closeWriter() {
+        closeSpillWriter();
         try {
             templates.getFooterTemplate().process(Collections.EMPTY_MAP, writer);
-
+            flushWriter();
         } catch (Exception exception) {
             throw new AuditingException(
                     "Error writing footer to file output '%s'.",
@@ -150,14 +342,30 @@ final class AuditingOutput {
         }
     }
 
+    private void flushWriter() throws Exception {
+        writer.flush();
+        if (configuration.isFsyncOnFlush()) {
+            outputStream.getFD().sync();
+        }
+    }
+
     private void processMessage(Map<String, String> message) {
-        auditingFilesManager.makeOutputFileExists();
         try {
-            message.put("id", String.valueOf(requestsProcessed));
-            templates.getBodyTemplate().process(message, writer);
+            writeMessage(message);
         } catch (Exception exception) {
             LOGGER.error("Error writing to body template.", exception);
         }
+        messageProcessed();
+    }
+
+    private void writeMessage(Map<String, String> message) throws IOException, TemplateException {
+        message.put("id", String.valueOf(requestsProcessed));
+        templates.getBodyTemplate().process(message, writer);
+        writtenMessages.increment();
+    }
+
+    /** Counts a message processed, rolling the output file once it holds enough messages. */
+    private void messageProcessed() {
         requestsProcessed++;
         if (requestsProcessed >= configuration.getMaxRequestPerFile()) {
             closeWriter();
@@ -167,23 +375,239 @@ final class AuditingOutput {
         }
     }
 
+    private void spill(Map<String, String> message) {
+        StringBuilder line = new StringBuilder();
+        for (Map.Entry<String, String> entry : message.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                continue;
+            }
+            if (line.length() > 0) {
+                line.append('&');
+            }
+            line.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8))
+                    .append('=')
+                    .append(URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8));
+        }
+        line.append('\n');
+        synchronized (spillLock) {
+            try {
+                if (spillWriter == null) {
+                    spillWriter =
+                            new BufferedWriter(
+                                    new OutputStreamWriter(
+                                            new FileOutputStream(spillFile, true),
+                                            StandardCharsets.UTF_8),
+                                    WRITER_BUFFER_SIZE);
+                }
+                spillWriter.write(line.toString());
+            } catch (IOException exception) {
+                LOGGER.error("Error writing message to spill file.", exception);
+                messageDropped();
+                return;
+            }
+            spillPending = true;
+        }
+        spilledMessages.increment();
+    }
+
+    private void flushSpillWriter() {
+        synchronized (spillLock) {
+            if (spillWriter != null) {
+                try {
+                    spillWriter.flush();
+                } catch (IOException exception) {
+                    LOGGER.error("Error flushing spill file.", exception);
+                }
+            }
+        }
+    }
+
+    private void closeSpillWriter() {
+        synchronized (spillLock) {
+            if (spillWriter != null) {
+                try {
+                    spillWriter.close();
+                } catch (IOException exception) {
+                    LOGGER.error("Error closing spill file.", exception);
+                }
+                spillWriter = null;
+            }
+        }
+    }
+
+    /** Writes the queued and the spilled messages, once the consumer has stopped. */
+    private void writePendingMessages() {
+        List<Map<String, String>> messages = new ArrayList<Map<String, String>>();
+        messagesQueue.drainTo(messages);
+        for (Map<String, String> message : messages) {
+            try {
+                processMessage(message);
+            } catch (Exception exception) {
+                LOGGER.error("Error processing message.", exception);
+            }
+        }
+        if (spillPending) {
+            replaySpilledMessages();
+        }
+        try {
+            flushWriter();
+        } catch (Exception exception) {
+            LOGGER.error("Error flushing audit output.", exception);
+        }
+    }
+
+    private File getReplayFile() {
+        return new File(spillFile.getPath() + ".replay");
+    }
+
+    /**
+     * Writes the spilled messages to the output, in the order they have been spilled. Malformed
+     * lines are skipped; if the output cannot be written, the messages not written yet are kept in
+     * the replay file, to be written by the next replay.
+     */
+    private void replaySpilledMessages() {
+        File replayFile = getReplayFile();
+        synchronized (spillLock) {
+            closeSpillWriter();
+            // a replay file left by a previous run is written before the current spill file
+            if (!replayFile.exists() && !spillFile.renameTo(replayFile)) {
+                LOGGER.error("Error renaming spill file '{}'.", spillFile.getPath());
+                spillPending = false;
+                return;
+            }
+            spillPending = spillFile.exists();
+        }
+        File remainingFile = new File(replayFile.getPath() + ".tmp");
+        boolean remaining = false;
+        try (BufferedReader reader =
+                new BufferedReader(new FileReader(replayFile, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                Map<String, String> message = parseSpilledMessage(line);
+                if (message == null) {
+                    continue;
+                }
+                try {
+                    writeMessage(message);
+                } catch (TemplateException exception) {
+                    LOGGER.error("Error writing to body template.", exception);
+                } catch (IOException exception) {
+                    LOGGER.error(
+                            "Error writing spilled messages, they will be written again later.",
+                            exception);
+                    saveRemainingMessages(line, reader, remainingFile);
+                    remaining = true;
+                    break;
+                }
+                try {
+                    messageProcessed();
+                } catch (AuditingException exception) {
+                    LOGGER.error(
+                            "Error rolling output file, the spilled messages will be written"
+                                    + " again later.",
+                            exception);
+                    saveRemainingMessages(null, reader, remainingFile);
+                    remaining = true;
+                    break;
+                }
+            }
+        } catch (IOException exception) {
+            // the replay file is kept, it may be read by the next replay
+            LOGGER.error("Error replaying spilled messages.", exception);
+            FileUtils.deleteQuietly(remainingFile);
+            spillPending = true;
+            return;
+        }
+        if (remaining) {
+            try {
+                Files.move(
+                        remainingFile.toPath(),
+                        replayFile.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException exception) {
+                LOGGER.error(
+                        "Error saving the spilled messages not written yet, the replay file '{}'"
+                                + " is kept as it is.",
+                        replayFile.getPath(),
+                        exception);
+            }
+            spillPending = true;
+        } else {
+            FileUtils.deleteQuietly(replayFile);
+        }
+    }
+
+    /** @return the message spilled on the given line, or null if the line is malformed */
+    private static Map<String, String> parseSpilledMessage(String line) {
+        Map<String, String> message = new HashMap<String, String>();
+        try {
+            for (String entry : line.split("&")) {
+                int separator = entry.indexOf('=');
+                if (separator <= 0) {
+                    LOGGER.error("Skipping malformed spilled message '{}'.", line);
+                    return null;
+                }
+                message.put(
+                        URLDecoder.decode(entry.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(entry.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        } catch (IllegalArgumentException exception) {
+            LOGGER.error("Skipping malformed spilled message '{}'.", line, exception);
+            return null;
+        }
+        return message;
+    }
+
+    /**
+     * Copies the given line, if any, and the lines still to be read from the replay file to a new
+     * file, that replaces the replay file once it has been closed.
+     */
+    private static void saveRemainingMessages(String line, BufferedReader reader, File file)
+            throws IOException {
+        try (Writer remaining =
+                new BufferedWriter(
+                        new OutputStreamWriter(
+                                new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            if (line != null) {
+                remaining.write(line);
+                remaining.write('\n');
+            }
+            String next;
+            while ((next = reader.readLine()) != null) {
+                remaining.write(next);
+                remaining.write('\n');
+            }
+        }
+    }
+
     private class Consumer implements Runnable {
 
         volatile boolean running = true;
 
         @Override
         public void run() {
+            int batchSize = Math.max(1, configuration.getBatchSize());
+            long flushInterval = Math.max(1, configuration.getFlushInterval());
+            List<Map<String, String>> messages = new ArrayList<Map<String, String>>(batchSize);
+            long lastFlush = System.nanoTime();
+            boolean unflushed = false;
             while (running) {
-                List<Map<String, String>> messages = new ArrayList<Map<String, String>>();
                 try {
-                    if (messagesQueue.isEmpty()) {
-                        messages.add(messagesQueue.take());
-                    } else {
-                        messagesQueue.drainTo(messages);
+                    Map<String, String> first =
+                            messagesQueue.poll(flushInterval, TimeUnit.MILLISECONDS);
+                    if (first != null) {
+                        messages.add(first);
+                        messagesQueue.drainTo(messages, batchSize - 1);
                     }
-
                 } catch (InterruptedException exception) {
-                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+                if (!messages.isEmpty()) {
+                    // the output file may have been removed by an external tool
+                    auditingFilesManager.makeOutputFileExists();
                 }
                 for (Map<String, String> message : messages) {
                     try {
@@ -192,6 +616,25 @@ final class AuditingOutput {
                         LOGGER.error("Error processing message.", exception);
                     }
                 }
+                unflushed |= !messages.isEmpty();
+                messages.clear();
+                if (spillPending && messagesQueue.isEmpty()) {
+                    replaySpilledMessages();
+                    unflushed = true;
+                }
+                long now = System.nanoTime();
+                if (now - lastFlush >= TimeUnit.MILLISECONDS.toNanos(flushInterval)) {
+                    if (unflushed) {
+                        try {
+                            flushWriter();
+                        } catch (Exception exception) {
+                            LOGGER.error("Error flushing audit output.", exception);
+                        }
+                        unflushed = false;
+                    }
+                    flushSpillWriter();
+                    lastFlush = now;
+                }
             }
         }
     }
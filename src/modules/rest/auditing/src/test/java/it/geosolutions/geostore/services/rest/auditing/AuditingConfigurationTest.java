@@ -47,6 +47,10 @@ public final class AuditingConfigurationTest extends AuditingTestsBase {
         assertEquals(
                 auditingConfiguration.getTemplatesDirectory(),
                 TEMPLATES_DIRECTORY.getAbsolutePath());
+        assertEquals(auditingConfiguration.getQueueSize(), 10000);
+        assertEquals(
+                auditingConfiguration.getOverflowPolicy(),
+                AuditingConfiguration.OverflowPolicy.DROP_OLDEST);
     }
 
     @Test
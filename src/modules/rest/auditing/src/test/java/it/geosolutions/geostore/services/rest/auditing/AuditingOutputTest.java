@@ -28,6 +28,11 @@
 package it.geosolutions.geostore.services.rest.auditing;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -62,6 +67,188 @@ public final class AuditingOutputTest extends AuditingTestsBase {
                 rolledFile, contentWithEnd(message1, message2, message3));
     }
 
+    @Test
+    public void testDropOldestOverflow() {
+        configureOverflow("DROP_OLDEST");
+        AuditingOutput auditingOutput = new AuditingOutput(false);
+        Map<String, String> message3 = createTestMessage("3");
+        Map<String, String> message4 = createTestMessage("4");
+        auditingOutput.offerMessage(copy(createTestMessage("1")));
+        auditingOutput.offerMessage(copy(createTestMessage("2")));
+        auditingOutput.offerMessage(copy(message3));
+        auditingOutput.offerMessage(copy(message4));
+        Assert.assertEquals(4, auditingOutput.getQueuedMessages());
+        Assert.assertEquals(2, auditingOutput.getDroppedMessages());
+        auditingOutput.startConsumer();
+        auditingOutput.close();
+        Assert.assertEquals(2, auditingOutput.getWrittenMessages());
+        AuditingTestsUtils.checkFileExistsWithContent(
+                new File(OUTPUT_DIRECTORY, "audit-geostore.txt"),
+                contentWithEnd(message3, message4));
+    }
+
+    @Test
+    public void testBlockOverflow() {
+        configureOverflow("BLOCK");
+        AuditingOutput auditingOutput = new AuditingOutput(false);
+        auditingOutput.offerMessage(copy(createTestMessage("1")));
+        auditingOutput.offerMessage(copy(createTestMessage("2")));
+        auditingOutput.offerMessage(copy(createTestMessage("3")));
+        Assert.assertEquals(2, auditingOutput.getQueuedMessages());
+        Assert.assertEquals(1, auditingOutput.getDroppedMessages());
+        auditingOutput.startConsumer();
+        auditingOutput.close();
+        Assert.assertEquals(2, auditingOutput.getWrittenMessages());
+    }
+
+    @Test
+    public void testSpillOverflow() {
+        configureOverflow("SPILL");
+        AuditingOutput auditingOutput = new AuditingOutput(false);
+        Map<String, String> message1 = createTestMessage("1");
+        Map<String, String> message2 = createTestMessage("2");
+        Map<String, String> message3 = createTestMessage("3");
+        Map<String, String> message4 = createTestMessage("4");
+        message4.put(AuditInfo.QUERY_STRING.getKey(), "a=1&b=%20 c\nd");
+        auditingOutput.offerMessage(copy(message1));
+        auditingOutput.offerMessage(copy(message2));
+        auditingOutput.offerMessage(copy(message3));
+        auditingOutput.offerMessage(copy(message4));
+        Assert.assertEquals(2, auditingOutput.getQueuedMessages());
+        Assert.assertEquals(2, auditingOutput.getSpilledMessages());
+        Assert.assertEquals(0, auditingOutput.getDroppedMessages());
+        auditingOutput.startConsumer();
+        auditingOutput.close();
+        Assert.assertEquals(4, auditingOutput.getWrittenMessages());
+        AuditingTestsUtils.checkFileExistsWithContent(
+                new File(OUTPUT_DIRECTORY, "audit-geostore.txt"),
+                contentWithEnd(message1, message2, message3, message4));
+        Assert.assertFalse(new File(OUTPUT_DIRECTORY, "audit-geostore-spill.dat").exists());
+    }
+
+    @Test
+    public void testSpillKeepsMessagesOrder() throws Exception {
+        configureOverflow("SPILL");
+        Map<String, String> message1 = createTestMessage("1");
+        Map<String, String> message2 = createTestMessage("2");
+        // a message spilled by a previous run, still to be written
+        AuditingTestsUtils.createFile(
+                new File(OUTPUT_DIRECTORY, "audit-geostore-spill.dat"), spilledLine(message1));
+
+        AuditingOutput auditingOutput = new AuditingOutput(false);
+        auditingOutput.offerMessage(copy(message2));
+        // queuing it would write it before the spilled one
+        Assert.assertEquals(0, auditingOutput.getQueuedMessages());
+        Assert.assertEquals(1, auditingOutput.getSpilledMessages());
+        Assert.assertEquals(1L, auditingOutput.getDiagnostics().get("spilledMessages"));
+        auditingOutput.startConsumer();
+        auditingOutput.close();
+
+        Assert.assertEquals(2, auditingOutput.getWrittenMessages());
+        Assert.assertEquals(2L, auditingOutput.getDiagnostics().get("writtenMessages"));
+        AuditingTestsUtils.checkFileExistsWithContent(
+                new File(OUTPUT_DIRECTORY, "audit-geostore.txt"),
+                contentWithEnd(message1, message2));
+        Assert.assertFalse(new File(OUTPUT_DIRECTORY, "audit-geostore-spill.dat").exists());
+    }
+
+    @Test
+    public void testMalformedSpilledMessagesAreSkipped() {
+        configureOverflow("SPILL");
+        Map<String, String> message1 = createTestMessage("1");
+        Map<String, String> message2 = createTestMessage("2");
+        AuditingTestsUtils.createFile(
+                new File(OUTPUT_DIRECTORY, "audit-geostore-spill.dat"),
+                spilledLine(message1) + "malformed\n" + "a=%zz\n" + spilledLine(message2));
+
+        AuditingOutput auditingOutput = new AuditingOutput(false);
+        auditingOutput.startConsumer();
+        auditingOutput.close();
+
+        Assert.assertEquals(2, auditingOutput.getWrittenMessages());
+        AuditingTestsUtils.checkFileExistsWithContent(
+                new File(OUTPUT_DIRECTORY, "audit-geostore.txt"),
+                contentWithEnd(message1, message2));
+        Assert.assertFalse(new File(OUTPUT_DIRECTORY, "audit-geostore-spill.dat").exists());
+        Assert.assertFalse(new File(OUTPUT_DIRECTORY, "audit-geostore-spill.dat.replay").exists());
+    }
+
+    @Test
+    public void testSpilledMessagesAreKeptWhenTheOutputFails() throws Exception {
+        configureOverflow("SPILL");
+        Map<String, String> message1 = createTestMessage("1");
+        Map<String, String> message2 = createTestMessage("2");
+        File spillFile = new File(OUTPUT_DIRECTORY, "audit-geostore-spill.dat");
+        File replayFile = new File(OUTPUT_DIRECTORY, "audit-geostore-spill.dat.replay");
+        AuditingTestsUtils.createFile(spillFile, spilledLine(message1) + spilledLine(message2));
+
+        AuditingOutput failingOutput = new AuditingOutput(false);
+        Field writer = AuditingOutput.class.getDeclaredField("writer");
+        writer.setAccessible(true);
+        writer.set(failingOutput, new FailingWriter());
+        failingOutput.startConsumer();
+        try {
+            failingOutput.close();
+            Assert.fail("The footer cannot be written");
+        } catch (AuditingException exception) {
+            // expected, the output is broken
+        }
+        Assert.assertEquals(0, failingOutput.getWrittenMessages());
+        Assert.assertTrue(replayFile.exists());
+
+        // the next run writes the messages kept in the replay file
+        AuditingOutput auditingOutput = new AuditingOutput(false);
+        auditingOutput.startConsumer();
+        auditingOutput.close();
+
+        Assert.assertEquals(2, auditingOutput.getWrittenMessages());
+        AuditingTestsUtils.checkFileExistsWithContent(
+                new File(OUTPUT_DIRECTORY, "audit-geostore.txt"),
+                contentWithEnd(message1, message2));
+        Assert.assertFalse(spillFile.exists());
+        Assert.assertFalse(replayFile.exists());
+    }
+
+    /** @return the message as written to the spill file */
+    private static String spilledLine(Map<String, String> message) {
+        StringBuilder line = new StringBuilder();
+        for (Map.Entry<String, String> entry : message.entrySet()) {
+            if (line.length() > 0) {
+                line.append('&');
+            }
+            line.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8))
+                    .append('=')
+                    .append(URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8));
+        }
+        return line.append('\n').toString();
+    }
+
+    /** An output that cannot be written, as a full or failing disk. */
+    private static final class FailingWriter extends Writer {
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            throw new IOException("No space left on device");
+        }
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void close() {}
+    }
+
+    private void configureOverflow(String policy) {
+        Map<String, String> properties =
+                AuditingTestsUtils.getDefaultProperties(OUTPUT_DIRECTORY, TEMPLATES_DIRECTORY);
+        properties.put(AuditingConfiguration.MAX_RESQUEST_PER_FILE, "10");
+        properties.put(AuditingConfiguration.QUEUE_SIZE, "2");
+        properties.put(AuditingConfiguration.OVERFLOW_POLICY, policy);
+        properties.put(AuditingConfiguration.OVERFLOW_BLOCK_TIMEOUT, "50");
+        AuditingTestsUtils.createFile(
+                CONFIGURATION_FILE_PATH, AuditingTestsUtils.propertiesToString(properties));
+    }
+
     private void offerMessage(
             AuditingOutput auditingOutput, File outputFile, Map<String, String> message)
             throws InterruptedException {
@@ -45,6 +45,8 @@ public class ExtResourceList {
 
     private List<ExtResource> list;
 
+    private String nextCursor;
+
     public ExtResourceList() {}
 
     public ExtResourceList(long count, List<ExtResource> list) {
@@ -52,6 +54,7 @@ public class ExtResourceList {
         this.list = list;
     }
 
+    /** @return the number of resources matching the search, or -1 if it has not been counted */
     @XmlElement(name = "ResourceCount")
     public long getCount() {
         return count;
@@ -70,6 +73,16 @@ public class ExtResourceList {
         this.list = list;
     }
 
+    /** @return the token to request the next page with, or null if there are no more pages */
+    @XmlElement(name = "NextCursor")
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     @XmlTransient
     public boolean isEmpty() {
         return list == null || list.isEmpty();
@@ -122,15 +122,25 @@ public interface RESTExtJsService {
      * </code> ("asc" for ascending or "desc" for descending order). If not specified, the default
      * sorting is in ascending order by resource name.
      *
+     * <p>Large result sets can be browsed with a <code>cursor</code> instead of <code>start</code>:
+     * the first page is requested with <code>start=0</code>, and when it is full the response
+     * carries a <code>NextCursor</code> token to be sent back, together with the same <code>limit
+     * </code> and sort parameters, to get the following page. Cursor pagination is available when
+     * sorting by <code>name</code>, <code>creation</code> or <code>id</code>. The total count can
+     * be skipped with <code>includeCount=false</code>, in which case <code>ResourceCount</code> is
+     * -1.
+     *
      * @param sc security context
      * @param start the n-th group shown as first in results
      * @param limit max entries per page
+     * @param cursor the token returned with the previous page, used in place of start
      * @param sort the sorting parameters for the results (includes <code>sortBy</code> and <code>
      *                          sortOrder</code>)
      * @param includeAttributes whether to include attributes in the returned results
      * @param includeData whether to include data in the returned results
      * @param includeTags whether to include tags in the returned results
      * @param favoritesOnly whether to return only user favorite resources
+     * @param includeCount whether to count all the resources matching the filter
      * @param filter the multipart filter object to apply for resource filtering
      * @return
      * @throws BadRequestWebEx
@@ -146,14 +156,47 @@ public interface RESTExtJsService {
             @Context SecurityContext sc,
             @QueryParam("start") Integer start,
             @QueryParam("limit") Integer limit,
+            @QueryParam("cursor") String cursor,
             @BeanParam Sort sort,
             @QueryParam("includeAttributes") @DefaultValue("false") boolean includeAttributes,
             @QueryParam("includeData") @DefaultValue("false") boolean includeData,
             @QueryParam("includeTags") @DefaultValue("false") boolean includeTags,
             @QueryParam("favoritesOnly") @DefaultValue("false") boolean favoritesOnly,
+            @QueryParam("includeCount") @DefaultValue("true") boolean includeCount,
             @Multipart("filter") SearchFilter filter)
             throws BadRequestWebEx, InternalErrorWebEx;
 
+    /**
+     * Offset based variant of {@link #getExtResourcesList(SecurityContext, Integer, Integer,
+     * String, Sort, boolean, boolean, boolean, boolean, boolean, SearchFilter)}, always including
+     * the total count.
+     */
+    @Secured({"ROLE_ADMIN", "ROLE_USER", "ROLE_ANONYMOUS"})
+    default ExtResourceList getExtResourcesList(
+            SecurityContext sc,
+            Integer start,
+            Integer limit,
+            Sort sort,
+            boolean includeAttributes,
+            boolean includeData,
+            boolean includeTags,
+            boolean favoritesOnly,
+            SearchFilter filter)
+            throws BadRequestWebEx, InternalErrorWebEx {
+        return getExtResourcesList(
+                sc,
+                start,
+                limit,
+                null,
+                sort,
+                includeAttributes,
+                includeData,
+                includeTags,
+                favoritesOnly,
+                true,
+                filter);
+    }
+
     @GET
     @Path("/search/users/{nameLike}")
     @Produces({MediaType.APPLICATION_JSON})
@@ -38,8 +38,10 @@ import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.model.UserGroup;
 import it.geosolutions.geostore.core.model.enums.Role;
 import it.geosolutions.geostore.services.ResourcePermissionService;
+import it.geosolutions.geostore.services.ResourcePermissionService.UserPermissions;
 import it.geosolutions.geostore.services.ResourceService;
 import it.geosolutions.geostore.services.UserGroupService;
+import it.geosolutions.geostore.services.dto.ResourceSearchCursor;
 import it.geosolutions.geostore.services.dto.ResourceSearchParameters;
 import it.geosolutions.geostore.services.dto.ShortAttribute;
 import it.geosolutions.geostore.services.dto.ShortResource;
@@ -66,6 +68,7 @@ import it.geosolutions.geostore.services.rest.model.ShortAttributeList;
 import it.geosolutions.geostore.services.rest.model.Sort;
 import it.geosolutions.geostore.services.rest.model.TagList;
 import jakarta.ws.rs.core.SecurityContext;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -314,27 +317,35 @@ public class RESTExtJsServiceImpl extends RESTServiceImpl implements RESTExtJsSe
             SecurityContext sc,
             Integer start,
             Integer limit,
+            String cursor,
             Sort sort,
             boolean includeAttributes,
             boolean includeData,
             boolean includeTags,
             boolean favoritesOnly,
+            boolean includeCount,
             SearchFilter filter)
             throws BadRequestWebEx {
 
-        if (((start != null) && (limit == null)) || ((start == null) && (limit != null))) {
+        if (cursor != null) {
+            if (limit == null || start != null) {
+                throw new BadRequestWebEx("cursor should be declared with limit and without start");
+            }
+        } else if (((start != null) && (limit == null)) || ((start == null) && (limit != null))) {
             throw new BadRequestWebEx("start and limit params should be declared together");
         }
 
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug(
-                    "getResourcesList(start={}, limit={}, includeAttributes={}, includeData={}, includeTags={}, favoritesOnly={}",
+                    "getResourcesList(start={}, limit={}, cursor={}, includeAttributes={}, includeData={}, includeTags={}, favoritesOnly={}, includeCount={}",
                     start,
                     limit,
+                    cursor,
                     includeAttributes,
                     includeData,
                     includeTags,
-                    favoritesOnly);
+                    favoritesOnly,
+                    includeCount);
         }
 
         User authUser = null;
@@ -358,6 +369,7 @@ public class RESTExtJsServiceImpl extends RESTServiceImpl implements RESTExtJsSe
                             .filter(filter)
                             .page(page)
                             .entries(limit)
+                            .cursor(cursor)
                             .sortBy(sort.getSortBy())
                             .sortOrder(sort.getSortOrder())
                             .includeAttributes(includeAttributes)
@@ -369,14 +381,35 @@ public class RESTExtJsServiceImpl extends RESTServiceImpl implements RESTExtJsSe
 
             List<Resource> resources = resourceService.getResources(searchParameters);
 
-            long count = 0;
-            if (!resources.isEmpty()) {
-                count = resourceService.count(filter, authUser, favoritesOnly);
+            long count = -1;
+            if (includeCount) {
+                count = 0;
+                if (!resources.isEmpty()) {
+                    count = resourceService.count(filter, authUser, favoritesOnly);
+                }
+            }
+
+            // a cursor is only meaningful when the pages are aligned on the limit
+            String nextCursor = null;
+            if (cursor != null || (start != null && start % limit == 0)) {
+                nextCursor =
+                        ResourceSearchCursor.nextToken(
+                                resources, limit, sort.getSortBy(), sort.getSortOrder());
             }
 
-            return new ExtResourceList(count, convertToExtResources(resources, authUser));
+            ExtResourceList result =
+                    new ExtResourceList(count, convertToExtResources(resources, authUser));
+            result.setNextCursor(nextCursor);
+            return result;
 
-        } catch (InternalErrorServiceEx | BadRequestServiceEx e) {
+        } catch (BadRequestServiceEx e) {
+            if (cursor != null) {
+                throw new BadRequestWebEx(e.getMessage());
+            }
+            LOGGER.warn(e.getMessage(), e);
+
+            return null;
+        } catch (InternalErrorServiceEx e) {
             LOGGER.warn(e.getMessage(), e);
 
             return null;
@@ -391,14 +424,19 @@ public class RESTExtJsServiceImpl extends RESTServiceImpl implements RESTExtJsSe
      * @return
      */
     private List<ExtResource> convertToExtResources(List<Resource> foundResources, User user) {
-        return foundResources.stream().map(r -> convertToExtResource(r, user)).toList();
-    }
-
-    private ExtResource convertToExtResource(Resource resource, User user) {
-
         if (user == null) {
             throw new InternalErrorWebEx("user should not be null");
         }
+        resourceService.fetchSecurityRulesAndFavorites(foundResources, user);
+        // the keys of the user are computed once for the whole page
+        UserPermissions permissions = resourcePermissionService.forUser(user);
+        return foundResources.stream()
+                .map(r -> convertToExtResource(r, user, permissions))
+                .toList();
+    }
+
+    private ExtResource convertToExtResource(
+            Resource resource, User user, UserPermissions permissions) {
 
         ExtResource.Builder extResourceBuilder = ExtResource.builder(resource);
 
@@ -406,25 +444,15 @@ public class RESTExtJsServiceImpl extends RESTServiceImpl implements RESTExtJsSe
             extResourceBuilder.withCanCopy(true);
         }
 
-        if (hasUserEditAndDeletePermissionsOnResource(user, resource)) {
+        if (permissions.canWrite(resource)) {
             extResourceBuilder.withCanEdit(true).withCanDelete(true);
         }
 
-        resourceService.fetchFavorites(resource);
         extResourceBuilder.withIsFavorite(isResourceUserFavorite(resource, user));
 
         return extResourceBuilder.build();
     }
 
-    private boolean hasUserEditAndDeletePermissionsOnResource(User user, Resource resource) {
-        if (user.getRole() == Role.ADMIN) {
-            return true;
-        }
-
-        resourceService.fetchSecurityRules(resource);
-        return resourcePermissionService.canResourceBeWrittenByUser(resource, user);
-    }
-
     private boolean isResourceUserFavorite(Resource resource, User user) {
         return resource.getFavorites().stream()
                 .anyMatch(
@@ -582,7 +610,18 @@ public class RESTExtJsServiceImpl extends RESTServiceImpl implements RESTExtJsSe
         jsonObj.put("totalCount", count);
 
         if (resources != null) {
+            // load the security rules of the whole page at once
+            List<Resource> fullResources = new ArrayList<>();
+            for (Object obj : resources) {
+                if (obj instanceof Resource) {
+                    fullResources.add((Resource) obj);
+                }
+            }
+            resourceService.fetchSecurityRulesAndFavorites(fullResources, null);
+
             Iterator<?> iterator = resources.iterator();
+            UserPermissions permissions =
+                    authUser != null ? resourcePermissionService.forUser(authUser) : null;
 
             JsonNode result;
 
@@ -599,9 +638,9 @@ public class RESTExtJsServiceImpl extends RESTServiceImpl implements RESTExtJsSe
                 Object obj = iterator.next();
                 ResourceEnvelop sr = null;
                 if (obj instanceof Resource) {
-                    sr = new ResourceEnvelop((Resource) obj, authUser);
+                    sr = new ResourceEnvelop((Resource) obj, authUser, permissions);
                 } else if (obj instanceof ShortResource) {
-                    sr = new ResourceEnvelop((ShortResource) obj, authUser);
+                    sr = new ResourceEnvelop((ShortResource) obj, authUser, null);
                 }
 
                 if (sr != null) {
@@ -763,12 +802,13 @@ public class RESTExtJsServiceImpl extends RESTServiceImpl implements RESTExtJsSe
          *
          * @param sr Short resource
          * @param authUser user logged
+         * @param permissions permissions of the user logged, null if there is none
          */
-        private ResourceEnvelop(ShortResource sr, User authUser) {
+        private ResourceEnvelop(ShortResource sr, User authUser, UserPermissions permissions) {
             super();
             this.sr = sr;
             this.authUser = authUser;
-            readSecurity();
+            readSecurity(permissions);
         }
 
         /**
@@ -776,26 +816,28 @@ public class RESTExtJsServiceImpl extends RESTServiceImpl implements RESTExtJsSe
          *
          * @param r resource
          * @param authUser user logged
+         * @param permissions permissions of the user logged, null if there is none
          */
-        private ResourceEnvelop(Resource r, User authUser) {
+        private ResourceEnvelop(Resource r, User authUser, UserPermissions permissions) {
             super();
             this.r = r;
             this.authUser = authUser;
-            readSecurity();
+            readSecurity(permissions);
         }
 
         /** Read security for edit and delete */
-        private void readSecurity() {
+        private void readSecurity(UserPermissions permissions) {
             if (sr != null) {
                 canDelete = sr.isCanDelete();
                 canEdit = sr.isCanEdit();
                 return;
             }
 
-            resourceService.fetchSecurityRules(r);
+            if (r.getSecurity() == null) {
+                resourceService.fetchSecurityRules(r);
+            }
 
-            if (authUser != null
-                    && resourcePermissionService.canResourceBeWrittenByUser(r, authUser)) {
+            if (permissions != null && permissions.canWrite(r)) {
                 canEdit = true;
                 canDelete = true;
             }
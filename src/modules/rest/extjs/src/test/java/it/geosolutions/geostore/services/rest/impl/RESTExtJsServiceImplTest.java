@@ -54,6 +54,7 @@ import it.geosolutions.geostore.services.model.ExtResource;
 import it.geosolutions.geostore.services.model.ExtResourceList;
 import it.geosolutions.geostore.services.model.ExtShortResource;
 import it.geosolutions.geostore.services.model.ExtUserList;
+import it.geosolutions.geostore.services.rest.exception.BadRequestWebEx;
 import it.geosolutions.geostore.services.rest.exception.ForbiddenErrorWebEx;
 import it.geosolutions.geostore.services.rest.exception.NotFoundWebEx;
 import it.geosolutions.geostore.services.rest.model.RESTSecurityRule;
@@ -546,6 +547,89 @@ public class RESTExtJsServiceImplTest extends ServiceTestBase {
         }
     }
 
+    @Test
+    public void testExtResourcesList_cursor() throws Exception {
+        final String CAT0_NAME = "CAT000";
+
+        long u0 = restCreateUser("u0", Role.USER, null, "p0");
+        SecurityContext sc = new SimpleSecurityContext(u0);
+
+        createCategory(CAT0_NAME);
+        for (int i = 0; i < 5; i++) {
+            restCreateResource("res_" + i, "x", CAT0_NAME, u0, true);
+        }
+
+        ExtResourceList first =
+                restExtJsService.getExtResourcesList(
+                        sc,
+                        0,
+                        2,
+                        null,
+                        new Sort("name", "desc"),
+                        false,
+                        false,
+                        false,
+                        false,
+                        false,
+                        new AndFilter());
+        assertEquals(-1, first.getCount());
+        assertEquals(
+                List.of("res_4", "res_3"),
+                first.getList().stream().map(Resource::getName).toList());
+        assertNotNull(first.getNextCursor());
+
+        ExtResourceList second =
+                restExtJsService.getExtResourcesList(
+                        sc,
+                        null,
+                        2,
+                        first.getNextCursor(),
+                        new Sort("name", "desc"),
+                        false,
+                        false,
+                        false,
+                        false,
+                        true,
+                        new AndFilter());
+        assertEquals(5, second.getCount());
+        assertEquals(
+                List.of("res_2", "res_1"),
+                second.getList().stream().map(Resource::getName).toList());
+
+        ExtResourceList last =
+                restExtJsService.getExtResourcesList(
+                        sc,
+                        null,
+                        2,
+                        second.getNextCursor(),
+                        new Sort("name", "desc"),
+                        false,
+                        false,
+                        false,
+                        false,
+                        false,
+                        new AndFilter());
+        assertEquals(List.of("res_0"), last.getList().stream().map(Resource::getName).toList());
+        assertNull(last.getNextCursor());
+
+        // the cursor cannot be used with a different sort
+        assertThrows(
+                BadRequestWebEx.class,
+                () ->
+                        restExtJsService.getExtResourcesList(
+                                sc,
+                                null,
+                                2,
+                                first.getNextCursor(),
+                                new Sort("name", "asc"),
+                                false,
+                                false,
+                                false,
+                                false,
+                                false,
+                                new AndFilter()));
+    }
+
     @Test
     public void testExtResourcesList_creatorFiltered() throws Exception {
         final String CAT0_NAME = "CAT000";
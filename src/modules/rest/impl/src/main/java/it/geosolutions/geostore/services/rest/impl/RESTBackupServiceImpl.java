@@ -27,13 +27,35 @@
  */
 package it.geosolutions.geostore.services.rest.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import it.geosolutions.geostore.core.model.Attribute;
 import it.geosolutions.geostore.core.model.Category;
+import it.geosolutions.geostore.core.model.IPRange;
 import it.geosolutions.geostore.core.model.Resource;
+import it.geosolutions.geostore.core.model.SecurityRule;
+import it.geosolutions.geostore.core.model.StoredData;
+import it.geosolutions.geostore.core.model.Tag;
+import it.geosolutions.geostore.core.model.User;
+import it.geosolutions.geostore.core.model.UserGroup;
+import it.geosolutions.geostore.core.model.enums.DataType;
 import it.geosolutions.geostore.services.CategoryService;
+import it.geosolutions.geostore.services.IPRangeService;
 import it.geosolutions.geostore.services.ResourceService;
+import it.geosolutions.geostore.services.StoredDataService;
+import it.geosolutions.geostore.services.TagService;
+import it.geosolutions.geostore.services.UserGroupService;
 import it.geosolutions.geostore.services.dto.ResourceSearchParameters;
+import it.geosolutions.geostore.services.dto.ShortAttribute;
 import it.geosolutions.geostore.services.dto.ShortResource;
+import it.geosolutions.geostore.services.dto.search.BaseField;
 import it.geosolutions.geostore.services.dto.search.CategoryFilter;
+import it.geosolutions.geostore.services.dto.search.FieldFilter;
 import it.geosolutions.geostore.services.dto.search.SearchFilter;
 import it.geosolutions.geostore.services.dto.search.SearchOperator;
 import it.geosolutions.geostore.services.exception.BadRequestServiceEx;
@@ -41,26 +63,110 @@ import it.geosolutions.geostore.services.exception.DuplicatedResourceNameService
 import it.geosolutions.geostore.services.exception.InternalErrorServiceEx;
 import it.geosolutions.geostore.services.exception.NotFoundServiceEx;
 import it.geosolutions.geostore.services.rest.RESTBackupService;
+import it.geosolutions.geostore.services.rest.exception.BadRequestWebEx;
 import it.geosolutions.geostore.services.rest.exception.InternalErrorWebEx;
+import it.geosolutions.geostore.services.rest.exception.NotFoundWebEx;
 import it.geosolutions.geostore.services.rest.model.RESTCategory;
 import it.geosolutions.geostore.services.rest.model.RESTQuickBackup;
 import it.geosolutions.geostore.services.rest.model.RESTQuickBackup.RESTBackupCategory;
 import it.geosolutions.geostore.services.rest.model.RESTQuickBackup.RESTBackupResource;
 import it.geosolutions.geostore.services.rest.model.RESTResource;
 import it.geosolutions.geostore.services.rest.utils.Convert;
+import jakarta.persistence.EntityManager;
 import jakarta.ws.rs.core.SecurityContext;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-/** */
+/**
+ * Backup/restore REST service.
+ *
+ * <p>The full backup is streamed, one page of resources at a time, to a gzipped file of newline
+ * delimited JSON records in {@link #setBackupDirectory(String) the backup directory}; the returned
+ * token identifies the file to be passed to the full restore. The file starts with a header record,
+ * followed by the categories, the tags and the resources (with their attributes, data, security
+ * rules and tag names), and ends with a record holding the number of resources written. The
+ * directory and the files are readable by the owner only, and the files are deleted once {@link
+ * #setBackupTtlSeconds(long) expired}.
+ *
+ * <p>The full restore first reads the whole backup, rejecting it if it is truncated or holds an
+ * invalid record, and then replaces the categories and the resources of the store in a single
+ * transaction: either the whole backup is restored or the store is left unchanged. The entities are
+ * flushed and detached every {@link #setBackupPageSize(int) page} of resources, so that the memory
+ * used by the restore does not grow with the size of the backup. As for the quick backup, users and
+ * groups are not part of the backup: rules are bound to the users and groups having the same names
+ * in the target instance, or to the bare names if none exists.
+ */
 public class RESTBackupServiceImpl extends RESTServiceImpl implements RESTBackupService {
 
     private static final Logger LOGGER = LogManager.getLogger(RESTBackupServiceImpl.class);
     private static final long MAX_RESOURCES_FOR_QUICK_BACKUP = 100L;
+
+    private static final String BACKUP_FORMAT = "geostore-backup";
+    private static final int BACKUP_VERSION = 1;
+    private static final String BACKUP_EXTENSION = ".ndjson.gz";
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private static final String TYPE = "type";
+    private static final String TYPE_HEADER = "header";
+    private static final String TYPE_CATEGORY = "category";
+    private static final String TYPE_TAG = "tag";
+    private static final String TYPE_RESOURCE = "resource";
+    private static final String TYPE_END = "end";
+
+    private static final SerializedString RECORD_SEPARATOR = new SerializedString("\n");
+
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY =
+            PosixFilePermissions.fromString("rwx------");
+    private static final Set<PosixFilePermission> OWNER_ONLY_FILE =
+            PosixFilePermissions.fromString("rw-------");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
     private CategoryService categoryService;
     private ResourceService resourceService;
+    private UserGroupService userGroupService;
+    private TagService tagService;
+    private IPRangeService ipRangeService;
+    private StoredDataService storedDataService;
+    private PlatformTransactionManager geostoreTransactionManager;
+
+    private File backupDirectory =
+            new File(System.getProperty("java.io.tmpdir"), "geostore-backup");
+    private int backupPageSize = 100;
+    private long backupTtlSeconds = TimeUnit.DAYS.toSeconds(1);
 
     private static Category rbc2cat(RESTBackupCategory rbc) {
         Category ret = new Category();
@@ -70,12 +176,85 @@ public class RESTBackupServiceImpl extends RESTServiceImpl implements RESTBackup
 
     @Override
     public String backup(SecurityContext sc) {
-        throw new UnsupportedOperationException("Not supported yet.");
+        if (LOGGER.isDebugEnabled()) LOGGER.debug("backup()");
+
+        User authUser = extractAuthUser(sc);
+        String token = UUID.randomUUID().toString();
+        File file = getBackupFile(token);
+
+        try {
+            createBackupDirectory();
+            deleteExpiredBackups();
+            long count;
+            try (OutputStream out =
+                            new GZIPOutputStream(
+                                    new BufferedOutputStream(
+                                            Files.newOutputStream(createBackupFile(file))));
+                    JsonGenerator generator = MAPPER.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(RECORD_SEPARATOR);
+                MAPPER.writeTree(
+                        generator,
+                        record(TYPE_HEADER)
+                                .put("format", BACKUP_FORMAT)
+                                .put("version", BACKUP_VERSION)
+                                .put("created", new Date().getTime()));
+                for (Category category : categoryService.getAll(null, null)) {
+                    MAPPER.writeTree(
+                            generator, record(TYPE_CATEGORY).put("name", category.getName()));
+                }
+                for (Tag tag : tagService.getAll(null, null, null)) {
+                    MAPPER.writeTree(
+                            generator,
+                            record(TYPE_TAG)
+                                    .put("name", tag.getName())
+                                    .put("color", tag.getColor())
+                                    .put("description", tag.getDescription()));
+                }
+                count = backupResources(generator, authUser);
+                MAPPER.writeTree(generator, record(TYPE_END).put("resources", count));
+            }
+
+            LOGGER.info("Backup {}: {} resources written to {}", token, count, file);
+            return token;
+        } catch (Exception ex) {
+            LOGGER.error(ex.getMessage(), ex);
+            if (file.exists() && !file.delete()) {
+                LOGGER.warn("Could not delete incomplete backup file {}", file);
+            }
+            throw new InternalErrorWebEx("Internal error while performing backup");
+        }
     }
 
     @Override
     public String restore(SecurityContext sc, String token) {
-        throw new UnsupportedOperationException("Not supported yet.");
+        if (LOGGER.isDebugEnabled()) LOGGER.debug("restore({})", token);
+
+        User authUser = extractAuthUser(sc);
+        File file = getBackupFile(token);
+        deleteExpiredBackups();
+        if (!file.isFile()) {
+            throw new NotFoundWebEx("Backup not found: " + token);
+        }
+
+        // the whole file is checked before anything is changed, so that a truncated or corrupted
+        // backup cannot leave the store empty
+        validateBackup(file, token);
+
+        try {
+            RestoreContext context = doInTransaction(false, () -> replaceContent(file, authUser));
+            String result =
+                    "Restored "
+                            + context.categories
+                            + " categories and "
+                            + context.restored
+                            + " resources";
+            LOGGER.info("Restore {}: {}", token, result);
+            return result;
+        } catch (Exception ex) {
+            LOGGER.error(ex.getMessage(), ex);
+            throw new InternalErrorWebEx(
+                    "Restore failed, the store has not been changed: " + ex.getMessage());
+        }
     }
 
     @Override
@@ -207,6 +386,588 @@ public class RESTBackupServiceImpl extends RESTServiceImpl implements RESTBackup
         return ret;
     }
 
+    /**
+     * Writes all the resources, paging through them by id so that each page is read in its own
+     * transaction. The data of each resource is loaded and written on its own, so that at most one
+     * data blob at a time is kept in memory.
+     *
+     * @return the number of resources written
+     */
+    private long backupResources(JsonGenerator generator, User authUser) throws Exception {
+        long count = 0;
+        long lastId = 0;
+        List<ObjectNode> page;
+        do {
+            final long fromId = lastId;
+            page = doInTransaction(true, () -> loadResourceRecords(fromId, authUser));
+            for (ObjectNode resource : page) {
+                lastId = resource.path("id").asLong();
+                writeResourceRecord(generator, resource, loadData(lastId));
+            }
+            count += page.size();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Backup: {} resources written", count);
+            }
+        } while (page.size() == backupPageSize);
+        return count;
+    }
+
+    private List<ObjectNode> loadResourceRecords(long fromId, User authUser) throws Exception {
+        List<Resource> resources =
+                resourceService.getResources(
+                        ResourceSearchParameters.builder()
+                                .filter(
+                                        new FieldFilter(
+                                                BaseField.ID,
+                                                Long.toString(fromId),
+                                                SearchOperator.GREATER_THAN))
+                                .page(0)
+                                .entries(backupPageSize)
+                                .sortBy(BaseField.ID.getFieldName())
+                                .includeAttributes(true)
+                                .includeTags(true)
+                                .authUser(authUser)
+                                .build());
+        resourceService.fetchSecurityRulesAndFavorites(resources, null);
+
+        List<ObjectNode> records = new ArrayList<>(resources.size());
+        for (Resource resource : resources) {
+            records.add(createResourceRecord(resource));
+        }
+        return records;
+    }
+
+    private String loadData(long resourceId) throws Exception {
+        return doInTransaction(
+                true,
+                () -> {
+                    try {
+                        StoredData data = storedDataService.get(resourceId);
+                        return data != null ? data.getData() : null;
+                    } catch (NotFoundServiceEx e) {
+                        // removed after its page was read
+                        return null;
+                    }
+                });
+    }
+
+    private void writeResourceRecord(JsonGenerator generator, ObjectNode resource, String data)
+            throws IOException {
+        generator.writeStartObject();
+        Iterator<Map.Entry<String, JsonNode>> fields = resource.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            generator.writeFieldName(field.getKey());
+            MAPPER.writeTree(generator, field.getValue());
+        }
+        if (data != null) {
+            generator.writeStringField("data", data);
+        }
+        generator.writeEndObject();
+    }
+
+    private ObjectNode createResourceRecord(Resource resource) {
+        ObjectNode ret =
+                record(TYPE_RESOURCE)
+                        .put("id", resource.getId())
+                        .put("name", resource.getName())
+                        .put("category", resource.getCategory().getName())
+                        .put("description", resource.getDescription())
+                        .put("metadata", resource.getMetadata())
+                        .put("creator", resource.getCreator())
+                        .put("editor", resource.getEditor())
+                        .put("advertised", resource.isAdvertised());
+
+        ArrayNode attributes = ret.putArray("attributes");
+        if (resource.getAttribute() != null) {
+            for (Attribute attribute : resource.getAttribute()) {
+                attributes
+                        .addObject()
+                        .put("name", attribute.getName())
+                        .put("type", attribute.getType().name())
+                        .put("value", attribute.getValue());
+            }
+        }
+
+        ArrayNode rules = ret.putArray("security");
+        if (resource.getSecurity() != null) {
+            for (SecurityRule rule : resource.getSecurity()) {
+                ObjectNode r =
+                        rules.addObject()
+                                .put(
+                                        "user",
+                                        rule.getUser() != null
+                                                ? rule.getUser().getName()
+                                                : rule.getUsername())
+                                .put(
+                                        "group",
+                                        rule.getGroup() != null
+                                                ? rule.getGroup().getGroupName()
+                                                : rule.getGroupname())
+                                .put("canRead", rule.isCanRead())
+                                .put("canWrite", rule.isCanWrite());
+                ArrayNode ipRanges = r.putArray("ipRanges");
+                if (rule.getIpRanges() != null) {
+                    for (IPRange ipRange : rule.getIpRanges()) {
+                        ipRanges.addObject()
+                                .put("cidr", ipRange.getCidr())
+                                .put("description", ipRange.getDescription());
+                    }
+                }
+            }
+        }
+
+        ArrayNode tags = ret.putArray("tags");
+        if (resource.getTags() != null) {
+            for (Tag tag : resource.getTags()) {
+                tags.add(tag.getName());
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Reads the whole backup without changing anything, checking that it is complete and that each
+     * record can be restored.
+     *
+     * @throws BadRequestWebEx if the backup is truncated, corrupted or invalid
+     */
+    private void validateBackup(File file, String token) {
+        Set<String> categories = new HashSet<>();
+        long resources = 0;
+        boolean ended = false;
+        try (InputStream in = openBackup(file);
+                MappingIterator<JsonNode> records = readRecords(in, token)) {
+            while (records.hasNext()) {
+                JsonNode record = records.next();
+                String type = record.path(TYPE).asText();
+                if (ended) {
+                    throw invalidBackup(token, "records found after the end record");
+                }
+                switch (type) {
+                    case TYPE_CATEGORY:
+                        categories.add(required(record, "name", token));
+                        break;
+                    case TYPE_TAG:
+                        required(record, "name", token);
+                        break;
+                    case TYPE_RESOURCE:
+                        validateResource(record, categories, token);
+                        resources++;
+                        break;
+                    case TYPE_END:
+                        if (record.path("resources").asLong(-1) != resources) {
+                            throw invalidBackup(
+                                    token,
+                                    "it declares "
+                                            + record.path("resources").asText()
+                                            + " resources, "
+                                            + resources
+                                            + " were found");
+                        }
+                        ended = true;
+                        break;
+                    default:
+                        throw invalidBackup(token, "unknown record type '" + type + "'");
+                }
+            }
+        } catch (BadRequestWebEx e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not read backup {}: {}", token, e.getMessage());
+            throw invalidBackup(token, "it cannot be read (" + e.getMessage() + ")");
+        }
+        if (!ended) {
+            throw invalidBackup(token, "it is truncated");
+        }
+    }
+
+    private void validateResource(JsonNode record, Set<String> categories, String token) {
+        String name = required(record, "name", token);
+        String category = required(record, "category", token);
+        if (!categories.contains(category)) {
+            throw invalidBackup(token, "unknown category '" + category + "' of '" + name + "'");
+        }
+        for (JsonNode attribute : record.path("attributes")) {
+            try {
+                toAttribute(attribute);
+            } catch (RuntimeException e) {
+                throw invalidBackup(
+                        token, "invalid attribute of '" + name + "' (" + e.getMessage() + ")");
+            }
+        }
+        for (JsonNode rule : record.path("security")) {
+            for (JsonNode ipRange : rule.path("ipRanges")) {
+                required(ipRange, "cidr", token);
+            }
+        }
+    }
+
+    /**
+     * Replaces the categories and the resources of the store with the ones in the backup. Meant to
+     * be run in a single transaction, so that a failure leaves the store unchanged; the persistence
+     * context is cleared every page of resources.
+     */
+    private RestoreContext replaceContent(File file, User authUser) throws Exception {
+        deleteAllResources(authUser);
+        LOGGER.info("Deleting all categories");
+        for (Category category : categoryService.getAll(null, null)) {
+            categoryService.delete(category.getId());
+        }
+
+        RestoreContext context = new RestoreContext();
+        for (Tag tag : tagService.getAll(null, null, null)) {
+            context.tags.put(tag.getName(), tag);
+        }
+        for (IPRange ipRange : ipRangeService.getAll()) {
+            context.ipRanges.put(ipRange.getCidr(), ipRange);
+        }
+
+        try (InputStream in = openBackup(file);
+                MappingIterator<JsonNode> records = readRecords(in, file.getName())) {
+            while (records.hasNext()) {
+                JsonNode record = records.next();
+                switch (record.path(TYPE).asText()) {
+                    case TYPE_CATEGORY:
+                        Category category = new Category();
+                        category.setName(record.path("name").asText());
+                        categoryService.insert(category);
+                        context.categories++;
+                        break;
+                    case TYPE_TAG:
+                        restoreTag(
+                                context,
+                                record.path("name").asText(),
+                                text(record, "color"),
+                                text(record, "description"));
+                        break;
+                    case TYPE_RESOURCE:
+                        restoreResource(record, context);
+                        context.restored++;
+                        if (context.restored % backupPageSize == 0) {
+                            flushAndClear(context);
+                            LOGGER.info("Restore: {} resources restored", context.restored);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return context;
+    }
+
+    private void deleteAllResources(User authUser) throws Exception {
+        LOGGER.info("Deleting all resources");
+        List<Resource> resources;
+        do {
+            resources =
+                    resourceService.getResources(
+                            ResourceSearchParameters.builder()
+                                    .page(0)
+                                    .entries(backupPageSize)
+                                    .sortBy(BaseField.ID.getFieldName())
+                                    .authUser(authUser)
+                                    .build());
+            for (Resource resource : resources) {
+                resourceService.delete(resource.getId());
+            }
+            flushAndClear(null);
+        } while (!resources.isEmpty());
+    }
+
+    /**
+     * Writes the pending changes of the restore transaction to the database and detaches the
+     * entities loaded so far, then attaches again the ones cached in the given context, if any. The
+     * entity manager is bound to the transaction, which closes it.
+     */
+    @SuppressWarnings("PMD.CloseResource")
+    private void flushAndClear(RestoreContext context) {
+        if (!(geostoreTransactionManager instanceof JpaTransactionManager)) {
+            return;
+        }
+        EntityManager em =
+                EntityManagerFactoryUtils.getTransactionalEntityManager(
+                        ((JpaTransactionManager) geostoreTransactionManager)
+                                .getEntityManagerFactory());
+        if (em == null) {
+            return;
+        }
+        em.flush();
+        em.clear();
+        if (context != null) {
+            context.reattach(em);
+        }
+    }
+
+    private long restoreResource(JsonNode record, RestoreContext context) throws Exception {
+        Resource resource = new Resource();
+        resource.setName(record.path("name").asText());
+        resource.setDescription(text(record, "description"));
+        resource.setMetadata(text(record, "metadata"));
+        resource.setCreator(text(record, "creator"));
+        resource.setEditor(text(record, "editor"));
+        resource.setAdvertised(record.path("advertised").asBoolean(true));
+
+        Category category = new Category();
+        category.setName(record.path("category").asText());
+        resource.setCategory(category);
+
+        List<Attribute> attributes = new ArrayList<>();
+        for (JsonNode attribute : record.path("attributes")) {
+            attributes.add(toAttribute(attribute));
+        }
+        resource.setAttribute(attributes);
+
+        String data = text(record, "data");
+        if (data != null) {
+            StoredData storedData = new StoredData();
+            storedData.setData(data);
+            resource.setData(storedData);
+        }
+
+        List<SecurityRule> rules = new ArrayList<>();
+        for (JsonNode r : record.path("security")) {
+            SecurityRule rule = new SecurityRule();
+            rule.setCanRead(r.path("canRead").asBoolean());
+            rule.setCanWrite(r.path("canWrite").asBoolean());
+            String userName = text(r, "user");
+            if (userName != null) {
+                User user = context.getUser(userName);
+                if (user != null) {
+                    rule.setUser(user);
+                } else {
+                    rule.setUsername(userName);
+                }
+            }
+            String groupName = text(r, "group");
+            if (groupName != null) {
+                UserGroup group = context.getGroup(groupName);
+                if (group != null) {
+                    rule.setGroup(group);
+                } else {
+                    rule.setGroupname(groupName);
+                }
+            }
+            Set<IPRange> ipRanges = new HashSet<>();
+            for (JsonNode ipRange : r.path("ipRanges")) {
+                ipRanges.add(restoreIPRange(context, ipRange));
+            }
+            rule.setIpRanges(ipRanges);
+            rules.add(rule);
+        }
+        // an empty rule list would prevent the creator from being set on insert
+        if (!rules.isEmpty()) {
+            resource.setSecurity(rules);
+        }
+
+        long id = resourceService.insert(resource);
+        for (JsonNode tag : record.path("tags")) {
+            tagService.addToResource(restoreTag(context, tag.asText(), null, null).getId(), id);
+        }
+        return id;
+    }
+
+    private static Attribute toAttribute(JsonNode attribute) {
+        return Convert.convertAttribute(
+                new ShortAttribute(
+                        attribute.path("name").asText(),
+                        text(attribute, "value"),
+                        DataType.valueOf(attribute.path("type").asText())));
+    }
+
+    private Tag restoreTag(RestoreContext context, String name, String color, String description)
+            throws Exception {
+        Tag tag = context.tags.get(name);
+        if (tag == null) {
+            tag = new Tag(name, color != null ? color : "#000000", description);
+            tag.setId(tagService.insert(tag));
+            context.tags.put(name, tag);
+        }
+        return tag;
+    }
+
+    private IPRange restoreIPRange(RestoreContext context, JsonNode record) throws Exception {
+        String cidr = record.path("cidr").asText();
+        IPRange ipRange = context.ipRanges.get(cidr);
+        if (ipRange == null) {
+            ipRange = new IPRange();
+            ipRange.setCidr(cidr);
+            ipRange.setDescription(text(record, "description"));
+            ipRange.setId(ipRangeService.insert(ipRange));
+            context.ipRanges.put(cidr, ipRange);
+        }
+        return ipRange;
+    }
+
+    private File getBackupFile(String token) {
+        if (token == null || !TOKEN_PATTERN.matcher(token).matches()) {
+            throw new BadRequestWebEx("Invalid backup token: " + token);
+        }
+        return new File(backupDirectory, token + BACKUP_EXTENSION);
+    }
+
+    private static InputStream openBackup(File file) throws IOException {
+        return new GZIPInputStream(new BufferedInputStream(new FileInputStream(file)));
+    }
+
+    /** Returns the records of a backup, after having read and checked its header. */
+    private static MappingIterator<JsonNode> readRecords(InputStream in, String token)
+            throws IOException {
+        MappingIterator<JsonNode> records = MAPPER.readerFor(JsonNode.class).readValues(in);
+        JsonNode header = records.hasNext() ? records.next() : null;
+        if (header == null
+                || !TYPE_HEADER.equals(header.path(TYPE).asText())
+                || !BACKUP_FORMAT.equals(header.path("format").asText())) {
+            records.close();
+            throw new BadRequestWebEx("Not a GeoStore backup: " + token);
+        }
+        if (header.path("version").asInt() > BACKUP_VERSION) {
+            records.close();
+            throw new BadRequestWebEx(
+                    "Unsupported backup version " + header.path("version").asInt());
+        }
+        return records;
+    }
+
+    private static String required(JsonNode record, String field, String token) {
+        String value = text(record, field);
+        if (value == null || value.isEmpty()) {
+            throw invalidBackup(
+                    token, "a " + record.path(TYPE).asText("") + " record has no " + field);
+        }
+        return value;
+    }
+
+    private static BadRequestWebEx invalidBackup(String token, String reason) {
+        return new BadRequestWebEx("Invalid backup " + token + ": " + reason);
+    }
+
+    /**
+     * Creates the backup directory, readable by the owner only, or restricts the permissions of an
+     * existing one.
+     */
+    private void createBackupDirectory() throws IOException {
+        Path directory = backupDirectory.toPath();
+        if (!isPosix()) {
+            Files.createDirectories(directory);
+            return;
+        }
+        if (Files.notExists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            Files.createDirectories(
+                    directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIRECTORY));
+        } else if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+            throw new IOException("The backup directory is not a directory: " + directory);
+        }
+        Files.setPosixFilePermissions(directory, OWNER_ONLY_DIRECTORY);
+    }
+
+    private static Path createBackupFile(File file) throws IOException {
+        if (!isPosix()) {
+            return Files.createFile(file.toPath());
+        }
+        return Files.createFile(
+                file.toPath(), PosixFilePermissions.asFileAttribute(OWNER_ONLY_FILE));
+    }
+
+    private static boolean isPosix() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+
+    /** Deletes the backup files older than {@link #setBackupTtlSeconds(long) the backup TTL}. */
+    private void deleteExpiredBackups() {
+        File[] files =
+                backupTtlSeconds > 0
+                        ? backupDirectory.listFiles((dir, name) -> name.endsWith(BACKUP_EXTENSION))
+                        : null;
+        if (files == null) {
+            return;
+        }
+        long oldest = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(backupTtlSeconds);
+        for (File file : files) {
+            if (file.lastModified() < oldest) {
+                if (file.delete()) {
+                    LOGGER.info("Deleted expired backup {}", file);
+                } else {
+                    LOGGER.warn("Could not delete expired backup {}", file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the given work in a transaction of the GeoStore data source, if a transaction manager
+     * has been configured.
+     */
+    private <T> T doInTransaction(boolean readOnly, Callable<T> work) throws Exception {
+        if (geostoreTransactionManager == null) {
+            return work.call();
+        }
+        TransactionTemplate template = new TransactionTemplate(geostoreTransactionManager);
+        template.setReadOnly(readOnly);
+        try {
+            return template.execute(
+                    status -> {
+                        try {
+                            return work.call();
+                        } catch (RuntimeException e) {
+                            throw e;
+                        } catch (Exception e) {
+                            throw new UndeclaredThrowableException(e);
+                        }
+                    });
+        } catch (UndeclaredThrowableException e) {
+            throw (Exception) e.getUndeclaredThrowable();
+        }
+    }
+
+    private static ObjectNode record(String type) {
+        return MAPPER.createObjectNode().put(TYPE, type);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /** Entities looked up while restoring, keyed by name. */
+    private class RestoreContext {
+        private final Map<String, Tag> tags = new HashMap<>();
+        private final Map<String, IPRange> ipRanges = new HashMap<>();
+        private final Map<String, User> users = new HashMap<>();
+        private final Map<String, UserGroup> groups = new HashMap<>();
+        private long categories;
+        private long restored;
+
+        private User getUser(String name) {
+            return users.computeIfAbsent(
+                    name,
+                    n -> {
+                        try {
+                            return userService.get(n);
+                        } catch (NotFoundServiceEx e) {
+                            return null;
+                        }
+                    });
+        }
+
+        private UserGroup getGroup(String name) {
+            return groups.computeIfAbsent(name, userGroupService::get);
+        }
+
+        /** Replaces the cached entities, detached by a clear, with references managed by em. */
+        private void reattach(EntityManager em) {
+            tags.replaceAll((name, tag) -> em.getReference(Tag.class, tag.getId()));
+            ipRanges.replaceAll((cidr, ipRange) -> em.getReference(IPRange.class, ipRange.getId()));
+            users.replaceAll(
+                    (name, user) ->
+                            user != null ? em.getReference(User.class, user.getId()) : null);
+            groups.replaceAll(
+                    (name, group) ->
+                            group != null ? em.getReference(UserGroup.class, group.getId()) : null);
+        }
+    }
+
     // =========================================================================
 
     @Override
@@ -217,4 +978,47 @@ public class RESTBackupServiceImpl extends RESTServiceImpl implements RESTBackup
     public void setCategoryService(CategoryService categoryService) {
         this.categoryService = categoryService;
     }
+
+    public void setUserGroupService(UserGroupService userGroupService) {
+        this.userGroupService = userGroupService;
+    }
+
+    public void setTagService(TagService tagService) {
+        this.tagService = tagService;
+    }
+
+    public void setIpRangeService(IPRangeService ipRangeService) {
+        this.ipRangeService = ipRangeService;
+    }
+
+    public void setGeostoreTransactionManager(
+            PlatformTransactionManager geostoreTransactionManager) {
+        this.geostoreTransactionManager = geostoreTransactionManager;
+    }
+
+    /** Sets the directory the full backups are written to and read from. */
+    public void setBackupDirectory(String backupDirectory) {
+        this.backupDirectory = new File(backupDirectory);
+    }
+
+    /**
+     * Sets the number of resources read in each transaction of a full backup, and restored between
+     * two flushes of a full restore.
+     */
+    public void setBackupPageSize(int backupPageSize) {
+        this.backupPageSize = backupPageSize;
+    }
+
+    /**
+     * Sets the number of seconds a full backup is kept in the backup directory, zero or less to
+     * keep the backups until they are deleted by hand. The expired backups are deleted when the
+     * next backup or restore is run.
+     */
+    public void setBackupTtlSeconds(long backupTtlSeconds) {
+        this.backupTtlSeconds = backupTtlSeconds;
+    }
+
+    public void setStoredDataService(StoredDataService storedDataService) {
+        this.storedDataService = storedDataService;
+    }
 }
@@ -30,11 +30,28 @@ package it.geosolutions.geostore.services.rest.impl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import it.geosolutions.geostore.core.dao.cache.CaffeineRegionFactory;
+import it.geosolutions.geostore.core.dao.cache.CaffeineStorageAccess;
+import it.geosolutions.geostore.services.InMemoryUserSessionServiceImpl;
+import it.geosolutions.geostore.services.VerifiedCredentialsCache;
+import it.geosolutions.geostore.services.rest.DiagnosticsContributor;
 import it.geosolutions.geostore.services.rest.RESTDiagnosticsService;
+import it.geosolutions.geostore.services.rest.security.GeoStoreLdapAuthoritiesPopulator;
+import it.geosolutions.geostore.services.rest.security.LdapAuthoritiesCache;
+import it.geosolutions.geostore.services.rest.security.TokenAuthenticationFilter;
+import it.geosolutions.geostore.services.rest.security.oauth2.InMemoryTokenStorage;
+import it.geosolutions.geostore.services.rest.security.oauth2.openid_connect.CompositeOpenIdConnectFilter;
+import it.geosolutions.geostore.services.rest.security.oauth2.openid_connect.OpenIdConnectAuthenticationService;
+import it.geosolutions.geostore.services.rest.security.oauth2.openid_connect.OpenIdConnectFilter;
+import it.geosolutions.geostore.services.rest.security.oauth2.openid_connect.bearer.JwksRsaKeyProvider;
+import it.geosolutions.geostore.services.rest.security.oauth2.openid_connect.bearer.MicrosoftGraphClient;
+import it.geosolutions.geostore.services.rest.utils.GeoStoreContext;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
 import java.time.Instant;
 import java.util.Collection;
+import java.util.Map;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -49,12 +66,19 @@ public class RESTDiagnosticsServiceImpl extends RESTServiceImpl implements RESTD
             "it.geosolutions.geostore.services.rest.security";
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    private CaffeineRegionFactory geostoreCacheRegionFactory;
+
+    public void setGeostoreCacheRegionFactory(CaffeineRegionFactory geostoreCacheRegionFactory) {
+        this.geostoreCacheRegionFactory = geostoreCacheRegionFactory;
+    }
+
     @Override
     public Response getFullReport(SecurityContext sc) {
         try {
             ObjectNode root = MAPPER.createObjectNode();
             root.set("logging", buildLoggingNode());
-            //                        root.set("cache", buildCacheNode());
+            root.set("cache", buildCacheNode());
+            addContributorNodes(root);
             //                        root.set("configuration", buildConfigurationNode());
             root.put("timestamp", Instant.now().toString());
             return Response.ok(MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(root))
@@ -119,18 +143,16 @@ public class RESTDiagnosticsServiceImpl extends RESTServiceImpl implements RESTD
 
     @Override
     public Response getCache(SecurityContext sc) {
-        //        try {
-        //            ObjectNode root = MAPPER.createObjectNode();
-        //            root.set("cache", buildCacheNode());
-        //            return
-        // Response.ok(MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(root))
-        //                    .type("application/json")
-        //                    .build();
-        //        } catch (Exception e) {
-        //            LOGGER.error("Error building cache report", e);
-        //            return errorResponse(500, "Error building cache report: " + e.getMessage());
-        //        }
-        return null;
+        try {
+            ObjectNode root = MAPPER.createObjectNode();
+            root.set("cache", buildCacheNode());
+            return Response.ok(MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(root))
+                    .type("application/json")
+                    .build();
+        } catch (Exception e) {
+            LOGGER.error("Error building cache report", e);
+            return errorResponse(500, "Error building cache report: " + e.getMessage());
+        }
     }
 
     //    @Override
@@ -175,8 +197,206 @@ public class RESTDiagnosticsServiceImpl extends RESTServiceImpl implements RESTD
         return logging;
     }
 
+    // ---- Contributors ----
+
+    private void addContributorNodes(ObjectNode root) {
+        Map<String, DiagnosticsContributor> contributors =
+                GeoStoreContext.beans(DiagnosticsContributor.class);
+        if (contributors == null) {
+            return;
+        }
+        for (DiagnosticsContributor contributor : contributors.values()) {
+            root.set(
+                    contributor.getDiagnosticsName(),
+                    MAPPER.valueToTree(contributor.getDiagnostics()));
+        }
+    }
+
     // ---- Cache ----
 
+    private ObjectNode buildCacheNode() {
+        ObjectNode cacheNode = MAPPER.createObjectNode();
+        cacheNode.set("secondLevel", buildSecondLevelCacheNode());
+        cacheNode.set("tokenAuthentication", buildTokenCacheNode());
+        cacheNode.set("verifiedCredentials", buildVerifiedCredentialsNode());
+        cacheNode.set("sessionStores", buildSessionStoresNode());
+        cacheNode.set("openIdConnect", buildOpenIdConnectNode());
+        cacheNode.set("ldapAuthorities", buildLdapAuthoritiesNode());
+        return cacheNode;
+    }
+
+    private ArrayNode buildLdapAuthoritiesNode() {
+        ArrayNode caches = MAPPER.createArrayNode();
+        Map<String, GeoStoreLdapAuthoritiesPopulator> beans =
+                GeoStoreContext.beans(GeoStoreLdapAuthoritiesPopulator.class);
+        if (beans == null) {
+            return caches;
+        }
+        for (Map.Entry<String, GeoStoreLdapAuthoritiesPopulator> entry : beans.entrySet()) {
+            LdapAuthoritiesCache cache = entry.getValue().getAuthoritiesCache();
+            ObjectNode cacheNode = MAPPER.createObjectNode();
+            cacheNode.put("name", entry.getKey());
+            cacheNode.put("ttlSeconds", cache.getTtlSeconds());
+            cacheNode.put("maxSize", cache.getMaxSize());
+            cacheNode.put("size", cache.getSize());
+            cacheNode.put("hitCount", cache.getHitCount());
+            cacheNode.put("missCount", cache.getMissCount());
+            caches.add(cacheNode);
+        }
+        return caches;
+    }
+
+    private ArrayNode buildVerifiedCredentialsNode() {
+        ArrayNode caches = MAPPER.createArrayNode();
+        Map<String, VerifiedCredentialsCache> beans =
+                GeoStoreContext.beans(VerifiedCredentialsCache.class);
+        if (beans == null) {
+            return caches;
+        }
+        for (Map.Entry<String, VerifiedCredentialsCache> entry : beans.entrySet()) {
+            VerifiedCredentialsCache cache = entry.getValue();
+            ObjectNode cacheNode = MAPPER.createObjectNode();
+            cacheNode.put("name", entry.getKey());
+            cacheNode.put("enabled", cache.isEnabled());
+            cacheNode.put("size", cache.getSize());
+            cacheNode.put("hitCount", cache.getHitCount());
+            cacheNode.put("missCount", cache.getMissCount());
+            cacheNode.put("evictionCount", cache.getEvictionCount());
+            caches.add(cacheNode);
+        }
+        return caches;
+    }
+
+    private ArrayNode buildSessionStoresNode() {
+        ArrayNode stores = MAPPER.createArrayNode();
+        Map<String, InMemoryUserSessionServiceImpl> sessionServices =
+                GeoStoreContext.beans(InMemoryUserSessionServiceImpl.class);
+        if (sessionServices != null) {
+            for (Map.Entry<String, InMemoryUserSessionServiceImpl> entry :
+                    sessionServices.entrySet()) {
+                stores.add(
+                        sessionStoreNode(
+                                entry.getKey(),
+                                entry.getValue().getSize(),
+                                entry.getValue().getEvictionCount()));
+            }
+        }
+        Map<String, InMemoryTokenStorage> tokenStorages =
+                GeoStoreContext.beans(InMemoryTokenStorage.class);
+        if (tokenStorages != null) {
+            for (Map.Entry<String, InMemoryTokenStorage> entry : tokenStorages.entrySet()) {
+                stores.add(
+                        sessionStoreNode(
+                                entry.getKey(),
+                                entry.getValue().getSize(),
+                                entry.getValue().getEvictionCount()));
+            }
+        }
+        return stores;
+    }
+
+    private static ObjectNode sessionStoreNode(String name, long size, long evictionCount) {
+        ObjectNode storeNode = MAPPER.createObjectNode();
+        storeNode.put("name", name);
+        storeNode.put("size", size);
+        storeNode.put("evictionCount", evictionCount);
+        return storeNode;
+    }
+
+    private ArrayNode buildOpenIdConnectNode() {
+        ArrayNode providers = MAPPER.createArrayNode();
+        Map<String, CompositeOpenIdConnectFilter> beans =
+                GeoStoreContext.beans(CompositeOpenIdConnectFilter.class);
+        if (beans == null) {
+            return providers;
+        }
+        for (CompositeOpenIdConnectFilter composite : beans.values()) {
+            for (Map.Entry<String, OpenIdConnectFilter> entry :
+                    composite.getProviderFilters().entrySet()) {
+                if (!(entry.getValue().getAuthenticationService()
+                        instanceof OpenIdConnectAuthenticationService)) {
+                    continue;
+                }
+                OpenIdConnectAuthenticationService service =
+                        (OpenIdConnectAuthenticationService)
+                                entry.getValue().getAuthenticationService();
+                ObjectNode providerNode = MAPPER.createObjectNode();
+                providerNode.put("provider", entry.getKey());
+                JwksRsaKeyProvider jwks = service.getJwksKeyProvider();
+                if (jwks != null) {
+                    ObjectNode jwksNode = providerNode.putObject("jwks");
+                    jwksNode.put("keyCount", jwks.getKeyCount());
+                    jwksNode.put("refreshCount", jwks.getRefreshCount());
+                    jwksNode.put("refreshFailureCount", jwks.getRefreshFailureCount());
+                    jwksNode.put("totalRefreshTimeMillis", jwks.getTotalRefreshTimeMillis());
+                    jwksNode.put("lastRefreshTimeMillis", jwks.getLastRefreshTimeMillis());
+                    jwksNode.put("negativeHitCount", jwks.getNegativeHitCount());
+                }
+                MicrosoftGraphClient graph = service.getGraphClientIfInitialized();
+                if (graph != null) {
+                    ObjectNode graphNode = providerNode.putObject("msGraph");
+                    for (Map.Entry<String, MicrosoftGraphClient.CallStats> call :
+                            graph.getCallStats().entrySet()) {
+                        ObjectNode callNode = graphNode.putObject(call.getKey());
+                        callNode.put("count", call.getValue().getCount());
+                        callNode.put("failureCount", call.getValue().getFailureCount());
+                        callNode.put("totalMillis", call.getValue().getTotalMillis());
+                        callNode.put("maxMillis", call.getValue().getMaxMillis());
+                    }
+                }
+                providers.add(providerNode);
+            }
+        }
+        return providers;
+    }
+
+    private ArrayNode buildTokenCacheNode() {
+        ArrayNode filters = MAPPER.createArrayNode();
+        Map<String, TokenAuthenticationFilter> beans =
+                GeoStoreContext.beans(TokenAuthenticationFilter.class);
+        if (beans == null) {
+            return filters;
+        }
+        for (Map.Entry<String, TokenAuthenticationFilter> entry : beans.entrySet()) {
+            CacheStats stats = entry.getValue().getCacheStats();
+            ObjectNode filterNode = MAPPER.createObjectNode();
+            filterNode.put("name", entry.getKey());
+            filterNode.put("size", entry.getValue().getCachedTokenCount());
+            filterNode.put("hitCount", stats.hitCount());
+            filterNode.put("missCount", stats.missCount());
+            filterNode.put("hitRate", stats.hitRate());
+            filterNode.put("loadFailureCount", stats.loadFailureCount());
+            filterNode.put("averageLoadPenaltyMillis", stats.averageLoadPenalty() / 1_000_000d);
+            filterNode.put("evictionCount", stats.evictionCount());
+            filters.add(filterNode);
+        }
+        return filters;
+    }
+
+    private ObjectNode buildSecondLevelCacheNode() {
+        ObjectNode secondLevel = MAPPER.createObjectNode();
+        if (geostoreCacheRegionFactory == null || !geostoreCacheRegionFactory.isActive()) {
+            secondLevel.put("status", "disabled");
+            return secondLevel;
+        }
+
+        secondLevel.put("status", "active");
+        ArrayNode regions = MAPPER.createArrayNode();
+        for (CaffeineStorageAccess region : geostoreCacheRegionFactory.getRegions()) {
+            CacheStats stats = region.getStats();
+            ObjectNode regionNode = MAPPER.createObjectNode();
+            regionNode.put("name", region.getRegionName());
+            regionNode.put("size", region.getSize());
+            regionNode.put("hitCount", stats.hitCount());
+            regionNode.put("missCount", stats.missCount());
+            regionNode.put("hitRate", stats.hitRate());
+            regionNode.put("evictionCount", stats.evictionCount());
+            regions.add(regionNode);
+        }
+        secondLevel.set("regions", regions);
+        return secondLevel;
+    }
+
     //    private ObjectNode buildCacheNode() {
     //        ObjectNode cacheNode = MAPPER.createObjectNode();
     //
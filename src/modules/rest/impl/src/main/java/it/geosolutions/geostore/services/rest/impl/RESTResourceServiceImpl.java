@@ -35,6 +35,7 @@ import it.geosolutions.geostore.core.model.SecurityRule;
 import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.model.enums.DataType;
 import it.geosolutions.geostore.core.model.enums.Role;
+import it.geosolutions.geostore.services.dto.ResourceSearchCursor;
 import it.geosolutions.geostore.services.dto.ResourceSearchParameters;
 import it.geosolutions.geostore.services.dto.ShortAttribute;
 import it.geosolutions.geostore.services.dto.search.BaseField;
@@ -49,11 +50,15 @@ import it.geosolutions.geostore.services.rest.RESTResourceService;
 import it.geosolutions.geostore.services.rest.exception.BadRequestWebEx;
 import it.geosolutions.geostore.services.rest.exception.ConflictWebEx;
 import it.geosolutions.geostore.services.rest.exception.ForbiddenErrorWebEx;
+import it.geosolutions.geostore.services.rest.exception.GeoStoreWebEx;
 import it.geosolutions.geostore.services.rest.exception.InternalErrorWebEx;
 import it.geosolutions.geostore.services.rest.exception.NotFoundWebEx;
+import it.geosolutions.geostore.services.rest.model.BulkInsertResultList;
+import it.geosolutions.geostore.services.rest.model.BulkInsertResultList.BulkInsertResult;
 import it.geosolutions.geostore.services.rest.model.RESTAttribute;
 import it.geosolutions.geostore.services.rest.model.RESTCategory;
 import it.geosolutions.geostore.services.rest.model.RESTResource;
+import it.geosolutions.geostore.services.rest.model.RESTResourceList;
 import it.geosolutions.geostore.services.rest.model.ResourceList;
 import it.geosolutions.geostore.services.rest.model.SecurityRuleList;
 import it.geosolutions.geostore.services.rest.model.ShortAttributeList;
@@ -61,6 +66,8 @@ import it.geosolutions.geostore.services.rest.model.ShortResourceList;
 import it.geosolutions.geostore.services.rest.utils.Convert;
 import jakarta.ws.rs.core.SecurityContext;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
@@ -77,6 +84,13 @@ public class RESTResourceServiceImpl extends RESTServiceImpl implements RESTReso
 
     private static final Logger LOGGER = LogManager.getLogger(RESTResourceServiceImpl.class);
 
+    private int bulkInsertChunkSize = 100;
+
+    /** @param bulkInsertChunkSize the number of resources inserted in each transaction */
+    public void setBulkInsertChunkSize(int bulkInsertChunkSize) {
+        this.bulkInsertChunkSize = bulkInsertChunkSize;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -85,12 +99,116 @@ public class RESTResourceServiceImpl extends RESTServiceImpl implements RESTReso
     @Override
     public long insert(SecurityContext sc, RESTResource resource) {
         if (resource == null) throw new BadRequestWebEx("Resource is null");
+
+        User authUser = extractAuthUser(sc);
+        Resource r = toOwnedResource(resource, authUser);
+
+        try {
+            return resourceService.insert(r);
+        } catch (BadRequestServiceEx ex) {
+            throw new BadRequestWebEx(ex.getMessage());
+        } catch (NotFoundServiceEx e) {
+            throw new NotFoundWebEx(e.getMessage());
+        } catch (DuplicatedResourceNameServiceEx e) {
+            throw new ConflictWebEx(e.getMessage());
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see it.geosolutions.geostore.services.rest.RESTResourceService#insertAll(jakarta.ws.rs.core.SecurityContext, it.geosolutions.geostore.services.rest.model.RESTResourceList)
+     */
+    @Override
+    public BulkInsertResultList insertAll(SecurityContext sc, RESTResourceList resources) {
+        if (resources == null || resources.getList() == null)
+            throw new BadRequestWebEx("Resource list is null");
+
+        User authUser = extractAuthUser(sc);
+        List<RESTResource> list = resources.getList();
+        BulkInsertResult[] results = new BulkInsertResult[list.size()];
+
+        List<Resource> chunk = new ArrayList<>(bulkInsertChunkSize);
+        List<Integer> indexes = new ArrayList<>(bulkInsertChunkSize);
+        for (int i = 0; i < list.size(); i++) {
+            RESTResource resource = list.get(i);
+            try {
+                if (resource == null) throw new BadRequestWebEx("Resource is null");
+                chunk.add(toOwnedResource(resource, authUser));
+                indexes.add(i);
+            } catch (GeoStoreWebEx e) {
+                results[i] =
+                        new BulkInsertResult(
+                                i,
+                                resource != null ? resource.getName() : null,
+                                null,
+                                BulkInsertResult.FAILED,
+                                e.getMessage());
+            }
+            if (chunk.size() >= bulkInsertChunkSize) {
+                insertChunk(chunk, indexes, results);
+                chunk.clear();
+                indexes.clear();
+            }
+        }
+        insertChunk(chunk, indexes, results);
+
+        return new BulkInsertResultList(Arrays.asList(results));
+    }
+
+    /**
+     * Inserts a chunk of resources in a single transaction. If the chunk fails, its resources are
+     * inserted one at a time so that the failing ones can be reported.
+     */
+    private void insertChunk(
+            List<Resource> chunk, List<Integer> indexes, BulkInsertResult[] results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> ids = resourceService.insertAll(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                results[indexes.get(i)] =
+                        new BulkInsertResult(
+                                indexes.get(i),
+                                chunk.get(i).getName(),
+                                ids.get(i),
+                                BulkInsertResult.CREATED,
+                                null);
+            }
+        } catch (Exception e) {
+            if (chunk.size() > 1) {
+                LOGGER.warn(
+                        "Bulk insert of {} resources failed ({}), inserting them one at a time",
+                        chunk.size(),
+                        e.getMessage());
+                for (int i = 0; i < chunk.size(); i++) {
+                    insertChunk(
+                            Collections.singletonList(chunk.get(i)),
+                            Collections.singletonList(indexes.get(i)),
+                            results);
+                }
+            } else {
+                results[indexes.get(0)] =
+                        new BulkInsertResult(
+                                indexes.get(0),
+                                chunk.get(0).getName(),
+                                null,
+                                BulkInsertResult.FAILED,
+                                e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Converts a resource to be inserted, adding the rule that grants the inserting user read and
+     * write access.
+     */
+    private Resource toOwnedResource(RESTResource resource, User authUser) {
         if (resource.getId() != null) throw new BadRequestWebEx("Id should be null");
         if (resource.getCategory() == null)
             throw new BadRequestWebEx("Category should be not null");
 
-        User authUser = extractAuthUser(sc);
-
         // This list holds the security rules for this resources
         // By default, when a resource is inserted, 2 rules are created :
         // - one is related to the User that inserts the rule
@@ -107,16 +225,7 @@ public class RESTResourceServiceImpl extends RESTServiceImpl implements RESTReso
 
         Resource r = Convert.convertResource(resource);
         r.setSecurity(securities);
-
-        try {
-            return resourceService.insert(r);
-        } catch (BadRequestServiceEx ex) {
-            throw new BadRequestWebEx(ex.getMessage());
-        } catch (NotFoundServiceEx e) {
-            throw new NotFoundWebEx(e.getMessage());
-        } catch (DuplicatedResourceNameServiceEx e) {
-            throw new ConflictWebEx(e.getMessage());
-        }
+        return r;
     }
 
     /**
@@ -250,14 +359,14 @@ public class RESTResourceServiceImpl extends RESTServiceImpl implements RESTReso
     public Resource get(SecurityContext sc, long id, boolean fullResource) throws NotFoundWebEx {
 
         //
-        // Authorization check.
+        // Authorization check, answers 304 if the client copy is up to date.
         //
-        boolean canRead = false;
         User authUser = extractAuthUser(sc);
-        canRead = resourceAccessRead(authUser, id);
-        if (!canRead) {
-            throw new ForbiddenErrorWebEx("This user cannot read this resource !");
-        }
+        checkConditionalRead(
+                authUser,
+                id,
+                fullResource ? "full" : null,
+                "This user cannot read this resource !");
 
         if (fullResource) {
             if (LOGGER.isDebugEnabled()) LOGGER.debug("Retrieving a full resource");
@@ -513,28 +622,38 @@ public class RESTResourceServiceImpl extends RESTServiceImpl implements RESTReso
      * (non-Javadoc)
      *
      * @see it.geosolutions.geostore.services.rest.RESTResourceService#getResourcesList(javax.ws.rs.core.SecurityContext,
-     * it.geosolutions.geostore.services.dto.search.SearchFilter, java.lang.Integer, java.lang.Integer, boolean, boolean)
+     * java.lang.Integer, java.lang.Integer, java.lang.String, boolean, boolean, boolean,
+     * it.geosolutions.geostore.services.dto.search.SearchFilter)
      */
     @Override
     public ResourceList getResourcesList(
             SecurityContext sc,
             Integer page,
             Integer entries,
+            String cursor,
             boolean includeAttributes,
             boolean includeData,
+            boolean includeCount,
             SearchFilter filter) {
         User authUser = extractAuthUser(sc);
         try {
-            return new ResourceList(
+            List<Resource> resources =
                     resourceService.getResources(
                             ResourceSearchParameters.builder()
                                     .filter(filter)
                                     .page(page)
                                     .entries(entries)
+                                    .cursor(cursor)
                                     .includeAttributes(includeAttributes)
                                     .includeData(includeData)
                                     .authUser(authUser)
-                                    .build()));
+                                    .build());
+            ResourceList result = new ResourceList(resources);
+            result.setNextCursor(ResourceSearchCursor.nextToken(resources, entries, null, null));
+            if (includeCount) {
+                result.setCount(resourceService.count(filter, authUser, false));
+            }
+            return result;
         } catch (BadRequestServiceEx e) {
             if (LOGGER.isInfoEnabled()) LOGGER.info(e.getMessage());
             throw new BadRequestWebEx(e.getMessage());
@@ -36,12 +36,16 @@ import it.geosolutions.geostore.core.model.UserGroup;
 import it.geosolutions.geostore.core.model.enums.GroupReservedNames;
 import it.geosolutions.geostore.core.model.enums.Role;
 import it.geosolutions.geostore.core.model.enums.UserReservedNames;
+import it.geosolutions.geostore.services.GuestUserCache;
 import it.geosolutions.geostore.services.ResourcePermissionService;
 import it.geosolutions.geostore.services.ResourceService;
 import it.geosolutions.geostore.services.UserService;
 import it.geosolutions.geostore.services.exception.NotFoundServiceEx;
+import it.geosolutions.geostore.services.rest.exception.ForbiddenErrorWebEx;
 import it.geosolutions.geostore.services.rest.exception.InternalErrorWebEx;
+import it.geosolutions.geostore.services.rest.utils.ConditionalGet;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.SecurityContext;
 import java.security.Principal;
 import java.util.ArrayList;
@@ -73,6 +77,9 @@ public abstract class RESTServiceImpl {
     @Autowired ResourceService resourceService;
     @Autowired ResourcePermissionService resourcePermissionService;
 
+    @Autowired(required = false)
+    GuestUserCache guestUserCache;
+
     public void setUserService(UserService userService) {
         this.userService = userService;
     }
@@ -85,6 +92,10 @@ public abstract class RESTServiceImpl {
         this.resourcePermissionService = resourcePermissionService;
     }
 
+    public void setGuestUserCache(GuestUserCache guestUserCache) {
+        this.guestUserCache = guestUserCache;
+    }
+
     /**
      * @return User - The authenticated user that is accessing this service, or null if guest
      *     access.
@@ -194,6 +205,28 @@ public abstract class RESTServiceImpl {
         return resourcePermissionService.canResourceBeReadByUser(resource, user);
     }
 
+    /**
+     * Checks that a resource is readable by a user, like {@link #resourceAccessRead(User, long)},
+     * then evaluates the conditional headers of the request against the resource metadata, so that
+     * a client holding an up to date copy gets a 304 Not Modified before the payload is loaded.
+     *
+     * @param user the user to check access for
+     * @param resourceId the resource to check access on
+     * @param variant an identifier of the requested representation, may be null
+     * @param forbiddenMessage the message of the error returned if the user cannot read the
+     *     resource
+     * @throws ForbiddenErrorWebEx if the user cannot read the resource
+     * @throws WebApplicationException with a 304 response if the client copy is still current
+     */
+    protected void checkConditionalRead(
+            User user, long resourceId, String variant, String forbiddenMessage) {
+        Resource resource = resourceService.getResource(resourceId, false, true, false);
+        if (!resourcePermissionService.canResourceBeReadByUser(resource, user)) {
+            throw new ForbiddenErrorWebEx(forbiddenMessage);
+        }
+        ConditionalGet.evaluate(resource, user, variant);
+    }
+
     /**
      * Creates a Guest principal with Username="guest" password="" and role ROLE_GUEST. The guest
      * principal should be used with unauthenticated users.
@@ -203,9 +236,15 @@ public abstract class RESTServiceImpl {
     public Principal createGuestPrincipal() {
         List<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority("ROLE_GUEST"));
+        // the cache hands out a copy, the IP address of the request is set on it later on
+        User guest =
+                guestUserCache != null ? guestUserCache.get(this::loadGuestUser) : loadGuestUser();
+        return new UsernamePasswordAuthenticationToken(guest, "", authorities);
+    }
+
+    private User loadGuestUser() {
         try {
-            User u = userService.get(UserReservedNames.GUEST.userName());
-            return new UsernamePasswordAuthenticationToken(u, "", authorities);
+            return userService.get(UserReservedNames.GUEST.userName());
         } catch (NotFoundServiceEx e) {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("User GUEST is not configured, creating on-the-fly a default one");
@@ -221,7 +260,7 @@ public abstract class RESTServiceImpl {
         everyoneGroup.setGroupName(GroupReservedNames.EVERYONE.groupName());
         groups.add(everyoneGroup);
         guest.setGroups(groups);
-        return new UsernamePasswordAuthenticationToken(guest, "", authorities);
+        return guest;
     }
 
     public static String convertNameLikeToSqlSyntax(String nameLike) {
@@ -136,14 +136,12 @@ public class RESTStoredDataServiceImpl extends RESTServiceImpl implements RESTSt
         if (id == -1) return "dummy payload";
 
         //
-        // Authorization check.
+        // Authorization check, answers 304 if the client copy is up to date: the last update date
+        // of the resource is also bumped when its data is updated.
         //
-        boolean canRead = false;
         User authUser = extractAuthUser(sc);
-        canRead = resourceAccessRead(authUser, id); // The ID is also the resource ID
-        if (!canRead) {
-            throw new ForbiddenErrorWebEx("This user cannot read this stored data !");
-        }
+        // The ID is also the resource ID
+        checkConditionalRead(authUser, id, "data", "This user cannot read this stored data !");
 
         StoredData storedData;
         try {
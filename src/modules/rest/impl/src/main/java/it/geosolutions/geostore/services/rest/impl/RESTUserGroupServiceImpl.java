@@ -35,12 +35,15 @@ import it.geosolutions.geostore.services.rest.model.RESTUserGroup;
 import it.geosolutions.geostore.services.rest.model.ShortResourceList;
 import it.geosolutions.geostore.services.rest.model.UserGroupList;
 import it.geosolutions.geostore.services.rest.model.UserList;
+import it.geosolutions.geostore.services.rest.model.enums.GroupMembers;
 import jakarta.ws.rs.core.SecurityContext;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Stream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -121,10 +124,9 @@ public class RESTUserGroupServiceImpl implements RESTUserGroupService {
             throws NotFoundWebEx {
         try {
             UserGroup g = userGroupService.get(id);
-            Collection<User> users = userService.getByGroup(g);
             RESTUserGroup group =
                     new RESTUserGroup(
-                            g.getId(), g.getGroupName(), new HashSet<>(users), g.getDescription());
+                            g.getId(), g.getGroupName(), getMembers(g), g.getDescription());
             if (includeAttributes) group.setAttributes(g.getAttributes());
             return group;
         } catch (BadRequestServiceEx e) {
@@ -170,13 +172,32 @@ public class RESTUserGroupServiceImpl implements RESTUserGroupService {
             Integer entries,
             boolean all,
             boolean includeUsers,
+            String members,
             String nameLike)
             throws BadRequestWebEx {
+        GroupMembers mode = parseMembers(members, includeUsers);
         try {
-            List<RESTUserGroup> restUserGroups =
-                    userGroupService.getAll(page, entries, nameLike, all).stream()
-                            .map(ug -> createRestUserGroup(ug, includeUsers))
-                            .toList();
+            List<UserGroup> userGroups = userGroupService.getAll(page, entries, nameLike, all);
+            // members of the whole page are loaded at once, not with a query per group
+            Map<Long, List<User>> groupMembers = Collections.emptyMap();
+            Map<Long, Long> memberCounts = Collections.emptyMap();
+            if (!userGroups.isEmpty()) {
+                if (mode == GroupMembers.COUNT) {
+                    memberCounts = userService.countByGroups(userGroups);
+                } else if (mode != GroupMembers.NONE) {
+                    groupMembers = userService.getByGroups(userGroups, mode == GroupMembers.FULL);
+                }
+            }
+            List<RESTUserGroup> restUserGroups = new ArrayList<>(userGroups.size());
+            for (UserGroup ug : userGroups) {
+                RESTUserGroup restUserGroup =
+                        new RESTUserGroup(
+                                ug, groupMembers.getOrDefault(ug.getId(), Collections.emptyList()));
+                if (mode == GroupMembers.COUNT) {
+                    restUserGroup.setMemberCount(memberCounts.getOrDefault(ug.getId(), 0L));
+                }
+                restUserGroups.add(restUserGroup);
+            }
 
             long count = 0;
             if (!restUserGroups.isEmpty()) {
@@ -190,14 +211,25 @@ public class RESTUserGroupServiceImpl implements RESTUserGroupService {
         }
     }
 
-    private RESTUserGroup createRestUserGroup(UserGroup userGroup, boolean includeUsers) {
-        return new RESTUserGroup(
-                userGroup.getId(),
-                userGroup.getGroupName(),
-                includeUsers
-                        ? new HashSet<>(userService.getByGroup(userGroup))
-                        : Collections.emptySet(),
-                userGroup.getDescription());
+    private static GroupMembers parseMembers(String members, boolean includeUsers) {
+        if (members == null || members.isBlank()) {
+            return includeUsers ? GroupMembers.FULL : GroupMembers.NONE;
+        }
+        try {
+            return GroupMembers.valueOf(members.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestWebEx(
+                    "Unknown members value '"
+                            + members
+                            + "', expected one of "
+                            + Arrays.toString(GroupMembers.values()).toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private List<User> getMembers(UserGroup group) {
+        return userService
+                .getByGroups(Collections.singletonList(group), true)
+                .getOrDefault(group.getId(), Collections.emptyList());
     }
 
     /* (non-Javadoc)
@@ -308,10 +340,9 @@ public class RESTUserGroupServiceImpl implements RESTUserGroupService {
         else ug = userGroupService.get(name);
         RESTUserGroup result = null;
         if (ug != null) {
-            Collection<User> users = userService.getByGroup(ug);
             result =
                     new RESTUserGroup(
-                            ug.getId(), ug.getGroupName(), new HashSet(users), ug.getDescription());
+                            ug.getId(), ug.getGroupName(), getMembers(ug), ug.getDescription());
             if (includeAttributes) result.setAttributes(ug.getAttributes());
         }
         return result;
@@ -82,6 +82,8 @@ public class GeoStoreLdapAuthoritiesPopulator extends DefaultLdapAuthoritiesPopu
     private GrantedAuthoritiesMapper roleMapper = null;
     private GrantedAuthoritiesMapper groupMapper = null;
 
+    private final LdapAuthoritiesCache authoritiesCache = new LdapAuthoritiesCache();
+
     /**
      * @param contextSource
      * @param groupSearchBase
@@ -130,8 +132,18 @@ public class GeoStoreLdapAuthoritiesPopulator extends DefaultLdapAuthoritiesPopu
         this.groupMapper = groupMapper;
     }
 
+    /**
+     * Returns the groups and roles of the given user. They are cached, keyed on the user DN, for
+     * {@link #setAuthoritiesCacheTtlSeconds(long) authoritiesCacheTtlSeconds}, so that repeated
+     * logins of the same user do not search the directory again.
+     */
     @Override
     public Set<GrantedAuthority> getGroupMembershipRoles(String userDn, String username) {
+        return authoritiesCache.get(
+                userDn, username, () -> loadGroupMembershipRoles(userDn, username));
+    }
+
+    private Set<GrantedAuthority> loadGroupMembershipRoles(String userDn, String username) {
         // TODO: double check if we really want to return groups+roles
         Set<GrantedAuthority> ret = new HashSet<>();
         ret.addAll(getGroups(userDn, username));
@@ -355,6 +367,30 @@ public class GeoStoreLdapAuthoritiesPopulator extends DefaultLdapAuthoritiesPopu
         this.maxLevelGroupsSearch = maxLevelGroupsSearch;
     }
 
+    /** @return the cache of the groups and roles of the users, exposing its hit and miss counts */
+    public LdapAuthoritiesCache getAuthoritiesCache() {
+        return authoritiesCache;
+    }
+
+    /**
+     * Seconds the groups and roles of a user are cached for, after having been searched in the
+     * directory. 0 disables the cache.
+     *
+     * @param authoritiesCacheTtlSeconds
+     */
+    public void setAuthoritiesCacheTtlSeconds(long authoritiesCacheTtlSeconds) {
+        authoritiesCache.setTtlSeconds(authoritiesCacheTtlSeconds);
+    }
+
+    /**
+     * Maximum number of users whose groups and roles are cached.
+     *
+     * @param authoritiesCacheMaxSize
+     */
+    public void setAuthoritiesCacheMaxSize(long authoritiesCacheMaxSize) {
+        authoritiesCache.setMaxSize(authoritiesCacheMaxSize);
+    }
+
     private static class Authority {
         private final String name;
 
@@ -0,0 +1,151 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services.rest.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Bounded, time limited cache of the groups and roles found in the directory for a user, keyed on
+ * the user DN.
+ *
+ * <p>Every login searches the groups and roles of the user, so a burst of logins would otherwise
+ * run the same searches again and again. Concurrent lookups of the same user wait for a single
+ * search.
+ */
+public class LdapAuthoritiesCache {
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private volatile long maxSize = 1000;
+
+    private volatile long ttlSeconds = 60;
+
+    private volatile Cache<List<String>, Set<GrantedAuthority>> cache;
+
+    /**
+     * Returns a copy of the cached authorities of the given user, loading and caching them if
+     * missing.
+     *
+     * @param userDn the DN of the user
+     * @param username the name of the user
+     * @param loader searches the authorities of the user in the directory
+     * @return the authorities of the user
+     */
+    public Set<GrantedAuthority> get(
+            String userDn, String username, Supplier<Set<GrantedAuthority>> loader) {
+        if (ttlSeconds <= 0 || userDn == null || username == null) {
+            return loader.get();
+        }
+        Cache<List<String>, Set<GrantedAuthority>> result = getCache();
+        List<String> key = List.of(userDn, username);
+        Set<GrantedAuthority> authorities = result.getIfPresent(key);
+        if (authorities != null) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+            authorities = result.get(key, k -> Collections.unmodifiableSet(loader.get()));
+        }
+        return new HashSet<>(authorities);
+    }
+
+    /** Removes all the cached authorities, so that they are searched again. */
+    public void invalidateAll() {
+        Cache<List<String>, Set<GrantedAuthority>> result = cache;
+        if (result != null) {
+            result.invalidateAll();
+        }
+    }
+
+    /** @return the number of lookups that found the authorities of the user in the cache */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /** @return the number of lookups that had to search the authorities of the user */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /** @return the approximate number of users whose authorities are cached */
+    public long getSize() {
+        Cache<List<String>, Set<GrantedAuthority>> result = cache;
+        return result != null ? result.estimatedSize() : 0;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+        this.cache = null;
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * Seconds the authorities of a user are cached for, 0 to disable the cache.
+     *
+     * @param ttlSeconds
+     */
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+        this.cache = null;
+    }
+
+    private Cache<List<String>, Set<GrantedAuthority>> getCache() {
+        Cache<List<String>, Set<GrantedAuthority>> result = cache;
+        if (result == null) {
+            synchronized (this) {
+                result = cache;
+                if (result == null) {
+                    result =
+                            Caffeine.newBuilder()
+                                    .maximumSize(maxSize)
+                                    .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                                    .build();
+                    cache = result;
+                }
+            }
+        }
+        return result;
+    }
+}
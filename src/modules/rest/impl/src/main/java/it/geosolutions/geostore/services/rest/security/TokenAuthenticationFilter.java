@@ -27,12 +27,13 @@
  */
 package it.geosolutions.geostore.services.rest.security;
 
-import com.google.common.base.Optional;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import jakarta.servlet.http.HttpServletRequest;
-import java.util.concurrent.ExecutionException;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -51,9 +52,12 @@ import org.springframework.security.core.context.SecurityContextHolder;
  * <p>Each implementation can verify the validity of a token (and the user bounded to it) using a
  * different methodology.
  *
- * <p>A cache is internally used to avoid continuous token testing.
+ * <p>A cache is internally used to avoid continuous token testing. Entries are refreshed in the
+ * background once half of their expiration time has passed, so that tokens in use are checked again
+ * without blocking requests; an entry is never used after its expiration time. Invalid tokens are
+ * cached for a shorter time.
  *
- * <p>Cache expiration time and size can be configured.
+ * <p>Cache expiration times and size can be configured.
  *
  * @author Mauro Bartolomeoli
  */
@@ -61,13 +65,14 @@ public abstract class TokenAuthenticationFilter extends GeoStoreAuthenticationFi
 
     private static final Logger LOGGER = LogManager.getLogger(TokenAuthenticationFilter.class);
 
-    protected LoadingCache<String, Optional<Authentication>> cache;
+    protected volatile AsyncLoadingCache<String, Optional<Authentication>> cache;
 
     private String tokenHeader = "Authorization";
     private String tokenPrefix = "Bearer ";
 
-    private int cacheSize = 1000;
-    private int cacheExpiration = 60;
+    private volatile int cacheSize = 1000;
+    private volatile int cacheExpiration = 60;
+    private volatile int negativeCacheExpiration = 10;
 
     /**
      * Header to check for token (defaults to Authorization).
@@ -97,6 +102,7 @@ public abstract class TokenAuthenticationFilter extends GeoStoreAuthenticationFi
      */
     public void setCacheSize(int cacheSize) {
         this.cacheSize = cacheSize;
+        this.cache = null;
     }
 
     /**
@@ -106,29 +112,60 @@ public abstract class TokenAuthenticationFilter extends GeoStoreAuthenticationFi
      */
     public void setCacheExpiration(int cacheExpiration) {
         this.cacheExpiration = cacheExpiration;
+        this.cache = null;
     }
 
-    protected LoadingCache<String, Optional<Authentication>> getCache() {
-        if (cache == null) {
-
-            cache =
-                    CacheBuilder.newBuilder()
-                            .maximumSize(cacheSize)
-                            .refreshAfterWrite(cacheExpiration, TimeUnit.SECONDS)
-                            .build(
-                                    new CacheLoader<String, Optional<Authentication>>() {
-                                        public Optional<Authentication> load(String token) {
-                                            return Optional.fromNullable(checkToken(token));
-                                        }
-                                    });
+    /**
+     * Expiration time of the cached invalid tokens, in seconds (defaults to 10s). It is capped to
+     * the expiration time of the valid ones.
+     *
+     * @param negativeCacheExpiration
+     */
+    public void setNegativeCacheExpiration(int negativeCacheExpiration) {
+        this.negativeCacheExpiration = negativeCacheExpiration;
+        this.cache = null;
+    }
+
+    protected AsyncLoadingCache<String, Optional<Authentication>> getCache() {
+        AsyncLoadingCache<String, Optional<Authentication>> result = cache;
+        if (result == null) {
+            synchronized (this) {
+                result = cache;
+                if (result == null) {
+                    long expiration = TimeUnit.SECONDS.toNanos(cacheExpiration);
+                    long negativeExpiration =
+                            Math.min(TimeUnit.SECONDS.toNanos(negativeCacheExpiration), expiration);
+                    result =
+                            Caffeine.newBuilder()
+                                    .maximumSize(cacheSize)
+                                    .expireAfter(new TokenExpiry(expiration, negativeExpiration))
+                                    .refreshAfterWrite(
+                                            Math.max(1, expiration / 2), TimeUnit.NANOSECONDS)
+                                    .recordStats()
+                                    .buildAsync(token -> Optional.ofNullable(checkToken(token)));
+                    cache = result;
+                }
+            }
         }
-        return cache;
+        return result;
     }
 
-    public void setCache(LoadingCache<String, Optional<Authentication>> cache) {
+    public void setCache(AsyncLoadingCache<String, Optional<Authentication>> cache) {
         this.cache = cache;
     }
 
+    /** @return the statistics of the token cache */
+    public CacheStats getCacheStats() {
+        AsyncLoadingCache<String, Optional<Authentication>> current = cache;
+        return current != null ? current.synchronous().stats() : CacheStats.empty();
+    }
+
+    /** @return the approximate number of cached tokens, valid or not */
+    public long getCachedTokenCount() {
+        AsyncLoadingCache<String, Optional<Authentication>> current = cache;
+        return current != null ? current.synchronous().estimatedSize() : 0;
+    }
+
     protected void authenticate(HttpServletRequest req) {
         String authHeader = req.getHeader(tokenHeader);
 
@@ -137,13 +174,13 @@ public abstract class TokenAuthenticationFilter extends GeoStoreAuthenticationFi
             String token = authHeader.substring(tokenPrefix.length()).trim();
             Authentication auth;
             try {
-                auth = getCache().get(token).orNull();
+                auth = getCache().get(token).join().orElse(null);
                 if (auth != null) {
                     LOGGER.info("User authenticated using token: " + auth.getName());
                     SecurityContextHolder.getContext().setAuthentication(auth);
                 }
-            } catch (ExecutionException e) {
-                LOGGER.error("Error authenticating token", e);
+            } catch (CompletionException e) {
+                LOGGER.error("Error authenticating token", e.getCause());
             }
         }
     }
@@ -156,4 +193,41 @@ public abstract class TokenAuthenticationFilter extends GeoStoreAuthenticationFi
      * @return
      */
     protected abstract Authentication checkToken(String token);
+
+    /** Keeps the valid tokens for the cache expiration time and the invalid ones for less. */
+    private static final class TokenExpiry implements Expiry<String, Optional<Authentication>> {
+
+        private final long expiration;
+
+        private final long negativeExpiration;
+
+        private TokenExpiry(long expiration, long negativeExpiration) {
+            this.expiration = expiration;
+            this.negativeExpiration = negativeExpiration;
+        }
+
+        @Override
+        public long expireAfterCreate(
+                String token, Optional<Authentication> auth, long currentTime) {
+            return auth.isPresent() ? expiration : negativeExpiration;
+        }
+
+        @Override
+        public long expireAfterUpdate(
+                String token,
+                Optional<Authentication> auth,
+                long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(token, auth, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(
+                String token,
+                Optional<Authentication> auth,
+                long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
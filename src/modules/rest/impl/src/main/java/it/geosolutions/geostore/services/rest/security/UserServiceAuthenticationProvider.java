@@ -3,6 +3,7 @@ package it.geosolutions.geostore.services.rest.security;
 import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.security.password.PwEncoder;
 import it.geosolutions.geostore.services.UserService;
+import it.geosolutions.geostore.services.VerifiedCredentialsCache;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.logging.log4j.LogManager;
@@ -35,6 +36,9 @@ public class UserServiceAuthenticationProvider implements AuthenticationProvider
 
     @Autowired UserService userService;
 
+    @Autowired(required = false)
+    VerifiedCredentialsCache verifiedCredentialsCache;
+
     @Override
     public boolean supports(Class<? extends Object> authentication) {
         return authentication.equals(UsernamePasswordAuthenticationToken.class);
@@ -48,14 +52,27 @@ public class UserServiceAuthenticationProvider implements AuthenticationProvider
         // We use the credentials for all the session in the GeoStore client
         User user = null;
         try {
-            user = userService.get(us);
             LOGGER.info("US: " + us); // + " PW: " + PwEncoder.encode(pw) + " -- " +
             // user.getPassword());
-            if (user.getPassword() == null || !PwEncoder.isPasswordValid(user.getPassword(), pw)) {
-                throw new BadCredentialsException(UNAUTHORIZED_MSG);
+            if (verifiedCredentialsCache != null) {
+                user = verifiedCredentialsCache.get(us, pw);
             }
-            if (!user.isEnabled()) {
-                throw new DisabledException(USER_NOT_FOUND_MSG);
+            if (user == null) {
+                long generation =
+                        verifiedCredentialsCache != null
+                                ? verifiedCredentialsCache.getGeneration()
+                                : 0;
+                user = userService.get(us);
+                if (user.getPassword() == null
+                        || !PwEncoder.isPasswordValid(user.getPassword(), pw)) {
+                    throw new BadCredentialsException(UNAUTHORIZED_MSG);
+                }
+                if (!user.isEnabled()) {
+                    throw new DisabledException(USER_NOT_FOUND_MSG);
+                }
+                if (verifiedCredentialsCache != null) {
+                    verifiedCredentialsCache.put(us, pw, user, generation);
+                }
             }
         } catch (Exception e) {
             LOGGER.info("Error while authenticating user", e);
@@ -77,4 +94,11 @@ public class UserServiceAuthenticationProvider implements AuthenticationProvider
 
     // GETTERS AND SETTERS
 
+    public void setUserService(UserService userService) {
+        this.userService = userService;
+    }
+
+    public void setVerifiedCredentialsCache(VerifiedCredentialsCache verifiedCredentialsCache) {
+        this.verifiedCredentialsCache = verifiedCredentialsCache;
+    }
 }
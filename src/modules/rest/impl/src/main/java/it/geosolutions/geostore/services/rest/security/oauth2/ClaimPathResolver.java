@@ -31,12 +31,12 @@ import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.Option;
 import com.jayway.jsonpath.PathNotFoundException;
+import com.jayway.jsonpath.spi.json.JsonSmartJsonProvider;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class for resolving claim values from Maps using Jayway JsonPath. Supports both legacy
@@ -45,6 +45,9 @@ import java.util.Map;
  *
  * <p>Legacy dot-notation paths are automatically converted to JsonPath by prepending {@code $.}.
  * Paths that already start with {@code $} are passed through as-is.
+ *
+ * <p>Claim paths come from the configuration, so they are compiled once and the compiled {@link
+ * JsonPath} is reused for every document.
  */
 public final class ClaimPathResolver {
 
@@ -52,6 +55,14 @@ public final class ClaimPathResolver {
             Configuration.defaultConfiguration()
                     .addOptions(Option.SUPPRESS_EXCEPTIONS, Option.DEFAULT_PATH_LEAF_TO_NULL);
 
+    private static final Configuration JSON_PATH_CONFIG_IGNORE_CASE =
+            JSON_PATH_CONFIG.jsonProvider(new IgnoreCaseJsonProvider());
+
+    /** Bound of the compiled paths cache, paths beyond it are compiled on every use. */
+    private static final int MAX_COMPILED_PATHS = 512;
+
+    private static final Map<String, JsonPath> COMPILED_PATHS = new ConcurrentHashMap<>();
+
     private ClaimPathResolver() {}
 
     /**
@@ -72,15 +83,31 @@ public final class ClaimPathResolver {
      * @return the resolved value, or {@code null} if not found
      */
     public static Object resolve(Map<String, Object> document, String path) {
+        return resolve(document, path, JSON_PATH_CONFIG);
+    }
+
+    private static Object resolve(
+            Map<String, Object> document, String path, Configuration configuration) {
         if (document == null || path == null || path.isEmpty()) return null;
-        String jsonPath = toJsonPath(path);
         try {
-            return JsonPath.using(JSON_PATH_CONFIG).parse(document).read(jsonPath);
+            return compile(path).read(document, configuration);
         } catch (PathNotFoundException e) {
             return null;
         }
     }
 
+    /** Returns the compiled JsonPath of a claim path, from the cache if present. */
+    static JsonPath compile(String path) {
+        JsonPath compiled = COMPILED_PATHS.get(path);
+        if (compiled == null) {
+            compiled = JsonPath.compile(toJsonPath(path));
+            if (COMPILED_PATHS.size() < MAX_COMPILED_PATHS) {
+                COMPILED_PATHS.putIfAbsent(path, compiled);
+            }
+        }
+        return compiled;
+    }
+
     /**
      * Resolves a claim path and coerces the result to a list of strings.
      *
@@ -94,18 +121,15 @@ public final class ClaimPathResolver {
     }
 
     /**
-     * Case-insensitive variant of {@link #resolve}. Recursively lowercases all map keys before
-     * resolving, and lowercases the path for matching.
+     * Case-insensitive variant of {@link #resolve}. Map keys are matched ignoring case, an exact
+     * match being preferred; the document is not copied.
      *
      * @param document the claims map
      * @param path the claim path (dot-notation or JsonPath)
      * @return the resolved value, or {@code null} if not found
      */
     public static Object resolveIgnoreCase(Map<String, Object> document, String path) {
-        if (document == null || path == null || path.isEmpty()) return null;
-        Map<String, Object> lowered = lowercaseKeys(document);
-        String loweredPath = lowercasePath(path);
-        return resolve(lowered, loweredPath);
+        return resolve(document, path, JSON_PATH_CONFIG_IGNORE_CASE);
     }
 
     /**
@@ -149,27 +173,22 @@ public final class ClaimPathResolver {
         return result;
     }
 
-    /** Recursively lowercases all map keys. */
-    @SuppressWarnings("unchecked")
-    private static Map<String, Object> lowercaseKeys(Map<String, Object> map) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
-            String key = entry.getKey().toLowerCase(Locale.ROOT);
-            Object val = entry.getValue();
-            if (val instanceof Map) {
-                val = lowercaseKeys((Map<String, Object>) val);
+    /** JSON provider that looks up map keys ignoring case when there is no exact match. */
+    private static final class IgnoreCaseJsonProvider extends JsonSmartJsonProvider {
+
+        @Override
+        public Object getMapValue(Object obj, String key) {
+            Map<?, ?> map = (Map<?, ?>) obj;
+            if (map.containsKey(key)) {
+                return map.get(key);
+            }
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (entry.getKey() instanceof String
+                        && key.equalsIgnoreCase((String) entry.getKey())) {
+                    return entry.getValue();
+                }
             }
-            result.put(key, val);
+            return UNDEFINED;
         }
-        return result;
-    }
-
-    /** Lowercases the path segments (not JsonPath operators). */
-    private static String lowercasePath(String path) {
-        if (path == null) return null;
-        // For JsonPath expressions, lowercase the field names but preserve operators
-        // Simple approach: lowercase the entire path, which works for dot-notation and
-        // simple JsonPath. JsonPath operators ($, ., *, [, ]) are unaffected by lowercase.
-        return path.toLowerCase(Locale.ROOT);
     }
 }
@@ -53,7 +53,7 @@ public class DiscoveryClient {
 
     public DiscoveryClient(String location) {
         setLocation(location);
-        this.restTemplate = new RestTemplate();
+        this.restTemplate = IdentityProviderHttpClient.get().restTemplate();
     }
 
     public DiscoveryClient(String location, RestTemplate restTemplate) {
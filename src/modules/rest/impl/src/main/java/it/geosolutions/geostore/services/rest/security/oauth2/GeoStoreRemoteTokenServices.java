@@ -152,7 +152,7 @@ public class GeoStoreRemoteTokenServices {
     }
 
     public static GeoStoreRemoteTokenServices defaultInstance() {
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = IdentityProviderHttpClient.get().restTemplate();
         restTemplate.setErrorHandler(
                 new DefaultResponseErrorHandler() {
                     @Override
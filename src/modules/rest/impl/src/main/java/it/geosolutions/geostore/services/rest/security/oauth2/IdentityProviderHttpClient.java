@@ -0,0 +1,137 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services.rest.security.oauth2;
+
+import it.geosolutions.geostore.services.rest.utils.GeoStoreContext;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Shared HTTP client for the calls to the identity providers: token refresh, revocation and logout,
+ * introspection, user info, discovery, JWKS and Microsoft Graph.
+ *
+ * <p>The RestTemplates built by this class share a single JDK {@link HttpClient}, which pools the
+ * connections toward the providers and keeps them alive, and apply the configured connect and read
+ * timeouts. The instance defined in the application context is used when available, so that the
+ * timeouts can be tuned in geostore-ovr.properties; otherwise a default instance is used.
+ */
+public class IdentityProviderHttpClient {
+
+    private volatile long connectTimeoutMillis = 5000;
+
+    private volatile long readTimeoutMillis = 10000;
+
+    private volatile ClientHttpRequestFactory requestFactory;
+
+    /**
+     * @return the client configured in the application context, or a default one if none is
+     *     configured
+     */
+    public static IdentityProviderHttpClient get() {
+        Map<String, IdentityProviderHttpClient> configured =
+                GeoStoreContext.beans(IdentityProviderHttpClient.class);
+        if (configured != null && !configured.isEmpty()) {
+            return configured.values().iterator().next();
+        }
+        return DefaultHolder.INSTANCE;
+    }
+
+    /** @return the pooled request factory shared by all the RestTemplates of this client */
+    public ClientHttpRequestFactory getRequestFactory() {
+        ClientHttpRequestFactory result = requestFactory;
+        if (result == null) {
+            synchronized (this) {
+                result = requestFactory;
+                if (result == null) {
+                    HttpClient httpClient =
+                            HttpClient.newBuilder()
+                                    .version(HttpClient.Version.HTTP_1_1)
+                                    .followRedirects(HttpClient.Redirect.NORMAL)
+                                    .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                                    .build();
+                    JdkClientHttpRequestFactory jdkFactory =
+                            new JdkClientHttpRequestFactory(httpClient);
+                    jdkFactory.setReadTimeout(Duration.ofMillis(readTimeoutMillis));
+                    requestFactory = result = jdkFactory;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a RestTemplate sharing the pooled connections of this client. RestTemplates are
+     * thread safe: callers should keep and reuse the returned instance.
+     *
+     * @return a new RestTemplate with the default message converters
+     */
+    public RestTemplate restTemplate() {
+        return new RestTemplate(getRequestFactory());
+    }
+
+    /**
+     * Creates a RestTemplate sharing the pooled connections of this client.
+     *
+     * @param messageConverters the message converters of the RestTemplate
+     * @return a new RestTemplate with the given message converters
+     */
+    public RestTemplate restTemplate(List<HttpMessageConverter<?>> messageConverters) {
+        RestTemplate restTemplate = new RestTemplate(messageConverters);
+        restTemplate.setRequestFactory(getRequestFactory());
+        return restTemplate;
+    }
+
+    public long getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(long connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.requestFactory = null;
+    }
+
+    public long getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public void setReadTimeoutMillis(long readTimeoutMillis) {
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.requestFactory = null;
+    }
+
+    // used when no client is configured in the application context
+    private static final class DefaultHolder {
+        private static final IdentityProviderHttpClient INSTANCE = new IdentityProviderHttpClient();
+    }
+}
@@ -1,43 +1,62 @@
 package it.geosolutions.geostore.services.rest.security.oauth2;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
 import it.geosolutions.geostore.services.rest.model.SessionToken;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Keeps the tokens handed over to the client after an IdP login until the client fetches them. Each
+ * token is removed tokenTtlSeconds after it was saved (defaults to 120s).
+ */
 public class InMemoryTokenStorage implements TokenStorage<String> {
 
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-    private final Map<String, SessionToken> sessions = new ConcurrentHashMap<>();
-    private final int cleanUpSeconds = 120;
-    private final Runnable evictionTask =
-            new Runnable() {
-                @Override
-                public void run() {
-                    for (String sessionId : sessions.keySet()) {
-                        removeTokenByIdentifier(sessionId);
-                    }
-                }
-            };
-
-    public InMemoryTokenStorage() {
-        super();
-        // schedule eviction thread
-        scheduler.scheduleAtFixedRate(
-                evictionTask, cleanUpSeconds, cleanUpSeconds, TimeUnit.SECONDS);
+    private volatile int tokenTtlSeconds = 120;
+
+    private volatile Cache<String, SessionToken> sessions = buildCache(tokenTtlSeconds);
+
+    private static Cache<String, SessionToken> buildCache(int ttlSeconds) {
+        return Caffeine.newBuilder()
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .scheduler(Scheduler.systemScheduler())
+                .recordStats()
+                .build();
+    }
+
+    public int getTokenTtlSeconds() {
+        return tokenTtlSeconds;
+    }
+
+    /**
+     * Seconds a token is kept if the client does not fetch it. Stored tokens are dropped.
+     *
+     * @param tokenTtlSeconds
+     */
+    public void setTokenTtlSeconds(int tokenTtlSeconds) {
+        this.tokenTtlSeconds = tokenTtlSeconds;
+        this.sessions = buildCache(tokenTtlSeconds);
+    }
+
+    /** @return the approximate number of stored tokens */
+    public long getSize() {
+        return sessions.estimatedSize();
+    }
+
+    /** @return the number of tokens removed because they were not fetched in time */
+    public long getEvictionCount() {
+        return sessions.stats().evictionCount();
     }
 
     @Override
     public SessionToken getTokenByIdentifier(String identifier) {
-        return sessions.get(identifier);
+        return sessions.getIfPresent(identifier);
     }
 
     @Override
     public void removeTokenByIdentifier(String identifier) {
-        sessions.remove(identifier);
+        sessions.invalidate(identifier);
     }
 
     @Override
@@ -104,6 +104,10 @@ public abstract class OAuth2GeoStoreAuthenticationFilter extends GenericFilterBe
         return configuration;
     }
 
+    public OAuth2GeoStoreAuthenticationService getAuthenticationService() {
+        return authenticationService;
+    }
+
     public void setConfiguration(OAuth2Configuration configuration) {
         this.configuration = configuration;
     }
@@ -29,6 +29,8 @@ package it.geosolutions.geostore.services.rest.security.oauth2;
 
 import static it.geosolutions.geostore.services.rest.security.oauth2.OAuth2Utils.*;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.security.password.SecurityUtils;
 import it.geosolutions.geostore.services.UserService;
@@ -48,6 +50,10 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.http.HttpEntity;
@@ -82,9 +88,25 @@ public abstract class OAuth2SessionServiceDelegate implements SessionServiceDele
     // (fixed) expiry: IdP refresh tokens only slide when a refresh grant is performed.
     private static final long REFRESH_TOKEN_EXPIRY_SAFETY_WINDOW_MILLIS = 2 * 60 * 1000;
 
+    // Successful refresh results are kept for a while, so that the requests that were sent with
+    // the old tokens before the refresh completed get the new tokens instead of starting a new
+    // refresh grant with a refresh token the IdP may have already rotated.
+    private static final long REFRESH_RESULT_RETENTION_SECONDS = 30;
+
     protected UserService userService;
     protected final String delegateName;
 
+    // In flight and recently completed refreshes, keyed by refresh token, so that concurrent
+    // refreshes of the same session send a single refresh grant to the IdP.
+    private final Cache<String, CompletableFuture<SessionToken>> refreshes =
+            Caffeine.newBuilder()
+                    .expireAfterWrite(REFRESH_RESULT_RETENTION_SECONDS, TimeUnit.SECONDS)
+                    .build();
+
+    private volatile RestTemplate refreshRestTemplate;
+
+    private volatile RestTemplate endpointRestTemplate;
+
     /**
      * @param restSessionService the session service to which register this delegate.
      * @param delegateName this delegate name eg. google or GitHub etc...
@@ -149,7 +171,7 @@ public abstract class OAuth2SessionServiceDelegate implements SessionServiceDele
         } else if (configuration != null && configuration.isEnabled()) {
             LOGGER.info("Attempting to refresh the token.");
             try {
-                sessionToken = doRefresh(refreshTokenToUse, accessToken, configuration);
+                sessionToken = singleFlightRefresh(refreshTokenToUse, accessToken, configuration);
                 if (sessionToken != null) {
                     currentToken =
                             retrieveAccessToken(
@@ -196,6 +218,69 @@ public abstract class OAuth2SessionServiceDelegate implements SessionServiceDele
         return sessionToken;
     }
 
+    /**
+     * Refreshes the tokens of a session with {@link #doRefresh(String, String,
+     * OAuth2Configuration)}, unless a refresh with the same refresh token is already in flight or
+     * has just completed: in that case its outcome is awaited and shared, so that concurrent
+     * requests of the same session send a single refresh grant to the IdP.
+     *
+     * @return a copy of the refreshed session token, or null if the refresh failed
+     */
+    protected SessionToken singleFlightRefresh(
+            String refreshToken, String accessToken, OAuth2Configuration configuration) {
+        CompletableFuture<SessionToken> refresh = new CompletableFuture<>();
+        CompletableFuture<SessionToken> existing =
+                refreshes.asMap().putIfAbsent(refreshToken, refresh);
+        if (existing != null) {
+            LOGGER.debug("A refresh of this session is already in progress; awaiting its result.");
+            SessionToken shared;
+            try {
+                shared = existing.join();
+            } catch (CompletionException | CancellationException e) {
+                shared = null;
+            }
+            if (shared != null) {
+                // the cache entry of the new token was created by the refreshing request
+                Authentication refreshed =
+                        cache() != null ? cache().get(shared.getAccessToken()) : null;
+                if (refreshed != null) {
+                    SecurityContextHolder.getContext().setAuthentication(refreshed);
+                }
+            }
+            return copy(shared);
+        }
+
+        SessionToken result = null;
+        try {
+            result = doRefresh(refreshToken, accessToken, configuration);
+            return copy(result);
+        } catch (RuntimeException e) {
+            refresh.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (result == null) {
+                // failed refreshes are not retained: a later request may try again
+                refreshes.asMap().remove(refreshToken, refresh);
+            }
+            refresh.complete(result);
+        }
+    }
+
+    // Each caller gets its own copy, since the refresh token is moved to a cookie afterwards.
+    private static SessionToken copy(SessionToken token) {
+        if (token == null) {
+            return null;
+        }
+        SessionToken copy = new SessionToken();
+        copy.setAccessToken(token.getAccessToken());
+        copy.setRefreshToken(token.getRefreshToken());
+        copy.setExpires(token.getExpires());
+        copy.setTokenType(token.getTokenType());
+        copy.setWarning(token.getWarning());
+        copy.setError(token.getError());
+        return copy;
+    }
+
     /** Reads the refresh token (if any) cached alongside the given access token. */
     private String refreshTokenFromCache(String accessToken) {
         Authentication authentication = cache() != null ? cache().get(accessToken) : null;
@@ -367,7 +452,7 @@ public abstract class OAuth2SessionServiceDelegate implements SessionServiceDele
         // Use a plain RestTemplate (with the OAuth2 token-response converter) for the refresh
         // request body shaping; this mirrors the legacy behavior where the client secret is always
         // sent on refresh, independent of any sendClientSecret toggle.
-        RestTemplate plainRestTemplate = createRefreshRestTemplate();
+        RestTemplate plainRestTemplate = refreshRestTemplate();
         HttpHeaders headers = getHttpHeaders(accessToken, configuration);
         MultiValueMap<String, String> requestBody = new LinkedMultiValueMap<>();
         requestBody.add("grant_type", "refresh_token");
@@ -710,7 +795,7 @@ public abstract class OAuth2SessionServiceDelegate implements SessionServiceDele
             OAuth2Configuration.Endpoint revokeEndpoint =
                     configuration.buildRevokeEndpoint(token, accessToken, configuration);
             if (revokeEndpoint != null) {
-                RestTemplate template = new RestTemplate();
+                RestTemplate template = endpointRestTemplate();
                 try {
                     ResponseEntity<String> responseEntity =
                             template.exchange(
@@ -734,7 +819,7 @@ public abstract class OAuth2SessionServiceDelegate implements SessionServiceDele
             OAuth2Configuration.Endpoint logoutEndpoint =
                     configuration.buildLogoutEndpoint(token, accessToken, configuration);
             if (logoutEndpoint != null) {
-                RestTemplate template = new RestTemplate();
+                RestTemplate template = endpointRestTemplate();
                 ResponseEntity<String> responseEntity =
                         template.exchange(
                                 logoutEndpoint.getUrl(),
@@ -848,15 +933,32 @@ public abstract class OAuth2SessionServiceDelegate implements SessionServiceDele
     /**
      * Creates a plain RestTemplate for token refresh requests, configured with the OAuth2 token
      * response converter so the token-endpoint JSON deserializes into an {@link
-     * OAuth2AccessTokenResponse}.
+     * OAuth2AccessTokenResponse}. The template uses the pooled {@link IdentityProviderHttpClient}
+     * and is created once per delegate.
      */
     protected RestTemplate createRefreshRestTemplate() {
-        RestTemplate restTemplate = new RestTemplate();
-        restTemplate.setMessageConverters(
-                Arrays.asList(
-                        new FormHttpMessageConverter(),
-                        new OAuth2AccessTokenResponseHttpMessageConverter()));
-        return restTemplate;
+        return IdentityProviderHttpClient.get()
+                .restTemplate(
+                        Arrays.asList(
+                                new FormHttpMessageConverter(),
+                                new OAuth2AccessTokenResponseHttpMessageConverter()));
+    }
+
+    private RestTemplate refreshRestTemplate() {
+        RestTemplate result = refreshRestTemplate;
+        if (result == null) {
+            refreshRestTemplate = result = createRefreshRestTemplate();
+        }
+        return result;
+    }
+
+    // The RestTemplate used for the revoke and logout endpoints.
+    private RestTemplate endpointRestTemplate() {
+        RestTemplate result = endpointRestTemplate;
+        if (result == null) {
+            endpointRestTemplate = result = IdentityProviderHttpClient.get().restTemplate();
+        }
+        return result;
     }
 
     @Override
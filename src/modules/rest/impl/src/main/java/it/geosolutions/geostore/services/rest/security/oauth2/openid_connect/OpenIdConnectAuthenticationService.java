@@ -35,6 +35,7 @@ import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.services.UserGroupService;
 import it.geosolutions.geostore.services.UserService;
 import it.geosolutions.geostore.services.rest.security.TokenAuthenticationCache;
+import it.geosolutions.geostore.services.rest.security.oauth2.IdentityProviderHttpClient;
 import it.geosolutions.geostore.services.rest.security.oauth2.JWTHelper;
 import it.geosolutions.geostore.services.rest.security.oauth2.OAuth2Configuration;
 import it.geosolutions.geostore.services.rest.security.oauth2.OAuth2GeoStoreAuthenticationFilter;
@@ -91,6 +92,7 @@ public class OpenIdConnectAuthenticationService extends OAuth2GeoStoreAuthentica
 
     private final OpenIdTokenValidator bearerTokenValidator;
     private final JwksRsaKeyProvider jwksKeyProvider;
+    private final RestTemplate introspectionRestTemplate;
     private volatile JweTokenDecryptor jweDecryptor;
     private volatile boolean jweDecryptorInitialized = false;
     private volatile MicrosoftGraphClient graphClient;
@@ -109,6 +111,17 @@ public class OpenIdConnectAuthenticationService extends OAuth2GeoStoreAuthentica
         super(cache, userService, userGroupService, configuration);
         this.bearerTokenValidator = bearerTokenValidator;
         this.jwksKeyProvider = jwksKeyProvider;
+        this.introspectionRestTemplate = IdentityProviderHttpClient.get().restTemplate();
+    }
+
+    /** @return the provider of the keys used to verify the JWT signatures, may be null */
+    public JwksRsaKeyProvider getJwksKeyProvider() {
+        return jwksKeyProvider;
+    }
+
+    /** @return the Microsoft Graph client, null if Graph is disabled or has not been used yet */
+    public MicrosoftGraphClient getGraphClientIfInitialized() {
+        return graphClientInitialized ? graphClient : null;
     }
 
     private OpenIdConnectConfiguration oidcConfig() {
@@ -381,8 +394,8 @@ public class OpenIdConnectAuthenticationService extends OAuth2GeoStoreAuthentica
         HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(formParams, headers);
 
         try {
-            RestTemplate rt = new RestTemplate();
-            Map<String, Object> response = rt.postForObject(introspectionUrl, request, Map.class);
+            Map<String, Object> response =
+                    introspectionRestTemplate.postForObject(introspectionUrl, request, Map.class);
             if (response == null) {
                 LOGGER.warn("OIDC: Token introspection returned null response");
                 return null;
@@ -505,31 +518,27 @@ public class OpenIdConnectAuthenticationService extends OAuth2GeoStoreAuthentica
                 Map<String, Object> enriched =
                         (userinfoMap != null) ? new HashMap<>(userinfoMap) : new HashMap<>();
 
-                if (oidcConfig.isMsGraphGroupsEnabled()
-                        && configuration.getGroupsClaim() != null
-                        && (oidcConfig.isMsGraphAlwaysResolveGroups()
-                                || isGroupsOverage(tokenString, configuration.getGroupsClaim()))) {
-                    // Either always-resolve is on, or the token signalled a groups overage.
-                    // Resolve display names via Graph and stash them under a dedicated key so
-                    // syncGroupsFromClaims (overridden below) treats them as the authoritative
-                    // source — overriding even an inline (GUID-valued) groups claim. On Graph
-                    // failure nothing is stashed and the normal claim resolution applies.
-                    List<String> graphGroups = client.fetchMemberOfGroups(accessToken);
-                    if (!graphGroups.isEmpty()) {
-                        enriched.put(MSGRAPH_RESOLVED_GROUPS_KEY, graphGroups);
-                    }
+                boolean resolveGroups =
+                        oidcConfig.isMsGraphGroupsEnabled()
+                                && configuration.getGroupsClaim() != null
+                                && (oidcConfig.isMsGraphAlwaysResolveGroups()
+                                        || isGroupsOverage(
+                                                tokenString, configuration.getGroupsClaim()));
+                boolean resolveRoles =
+                        oidcConfig.isMsGraphRolesEnabled() && configuration.getRolesClaim() != null;
+                MicrosoftGraphClient.GraphAuthorities authorities =
+                        client.fetchAuthorities(accessToken, resolveGroups, resolveRoles);
+
+                // Either always-resolve is on, or the token signalled a groups overage.
+                // Resolve display names via Graph and stash them under a dedicated key so
+                // syncGroupsFromClaims (overridden below) treats them as the authoritative
+                // source — overriding even an inline (GUID-valued) groups claim. On Graph
+                // failure nothing is stashed and the normal claim resolution applies.
+                if (!authorities.getGroups().isEmpty()) {
+                    enriched.put(MSGRAPH_RESOLVED_GROUPS_KEY, authorities.getGroups());
                 }
-
-                if (oidcConfig.isMsGraphRolesEnabled() && configuration.getRolesClaim() != null) {
-                    List<MicrosoftGraphClient.AppRoleAssignment> assignments =
-                            client.fetchAppRoleAssignments(accessToken);
-                    if (!assignments.isEmpty()) {
-                        List<String> roleNames =
-                                client.resolveAppRoleNames(accessToken, assignments);
-                        if (!roleNames.isEmpty()) {
-                            enriched.put(configuration.getRolesClaim(), roleNames);
-                        }
-                    }
+                if (!authorities.getAppRoles().isEmpty()) {
+                    enriched.put(configuration.getRolesClaim(), authorities.getAppRoles());
                 }
 
                 userinfoMap = enriched;
@@ -608,6 +617,10 @@ public class OpenIdConnectAuthenticationService extends OAuth2GeoStoreAuthentica
                     return null;
                 }
                 graphClient = new MicrosoftGraphClient(oidcConfig.getMsGraphEndpoint());
+                graphClient.setTimeoutMillis(oidcConfig.getMsGraphTimeoutMillis());
+                graphClient.setAppRolesCacheTtlSeconds(
+                        oidcConfig.getMsGraphAppRolesCacheTtlSeconds());
+                graphClient.setMaxConcurrency(oidcConfig.getMsGraphMaxConcurrency());
                 LOGGER.info(
                         "MS Graph client initialized with endpoint '{}'",
                         oidcConfig.getMsGraphEndpoint());
@@ -80,6 +80,10 @@ public class OpenIdConnectConfiguration extends OAuth2Configuration {
     // resolved even for the common case where the token carries inline group object-IDs.
     boolean msGraphAlwaysResolveGroups = false;
     boolean msGraphRolesEnabled = false;
+    // Groups and app roles are looked up concurrently; a login waits at most this long for them.
+    long msGraphTimeoutMillis = 10000;
+    long msGraphAppRolesCacheTtlSeconds = 3600;
+    int msGraphMaxConcurrency = 4;
 
     public String getJwkURI() {
         return jwkURI;
@@ -249,6 +253,30 @@ public class OpenIdConnectConfiguration extends OAuth2Configuration {
         this.msGraphRolesEnabled = msGraphRolesEnabled;
     }
 
+    public long getMsGraphTimeoutMillis() {
+        return msGraphTimeoutMillis;
+    }
+
+    public void setMsGraphTimeoutMillis(long msGraphTimeoutMillis) {
+        this.msGraphTimeoutMillis = msGraphTimeoutMillis;
+    }
+
+    public long getMsGraphAppRolesCacheTtlSeconds() {
+        return msGraphAppRolesCacheTtlSeconds;
+    }
+
+    public void setMsGraphAppRolesCacheTtlSeconds(long msGraphAppRolesCacheTtlSeconds) {
+        this.msGraphAppRolesCacheTtlSeconds = msGraphAppRolesCacheTtlSeconds;
+    }
+
+    public int getMsGraphMaxConcurrency() {
+        return msGraphMaxConcurrency;
+    }
+
+    public void setMsGraphMaxConcurrency(int msGraphMaxConcurrency) {
+        this.msGraphMaxConcurrency = msGraphMaxConcurrency;
+    }
+
     @Override
     public String buildLoginUri() {
         return super.buildLoginUri(accessType);
@@ -27,6 +27,7 @@
  */
 package it.geosolutions.geostore.services.rest.security.oauth2.openid_connect;
 
+import it.geosolutions.geostore.services.rest.security.oauth2.IdentityProviderHttpClient;
 import it.geosolutions.geostore.services.rest.security.oauth2.openid_connect.enancher.ClientSecretRequestEnhancer;
 import it.geosolutions.geostore.services.rest.security.oauth2.openid_connect.enancher.PKCERequestEnhancer;
 import jakarta.servlet.http.HttpServletRequest;
@@ -74,12 +75,11 @@ public class OpenIdConnectRestClient {
     }
 
     private static RestTemplate buildRestTemplate() {
-        RestTemplate rt = new RestTemplate();
-        rt.setMessageConverters(
-                Arrays.asList(
-                        new FormHttpMessageConverter(),
-                        new OAuth2AccessTokenResponseHttpMessageConverter()));
-        return rt;
+        return IdentityProviderHttpClient.get()
+                .restTemplate(
+                        Arrays.asList(
+                                new FormHttpMessageConverter(),
+                                new OAuth2AccessTokenResponseHttpMessageConverter()));
     }
 
     /**
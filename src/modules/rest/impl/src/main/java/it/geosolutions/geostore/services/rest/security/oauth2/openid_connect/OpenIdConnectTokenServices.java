@@ -28,13 +28,13 @@
 package it.geosolutions.geostore.services.rest.security.oauth2.openid_connect;
 
 import it.geosolutions.geostore.services.rest.security.oauth2.GeoStoreRemoteTokenServices;
+import it.geosolutions.geostore.services.rest.security.oauth2.IdentityProviderHttpClient;
 import java.util.Collections;
 import java.util.Map;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.web.client.RestTemplate;
 
 /** Calls the OIDC userinfo endpoint to resolve token claims. */
 public class OpenIdConnectTokenServices extends GeoStoreRemoteTokenServices {
@@ -44,7 +44,7 @@ public class OpenIdConnectTokenServices extends GeoStoreRemoteTokenServices {
         // userinfo/introspection claims is performed by OAuth2GeoStoreAuthenticationService using
         // the provider OAuth2Configuration. A default RestTemplate mirrors the legacy
         // RemoteTokenServices behavior (the CompositeOpenIdConnectFilter may override it).
-        super(new RestTemplate());
+        super(IdentityProviderHttpClient.get().restTemplate());
         LOGGER.info("Instantiating OpenIdConnectTokenServices with principalKey: {}", principalKey);
     }
 
@@ -29,20 +29,42 @@ package it.geosolutions.geostore.services.rest.security.oauth2.openid_connect.be
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import it.geosolutions.geostore.services.rest.security.oauth2.IdentityProviderHttpClient;
 import java.math.BigInteger;
 import java.security.KeyFactory;
 import java.security.interfaces.RSAPublicKey;
 import java.security.spec.RSAPublicKeySpec;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
 
 /**
  * Fetches and caches RSA public keys from a JWKS (JSON Web Key Set) endpoint. Used to verify JWT
  * signatures on bearer tokens in the OIDC flow.
+ *
+ * <p>Concurrent lookups of a key that is not cached share a single fetch of the key set. Once the
+ * key set is older than the lifetime advertised by the {@code Cache-Control} header of the JWKS
+ * response (bounded by {@link #setMinRefreshIntervalSeconds(long)} and {@link
+ * #setMaxRefreshIntervalSeconds(long)}), it is refreshed in the background while the current keys
+ * keep being served. Key IDs that are still unknown after a refresh are remembered for the minimum
+ * refresh interval, so that tokens carrying a bogus {@code kid} cannot make every request hit the
+ * identity provider.
  */
 public class JwksRsaKeyProvider {
 
@@ -50,12 +72,45 @@ public class JwksRsaKeyProvider {
 
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+    private static final Pattern MAX_AGE = Pattern.compile("(?:^|[,\\s])max-age\\s*=\\s*\"?(\\d+)");
+
+    /** Maximum number of unknown key IDs remembered at the same time. */
+    private static final int MAX_UNKNOWN_KIDS = 1000;
+
+    private static final ExecutorService REFRESH_EXECUTOR =
+            Executors.newCachedThreadPool(
+                    r -> {
+                        Thread thread = new Thread(r, "geostore-jwks-refresh");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+
     private final String jwksUri;
     private final RestTemplate restTemplate;
-    private final Map<String, RSAPublicKey> keyCache = new ConcurrentHashMap<>();
+    private volatile Map<String, RSAPublicKey> keyCache = Collections.emptyMap();
+
+    /** Unknown key IDs, mapped to the time (nanoTime) until which they are not looked up again. */
+    private final Map<String, Long> unknownKids = new ConcurrentHashMap<>();
+
+    private final AtomicReference<CompletableFuture<Void>> inFlight = new AtomicReference<>();
+
+    private final LongAdder refreshCount = new LongAdder();
+    private final LongAdder refreshFailureCount = new LongAdder();
+    private final LongAdder refreshTimeNanos = new LongAdder();
+    private final LongAdder negativeHitCount = new LongAdder();
+
+    private volatile boolean loaded;
+    private volatile long lastRefreshAt;
+    private volatile long nextRefreshAt;
+    private volatile long lastRefreshMillis;
+
+    private volatile long minRefreshIntervalSeconds = 30;
+    private volatile long maxRefreshIntervalSeconds = 24 * 60 * 60;
+    private volatile long defaultRefreshIntervalSeconds = 60 * 60;
+    private volatile long refreshTimeoutSeconds = 10;
 
     public JwksRsaKeyProvider(String jwksUri) {
-        this(jwksUri, new RestTemplate());
+        this(jwksUri, IdentityProviderHttpClient.get().restTemplate());
     }
 
     JwksRsaKeyProvider(String jwksUri, RestTemplate restTemplate) {
@@ -65,80 +120,275 @@ public class JwksRsaKeyProvider {
 
     /**
      * Gets the RSA public key for the given key ID. Looks up the cache first; on a miss, refreshes
-     * from the JWKS endpoint once.
+     * from the JWKS endpoint once, unless the key ID was already found to be unknown or the key set
+     * has been refreshed less than the minimum refresh interval ago.
      *
      * @param kid the key ID from the JWT header (may be null)
      * @return the matching RSAPublicKey, or null if not found
      */
     public RSAPublicKey getKey(String kid) {
-        RSAPublicKey key = keyCache.get(kid != null ? kid : "");
+        String id = kid != null ? kid : "";
+        RSAPublicKey key = keyCache.get(id);
         if (key != null) {
+            if (System.nanoTime() - nextRefreshAt >= 0) {
+                // stale key set: refresh it in the background and keep serving the current keys
+                refresh(true);
+            }
             return key;
         }
-        // Cache miss — refresh keys from the endpoint and try again
-        synchronized (this) {
-            // Double-check after acquiring the lock
-            key = keyCache.get(kid != null ? kid : "");
-            if (key != null) {
-                return key;
+
+        long now = System.nanoTime();
+        Long unknownUntil = unknownKids.get(id);
+        if (unknownUntil != null) {
+            if (now - unknownUntil < 0) {
+                negativeHitCount.increment();
+                return null;
+            }
+            unknownKids.remove(id, unknownUntil);
+        }
+
+        CompletableFuture<Void> refresh = inFlight.get();
+        if (refresh == null
+                && loaded
+                && now - lastRefreshAt < TimeUnit.SECONDS.toNanos(minRefreshIntervalSeconds)) {
+            // the key set has just been fetched, the kid is not going to show up so soon
+            rememberUnknown(id, lastRefreshAt);
+            negativeHitCount.increment();
+            return null;
+        }
+        if (refresh == null) {
+            refresh = refresh(false);
+        }
+        await(refresh);
+
+        key = keyCache.get(id);
+        if (key == null) {
+            rememberUnknown(id, System.nanoTime());
+        }
+        return key;
+    }
+
+    /** Fetches the JWKS JSON from the configured endpoint and waits for the new keys. */
+    void refreshKeys() {
+        await(refresh(false));
+    }
+
+    /**
+     * Starts a refresh of the key set, unless one is already running.
+     *
+     * @param async whether the key set should be fetched by a background thread, rather than by the
+     *     calling one
+     * @return the refresh being performed
+     */
+    private CompletableFuture<Void> refresh(boolean async) {
+        CompletableFuture<Void> refresh = new CompletableFuture<>();
+        CompletableFuture<Void> running = inFlight.compareAndExchange(null, refresh);
+        if (running != null) {
+            return running;
+        }
+        if (async) {
+            try {
+                REFRESH_EXECUTOR.execute(() -> doRefresh(refresh));
+            } catch (RuntimeException e) {
+                inFlight.set(null);
+                refresh.complete(null);
+                LOGGER.warn(
+                        "Unable to schedule the JWKS refresh of {}: {}", jwksUri, e.getMessage());
             }
-            refreshKeys();
+        } else {
+            doRefresh(refresh);
         }
-        return keyCache.get(kid != null ? kid : "");
+        return refresh;
     }
 
-    /** Fetches the JWKS JSON from the configured endpoint and parses RSA public keys. */
-    synchronized void refreshKeys() {
+    private void await(CompletableFuture<Void> refresh) {
+        try {
+            refresh.get(refreshTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            LOGGER.warn("Timed out waiting for the JWKS refresh of {}", jwksUri);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOGGER.warn("JWKS refresh of {} failed: {}", jwksUri, e.getMessage());
+        }
+    }
+
+    private void doRefresh(CompletableFuture<Void> refresh) {
+        long start = System.nanoTime();
+        boolean success = false;
+        long lifetimeSeconds = minRefreshIntervalSeconds;
         try {
             LOGGER.debug("Fetching JWKS from {}", jwksUri);
-            String jwksJson = restTemplate.getForObject(jwksUri, String.class);
+            ResponseEntity<String> response = restTemplate.getForEntity(jwksUri, String.class);
+            String jwksJson = response != null ? response.getBody() : null;
             if (jwksJson == null || jwksJson.isEmpty()) {
                 LOGGER.warn("Empty response from JWKS endpoint: {}", jwksUri);
-                return;
+            } else {
+                Map<String, RSAPublicKey> newKeys = parseKeys(jwksJson);
+                if (newKeys != null) {
+                    keyCache = Collections.unmodifiableMap(newKeys);
+                    unknownKids.keySet().removeAll(newKeys.keySet());
+                    lifetimeSeconds = getLifetimeSeconds(response.getHeaders());
+                    success = true;
+                    LOGGER.debug(
+                            "Loaded {} RSA keys from JWKS endpoint, next refresh in {}s",
+                            newKeys.size(),
+                            lifetimeSeconds);
+                }
             }
-
-            JsonNode jwks = OBJECT_MAPPER.readTree(jwksJson);
-            JsonNode keys = jwks.path("keys");
-            if (!keys.isArray()) {
-                LOGGER.warn("No 'keys' array in JWKS response from {}", jwksUri);
-                return;
+        } catch (Exception e) {
+            LOGGER.error("Failed to fetch or parse JWKS from {}: {}", jwksUri, e.getMessage(), e);
+        } finally {
+            long end = System.nanoTime();
+            refreshCount.increment();
+            refreshTimeNanos.add(end - start);
+            lastRefreshMillis = TimeUnit.NANOSECONDS.toMillis(end - start);
+            if (!success) {
+                // keep serving the previous keys, retry once the minimum interval has elapsed
+                refreshFailureCount.increment();
             }
+            lastRefreshAt = end;
+            nextRefreshAt = end + TimeUnit.SECONDS.toNanos(lifetimeSeconds);
+            loaded = true;
+            inFlight.set(null);
+            refresh.complete(null);
+        }
+    }
 
-            Map<String, RSAPublicKey> newKeys = new ConcurrentHashMap<>();
-            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+    private Map<String, RSAPublicKey> parseKeys(String jwksJson) throws Exception {
+        JsonNode jwks = OBJECT_MAPPER.readTree(jwksJson);
+        JsonNode keys = jwks.path("keys");
+        if (!keys.isArray()) {
+            LOGGER.warn("No 'keys' array in JWKS response from {}", jwksUri);
+            return null;
+        }
 
-            for (JsonNode jwk : keys) {
-                String kty = jwk.path("kty").asText();
-                String use = jwk.path("use").asText("sig");
-                if (!"RSA".equals(kty) || !"sig".equals(use)) {
-                    continue;
-                }
+        Map<String, RSAPublicKey> newKeys = new HashMap<>();
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
 
-                String kid = jwk.path("kid").asText();
-                String n = jwk.path("n").asText();
-                String e = jwk.path("e").asText();
-                if (n.isBlank() || e.isBlank()) {
-                    LOGGER.warn("JWKS key missing 'n' or 'e' field, kid={}", kid);
-                    continue;
-                }
+        for (JsonNode jwk : keys) {
+            String kty = jwk.path("kty").asText();
+            String use = jwk.path("use").asText("sig");
+            if (!"RSA".equals(kty) || !"sig".equals(use)) {
+                continue;
+            }
 
+            String kid = jwk.path("kid").asText();
+            String n = jwk.path("n").asText();
+            String e = jwk.path("e").asText();
+            if (n.isBlank() || e.isBlank()) {
+                LOGGER.warn("JWKS key missing 'n' or 'e' field, kid={}", kid);
+                continue;
+            }
+
+            try {
+                Base64.Decoder decoder = Base64.getUrlDecoder();
+                BigInteger modulus = new BigInteger(1, decoder.decode(n));
+                BigInteger exponent = new BigInteger(1, decoder.decode(e));
+                RSAPublicKeySpec spec = new RSAPublicKeySpec(modulus, exponent);
+                RSAPublicKey publicKey = (RSAPublicKey) keyFactory.generatePublic(spec);
+                newKeys.put(kid, publicKey);
+            } catch (Exception ex) {
+                LOGGER.warn("Failed to parse JWKS key with kid={}: {}", kid, ex.getMessage());
+            }
+        }
+        return newKeys;
+    }
+
+    /**
+     * Computes how long a fetched key set can be used before refreshing it, from the {@code
+     * Cache-Control} header of the JWKS response.
+     */
+    long getLifetimeSeconds(HttpHeaders headers) {
+        long lifetime = defaultRefreshIntervalSeconds;
+        String cacheControl = headers != null ? headers.getCacheControl() : null;
+        if (cacheControl != null) {
+            String directives = cacheControl.toLowerCase();
+            Matcher matcher = MAX_AGE.matcher(directives);
+            if (directives.contains("no-cache") || directives.contains("no-store")) {
+                lifetime = 0;
+            } else if (matcher.find()) {
                 try {
-                    Base64.Decoder decoder = Base64.getUrlDecoder();
-                    BigInteger modulus = new BigInteger(1, decoder.decode(n));
-                    BigInteger exponent = new BigInteger(1, decoder.decode(e));
-                    RSAPublicKeySpec spec = new RSAPublicKeySpec(modulus, exponent);
-                    RSAPublicKey publicKey = (RSAPublicKey) keyFactory.generatePublic(spec);
-                    newKeys.put(kid, publicKey);
-                } catch (Exception ex) {
-                    LOGGER.warn("Failed to parse JWKS key with kid={}: {}", kid, ex.getMessage());
+                    lifetime = Long.parseLong(matcher.group(1));
+                } catch (NumberFormatException e) {
+                    lifetime = maxRefreshIntervalSeconds;
                 }
             }
+        }
+        return Math.max(minRefreshIntervalSeconds, Math.min(maxRefreshIntervalSeconds, lifetime));
+    }
 
-            keyCache.clear();
-            keyCache.putAll(newKeys);
-            LOGGER.debug("Loaded {} RSA keys from JWKS endpoint", newKeys.size());
-        } catch (Exception e) {
-            LOGGER.error("Failed to fetch or parse JWKS from {}: {}", jwksUri, e.getMessage(), e);
+    private void rememberUnknown(String kid, long from) {
+        if (unknownKids.size() >= MAX_UNKNOWN_KIDS) {
+            unknownKids.clear();
         }
+        unknownKids.put(kid, from + TimeUnit.SECONDS.toNanos(minRefreshIntervalSeconds));
+    }
+
+    /** @return the number of fetches of the key set, successful or not */
+    public long getRefreshCount() {
+        return refreshCount.sum();
+    }
+
+    /** @return the number of fetches of the key set that failed */
+    public long getRefreshFailureCount() {
+        return refreshFailureCount.sum();
+    }
+
+    /** @return the total time spent fetching the key set, in milliseconds */
+    public long getTotalRefreshTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(refreshTimeNanos.sum());
+    }
+
+    /** @return the duration of the last fetch of the key set, in milliseconds */
+    public long getLastRefreshTimeMillis() {
+        return lastRefreshMillis;
+    }
+
+    /** @return the number of lookups answered by the unknown key IDs cache */
+    public long getNegativeHitCount() {
+        return negativeHitCount.sum();
+    }
+
+    /** @return the number of currently cached keys */
+    public int getKeyCount() {
+        return keyCache.size();
+    }
+
+    public long getMinRefreshIntervalSeconds() {
+        return minRefreshIntervalSeconds;
+    }
+
+    public void setMinRefreshIntervalSeconds(long minRefreshIntervalSeconds) {
+        this.minRefreshIntervalSeconds = minRefreshIntervalSeconds;
+    }
+
+    public long getMaxRefreshIntervalSeconds() {
+        return maxRefreshIntervalSeconds;
+    }
+
+    public void setMaxRefreshIntervalSeconds(long maxRefreshIntervalSeconds) {
+        this.maxRefreshIntervalSeconds = maxRefreshIntervalSeconds;
+    }
+
+    public long getDefaultRefreshIntervalSeconds() {
+        return defaultRefreshIntervalSeconds;
+    }
+
+    /**
+     * Sets the lifetime of the key set when the JWKS response carries no {@code Cache-Control}
+     * max-age.
+     */
+    public void setDefaultRefreshIntervalSeconds(long defaultRefreshIntervalSeconds) {
+        this.defaultRefreshIntervalSeconds = defaultRefreshIntervalSeconds;
+    }
+
+    public long getRefreshTimeoutSeconds() {
+        return refreshTimeoutSeconds;
+    }
+
+    /** Sets how long a request waits for a key set refresh started by another request. */
+    public void setRefreshTimeoutSeconds(long refreshTimeoutSeconds) {
+        this.refreshTimeoutSeconds = refreshTimeoutSeconds;
     }
 }
@@ -27,11 +27,26 @@
  */
 package it.geosolutions.geostore.services.rest.security.oauth2.openid_connect.bearer;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import it.geosolutions.geostore.services.rest.security.oauth2.IdentityProviderHttpClient;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.http.HttpEntity;
@@ -47,16 +62,34 @@ import org.springframework.web.client.RestTemplate;
  * <p>Used to resolve the Azure AD "groups overage" scenario where the JWT's {@code groups} claim is
  * replaced by {@code _claim_names}/{@code _claim_sources} metadata when a user belongs to more than
  * 200 groups.
+ *
+ * <p>App role definitions of the service principals are cached, as they seldom change, and the
+ * group and app role lookups of a login run concurrently on a small bounded pool. The latency of
+ * each kind of Graph call is recorded, see {@link #getCallStats()}.
  */
 public class MicrosoftGraphClient {
 
     private static final Logger LOGGER = LogManager.getLogger(MicrosoftGraphClient.class);
 
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
     private final String graphEndpoint;
     private final RestTemplate restTemplate;
 
+    private final Map<String, CallStats> callStats = new ConcurrentHashMap<>();
+
+    private volatile long appRolesCacheTtlSeconds = 3600;
+
+    private volatile long timeoutMillis = 10000;
+
+    private volatile int maxConcurrency = 4;
+
+    private volatile Cache<String, Map<String, String>> appRolesCache;
+
+    private volatile ExecutorService executor;
+
     public MicrosoftGraphClient(String graphEndpoint) {
-        this(graphEndpoint, new RestTemplate());
+        this(graphEndpoint, IdentityProviderHttpClient.get().restTemplate());
     }
 
     public MicrosoftGraphClient(String graphEndpoint, RestTemplate restTemplate) {
@@ -83,7 +116,8 @@ public class MicrosoftGraphClient {
 
         try {
             String url = graphEndpoint + "/me/memberOf?$select=displayName,@odata.type";
-            List<Map<String, Object>> allValues = fetchAllPages(url, accessToken);
+            List<Map<String, Object>> allValues =
+                    timed("memberOf", () -> fetchAllPages(url, accessToken));
 
             List<String> groups = new ArrayList<>();
             for (Map<String, Object> entry : allValues) {
@@ -121,7 +155,8 @@ public class MicrosoftGraphClient {
 
         try {
             String url = graphEndpoint + "/me/appRoleAssignments";
-            List<Map<String, Object>> allValues = fetchAllPages(url, accessToken);
+            List<Map<String, Object>> allValues =
+                    timed("appRoleAssignments", () -> fetchAllPages(url, accessToken));
 
             List<AppRoleAssignment> assignments = new ArrayList<>();
             for (Map<String, Object> entry : allValues) {
@@ -145,8 +180,8 @@ public class MicrosoftGraphClient {
 
     /**
      * Resolves app role assignment GUIDs to human-readable role names. Groups assignments by {@code
-     * resourceId}, then calls {@code GET /servicePrincipals/{id}/appRoles} for each unique resource
-     * to map GUIDs to {@code value} strings.
+     * resourceId}, then maps GUIDs to {@code value} strings with the app roles of each unique
+     * resource, fetched with {@code GET /servicePrincipals/{id}/appRoles} unless already cached.
      *
      * @param accessToken the OAuth2 access token.
      * @param assignments the app role assignments to resolve.
@@ -176,18 +211,7 @@ public class MicrosoftGraphClient {
                 String resourceId = entry.getKey();
                 List<String> roleIds = entry.getValue();
 
-                String url = graphEndpoint + "/servicePrincipals/" + resourceId + "/appRoles";
-                List<Map<String, Object>> appRoles = fetchAllPages(url, accessToken);
-
-                // Build GUID -> value map
-                Map<String, String> guidToValue = new LinkedHashMap<>();
-                for (Map<String, Object> role : appRoles) {
-                    Object id = role.get("id");
-                    Object value = role.get("value");
-                    if (id != null && value != null && !value.toString().isEmpty()) {
-                        guidToValue.put(id.toString(), value.toString());
-                    }
-                }
+                Map<String, String> guidToValue = getAppRoles(resourceId, accessToken);
 
                 // Resolve each assignment's appRoleId
                 for (String roleId : roleIds) {
@@ -206,6 +230,208 @@ public class MicrosoftGraphClient {
         }
     }
 
+    /**
+     * Fetches the group display names and the app role names of the authenticated user. When both
+     * are requested, the group lookup runs on the pool of this client while the app roles are
+     * resolved on the calling thread; groups not fetched within the configured timeout are skipped.
+     *
+     * @param accessToken the OAuth2 access token.
+     * @param groups whether to fetch the groups, see {@link #fetchMemberOfGroups(String)}.
+     * @param appRoles whether to fetch the app role names, see {@link
+     *     #fetchAppRoleAssignments(String)} and {@link #resolveAppRoleNames(String, List)}.
+     * @return the groups and app role names, empty on error.
+     */
+    public GraphAuthorities fetchAuthorities(String accessToken, boolean groups, boolean appRoles) {
+        if (!groups || !appRoles) {
+            return new GraphAuthorities(
+                    groups ? fetchMemberOfGroups(accessToken) : Collections.emptyList(),
+                    appRoles ? fetchAppRoleNames(accessToken) : Collections.emptyList());
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Future<List<String>> groupsLookup =
+                getExecutor().submit(() -> fetchMemberOfGroups(accessToken));
+        List<String> roleNames = fetchAppRoleNames(accessToken);
+        List<String> groupNames;
+        try {
+            groupNames =
+                    groupsLookup.get(
+                            Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            groupsLookup.cancel(true);
+            LOGGER.warn("MS Graph: group resolution timed out after {} ms", timeoutMillis);
+            groupNames = Collections.emptyList();
+        } catch (InterruptedException e) {
+            groupsLookup.cancel(true);
+            Thread.currentThread().interrupt();
+            groupNames = Collections.emptyList();
+        } catch (ExecutionException e) {
+            LOGGER.warn("MS Graph: group resolution failed: {}", e.getMessage(), e);
+            groupNames = Collections.emptyList();
+        }
+        return new GraphAuthorities(groupNames, roleNames);
+    }
+
+    private List<String> fetchAppRoleNames(String accessToken) {
+        List<AppRoleAssignment> assignments = fetchAppRoleAssignments(accessToken);
+        if (assignments.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return resolveAppRoleNames(accessToken, assignments);
+    }
+
+    /** Returns the app role GUID to value map of a service principal, from the cache if present. */
+    private Map<String, String> getAppRoles(String resourceId, String accessToken) {
+        return getAppRolesCache()
+                .get(
+                        resourceId,
+                        id -> {
+                            String url = graphEndpoint + "/servicePrincipals/" + id + "/appRoles";
+                            List<Map<String, Object>> appRoles =
+                                    timed("appRoles", () -> fetchAllPages(url, accessToken));
+
+                            // Build GUID -> value map
+                            Map<String, String> guidToValue = new LinkedHashMap<>();
+                            for (Map<String, Object> role : appRoles) {
+                                Object roleId = role.get("id");
+                                Object value = role.get("value");
+                                if (roleId != null
+                                        && value != null
+                                        && !value.toString().isEmpty()) {
+                                    guidToValue.put(roleId.toString(), value.toString());
+                                }
+                            }
+                            return Collections.unmodifiableMap(guidToValue);
+                        });
+    }
+
+    private <T> T timed(String call, Supplier<T> request) {
+        CallStats stats = callStats.computeIfAbsent(call, k -> new CallStats());
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = request.get();
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            stats.record(elapsed, failed);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(
+                        "MS Graph: {} call took {} ms",
+                        call,
+                        TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+        }
+    }
+
+    /**
+     * @return the latency statistics of the Graph calls made by this client, by kind of call
+     *     ({@code memberOf}, {@code appRoleAssignments}, {@code appRoles})
+     */
+    public Map<String, CallStats> getCallStats() {
+        return Collections.unmodifiableMap(callStats);
+    }
+
+    /** Removes the cached app role definitions, so that they are fetched again. */
+    public void invalidateAppRoles() {
+        Cache<String, Map<String, String>> cache = appRolesCache;
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public long getAppRolesCacheTtlSeconds() {
+        return appRolesCacheTtlSeconds;
+    }
+
+    /**
+     * Seconds the app role definitions of a service principal are cached for.
+     *
+     * @param appRolesCacheTtlSeconds
+     */
+    public void setAppRolesCacheTtlSeconds(long appRolesCacheTtlSeconds) {
+        this.appRolesCacheTtlSeconds = appRolesCacheTtlSeconds;
+        this.appRolesCache = null;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Maximum time a login waits for the concurrent group lookup.
+     *
+     * @param timeoutMillis
+     */
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Maximum number of concurrent lookups run in the background. When the pool and its queue are
+     * full, lookups run on the calling thread. Must be set before the first login.
+     *
+     * @param maxConcurrency
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    private Cache<String, Map<String, String>> getAppRolesCache() {
+        Cache<String, Map<String, String>> result = appRolesCache;
+        if (result == null) {
+            synchronized (this) {
+                result = appRolesCache;
+                if (result == null) {
+                    result =
+                            Caffeine.newBuilder()
+                                    .maximumSize(1000)
+                                    .expireAfterWrite(appRolesCacheTtlSeconds, TimeUnit.SECONDS)
+                                    .build();
+                    appRolesCache = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private ExecutorService getExecutor() {
+        ExecutorService result = executor;
+        if (result == null) {
+            synchronized (this) {
+                result = executor;
+                if (result == null) {
+                    int threads = Math.max(1, maxConcurrency);
+                    ThreadPoolExecutor pool =
+                            new ThreadPoolExecutor(
+                                    threads,
+                                    threads,
+                                    60,
+                                    TimeUnit.SECONDS,
+                                    new ArrayBlockingQueue<>(threads * 16),
+                                    r -> {
+                                        Thread thread =
+                                                new Thread(
+                                                        r,
+                                                        "geostore-msgraph-"
+                                                                + THREAD_COUNT.incrementAndGet());
+                                        thread.setDaemon(true);
+                                        return thread;
+                                    },
+                                    new ThreadPoolExecutor.CallerRunsPolicy());
+                    pool.allowCoreThreadTimeOut(true);
+                    executor = result = pool;
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Fetches all pages of an OData collection, following {@code @odata.nextLink} pagination.
      *
@@ -259,4 +485,56 @@ public class MicrosoftGraphClient {
             return resourceId;
         }
     }
+
+    /** Group display names and app role names of a user. */
+    public static class GraphAuthorities {
+        private final List<String> groups;
+        private final List<String> appRoles;
+
+        public GraphAuthorities(List<String> groups, List<String> appRoles) {
+            this.groups = groups;
+            this.appRoles = appRoles;
+        }
+
+        public List<String> getGroups() {
+            return groups;
+        }
+
+        public List<String> getAppRoles() {
+            return appRoles;
+        }
+    }
+
+    /** Number, failures and latency of the Graph calls of one kind. */
+    public static class CallStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failureCount = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos, boolean failed) {
+            count.increment();
+            if (failed) {
+                failureCount.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getFailureCount() {
+            return failureCount.sum();
+        }
+
+        public long getTotalMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+        }
+
+        public long getMaxMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+        }
+    }
 }
@@ -0,0 +1,112 @@
+package it.geosolutions.geostore.services.rest.utils;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.apache.cxf.jaxrs.impl.MetadataMap;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+
+/**
+ * Attach to the response the header CacheControl.
+ *
+ * <p>The value of the header is the {@link #setDefaultPolicy(String) default policy} (<code>
+ * no-cache</code>, along with <code>Expires: -1</code>), unless the request URI matches one of the
+ * regular expressions of the {@link #setPolicies(Map) per endpoint policies}. When the service
+ * recorded the validators of the response (see {@link ConditionalGet}), the <code>ETag</code>,
+ * <code>Last-Modified</code> and <code>Vary</code> headers are attached as well, so that clients
+ * can revalidate their copy with a conditional GET.
+ *
+ * @author Lorenzo Natali, GeoSolutions SAS
+ */
+@SuppressWarnings("PMD.CloseResource")
+public class CacheControlOutInterceptor extends AbstractPhaseInterceptor<Message> {
+
+    public static final String DEFAULT_POLICY = "no-cache";
+
+    private String defaultPolicy = DEFAULT_POLICY;
+
+    private Map<Pattern, String> policies = new LinkedHashMap<>();
+
+    public CacheControlOutInterceptor() {
+        super(Phase.MARSHAL);
+    }
+
+    @SuppressWarnings("unchecked")
+    public final void handleMessage(Message message) {
+        OutputStream os = message.getContent(OutputStream.class);
+        if (os == null && !isNotModified(message)) {
+            return;
+        }
+        MultivaluedMap<String, Object> headers =
+                (MetadataMap<String, Object>) message.get(Message.PROTOCOL_HEADERS);
+        if (headers == null) {
+            headers = new MetadataMap<String, Object>();
+        }
+        String policy = getPolicy(message);
+        headers.add("Cache-Control", policy);
+        if (!policy.contains("max-age")) {
+            headers.add("Expires", "-1");
+        }
+
+        Exchange exchange = message.getExchange();
+        ConditionalGet.Validators validators =
+                exchange != null
+                        ? (ConditionalGet.Validators) exchange.get(ConditionalGet.VALIDATORS_KEY)
+                        : null;
+        if (validators != null && !headers.containsKey(HttpHeaders.ETAG)) {
+            headers.add(HttpHeaders.ETAG, validators.getEtag().toString());
+            headers.add(HttpHeaders.LAST_MODIFIED, validators.getLastModifiedHeader());
+            headers.add(HttpHeaders.VARY, ConditionalGet.VARY);
+        }
+        message.put(Message.PROTOCOL_HEADERS, headers);
+    }
+
+    /** A 304 has no body, but must carry the same caching headers as the full response. */
+    private static boolean isNotModified(Message message) {
+        Object code = message.get(Message.RESPONSE_CODE);
+        return code instanceof Integer && (Integer) code == 304;
+    }
+
+    private String getPolicy(Message message) {
+        if (!policies.isEmpty()) {
+            Message request =
+                    message.getExchange() != null ? message.getExchange().getInMessage() : null;
+            Object uri = request != null ? request.get(Message.REQUEST_URI) : null;
+            if (uri != null) {
+                for (Map.Entry<Pattern, String> entry : policies.entrySet()) {
+                    if (entry.getKey().matcher(uri.toString()).find()) {
+                        return entry.getValue();
+                    }
+                }
+            }
+        }
+        return defaultPolicy;
+    }
+
+    public String getDefaultPolicy() {
+        return defaultPolicy;
+    }
+
+    /** @param defaultPolicy the Cache-Control value of the responses not matching any policy */
+    public void setDefaultPolicy(String defaultPolicy) {
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    /**
+     * @param policies the Cache-Control values, keyed by a regular expression searched in the
+     *     request URI; the first matching entry wins
+     */
+    public void setPolicies(Map<String, String> policies) {
+        Map<Pattern, String> compiled = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : policies.entrySet()) {
+            compiled.put(Pattern.compile(entry.getKey()), entry.getValue());
+        }
+        this.policies = compiled;
+    }
+}
@@ -0,0 +1,198 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services.rest.utils;
+
+import it.geosolutions.geostore.core.model.Resource;
+import it.geosolutions.geostore.core.model.User;
+import it.geosolutions.geostore.core.model.UserGroup;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.cxf.jaxrs.impl.RequestImpl;
+import org.apache.cxf.jaxrs.utils.HttpUtils;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+
+/**
+ * Conditional GET support for the representations of a resource.
+ *
+ * <p>The validators are derived from the resource metadata only, so that a request carrying an up
+ * to date <code>If-None-Match</code> or <code>If-Modified-Since</code> header is answered with a
+ * 304 Not Modified before the payload is loaded. The strong ETag is a digest of the resource id,
+ * its last update date, the requested variant, the <code>Accept</code> header and the identity of
+ * the authenticated user, since the representation (e.g. the permission flags) depends on who is
+ * asking.
+ *
+ * <p>The validators are kept in the CXF exchange, and are written as response headers by the {@link
+ * CacheControlOutInterceptor} together with the <code>Cache-Control</code> policy, both on the full
+ * and on the 304 responses.
+ */
+public final class ConditionalGet {
+
+    /** Key of the {@link Validators} of the current response in the CXF exchange. */
+    public static final String VALIDATORS_KEY = ConditionalGet.class.getName() + ".validators";
+
+    /** Headers the conditional representations vary on. */
+    public static final String VARY = "Accept, Authorization, Cookie";
+
+    private ConditionalGet() {}
+
+    /**
+     * Evaluates the conditional headers of the current request against the given resource.
+     *
+     * @param resource the resource being read, which must already be readable by the user
+     * @param user the authenticated user
+     * @param variant an identifier of the requested representation (e.g. a query flag), may be null
+     * @throws WebApplicationException with a 304 Not Modified response if the copy of the client is
+     *     still current
+     */
+    public static void evaluate(Resource resource, User user, String variant) {
+        evaluate(PhaseInterceptorChain.getCurrentMessage(), resource, user, variant);
+    }
+
+    /**
+     * Evaluates the conditional headers of a request against the given resource.
+     *
+     * @param message the CXF request message, if null nothing is evaluated
+     * @param resource the resource being read, which must already be readable by the user
+     * @param user the authenticated user
+     * @param variant an identifier of the requested representation, may be null
+     * @throws WebApplicationException with a 304 Not Modified response if the copy of the client is
+     *     still current
+     */
+    public static void evaluate(Message message, Resource resource, User user, String variant) {
+        if (message == null || resource == null) {
+            return;
+        }
+        Date modified =
+                resource.getLastUpdate() != null
+                        ? resource.getLastUpdate()
+                        : resource.getCreation();
+        if (modified == null) {
+            return;
+        }
+        // HTTP dates have a precision of one second
+        Date lastModified = new Date(modified.getTime() / 1000 * 1000);
+        EntityTag etag =
+                new EntityTag(
+                        digest(
+                                resource.getId(),
+                                modified.getTime(),
+                                variant,
+                                acceptHeader(message),
+                                user));
+
+        if (message.getExchange() != null) {
+            message.getExchange().put(VALIDATORS_KEY, new Validators(etag, lastModified));
+        }
+        Response.ResponseBuilder notModified =
+                new RequestImpl(message).evaluatePreconditions(lastModified, etag);
+        if (notModified != null) {
+            // a 304 carries the same validators as the full response (RFC 9110, 15.4.5)
+            throw new WebApplicationException(
+                    notModified
+                            .tag(etag)
+                            .lastModified(lastModified)
+                            .header(HttpHeaders.VARY, VARY)
+                            .build());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String acceptHeader(Message message) {
+        Map<String, List<String>> headers =
+                (Map<String, List<String>>) message.get(Message.PROTOCOL_HEADERS);
+        if (headers != null) {
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                if (HttpHeaders.ACCEPT.equalsIgnoreCase(header.getKey())) {
+                    return String.valueOf(header.getValue());
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String digest(Long id, long modified, String variant, String accept, User user) {
+        StringBuilder key = new StringBuilder();
+        key.append(id).append('|').append(modified).append('|').append(variant);
+        key.append('|').append(accept);
+        if (user != null) {
+            key.append('|').append(user.getId()).append('|').append(user.getName());
+            key.append('|').append(user.getRole());
+            if (user.getGroups() != null) {
+                TreeSet<Long> groups = new TreeSet<>();
+                for (UserGroup group : user.getGroups()) {
+                    groups.add(group.getId());
+                }
+                key.append('|').append(groups);
+            }
+        }
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return Hex.encodeHexString(hash).substring(0, 32);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to compute the entity tag", e);
+        }
+    }
+
+    /** Validators of a representation, written as response headers. */
+    public static final class Validators {
+
+        private final EntityTag etag;
+
+        private final Date lastModified;
+
+        Validators(EntityTag etag, Date lastModified) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public EntityTag getEtag() {
+            return etag;
+        }
+
+        public Date getLastModified() {
+            return lastModified;
+        }
+
+        /** @return the value of the Last-Modified header */
+        public String getLastModifiedHeader() {
+            return HttpUtils.toHttpDate(lastModified);
+        }
+    }
+}
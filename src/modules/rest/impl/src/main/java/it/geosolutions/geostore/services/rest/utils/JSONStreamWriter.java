@@ -0,0 +1,496 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services.rest.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.codehaus.jettison.mapped.TypeConverter;
+
+/**
+ * {@link XMLStreamWriter} turning the events of a JAXB marshaller into JSON, written through a
+ * Jackson {@link JsonGenerator} as they arrive.
+ *
+ * <p>The JSON follows the Jettison mapped convention used by the CXF JSONProvider: the document is
+ * wrapped in an object keyed by the root element name, attributes are prefixed with <code>@</code>,
+ * the text of an element with attributes goes in <code>$</code>, leaf values are typed by the
+ * Jettison {@link TypeConverter}, and repeated sibling elements become an array while a single
+ * element is written as a plain value.
+ *
+ * <p>Since whether an element is repeated is only known when its next sibling starts, the first
+ * element of each run of siblings is recorded and replayed once that is known; all the following
+ * siblings are streamed directly. The memory used is therefore bounded by the size of a single item
+ * rather than by the size of the whole document.
+ */
+class JSONStreamWriter implements XMLStreamWriter {
+
+    private static final String XSI_PREFIX = "xsi";
+
+    private final JsonGenerator generator;
+
+    private final TypeConverter typeConverter;
+
+    private final boolean dropRootElement;
+
+    private final boolean writeXsiType;
+
+    private final Deque<Element> stack = new ArrayDeque<>();
+
+    /** events of the first element of the current sibling run, while it is being recorded */
+    private List<Event> recording;
+
+    private int recordingDepth;
+
+    /** the last started element has been written with writeEmptyElement */
+    private boolean pendingEmptyEnd;
+
+    private boolean documentEnded;
+
+    JSONStreamWriter(
+            JsonGenerator generator,
+            TypeConverter typeConverter,
+            boolean dropRootElement,
+            boolean writeXsiType) {
+        this.generator = generator;
+        this.typeConverter = typeConverter;
+        this.dropRootElement = dropRootElement;
+        this.writeXsiType = writeXsiType;
+    }
+
+    @Override
+    public void writeStartElement(String localName) throws XMLStreamException {
+        closePendingEmpty();
+        onEvent(Event.start(localName));
+    }
+
+    @Override
+    public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+        writeStartElement(localName);
+    }
+
+    @Override
+    public void writeStartElement(String prefix, String localName, String namespaceURI)
+            throws XMLStreamException {
+        writeStartElement(localName);
+    }
+
+    @Override
+    public void writeEmptyElement(String localName) throws XMLStreamException {
+        writeStartElement(localName);
+        pendingEmptyEnd = true;
+    }
+
+    @Override
+    public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+        writeEmptyElement(localName);
+    }
+
+    @Override
+    public void writeEmptyElement(String prefix, String localName, String namespaceURI)
+            throws XMLStreamException {
+        writeEmptyElement(localName);
+    }
+
+    @Override
+    public void writeEndElement() throws XMLStreamException {
+        closePendingEmpty();
+        onEvent(Event.END_EVENT);
+    }
+
+    @Override
+    public void writeAttribute(String localName, String value) throws XMLStreamException {
+        onEvent(Event.attribute("@" + localName, value));
+    }
+
+    @Override
+    public void writeAttribute(String prefix, String namespaceURI, String localName, String value)
+            throws XMLStreamException {
+        if (XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI.equals(namespaceURI)) {
+            if (writeXsiType) {
+                onEvent(Event.attribute("@" + XSI_PREFIX + "." + localName, value));
+            }
+        } else {
+            writeAttribute(localName, value);
+        }
+    }
+
+    @Override
+    public void writeAttribute(String namespaceURI, String localName, String value)
+            throws XMLStreamException {
+        writeAttribute(null, namespaceURI, localName, value);
+    }
+
+    @Override
+    public void writeCharacters(String text) throws XMLStreamException {
+        closePendingEmpty();
+        onEvent(Event.text(text));
+    }
+
+    @Override
+    public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+        writeCharacters(new String(text, start, len));
+    }
+
+    @Override
+    public void writeCData(String data) throws XMLStreamException {
+        writeCharacters(data);
+    }
+
+    @Override
+    public void writeEndDocument() throws XMLStreamException {
+        closePendingEmpty();
+        while (!stack.isEmpty() || recording != null) {
+            onEvent(Event.END_EVENT);
+        }
+        if (!documentEnded) {
+            documentEnded = true;
+            flush();
+        }
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        writeEndDocument();
+        try {
+            generator.close();
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
+    }
+
+    @Override
+    public void flush() throws XMLStreamException {
+        try {
+            generator.flush();
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
+    }
+
+    private void closePendingEmpty() throws XMLStreamException {
+        if (pendingEmptyEnd) {
+            pendingEmptyEnd = false;
+            onEvent(Event.END_EVENT);
+        }
+    }
+
+    private void onEvent(Event event) throws XMLStreamException {
+        if (recording != null) {
+            recording.add(event);
+            if (event.type == Event.START) {
+                recordingDepth++;
+            } else if (event.type == Event.END && --recordingDepth == 0) {
+                stack.peek().pending = recording;
+                recording = null;
+            }
+            return;
+        }
+        try {
+            process(event);
+        } catch (IOException e) {
+            throw new XMLStreamException(e);
+        }
+    }
+
+    private void process(Event event) throws IOException, XMLStreamException {
+        Element current = stack.peek();
+        switch (event.type) {
+            case Event.START:
+                if (current == null) {
+                    if (documentEnded) {
+                        throw new XMLStreamException("The document has already been written");
+                    }
+                    if (!dropRootElement) {
+                        generator.writeStartObject();
+                        generator.writeFieldName(event.name);
+                    }
+                    stack.push(new Element());
+                } else {
+                    openObject(current);
+                    if (event.name.equals(current.runName)) {
+                        if (current.runCount == 1) {
+                            generator.writeFieldName(current.runName);
+                            generator.writeStartArray();
+                            replay(current);
+                        }
+                        current.runCount++;
+                        stack.push(new Element());
+                    } else {
+                        closeRun(current);
+                        current.runName = event.name;
+                        current.runCount = 1;
+                        recording = new ArrayList<>();
+                        recording.add(event);
+                        recordingDepth = 1;
+                    }
+                }
+                break;
+            case Event.ATTRIBUTE:
+                if (current == null) {
+                    throw new XMLStreamException("Attribute written outside of an element");
+                }
+                if (current.attributes == null) {
+                    current.attributes = new ArrayList<>();
+                }
+                current.attributes.add(event);
+                break;
+            case Event.TEXT:
+                if (current != null) {
+                    if (current.text == null) {
+                        current.text = new StringBuilder();
+                    }
+                    current.text.append(event.value);
+                }
+                break;
+            default:
+                if (current == null) {
+                    return;
+                }
+                // the element stays on the stack while the pending children are replayed
+                writeValue(current);
+                stack.pop();
+                if (stack.isEmpty() && !dropRootElement) {
+                    generator.writeEndObject();
+                }
+        }
+    }
+
+    /** Writes the value of an element which has been completely received. */
+    private void writeValue(Element element) throws IOException, XMLStreamException {
+        String text = element.text != null ? element.text.toString() : "";
+        if (element.open) {
+            closeRun(element);
+            if (!text.isBlank()) {
+                generator.writeFieldName("$");
+                writePrimitive(text);
+            }
+            generator.writeEndObject();
+        } else if (element.attributes != null) {
+            openObject(element);
+            if (!text.isEmpty()) {
+                generator.writeFieldName("$");
+                writePrimitive(text);
+            }
+            generator.writeEndObject();
+        } else {
+            writePrimitive(text);
+        }
+    }
+
+    /** Writes the start of an element that turned out to have attributes or children. */
+    private void openObject(Element element) throws IOException {
+        if (element.open) {
+            return;
+        }
+        element.open = true;
+        generator.writeStartObject();
+        if (element.attributes != null) {
+            for (Event attribute : element.attributes) {
+                generator.writeFieldName(attribute.name);
+                writePrimitive(attribute.value);
+            }
+        }
+    }
+
+    /** Completes the current run of same named children of an element. */
+    private void closeRun(Element element) throws IOException, XMLStreamException {
+        if (element.runName == null) {
+            return;
+        }
+        if (element.runCount == 1) {
+            generator.writeFieldName(element.runName);
+            replay(element);
+        } else {
+            generator.writeEndArray();
+        }
+        element.runName = null;
+        element.runCount = 0;
+    }
+
+    /** Writes the recorded first element of the current run of children of an element. */
+    private void replay(Element parent) throws IOException, XMLStreamException {
+        List<Event> events = parent.pending;
+        parent.pending = null;
+        if (events == null) {
+            return;
+        }
+        Iterator<Event> iterator = events.iterator();
+        // the recorded element itself has already been assigned to the run
+        iterator.next();
+        stack.push(new Element());
+        while (iterator.hasNext()) {
+            onEvent(iterator.next());
+        }
+    }
+
+    private void writePrimitive(String text) throws IOException {
+        Object value = typeConverter.convertToJSONPrimitive(text);
+        if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer || value instanceof Long) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof Double) {
+            generator.writeNumber(numberToString((Double) value));
+        } else if (value instanceof Number) {
+            generator.writeNumber(value.toString());
+        } else {
+            generator.writeString(value != null ? value.toString() : text);
+        }
+    }
+
+    /** Formats a double the way Jettison does, dropping the trailing zeros of the fraction. */
+    private static String numberToString(Double value) {
+        String string = value.toString();
+        if (string.indexOf('.') > 0 && string.indexOf('e') < 0 && string.indexOf('E') < 0) {
+            while (string.endsWith("0")) {
+                string = string.substring(0, string.length() - 1);
+            }
+            if (string.endsWith(".")) {
+                string = string.substring(0, string.length() - 1);
+            }
+        }
+        return string;
+    }
+
+    @Override
+    public void writeStartDocument() {}
+
+    @Override
+    public void writeStartDocument(String version) {}
+
+    @Override
+    public void writeStartDocument(String encoding, String version) {}
+
+    @Override
+    public void writeNamespace(String prefix, String namespaceURI) {}
+
+    @Override
+    public void writeDefaultNamespace(String namespaceURI) {}
+
+    @Override
+    public void writeComment(String data) {}
+
+    @Override
+    public void writeProcessingInstruction(String target) {}
+
+    @Override
+    public void writeProcessingInstruction(String target, String data) {}
+
+    @Override
+    public void writeDTD(String dtd) {}
+
+    @Override
+    public void writeEntityRef(String name) {}
+
+    @Override
+    public String getPrefix(String uri) {
+        return XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI.equals(uri) ? XSI_PREFIX : null;
+    }
+
+    @Override
+    public void setPrefix(String prefix, String uri) {}
+
+    @Override
+    public void setDefaultNamespace(String uri) {}
+
+    @Override
+    public void setNamespaceContext(NamespaceContext context) {}
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return null;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        throw new IllegalArgumentException("Unsupported property " + name);
+    }
+
+    private static final class Element {
+
+        private List<Event> attributes;
+
+        private StringBuilder text;
+
+        /** the JSON object of the element has been started */
+        private boolean open;
+
+        /** name and length of the current run of same named children */
+        private String runName;
+
+        private int runCount;
+
+        /** the first child of the current run, until it is known whether the run is an array */
+        private List<Event> pending;
+    }
+
+    private static final class Event {
+
+        private static final int START = 0;
+
+        private static final int ATTRIBUTE = 1;
+
+        private static final int TEXT = 2;
+
+        private static final int END = 3;
+
+        private static final Event END_EVENT = new Event(END, null, null);
+
+        private final int type;
+
+        private final String name;
+
+        private final String value;
+
+        private Event(int type, String name, String value) {
+            this.type = type;
+            this.name = name;
+            this.value = value;
+        }
+
+        private static Event start(String name) {
+            return new Event(START, name, null);
+        }
+
+        private static Event attribute(String name, String value) {
+            return new Event(ATTRIBUTE, name, value);
+        }
+
+        private static Event text(String value) {
+            return new Event(TEXT, null, value);
+        }
+    }
+}
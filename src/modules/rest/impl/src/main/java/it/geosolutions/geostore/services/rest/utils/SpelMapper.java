@@ -1,38 +1,50 @@
 package it.geosolutions.geostore.services.rest.utils;
 
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
+/**
+ * Maps group names with a SpEL expression evaluated against a {@link Context} holding the name.
+ *
+ * <p>The expression is parsed once, when the mapper is created, and compiled to bytecode by the
+ * SpEL compiler (in mixed mode) once it has been evaluated often enough. The evaluation context
+ * holds no state and is shared by the concurrent transformations.
+ */
 public class SpelMapper implements GroupMapper {
-    private final String expression;
-    private final SpelExpressionParser parser = new SpelExpressionParser();
+
+    private static final SpelExpressionParser PARSER =
+            new SpelExpressionParser(
+                    new SpelParserConfiguration(
+                            SpelCompilerMode.MIXED, SpelMapper.class.getClassLoader()));
+
+    private final Expression expression;
+
+    private final StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
 
     public SpelMapper(String expression) {
-        this.expression = expression;
+        this.expression = PARSER.parseExpression(expression);
     }
 
     @Override
     public String transform(String groupName) {
-        Context context = new Context(groupName);
-        Expression exp = parser.parseExpression(expression);
-        StandardEvaluationContext evaluationContext = new StandardEvaluationContext(context);
-        return exp.getValue(evaluationContext, String.class);
+        return expression.getValue(evaluationContext, new Context(groupName), String.class);
     }
 
-    private class Context {
+    /** Root object of the expression; public so that the compiled expression can access it. */
+    public static final class Context {
         private String name;
 
         Context(String name) {
             this.name = name;
         }
 
-        @SuppressWarnings("unused")
         public String getName() {
             return name;
         }
 
-        @SuppressWarnings("unused")
         public void setName(String name) {
             this.name = name;
         }
@@ -0,0 +1,222 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services.rest.utils;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.json.JsonWriteFeature;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLStreamWriter;
+import org.apache.cxf.jaxrs.provider.json.JSONProvider;
+import org.codehaus.jettison.mapped.DefaultConverter;
+import org.codehaus.jettison.mapped.SimpleConverter;
+import org.codehaus.jettison.mapped.TypeConverter;
+import org.w3c.dom.Document;
+
+/**
+ * JSON provider writing the JAXB annotated GeoStore model through Jackson, directly to the response
+ * stream.
+ *
+ * <p>The CXF {@link JSONProvider} collects the whole document in a Jettison object tree before
+ * writing it, which is slow and memory hungry for large resource lists. This provider keeps the
+ * JAXB marshalling, and thus the mapping given by the annotations on the model classes, but
+ * replaces the Jettison writer with a {@link JSONStreamWriter}, which produces the same JSON shape
+ * (root wrapping, attributes, typed values and array handling) while streaming it.
+ *
+ * <p>Reading requests, collections and the configurations of the Jettison writer that the streaming
+ * writer does not reproduce (badgerfish convention, array keys, namespace maps...) are still
+ * handled by the CXF provider. Setting {@link #setStreaming(boolean) streaming} to false falls back
+ * to it entirely.
+ *
+ * <p>The provider is chosen per REST server, in the <code>jaxrs:providers</code> list of each
+ * <code>jaxrs:server</code>.
+ */
+public class StreamingJSONProvider<T> extends JSONProvider<T> {
+
+    private static final String DROP_ROOT_CONTEXT_PROPERTY = "drop.json.root.element";
+
+    private static final JsonFactory JSON_FACTORY =
+            JsonFactory.builder().disable(StreamWriteFeature.AUTO_CLOSE_TARGET).build();
+
+    private boolean streaming = true;
+
+    private boolean customized;
+
+    private boolean dropRootElement;
+
+    private boolean writeXsiType = true;
+
+    private TypeConverter typeConverter;
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    @Override
+    protected XMLStreamWriter createWriter(
+            Object actualObject,
+            Class<?> actualClass,
+            Type genericType,
+            String enc,
+            OutputStream os,
+            boolean isCollection)
+            throws Exception {
+        if (!streaming || customized || isCollection || actualObject instanceof Document) {
+            return super.createWriter(
+                    actualObject, actualClass, genericType, enc, os, isCollection);
+        }
+        return new JSONStreamWriter(
+                createGenerator(enc, os),
+                typeConverter != null ? typeConverter : new DefaultConverter(),
+                getBooleanJsonProperty(DROP_ROOT_CONTEXT_PROPERTY, dropRootElement),
+                writeXsiType);
+    }
+
+    private static JsonGenerator createGenerator(String enc, OutputStream os) throws Exception {
+        Charset charset = enc != null ? Charset.forName(enc) : StandardCharsets.UTF_8;
+        for (JsonEncoding encoding : JsonEncoding.values()) {
+            if (encoding.getJavaName().equalsIgnoreCase(charset.name())) {
+                return JSON_FACTORY.createGenerator(os, encoding);
+            }
+        }
+        // not a Unicode charset: keep the output ASCII, so that any character can be represented
+        JsonGenerator generator = JSON_FACTORY.createGenerator(new OutputStreamWriter(os, charset));
+        generator.enable(JsonWriteFeature.ESCAPE_NON_ASCII.mappedFeature());
+        return generator;
+    }
+
+    @Override
+    public void setDropRootElement(boolean dropRootElement) {
+        super.setDropRootElement(dropRootElement);
+        this.dropRootElement = dropRootElement;
+    }
+
+    @Override
+    public void setWriteXsiType(boolean writeXsiType) {
+        super.setWriteXsiType(writeXsiType);
+        this.writeXsiType = writeXsiType;
+    }
+
+    @Override
+    public void setTypeConverter(TypeConverter typeConverter) {
+        super.setTypeConverter(typeConverter);
+        this.typeConverter = typeConverter;
+    }
+
+    @Override
+    public void setConvertTypesToStrings(boolean convert) {
+        super.setConvertTypesToStrings(convert);
+        if (convert) {
+            this.typeConverter = new SimpleConverter();
+        }
+    }
+
+    @Override
+    public void setConvention(String convention) {
+        super.setConvention(convention);
+        this.customized |= !"mapped".equals(convention);
+    }
+
+    @Override
+    public void setSerializeAsArray(boolean serializeAsArray) {
+        super.setSerializeAsArray(serializeAsArray);
+        this.customized |= serializeAsArray;
+    }
+
+    @Override
+    public void setArrayKeys(List<String> arrayKeys) {
+        super.setArrayKeys(arrayKeys);
+        this.customized |= arrayKeys != null && !arrayKeys.isEmpty();
+    }
+
+    @Override
+    public void setPrimitiveArrayKeys(List<String> primitiveArrayKeys) {
+        super.setPrimitiveArrayKeys(primitiveArrayKeys);
+        this.customized |= primitiveArrayKeys != null && !primitiveArrayKeys.isEmpty();
+    }
+
+    @Override
+    public void setNamespaceMap(Map<String, String> namespaceMap) {
+        super.setNamespaceMap(namespaceMap);
+        this.customized |= namespaceMap != null && !namespaceMap.isEmpty();
+    }
+
+    @Override
+    public void setAttributesToElements(boolean attributesToElements) {
+        super.setAttributesToElements(attributesToElements);
+        this.customized |= attributesToElements;
+    }
+
+    @Override
+    public void setIgnoreEmptyArrayValues(boolean ignoreEmptyArrayValues) {
+        super.setIgnoreEmptyArrayValues(ignoreEmptyArrayValues);
+        this.customized |= ignoreEmptyArrayValues;
+    }
+
+    @Override
+    public void setIgnoreMixedContent(boolean ignoreMixedContent) {
+        super.setIgnoreMixedContent(ignoreMixedContent);
+        this.customized |= ignoreMixedContent;
+    }
+
+    @Override
+    public void setDropElementsInXmlStream(boolean dropElementsInXmlStream) {
+        super.setDropElementsInXmlStream(dropElementsInXmlStream);
+        this.customized |= dropElementsInXmlStream;
+    }
+
+    @Override
+    public void setOutTransformElements(Map<String, String> outElements) {
+        super.setOutTransformElements(outElements);
+        this.customized |= outElements != null && !outElements.isEmpty();
+    }
+
+    @Override
+    public void setOutAppendElements(Map<String, String> appendElements) {
+        super.setOutAppendElements(appendElements);
+        this.customized |= appendElements != null && !appendElements.isEmpty();
+    }
+
+    @Override
+    public void setOutDropElements(List<String> dropElements) {
+        super.setOutDropElements(dropElements);
+        this.customized |= dropElements != null && !dropElements.isEmpty();
+    }
+}
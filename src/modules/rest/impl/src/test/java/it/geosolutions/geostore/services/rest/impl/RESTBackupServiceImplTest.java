@@ -0,0 +1,345 @@
+/*
+ *  Copyright (C) 2025 GeoSolutions S.A.S.
+ *  http://www.geo-solutions.it
+ *
+ *  GPLv3 + Classpath exception
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.geosolutions.geostore.services.rest.impl;
+
+import static org.junit.Assume.assumeTrue;
+
+import it.geosolutions.geostore.core.model.Attribute;
+import it.geosolutions.geostore.core.model.Category;
+import it.geosolutions.geostore.core.model.IPRange;
+import it.geosolutions.geostore.core.model.Resource;
+import it.geosolutions.geostore.core.model.SecurityRule;
+import it.geosolutions.geostore.core.model.StoredData;
+import it.geosolutions.geostore.core.model.Tag;
+import it.geosolutions.geostore.core.model.User;
+import it.geosolutions.geostore.core.model.UserGroup;
+import it.geosolutions.geostore.core.model.enums.DataType;
+import it.geosolutions.geostore.core.model.enums.Role;
+import it.geosolutions.geostore.services.ServiceTestBase;
+import it.geosolutions.geostore.services.dto.ResourceSearchParameters;
+import it.geosolutions.geostore.services.dto.ShortResource;
+import it.geosolutions.geostore.services.rest.exception.BadRequestWebEx;
+import it.geosolutions.geostore.services.rest.exception.InternalErrorWebEx;
+import it.geosolutions.geostore.services.rest.exception.NotFoundWebEx;
+import it.geosolutions.geostore.services.rest.utils.MockSecurityContext;
+import jakarta.ws.rs.core.SecurityContext;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+public class RESTBackupServiceImplTest extends ServiceTestBase {
+
+    RESTBackupServiceImpl restService;
+
+    File backupDirectory;
+
+    SecurityContext sc;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        backupDirectory = Files.createTempDirectory("geostore-backup").toFile();
+
+        restService = new RESTBackupServiceImpl();
+        restService.setCategoryService(categoryService);
+        restService.setResourceService(resourceService);
+        restService.setUserService(userService);
+        restService.setUserGroupService(userGroupService);
+        restService.setTagService(tagService);
+        restService.setIpRangeService(ipRangeService);
+        restService.setStoredDataService(storedDataService);
+        restService.setGeostoreTransactionManager(
+                (PlatformTransactionManager) ctx.getBean("geostoreTransactionManager"));
+        restService.setBackupDirectory(backupDirectory.getAbsolutePath());
+        // small pages, to exercise the paging
+        restService.setBackupPageSize(2);
+
+        long adminId = createUser("admin", Role.ADMIN, "admin");
+        sc = new MockSecurityContext(userService.get(adminId));
+        mockHttpRequestIPAddressAttribute();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        removeAll();
+        for (File file : backupDirectory.listFiles()) {
+            file.delete();
+        }
+        backupDirectory.delete();
+    }
+
+    @Test
+    public void testBackupAndRestore() throws Exception {
+        long userId = createUser("user", Role.USER, "user");
+        long groupId = createGroup("group");
+        long tagId = tagService.insert(new Tag("tag", "#ff0000", "a tag"));
+        IPRange ipRange = new IPRange();
+        ipRange.setCidr("10.0.0.0/8");
+        ipRange.setId(ipRangeService.insert(ipRange));
+
+        createCategory("MAP");
+        createCategory("EMPTY");
+        for (int i = 0; i < 5; i++) {
+            long id = createBackupResource("res" + i, userId, groupId, ipRange);
+            if (i % 2 == 0) {
+                tagService.addToResource(tagId, id);
+            }
+        }
+
+        String token = restService.backup(sc);
+        assertTrue(new File(backupDirectory, token + ".ndjson.gz").isFile());
+
+        // alter the store, the restore brings it back to the backup state
+        createResource("extra", "not in the backup", "OTHER");
+        tagService.delete(tagId);
+
+        String result = restService.restore(sc, token);
+        assertEquals("Restored 2 categories and 5 resources", result);
+
+        assertEquals(5, resourceService.getCount(null));
+        assertNull(categoryService.get("OTHER"));
+        assertNotNull(categoryService.get("EMPTY"));
+
+        List<Tag> tags = tagService.getAll(null, null, null);
+        assertEquals(1, tags.size());
+        assertEquals("#ff0000", tags.get(0).getColor());
+
+        assertEquals(1, ipRangeService.getAll().size());
+
+        Map<String, Long> ids = new HashMap<>();
+        for (ShortResource resource :
+                resourceService.getAll(
+                        ResourceSearchParameters.builder()
+                                .authUser(buildFakeAdminUser())
+                                .build())) {
+            ids.put(resource.getName(), resource.getId());
+        }
+        for (int i = 0; i < 5; i++) {
+            Resource resource = resourceService.getResource(ids.get("res" + i), true, true, true);
+
+            assertEquals("description " + i, resource.getDescription());
+            assertEquals("MAP", resource.getCategory().getName());
+            assertEquals(2, resource.getAttribute().size());
+            assertEquals(i % 2 == 0 ? 1 : 0, resource.getTags().size());
+            assertEquals("data " + i, storedDataService.get(resource.getId()).getData());
+
+            List<SecurityRule> rules = resource.getSecurity();
+            assertEquals(2, rules.size());
+            for (SecurityRule rule : rules) {
+                if (rule.getUser() != null) {
+                    assertEquals(userId, (long) rule.getUser().getId());
+                    assertTrue(rule.isCanWrite());
+                } else {
+                    assertEquals(groupId, (long) rule.getGroup().getId());
+                    assertFalse(rule.isCanWrite());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRestoreUnknownToken() {
+        try {
+            restService.restore(sc, "missing");
+            fail("NotFoundWebEx expected");
+        } catch (NotFoundWebEx e) {
+            // expected
+        }
+        try {
+            restService.restore(sc, "../missing");
+            fail("BadRequestWebEx expected");
+        } catch (BadRequestWebEx e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testBackupIsReadableByTheOwnerOnly() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        File directory = new File(backupDirectory, "nested");
+        restService.setBackupDirectory(directory.getAbsolutePath());
+
+        String token = restService.backup(sc);
+
+        assertEquals(
+                PosixFilePermissions.fromString("rwx------"),
+                Files.getPosixFilePermissions(directory.toPath()));
+        assertEquals(
+                PosixFilePermissions.fromString("rw-------"),
+                Files.getPosixFilePermissions(new File(directory, token + ".ndjson.gz").toPath()));
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testExpiredBackupsAreDeleted() throws Exception {
+        String expired = restService.backup(sc);
+        File expiredFile = new File(backupDirectory, expired + ".ndjson.gz");
+        assertTrue(
+                expiredFile.setLastModified(
+                        System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2)));
+
+        String token = restService.backup(sc);
+
+        assertFalse(expiredFile.exists());
+        assertTrue(new File(backupDirectory, token + ".ndjson.gz").isFile());
+        try {
+            restService.restore(sc, expired);
+            fail("NotFoundWebEx expected");
+        } catch (NotFoundWebEx e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTruncatedBackupLeavesTheStoreUnchanged() throws Exception {
+        createResource("kept", "not in the backup", "MAP");
+        writeBackup(
+                "truncated",
+                "{\"type\":\"header\",\"format\":\"geostore-backup\",\"version\":1}",
+                "{\"type\":\"category\",\"name\":\"OTHER\"}",
+                "{\"type\":\"resource\",\"name\":\"res\",\"category\":\"OTHER\"}");
+
+        try {
+            restService.restore(sc, "truncated");
+            fail("BadRequestWebEx expected");
+        } catch (BadRequestWebEx e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("truncated"));
+        }
+        assertStoreUnchanged();
+
+        // a file cut in the middle of the gzip stream
+        File complete = new File(backupDirectory, restService.backup(sc) + ".ndjson.gz");
+        byte[] content = Files.readAllBytes(complete.toPath());
+        Files.write(
+                new File(backupDirectory, "corrupted.ndjson.gz").toPath(),
+                Arrays.copyOf(content, content.length / 2));
+        try {
+            restService.restore(sc, "corrupted");
+            fail("BadRequestWebEx expected");
+        } catch (BadRequestWebEx e) {
+            // expected
+        }
+        assertStoreUnchanged();
+    }
+
+    @Test
+    public void testFailingRestoreLeavesTheStoreUnchanged() throws Exception {
+        createResource("kept", "not in the backup", "MAP");
+        // valid records, but the second resource cannot be inserted
+        writeBackup(
+                "duplicated",
+                "{\"type\":\"header\",\"format\":\"geostore-backup\",\"version\":1}",
+                "{\"type\":\"category\",\"name\":\"OTHER\"}",
+                "{\"type\":\"resource\",\"name\":\"res\",\"category\":\"OTHER\"}",
+                "{\"type\":\"resource\",\"name\":\"res\",\"category\":\"OTHER\"}",
+                "{\"type\":\"end\",\"resources\":2}");
+
+        try {
+            restService.restore(sc, "duplicated");
+            fail("InternalErrorWebEx expected");
+        } catch (InternalErrorWebEx e) {
+            // expected
+        }
+        assertStoreUnchanged();
+    }
+
+    private void assertStoreUnchanged() throws Exception {
+        assertEquals(1, resourceService.getCount(null));
+        assertNotNull(categoryService.get("MAP"));
+        assertNull(categoryService.get("OTHER"));
+    }
+
+    private void writeBackup(String token, String... records) throws Exception {
+        try (Writer writer =
+                new OutputStreamWriter(
+                        new GZIPOutputStream(
+                                new FileOutputStream(
+                                        new File(backupDirectory, token + ".ndjson.gz"))),
+                        StandardCharsets.UTF_8)) {
+            writer.write(String.join("\n", records));
+        }
+    }
+
+    private long createBackupResource(String name, long userId, long groupId, IPRange ipRange)
+            throws Exception {
+        int i = Integer.parseInt(name.substring(3));
+
+        Category category = new Category();
+        category.setName("MAP");
+
+        Attribute text = new Attribute();
+        text.setName("text");
+        text.setType(DataType.STRING);
+        text.setTextValue("value " + i);
+        Attribute number = new Attribute();
+        number.setName("number");
+        number.setType(DataType.NUMBER);
+        number.setNumberValue((double) i);
+        List<Attribute> attributes = new ArrayList<>();
+        attributes.add(text);
+        attributes.add(number);
+
+        StoredData data = new StoredData();
+        data.setData("data " + i);
+
+        User user = new User();
+        user.setId(userId);
+        UserGroup group = new UserGroup();
+        group.setId(groupId);
+        List<SecurityRule> rules = new ArrayList<>();
+        rules.add(new SecurityRuleBuilder().user(user).canRead(true).build());
+        rules.add(
+                new SecurityRuleBuilder()
+                        .group(group)
+                        .canRead(true)
+                        .ipRanges(new HashSet<>(List.of(ipRange)))
+                        .build());
+        rules.get(0).setCanWrite(true);
+
+        Resource resource = new Resource();
+        resource.setName(name);
+        resource.setDescription("description " + i);
+        resource.setCategory(category);
+        resource.setAttribute(attributes);
+        resource.setData(data);
+        resource.setSecurity(rules);
+        return resourceService.insert(resource);
+    }
+}
@@ -32,11 +32,34 @@ import static org.mockito.Mockito.*;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import it.geosolutions.geostore.core.dao.cache.CaffeineRegionFactory;
+import it.geosolutions.geostore.core.model.User;
+import it.geosolutions.geostore.services.VerifiedCredentialsCache;
+import it.geosolutions.geostore.services.rest.DiagnosticsContributor;
+import it.geosolutions.geostore.services.rest.model.SessionToken;
+import it.geosolutions.geostore.services.rest.security.GeoStoreLdapAuthoritiesPopulator;
+import it.geosolutions.geostore.services.rest.security.LdapAuthoritiesCache;
+import it.geosolutions.geostore.services.rest.security.TokenAuthenticationFilter;
+import it.geosolutions.geostore.services.rest.security.oauth2.InMemoryTokenStorage;
+import it.geosolutions.geostore.services.rest.security.oauth2.openid_connect.CompositeOpenIdConnectFilter;
+import it.geosolutions.geostore.services.rest.security.oauth2.openid_connect.OpenIdConnectAuthenticationService;
+import it.geosolutions.geostore.services.rest.security.oauth2.openid_connect.OpenIdConnectFilter;
+import it.geosolutions.geostore.services.rest.security.oauth2.openid_connect.bearer.JwksRsaKeyProvider;
+import it.geosolutions.geostore.services.rest.security.oauth2.openid_connect.bearer.MicrosoftGraphClient;
 import it.geosolutions.geostore.services.rest.utils.GeoStoreContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.ws.rs.core.Response;
+import java.util.HashSet;
+import java.util.Map;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 public class RESTDiagnosticsServiceImplTest {
 
@@ -67,7 +90,7 @@ public class RESTDiagnosticsServiceImplTest {
         String json = (String) response.getEntity();
         JsonNode root = MAPPER.readTree(json);
         assertNotNull(root.get("logging"), "Should contain logging section");
-        //        assertNotNull(root.get("cache"), "Should contain cache section");
+        assertNotNull(root.get("cache"), "Should contain cache section");
         //        assertNotNull(root.get("configuration"), "Should contain configuration section");
         assertNotNull(root.get("timestamp"), "Should contain timestamp");
 
@@ -75,6 +98,181 @@ public class RESTDiagnosticsServiceImplTest {
         //        assertEquals("unavailable", root.get("cache").get("status").asText());
     }
 
+    @Test
+    public void testGetFullReportWithContributor() throws Exception {
+        DiagnosticsContributor contributor = mock(DiagnosticsContributor.class);
+        when(contributor.getDiagnosticsName()).thenReturn("auditing");
+        when(contributor.getDiagnostics()).thenReturn(Map.of("writtenMessages", 3L));
+        ApplicationContext ctx = mock(ApplicationContext.class);
+        when(ctx.getBeansOfType(DiagnosticsContributor.class))
+                .thenReturn(Map.of("auditingOutput", contributor));
+        geoStoreContext.setApplicationContext(ctx);
+
+        Response response = service.getFullReport(null);
+
+        assertEquals(200, response.getStatus());
+        JsonNode root = MAPPER.readTree((String) response.getEntity());
+        assertEquals(3, root.get("auditing").get("writtenMessages").asInt());
+    }
+
+    @Test
+    public void testGetCacheWithSecondLevelCacheDisabled() throws Exception {
+        service.setGeostoreCacheRegionFactory(new CaffeineRegionFactory());
+
+        Response response = service.getCache(null);
+
+        assertEquals(200, response.getStatus());
+        JsonNode root = MAPPER.readTree((String) response.getEntity());
+        assertEquals("disabled", root.get("cache").get("secondLevel").get("status").asText());
+    }
+
+    @Test
+    public void testGetCacheWithTokenFilter() throws Exception {
+        TokenAuthenticationFilter filter =
+                new TokenAuthenticationFilter() {
+                    @Override
+                    protected Authentication checkToken(String token) {
+                        return "valid".equals(token)
+                                ? new UsernamePasswordAuthenticationToken("user", "")
+                                : null;
+                    }
+                };
+        for (String token : new String[] {"valid", "valid", "invalid"}) {
+            HttpServletRequest request = mock(HttpServletRequest.class);
+            when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+            filter.doFilter(request, mock(HttpServletResponse.class), mock(FilterChain.class));
+        }
+        SecurityContextHolder.clearContext();
+
+        ApplicationContext ctx = mock(ApplicationContext.class);
+        when(ctx.getBeansOfType(TokenAuthenticationFilter.class))
+                .thenReturn(Map.of("sessionTokenProcessingFilter", filter));
+        geoStoreContext.setApplicationContext(ctx);
+
+        Response response = service.getCache(null);
+
+        assertEquals(200, response.getStatus());
+        JsonNode root = MAPPER.readTree((String) response.getEntity());
+        JsonNode filters = root.get("cache").get("tokenAuthentication");
+        assertEquals(1, filters.size());
+        JsonNode filterNode = filters.get(0);
+        assertEquals("sessionTokenProcessingFilter", filterNode.get("name").asText());
+        assertEquals(2, filterNode.get("size").asInt());
+        assertEquals(1, filterNode.get("hitCount").asInt());
+        assertEquals(2, filterNode.get("missCount").asInt());
+    }
+
+    @Test
+    public void testGetCacheWithVerifiedCredentials() throws Exception {
+        VerifiedCredentialsCache credentials = new VerifiedCredentialsCache();
+        User user = new User();
+        user.setName("alice");
+        credentials.put("alice", "secret", user);
+        credentials.get("alice", "secret");
+        credentials.get("alice", "wrong");
+
+        ApplicationContext ctx = mock(ApplicationContext.class);
+        when(ctx.getBeansOfType(VerifiedCredentialsCache.class))
+                .thenReturn(Map.of("verifiedCredentialsCache", credentials));
+        geoStoreContext.setApplicationContext(ctx);
+
+        Response response = service.getCache(null);
+
+        assertEquals(200, response.getStatus());
+        JsonNode caches =
+                MAPPER.readTree((String) response.getEntity())
+                        .get("cache")
+                        .get("verifiedCredentials");
+        assertEquals(1, caches.size());
+        assertEquals("verifiedCredentialsCache", caches.get(0).get("name").asText());
+        assertEquals(1, caches.get(0).get("size").asInt());
+        assertEquals(1, caches.get(0).get("hitCount").asInt());
+        assertEquals(1, caches.get(0).get("missCount").asInt());
+    }
+
+    @Test
+    public void testGetCacheWithOpenIdConnectProviders() throws Exception {
+        OpenIdConnectAuthenticationService authService =
+                mock(OpenIdConnectAuthenticationService.class);
+        when(authService.getJwksKeyProvider())
+                .thenReturn(new JwksRsaKeyProvider("http://localhost/jwks"));
+        MicrosoftGraphClient graphClient = mock(MicrosoftGraphClient.class);
+        when(graphClient.getCallStats())
+                .thenReturn(Map.of("memberOf", new MicrosoftGraphClient.CallStats()));
+        when(authService.getGraphClientIfInitialized()).thenReturn(graphClient);
+        OpenIdConnectFilter providerFilter = mock(OpenIdConnectFilter.class);
+        when(providerFilter.getAuthenticationService()).thenReturn(authService);
+        CompositeOpenIdConnectFilter composite = mock(CompositeOpenIdConnectFilter.class);
+        when(composite.getProviderFilters()).thenReturn(Map.of("oidc", providerFilter));
+
+        ApplicationContext ctx = mock(ApplicationContext.class);
+        when(ctx.getBeansOfType(CompositeOpenIdConnectFilter.class))
+                .thenReturn(Map.of("compositeOpenIdFilter", composite));
+        geoStoreContext.setApplicationContext(ctx);
+
+        Response response = service.getCache(null);
+
+        assertEquals(200, response.getStatus());
+        JsonNode providers =
+                MAPPER.readTree((String) response.getEntity()).get("cache").get("openIdConnect");
+        assertEquals(1, providers.size());
+        assertEquals("oidc", providers.get(0).get("provider").asText());
+        JsonNode jwks = providers.get(0).get("jwks");
+        assertEquals(0, jwks.get("keyCount").asInt());
+        assertEquals(0, jwks.get("refreshCount").asInt());
+        assertEquals(0, jwks.get("negativeHitCount").asInt());
+        JsonNode memberOf = providers.get(0).get("msGraph").get("memberOf");
+        assertEquals(0, memberOf.get("count").asInt());
+        assertEquals(0, memberOf.get("failureCount").asInt());
+        assertEquals(0, memberOf.get("maxMillis").asInt());
+    }
+
+    @Test
+    public void testGetCacheWithLdapAuthorities() throws Exception {
+        LdapAuthoritiesCache authorities = new LdapAuthoritiesCache();
+        authorities.get("cn=alice,ou=users", "alice", HashSet::new);
+        authorities.get("cn=alice,ou=users", "alice", HashSet::new);
+        GeoStoreLdapAuthoritiesPopulator populator = mock(GeoStoreLdapAuthoritiesPopulator.class);
+        when(populator.getAuthoritiesCache()).thenReturn(authorities);
+
+        ApplicationContext ctx = mock(ApplicationContext.class);
+        when(ctx.getBeansOfType(GeoStoreLdapAuthoritiesPopulator.class))
+                .thenReturn(Map.of("ldapAuthoritiesPopulator", populator));
+        geoStoreContext.setApplicationContext(ctx);
+
+        Response response = service.getCache(null);
+
+        assertEquals(200, response.getStatus());
+        JsonNode caches =
+                MAPPER.readTree((String) response.getEntity()).get("cache").get("ldapAuthorities");
+        assertEquals(1, caches.size());
+        assertEquals("ldapAuthoritiesPopulator", caches.get(0).get("name").asText());
+        assertEquals(1, caches.get(0).get("size").asInt());
+        assertEquals(1, caches.get(0).get("hitCount").asInt());
+        assertEquals(1, caches.get(0).get("missCount").asInt());
+    }
+
+    @Test
+    public void testGetCacheWithSessionStores() throws Exception {
+        InMemoryTokenStorage tokenStorage = new InMemoryTokenStorage();
+        tokenStorage.saveToken(tokenStorage.buildTokenKey(), new SessionToken());
+
+        ApplicationContext ctx = mock(ApplicationContext.class);
+        when(ctx.getBeansOfType(InMemoryTokenStorage.class))
+                .thenReturn(Map.of("tokenStorage", tokenStorage));
+        geoStoreContext.setApplicationContext(ctx);
+
+        Response response = service.getCache(null);
+
+        assertEquals(200, response.getStatus());
+        JsonNode stores =
+                MAPPER.readTree((String) response.getEntity()).get("cache").get("sessionStores");
+        assertEquals(1, stores.size());
+        assertEquals("tokenStorage", stores.get(0).get("name").asText());
+        assertEquals(1, stores.get(0).get("size").asInt());
+        assertEquals(0, stores.get(0).get("evictionCount").asInt());
+    }
+
     //    @Test
     //    public void testGetCacheWithPopulatedEntries() throws Exception {
     //        TokenAuthenticationCache cache = new TokenAuthenticationCache(100, 60);
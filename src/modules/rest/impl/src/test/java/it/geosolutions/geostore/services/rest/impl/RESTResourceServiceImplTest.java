@@ -31,7 +31,11 @@ import it.geosolutions.geostore.core.model.enums.DataType;
 import it.geosolutions.geostore.core.model.enums.Role;
 import it.geosolutions.geostore.services.ServiceTestBase;
 import it.geosolutions.geostore.services.rest.exception.ForbiddenErrorWebEx;
+import it.geosolutions.geostore.services.rest.model.BulkInsertResultList.BulkInsertResult;
 import it.geosolutions.geostore.services.rest.model.RESTAttribute;
+import it.geosolutions.geostore.services.rest.model.RESTCategory;
+import it.geosolutions.geostore.services.rest.model.RESTResource;
+import it.geosolutions.geostore.services.rest.model.RESTResourceList;
 import it.geosolutions.geostore.services.rest.model.SecurityRuleList;
 import it.geosolutions.geostore.services.rest.utils.MockSecurityContext;
 import jakarta.ws.rs.core.SecurityContext;
@@ -66,6 +70,41 @@ public class RESTResourceServiceImplTest extends ServiceTestBase {
         RequestContextHolder.resetRequestAttributes();
     }
 
+    @Test
+    public void testInsertAll() throws Exception {
+        long u0ID = createUser("u0", Role.USER, "p0");
+        createResource("existing", "description", "MAP");
+        SecurityContext sc = new MockSecurityContext(userService.get(u0ID));
+        // two chunks, the second one with a duplicated name
+        restResourceService.setBulkInsertChunkSize(2);
+
+        List<RESTResource> resources = new ArrayList<>();
+        for (String name : List.of("r1", "r2", "r3", "existing")) {
+            RESTResource resource = new RESTResource();
+            resource.setName(name);
+            resource.setCategory(new RESTCategory("MAP"));
+            resources.add(resource);
+        }
+        RESTResource noCategory = new RESTResource();
+        noCategory.setName("r4");
+        resources.add(noCategory);
+
+        List<BulkInsertResult> results =
+                restResourceService.insertAll(sc, new RESTResourceList(resources)).getList();
+
+        assertEquals(5, results.size());
+        for (int i = 0; i < 3; i++) {
+            BulkInsertResult result = results.get(i);
+            assertEquals(i, result.getIndex());
+            assertEquals(BulkInsertResult.CREATED, result.getStatus());
+            assertEquals("u0", resourceService.get(result.getId()).getCreator());
+        }
+        assertEquals(BulkInsertResult.FAILED, results.get(3).getStatus());
+        assertNull(results.get(3).getId());
+        assertEquals(BulkInsertResult.FAILED, results.get(4).getStatus());
+        assertEquals(4, resourceService.getCount(null));
+    }
+
     @Test
     public void testUpdateResource_editorUpdate() throws Exception {
         // insert fake user for security context
@@ -31,6 +31,7 @@ import it.geosolutions.geostore.core.model.UserGroup;
 import it.geosolutions.geostore.core.model.enums.DataType;
 import it.geosolutions.geostore.core.model.enums.GroupReservedNames;
 import it.geosolutions.geostore.core.model.enums.Role;
+import it.geosolutions.geostore.services.GuestUserCache;
 import it.geosolutions.geostore.services.ResourcePermissionService;
 import it.geosolutions.geostore.services.ResourcePermissionServiceImpl;
 import it.geosolutions.geostore.services.ResourceService;
@@ -198,6 +199,26 @@ public class RESTServiceImplTest extends ServiceTestBase {
                 user.getGroups().iterator().next().getGroupName());
     }
 
+    @Test
+    public void testCachedGuestIsCopiedPerRequest() {
+        GuestUserCache guestUserCache = new GuestUserCache();
+        restService.setGuestUserCache(guestUserCache);
+
+        mockHttpRequestIPAddressAttribute("4.88.132.112", List.of(), "");
+        User first = restService.extractAuthUser(new SimpleSecurityContext());
+        mockHttpRequestIPAddressAttribute("4.88.132.113", List.of(), "");
+        User second = restService.extractAuthUser(new SimpleSecurityContext());
+
+        assertNotSame(first, second);
+        assertEquals("4.88.132.112", first.getIpAddress().toAddressString().toString());
+        assertEquals("4.88.132.113", second.getIpAddress().toAddressString().toString());
+        assertEquals(
+                GroupReservedNames.EVERYONE.groupName(),
+                second.getGroups().iterator().next().getGroupName());
+        assertEquals(1, guestUserCache.getMissCount());
+        assertEquals(1, guestUserCache.getHitCount());
+    }
+
     public void testExtractUserIP() {
 
         String remoteIP = "4.88.132.112";
@@ -406,6 +427,12 @@ public class RESTServiceImplTest extends ServiceTestBase {
             return 0;
         }
 
+        @Override
+        public List<Long> insertAll(List<Resource> resources)
+                throws BadRequestServiceEx, NotFoundServiceEx, DuplicatedResourceNameServiceEx {
+            return null;
+        }
+
         @Override
         public long update(Resource resource)
                 throws NotFoundServiceEx, DuplicatedResourceNameServiceEx {
@@ -20,14 +20,21 @@
 package it.geosolutions.geostore.services.rest.impl;
 
 import it.geosolutions.geostore.core.model.Tag;
+import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.model.enums.Role;
 import it.geosolutions.geostore.services.ServiceTestBase;
 import it.geosolutions.geostore.services.exception.BadRequestServiceEx;
 import it.geosolutions.geostore.services.exception.NotFoundServiceEx;
 import it.geosolutions.geostore.services.rest.model.TagList;
+import it.geosolutions.geostore.services.rest.utils.ConditionalGet;
 import it.geosolutions.geostore.services.rest.utils.MockSecurityContext;
 import jakarta.ws.rs.core.SecurityContext;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -69,4 +76,40 @@ public class RESTTagServiceImplTest extends ServiceTestBase {
         assertEquals(3, (long) firstPage.getCount());
         assertEquals(List.of(tag_c), secondPage.getList());
     }
+
+    @Test
+    public void testTagChangesAlterTheETag() throws Exception {
+        User user = userService.get(createUser("user", Role.USER, "user"));
+        SecurityContext sc = new MockSecurityContext(user);
+        long resourceId = createResource("resource", "description", "category");
+        long tagId = tagService.insert(new Tag("tag", "#4561aa", "dusky"));
+
+        Set<String> etags = new HashSet<>();
+        etags.add(etag(resourceId, user));
+        restService.addToResource(sc, tagId, resourceId);
+        assertTrue(etags.add(etag(resourceId, user)));
+        restService.update(sc, tagId, new Tag("renamed", "black", null));
+        assertTrue(etags.add(etag(resourceId, user)));
+        restService.removeFromResource(sc, tagId, resourceId);
+        assertTrue(etags.add(etag(resourceId, user)));
+        restService.addToResource(sc, tagId, resourceId);
+        assertTrue(etags.add(etag(resourceId, user)));
+        restService.delete(sc, tagId);
+        assertTrue(etags.add(etag(resourceId, user)));
+    }
+
+    /** @return the ETag of the current representation of the resource */
+    private String etag(long resourceId, User user) throws Exception {
+        // the last update dates have a precision of one millisecond
+        Thread.sleep(5);
+        Message message = new MessageImpl();
+        message.put(Message.HTTP_REQUEST_METHOD, "GET");
+        message.setExchange(new ExchangeImpl());
+        message.getExchange().setInMessage(message);
+        ConditionalGet.evaluate(message, resourceService.get(resourceId), user, null);
+        ConditionalGet.Validators validators =
+                (ConditionalGet.Validators)
+                        message.getExchange().get(ConditionalGet.VALIDATORS_KEY);
+        return validators.getEtag().toString();
+    }
 }
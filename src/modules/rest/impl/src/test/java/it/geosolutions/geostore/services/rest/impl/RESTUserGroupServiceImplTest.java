@@ -23,6 +23,8 @@ import it.geosolutions.geostore.core.model.enums.Role;
 import it.geosolutions.geostore.services.ServiceTestBase;
 import it.geosolutions.geostore.services.exception.BadRequestServiceEx;
 import it.geosolutions.geostore.services.exception.NotFoundServiceEx;
+import it.geosolutions.geostore.services.rest.exception.BadRequestWebEx;
+import it.geosolutions.geostore.services.rest.model.RESTUser;
 import it.geosolutions.geostore.services.rest.model.RESTUserGroup;
 import it.geosolutions.geostore.services.rest.model.UserGroupList;
 import it.geosolutions.geostore.services.rest.utils.MockSecurityContext;
@@ -91,6 +93,47 @@ public class RESTUserGroupServiceImplTest extends ServiceTestBase {
         assertEquals(0, group.getRestUsers().getList().size());
     }
 
+    @Test
+    public void testGetAllMembers() throws Exception {
+        long adminID = createUser("admin", Role.ADMIN, "admin");
+        long userID = createUser("user", Role.USER, "user");
+        createUserGroup("group", new long[] {adminID, userID});
+        createUserGroup("empty", new long[] {});
+        SecurityContext sc = new MockSecurityContext(userService.get(adminID));
+
+        List<RESTUserGroup> counted =
+                restService.getAll(sc, 0, 1000, false, true, "count", null).getUserGroupList();
+        assertEquals(2, counted.size());
+        assertEquals(Long.valueOf(0), counted.get(0).getMemberCount());
+        assertEquals(0, counted.get(0).getRestUsers().getList().size());
+        assertEquals(Long.valueOf(2), counted.get(1).getMemberCount());
+
+        RESTUserGroup named =
+                restService
+                        .getAll(sc, 0, 1000, false, false, "Names", "group")
+                        .getUserGroupList()
+                        .get(0);
+        assertNull(named.getMemberCount());
+        List<RESTUser> users = named.getRestUsers().getList();
+        assertEquals(2, users.size());
+        assertEquals("admin", users.get(0).getName());
+        assertTrue(users.get(0).getGroupsNames().isEmpty());
+
+        RESTUserGroup full =
+                restService
+                        .getAll(sc, 0, 1000, false, false, "full", "group")
+                        .getUserGroupList()
+                        .get(0);
+        assertTrue(full.getRestUsers().getList().get(1).getGroupsNames().contains("group"));
+
+        try {
+            restService.getAll(sc, 0, 1000, false, false, "everything", null);
+            fail("Unknown members value should be rejected");
+        } catch (BadRequestWebEx e) {
+            // expected
+        }
+    }
+
     @Test
     public void testGetAllPagination() throws Exception {
 
@@ -7,6 +7,7 @@ import it.geosolutions.geostore.core.ldap.IterableNamingEnumeration;
 import it.geosolutions.geostore.core.ldap.MockContextSource;
 import it.geosolutions.geostore.core.security.SimpleGrantedAuthoritiesMapper;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
 import javax.naming.directory.BasicAttributes;
@@ -158,4 +159,52 @@ public class GeoStoreLdapAuthoritiesPopulatorTest {
         assertEquals(1, authorities.size());
         assertEquals("MAPPED_GROUP", authorities.iterator().next().getAuthority());
     }
+
+    @Test
+    public void testAuthoritiesAreCached() {
+        AtomicInteger searches = new AtomicInteger();
+        GeoStoreLdapAuthoritiesPopulator authoritiesPopulator =
+                new GeoStoreLdapAuthoritiesPopulator(
+                        new MockContextSource(countingContext(searches)), "ou=groups", "ou=roles");
+        Set<GrantedAuthority> authorities =
+                authoritiesPopulator.getGroupMembershipRoles("uid=bill,ou=people", "bill");
+        assertEquals(2, authorities.size());
+        int searchesPerLogin = searches.get();
+
+        authorities.clear();
+        authorities = authoritiesPopulator.getGroupMembershipRoles("uid=bill,ou=people", "bill");
+        assertEquals(2, authorities.size());
+        assertEquals(searchesPerLogin, searches.get());
+        assertEquals(1, authoritiesPopulator.getAuthoritiesCache().getHitCount());
+        assertEquals(1, authoritiesPopulator.getAuthoritiesCache().getMissCount());
+
+        authoritiesPopulator.getAuthoritiesCache().invalidateAll();
+        authoritiesPopulator.getGroupMembershipRoles("uid=bill,ou=people", "bill");
+        assertEquals(2 * searchesPerLogin, searches.get());
+    }
+
+    @Test
+    public void testAuthoritiesCacheDisabled() {
+        AtomicInteger searches = new AtomicInteger();
+        GeoStoreLdapAuthoritiesPopulator authoritiesPopulator =
+                new GeoStoreLdapAuthoritiesPopulator(
+                        new MockContextSource(countingContext(searches)), "ou=groups", "ou=roles");
+        authoritiesPopulator.setAuthoritiesCacheTtlSeconds(0);
+        authoritiesPopulator.getGroupMembershipRoles("uid=bill,ou=people", "bill");
+        int searchesPerLogin = searches.get();
+        authoritiesPopulator.getGroupMembershipRoles("uid=bill,ou=people", "bill");
+        assertEquals(2 * searchesPerLogin, searches.get());
+        assertEquals(0, authoritiesPopulator.getAuthoritiesCache().getHitCount());
+    }
+
+    private DirContext countingContext(AtomicInteger searches) {
+        return new DirContextAdapter() {
+            @Override
+            public NamingEnumeration<SearchResult> search(
+                    String name, String filter, SearchControls cons) throws NamingException {
+                searches.incrementAndGet();
+                return ctx.search(name, filter, cons);
+            }
+        };
+    }
 }
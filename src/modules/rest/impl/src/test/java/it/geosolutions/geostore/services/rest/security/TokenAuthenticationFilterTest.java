@@ -146,4 +146,50 @@ public class TokenAuthenticationFilterTest {
         // gone
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
+
+    @Test
+    public void testNegativeCacheExpiration()
+            throws IOException, ServletException, InterruptedException {
+        Mockito.when(request.getHeader(DEFAULT_HEADER)).thenReturn(DEFAULT_PREFIX + WRONG_TOKEN);
+        filter.setCacheExpiration(60);
+        filter.setNegativeCacheExpiration(1);
+        filter.doFilter(request, response, chain);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+        tokens.put(WRONG_TOKEN, SAMPLE_AUTH);
+        filter.doFilter(request, response, chain);
+        // still invalid, cached value
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+        // wait for the invalid token expiration
+        Thread.sleep(1500);
+
+        filter.doFilter(request, response, chain);
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1, filter.getCacheStats().hitCount());
+    }
+
+    @Test
+    public void testBackgroundRefresh() throws IOException, ServletException, InterruptedException {
+        Mockito.when(request.getHeader(DEFAULT_HEADER)).thenReturn(DEFAULT_PREFIX + SAMPLE_TOKEN);
+        filter.setCacheExpiration(2);
+        filter.doFilter(request, response, chain);
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+
+        // past the refresh time, before the expiration
+        Thread.sleep(1200);
+        tokens.clear();
+        SecurityContextHolder.getContext().setAuthentication(null);
+        filter.doFilter(request, response, chain);
+        // the cached value is served while refreshing
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+
+        // the refresh drops the token
+        for (int i = 0; i < 50 && filter.getCacheStats().loadCount() < 2; i++) {
+            Thread.sleep(20);
+        }
+        SecurityContextHolder.getContext().setAuthentication(null);
+        filter.doFilter(request, response, chain);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
 }
@@ -216,6 +216,56 @@ public class ClaimPathResolverTest {
         assertEquals(Arrays.asList("dev", "ops"), result);
     }
 
+    @Test
+    public void testResolveIgnoreCaseWildcard() {
+        Map<String, Object> doc = new HashMap<>();
+        Map<String, Object> resourceAccess = new LinkedHashMap<>();
+        Map<String, Object> app1 = new HashMap<>();
+        app1.put("Roles", Arrays.asList("role_a"));
+        resourceAccess.put("App1", app1);
+        Map<String, Object> app2 = new HashMap<>();
+        app2.put("roles", Arrays.asList("role_b"));
+        resourceAccess.put("app2", app2);
+        doc.put("Resource_Access", resourceAccess);
+
+        List<String> result =
+                ClaimPathResolver.resolveAsListIgnoreCase(doc, "$.resource_access.*.roles");
+        assertEquals(Arrays.asList("role_a", "role_b"), result);
+    }
+
+    @Test
+    public void testResolveIgnoreCasePrefersExactMatch() {
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("Email", "upper@example.com");
+        doc.put("email", "lower@example.com");
+
+        assertEquals("lower@example.com", ClaimPathResolver.resolveIgnoreCase(doc, "email"));
+        assertEquals("upper@example.com", ClaimPathResolver.resolveIgnoreCase(doc, "Email"));
+        assertEquals("upper@example.com", ClaimPathResolver.resolveIgnoreCase(doc, "EMAIL"));
+    }
+
+    @Test
+    public void testResolveIgnoreCaseKeepsDocumentAndLiterals() {
+        Map<String, Object> realmAccess = new HashMap<>();
+        realmAccess.put("Roles", Arrays.asList("ADMIN", "user"));
+        Map<String, Object> doc = new HashMap<>();
+        doc.put("Realm_Access", realmAccess);
+
+        // the resolved map is the original one, keys are not rewritten
+        assertSame(realmAccess, ClaimPathResolver.resolveIgnoreCase(doc, "realm_access"));
+        assertEquals(
+                Arrays.asList("ADMIN"),
+                ClaimPathResolver.resolveIgnoreCase(doc, "$.realm_access.roles[?(@=='ADMIN')]"));
+        assertNull(ClaimPathResolver.resolveIgnoreCase(doc, "realm_access.missing"));
+    }
+
+    @Test
+    public void testCompiledPathIsReused() {
+        assertSame(
+                ClaimPathResolver.compile("realm_access.roles"),
+                ClaimPathResolver.compile("realm_access.roles"));
+    }
+
     // ----- edge cases -----
 
     @Test
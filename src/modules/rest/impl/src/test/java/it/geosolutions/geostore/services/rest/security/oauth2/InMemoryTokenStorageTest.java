@@ -0,0 +1,65 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services.rest.security.oauth2;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import it.geosolutions.geostore.services.rest.model.SessionToken;
+import org.junit.jupiter.api.Test;
+
+public class InMemoryTokenStorageTest {
+
+    @Test
+    public void testTokensExpire() throws Exception {
+        InMemoryTokenStorage storage = new InMemoryTokenStorage();
+        storage.setTokenTtlSeconds(1);
+        SessionToken token = new SessionToken();
+        token.setAccessToken("access");
+        String key = storage.buildTokenKey();
+        storage.saveToken(key, token);
+
+        assertSame(token, storage.getTokenByIdentifier(key));
+        assertEquals(1, storage.getSize());
+
+        for (int i = 0; i < 100 && storage.getEvictionCount() == 0; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, storage.getEvictionCount());
+        assertNull(storage.getTokenByIdentifier(key));
+    }
+
+    @Test
+    public void testRemovedTokensAreNotEvictions() {
+        InMemoryTokenStorage storage = new InMemoryTokenStorage();
+        storage.saveToken("key", new SessionToken());
+        storage.removeTokenByIdentifier("key");
+
+        assertNull(storage.getTokenByIdentifier("key"));
+        assertEquals(0, storage.getEvictionCount());
+    }
+}
@@ -41,6 +41,11 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.*;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -192,6 +197,48 @@ class RefreshTokenServiceTest {
                 .handleRefreshFailure(anyString(), anyString(), any(OAuth2Configuration.class));
     }
 
+    @Test
+    void testConcurrentRefreshesSendOneGrant() throws Exception {
+        CountDownLatch requested = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.exchange(
+                        anyString(),
+                        eq(HttpMethod.POST),
+                        any(HttpEntity.class),
+                        eq(OAuth2AccessTokenResponse.class)))
+                .thenAnswer(
+                        invocation -> {
+                            requested.countDown();
+                            release.await(10, TimeUnit.SECONDS);
+                            return new ResponseEntity<>(
+                                    tokenResponse("newAccessToken", "newRefreshToken", 7200),
+                                    HttpStatus.OK);
+                        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<SessionToken> first =
+                    executor.submit(() -> serviceDelegate.refresh(null, "providedAccessToken"));
+            assertTrue(requested.await(10, TimeUnit.SECONDS));
+            Future<SessionToken> second =
+                    executor.submit(() -> serviceDelegate.refresh(null, "providedAccessToken"));
+            release.countDown();
+
+            assertEquals("newAccessToken", first.get(10, TimeUnit.SECONDS).getAccessToken());
+            assertEquals("newAccessToken", second.get(10, TimeUnit.SECONDS).getAccessToken());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // the second request awaited (or reused) the result of the first one
+        verify(restTemplate, times(1))
+                .exchange(
+                        anyString(),
+                        eq(HttpMethod.POST),
+                        any(HttpEntity.class),
+                        eq(OAuth2AccessTokenResponse.class));
+    }
+
     @Test
     void testRefreshWithInvalidRefreshToken() {
         String refreshToken = "invalidRefreshToken";
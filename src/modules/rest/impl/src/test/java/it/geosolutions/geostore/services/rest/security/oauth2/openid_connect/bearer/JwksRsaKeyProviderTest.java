@@ -0,0 +1,204 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services.rest.security.oauth2.openid_connect.bearer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+public class JwksRsaKeyProviderTest {
+
+    private static final String JWKS_URI = "http://localhost/certs";
+
+    private RestTemplate restTemplate;
+
+    private JwksRsaKeyProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        provider = new JwksRsaKeyProvider(JWKS_URI, restTemplate);
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneFetch() throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ResponseEntity<String> response = jwks(null, "k1");
+        when(restTemplate.getForEntity(eq(JWKS_URI), eq(String.class)))
+                .thenAnswer(
+                        invocation -> {
+                            fetching.countDown();
+                            release.await(5, TimeUnit.SECONDS);
+                            return response;
+                        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<RSAPublicKey>> results = new ArrayList<>();
+            results.add(executor.submit(() -> provider.getKey("k1")));
+            assertTrue(fetching.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> provider.getKey("k1")));
+            }
+            release.countDown();
+            for (Future<RSAPublicKey> result : results) {
+                assertNotNull(result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(restTemplate, times(1)).getForEntity(JWKS_URI, String.class);
+        assertEquals(1, provider.getRefreshCount());
+    }
+
+    @Test
+    public void testUnknownKidIsNegativelyCached() throws Exception {
+        when(restTemplate.getForEntity(JWKS_URI, String.class)).thenReturn(jwks(null, "k1"));
+
+        assertNull(provider.getKey("bogus"));
+        assertNull(provider.getKey("bogus"));
+        assertNull(provider.getKey("other"));
+        assertNotNull(provider.getKey("k1"));
+
+        verify(restTemplate, times(1)).getForEntity(JWKS_URI, String.class);
+        assertEquals(2, provider.getNegativeHitCount());
+    }
+
+    @Test
+    public void testUnknownKidIsRetriedAfterMinInterval() throws Exception {
+        provider.setMinRefreshIntervalSeconds(0);
+        when(restTemplate.getForEntity(JWKS_URI, String.class))
+                .thenReturn(jwks(null, "k1"))
+                .thenReturn(jwks(null, "k1", "k2"));
+
+        assertNull(provider.getKey("k2"));
+        assertNotNull(provider.getKey("k2"));
+        verify(restTemplate, times(2)).getForEntity(JWKS_URI, String.class);
+    }
+
+    @Test
+    public void testStaleKeysAreRefreshedInBackground() throws Exception {
+        provider.setMinRefreshIntervalSeconds(0);
+        when(restTemplate.getForEntity(JWKS_URI, String.class))
+                .thenReturn(jwks("max-age=0", "k1"))
+                .thenReturn(jwks("max-age=3600", "k1", "k2"));
+
+        RSAPublicKey key = provider.getKey("k1");
+        assertNotNull(key);
+        // the stale key is served while the key set is fetched again
+        assertSame(key, provider.getKey("k1"));
+        verify(restTemplate, timeout(5000).times(2)).getForEntity(JWKS_URI, String.class);
+        for (int i = 0; i < 50 && provider.getKeyCount() < 2; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(2, provider.getKeyCount());
+
+        // the new key set is fresh for an hour
+        provider.getKey("k2");
+        verify(restTemplate, times(2)).getForEntity(JWKS_URI, String.class);
+    }
+
+    @Test
+    public void testFailedRefreshKeepsKeys() throws Exception {
+        provider.setMinRefreshIntervalSeconds(0);
+        when(restTemplate.getForEntity(JWKS_URI, String.class))
+                .thenReturn(jwks(null, "k1"))
+                .thenThrow(new ResourceAccessException("connection refused"));
+
+        assertNotNull(provider.getKey("k1"));
+        provider.refreshKeys();
+        assertEquals(2, provider.getRefreshCount());
+        assertEquals(1, provider.getRefreshFailureCount());
+
+        // the failed refresh is retried in the background, the previous keys are still served
+        assertNotNull(provider.getKey("k1"));
+    }
+
+    @Test
+    public void testLifetimeFromCacheControl() {
+        provider.setMinRefreshIntervalSeconds(30);
+        provider.setMaxRefreshIntervalSeconds(86400);
+        provider.setDefaultRefreshIntervalSeconds(3600);
+
+        assertEquals(3600, provider.getLifetimeSeconds(new HttpHeaders()));
+        assertEquals(600, provider.getLifetimeSeconds(cacheControl("public, max-age=600")));
+        assertEquals(30, provider.getLifetimeSeconds(cacheControl("max-age=5")));
+        assertEquals(86400, provider.getLifetimeSeconds(cacheControl("max-age=999999")));
+        assertEquals(30, provider.getLifetimeSeconds(cacheControl("no-cache, no-store")));
+        assertEquals(3600, provider.getLifetimeSeconds(cacheControl("s-maxage=10")));
+    }
+
+    private static HttpHeaders cacheControl(String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(value);
+        return headers;
+    }
+
+    private static ResponseEntity<String> jwks(String cacheControl, String... kids)
+            throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        StringBuilder json = new StringBuilder("{\"keys\":[");
+        for (int i = 0; i < kids.length; i++) {
+            RSAPublicKey key = (RSAPublicKey) generator.generateKeyPair().getPublic();
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"kty\":\"RSA\",\"use\":\"sig\",\"kid\":\"")
+                    .append(kids[i])
+                    .append("\",\"n\":\"")
+                    .append(encoder.encodeToString(key.getModulus().toByteArray()))
+                    .append("\",\"e\":\"")
+                    .append(encoder.encodeToString(key.getPublicExponent().toByteArray()))
+                    .append("\"}");
+        }
+        json.append("]}");
+        HttpHeaders headers = cacheControl != null ? cacheControl(cacheControl) : new HttpHeaders();
+        return new ResponseEntity<>(json.toString(), headers, HttpStatus.OK);
+    }
+}
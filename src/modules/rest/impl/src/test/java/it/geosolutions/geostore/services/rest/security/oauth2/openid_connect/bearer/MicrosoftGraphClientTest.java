@@ -214,6 +214,69 @@ public class MicrosoftGraphClientTest {
         assertTrue(roleNames.contains("Viewer"));
     }
 
+    @Test
+    public void testFetchAuthoritiesCachesAppRoles() {
+        graphService.stubFor(
+                WireMock.get(urlPathEqualTo("/me/memberOf"))
+                        .willReturn(
+                                aResponse()
+                                        .withStatus(200)
+                                        .withHeader(
+                                                "Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                                        .withBody(
+                                                "{\"value\":["
+                                                        + "{\"@odata.type\":\"#microsoft.graph.group\","
+                                                        + "\"displayName\":\"Editors\"}"
+                                                        + "]}")));
+        graphService.stubFor(
+                WireMock.get(urlPathEqualTo("/me/appRoleAssignments"))
+                        .willReturn(
+                                aResponse()
+                                        .withStatus(200)
+                                        .withHeader(
+                                                "Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                                        .withBody(
+                                                "{\"value\":["
+                                                        + "{\"appRoleId\":\"role-guid-101\","
+                                                        + "\"resourceId\":\"sp-guid-101\"}"
+                                                        + "]}")));
+        graphService.stubFor(
+                WireMock.get(urlPathEqualTo("/servicePrincipals/sp-guid-101/appRoles"))
+                        .willReturn(
+                                aResponse()
+                                        .withStatus(200)
+                                        .withHeader(
+                                                "Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                                        .withBody(
+                                                "{\"value\":["
+                                                        + "{\"id\":\"role-guid-101\","
+                                                        + "\"value\":\"Publisher\"}"
+                                                        + "]}")));
+
+        MicrosoftGraphClient cachingClient =
+                new MicrosoftGraphClient("http://localhost:" + graphService.port());
+        for (int i = 0; i < 2; i++) {
+            MicrosoftGraphClient.GraphAuthorities authorities =
+                    cachingClient.fetchAuthorities(TEST_TOKEN, true, true);
+            assertEquals(List.of("Editors"), authorities.getGroups());
+            assertEquals(List.of("Publisher"), authorities.getAppRoles());
+        }
+
+        graphService.verify(
+                1, getRequestedFor(urlPathEqualTo("/servicePrincipals/sp-guid-101/appRoles")));
+        assertEquals(2, cachingClient.getCallStats().get("memberOf").getCount());
+        assertEquals(2, cachingClient.getCallStats().get("appRoleAssignments").getCount());
+        assertEquals(1, cachingClient.getCallStats().get("appRoles").getCount());
+        assertEquals(0, cachingClient.getCallStats().get("appRoles").getFailureCount());
+
+        cachingClient.invalidateAppRoles();
+        assertEquals(
+                List.of("Publisher"),
+                cachingClient.fetchAuthorities(TEST_TOKEN, false, true).getAppRoles());
+        graphService.verify(
+                2, getRequestedFor(urlPathEqualTo("/servicePrincipals/sp-guid-101/appRoles")));
+    }
+
     @Test
     public void testEmptyAndNullToken() {
         // Null token
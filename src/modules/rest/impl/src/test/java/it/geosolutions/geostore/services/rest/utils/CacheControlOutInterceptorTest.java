@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2016 GeoSolutions
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.geosolutions.geostore.services.rest.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import jakarta.ws.rs.core.EntityTag;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.cxf.jaxrs.impl.MetadataMap;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.junit.Test;
+
+/** @author Emanuele Tajariol (etj at geo-solutions.it) */
+public class CacheControlOutInterceptorTest {
+
+    @Test
+    public void testCacheControlHeader() {
+        Message message = new MessageImpl();
+        ByteArrayOutputStream sw = new ByteArrayOutputStream();
+        message.setContent(OutputStream.class, sw);
+        CacheControlOutInterceptor interceptor = new CacheControlOutInterceptor();
+        interceptor.handleMessage(message);
+        @SuppressWarnings("unchecked")
+        MetadataMap<String, Object> headers =
+                (MetadataMap<String, Object>) message.get(Message.PROTOCOL_HEADERS);
+        assertEquals(headers.get("Expires").get(0), "-1");
+        assertEquals(headers.get("Cache-Control").get(0), "no-cache");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testCacheControlPreserveExisting() {
+        Message message = new MessageImpl();
+        ByteArrayOutputStream sw = new ByteArrayOutputStream();
+        message.setContent(OutputStream.class, sw);
+        MetadataMap<String, Object> headers =
+                (MetadataMap<String, Object>) message.get(Message.PROTOCOL_HEADERS);
+        if (headers == null) {
+            headers = new MetadataMap<String, Object>();
+        }
+        headers.add("Test", "Test");
+        message.put(Message.PROTOCOL_HEADERS, headers);
+        CacheControlOutInterceptor interceptor = new CacheControlOutInterceptor();
+
+        interceptor.handleMessage(message);
+
+        headers = (MetadataMap<String, Object>) message.get(Message.PROTOCOL_HEADERS);
+        headers.get("Cache-Control").get(0);
+        assertEquals(headers.get("Cache-Control").get(0), "no-cache");
+        assertEquals(headers.get("Expires").get(0), "-1");
+        assertEquals(headers.get("Test").get(0), "Test");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testPolicyAndValidators() {
+        CacheControlOutInterceptor interceptor = new CacheControlOutInterceptor();
+        Map<String, String> policies = new LinkedHashMap<>();
+        policies.put("/data/[0-9]+$", "private, no-cache");
+        interceptor.setPolicies(policies);
+
+        Message message = outMessage("/geostore/rest/data/12");
+        ConditionalGet.Validators validators =
+                new ConditionalGet.Validators(new EntityTag("abc"), new Date(0));
+        message.getExchange().put(ConditionalGet.VALIDATORS_KEY, validators);
+        interceptor.handleMessage(message);
+
+        MetadataMap<String, Object> headers =
+                (MetadataMap<String, Object>) message.get(Message.PROTOCOL_HEADERS);
+        assertEquals("private, no-cache", headers.getFirst("Cache-Control"));
+        assertEquals("\"abc\"", headers.getFirst("ETag"));
+        assertEquals("Thu, 01 Jan 1970 00:00:00 GMT", headers.getFirst("Last-Modified"));
+        assertEquals(ConditionalGet.VARY, headers.getFirst("Vary"));
+
+        // other endpoints keep the default policy
+        message = outMessage("/geostore/rest/data/12/raw");
+        interceptor.handleMessage(message);
+        headers = (MetadataMap<String, Object>) message.get(Message.PROTOCOL_HEADERS);
+        assertEquals("no-cache", headers.getFirst("Cache-Control"));
+        assertEquals("-1", headers.getFirst("Expires"));
+        assertNull(headers.getFirst("ETag"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testNotModifiedResponse() {
+        CacheControlOutInterceptor interceptor = new CacheControlOutInterceptor();
+        Map<String, String> policies = new LinkedHashMap<>();
+        policies.put("/data/[0-9]+$", "private, no-cache");
+        interceptor.setPolicies(policies);
+
+        Message message = outMessage("/geostore/rest/data/12");
+        message.removeContent(OutputStream.class);
+        message.put(Message.RESPONSE_CODE, 304);
+        message.getExchange()
+                .put(
+                        ConditionalGet.VALIDATORS_KEY,
+                        new ConditionalGet.Validators(new EntityTag("abc"), new Date(0)));
+        interceptor.handleMessage(message);
+
+        MetadataMap<String, Object> headers =
+                (MetadataMap<String, Object>) message.get(Message.PROTOCOL_HEADERS);
+        assertEquals("private, no-cache", headers.getFirst("Cache-Control"));
+        assertEquals("\"abc\"", headers.getFirst("ETag"));
+    }
+
+    private static Message outMessage(String requestUri) {
+        Message request = new MessageImpl();
+        request.put(Message.REQUEST_URI, requestUri);
+        Exchange exchange = new ExchangeImpl();
+        exchange.setInMessage(request);
+        Message message = new MessageImpl();
+        message.setExchange(exchange);
+        message.setContent(OutputStream.class, new ByteArrayOutputStream());
+        return message;
+    }
+}
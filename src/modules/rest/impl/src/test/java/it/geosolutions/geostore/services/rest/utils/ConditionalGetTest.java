@@ -0,0 +1,156 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services.rest.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import it.geosolutions.geostore.core.model.Resource;
+import it.geosolutions.geostore.core.model.User;
+import it.geosolutions.geostore.core.model.enums.Role;
+import jakarta.ws.rs.WebApplicationException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.cxf.jaxrs.utils.HttpUtils;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConditionalGetTest {
+
+    private Resource resource;
+
+    private User user;
+
+    @Before
+    public void setUp() {
+        resource = new Resource();
+        resource.setId(12L);
+        resource.setCreation(new Date(1000000L));
+        resource.setLastUpdate(new Date(2000500L));
+        user = new User();
+        user.setId(1L);
+        user.setName("alice");
+        user.setRole(Role.USER);
+    }
+
+    @Test
+    public void testNoMessage() {
+        // services invoked outside of CXF are not affected
+        ConditionalGet.evaluate(null, resource, user, null);
+    }
+
+    @Test
+    public void testMatchingETag() {
+        String etag = firstETag(user, null);
+
+        assertNotModified(request("If-None-Match", etag), user, null);
+        assertModified(request("If-None-Match", "\"other\""), user, null);
+    }
+
+    @Test
+    public void testETagVariesOnUserAndVariant() {
+        User bob = new User();
+        bob.setId(2L);
+        bob.setName("bob");
+        bob.setRole(Role.USER);
+
+        String etag = firstETag(user, null);
+        assertNotEquals(etag, firstETag(bob, null));
+        assertNotEquals(etag, firstETag(user, "full"));
+
+        assertModified(request("If-None-Match", etag), bob, null);
+        assertModified(request("If-None-Match", etag), user, "full");
+    }
+
+    @Test
+    public void testUpdatedResource() {
+        String etag = firstETag(user, null);
+        resource.setLastUpdate(new Date(3000000L));
+
+        assertModified(request("If-None-Match", etag), user, null);
+    }
+
+    @Test
+    public void testIfModifiedSince() {
+        assertNotModified(
+                request("If-Modified-Since", HttpUtils.toHttpDate(new Date(2000000L))), user, null);
+        assertModified(
+                request("If-Modified-Since", HttpUtils.toHttpDate(new Date(1000000L))), user, null);
+    }
+
+    private String firstETag(User user, String variant) {
+        Message message = request(null, null);
+        ConditionalGet.evaluate(message, resource, user, variant);
+        ConditionalGet.Validators validators =
+                (ConditionalGet.Validators)
+                        message.getExchange().get(ConditionalGet.VALIDATORS_KEY);
+        assertNotNull(validators);
+        assertEquals(2000000L, validators.getLastModified().getTime());
+        return validators.getEtag().toString();
+    }
+
+    private void assertNotModified(Message message, User user, String variant) {
+        try {
+            ConditionalGet.evaluate(message, resource, user, variant);
+            fail("304 expected");
+        } catch (WebApplicationException e) {
+            assertEquals(304, e.getResponse().getStatus());
+            assertNotNull(e.getResponse().getEntityTag());
+            assertNotNull(e.getResponse().getLastModified());
+            assertEquals(ConditionalGet.VARY, e.getResponse().getHeaderString("Vary"));
+            assertNotNull(message.getExchange().get(ConditionalGet.VALIDATORS_KEY));
+        }
+    }
+
+    private void assertModified(Message message, User user, String variant) {
+        ConditionalGet.evaluate(message, resource, user, variant);
+        assertNotNull(message.getExchange().get(ConditionalGet.VALIDATORS_KEY));
+    }
+
+    private static Message request(String header, String value) {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.put("Accept", Arrays.asList("application/json"));
+        if (header != null) {
+            headers.put(header, Arrays.asList(value));
+        }
+        Message message = new MessageImpl();
+        message.put(Message.HTTP_REQUEST_METHOD, "GET");
+        message.put(Message.PROTOCOL_HEADERS, headers);
+        message.setExchange(new ExchangeImpl());
+        message.getExchange().setInMessage(message);
+        return message;
+    }
+}
@@ -0,0 +1,44 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services.rest.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SpelMapperTest {
+
+    @Test
+    public void testTransform() {
+        SpelMapper mapper = new SpelMapper("name.replace('ROLE_', '').toLowerCase()");
+        // enough evaluations for the SpEL compiler to kick in
+        for (int i = 0; i < 300; i++) {
+            assertEquals("group" + i, mapper.transform("ROLE_GROUP" + i));
+        }
+    }
+}
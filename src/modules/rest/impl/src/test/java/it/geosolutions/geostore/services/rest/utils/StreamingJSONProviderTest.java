@@ -0,0 +1,157 @@
+/* ====================================================================
+ *
+ * Copyright (C) 2026 GeoSolutions S.A.S.
+ * http://www.geo-solutions.it
+ *
+ * GPLv3 + Classpath exception
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.
+ *
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by developers
+ * of GeoSolutions.  For more information on GeoSolutions, please see
+ * <http://www.geo-solutions.it/>.
+ *
+ */
+package it.geosolutions.geostore.services.rest.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.geosolutions.geostore.core.model.Attribute;
+import it.geosolutions.geostore.core.model.Category;
+import it.geosolutions.geostore.core.model.Resource;
+import it.geosolutions.geostore.core.model.enums.DataType;
+import it.geosolutions.geostore.services.dto.ShortAttribute;
+import it.geosolutions.geostore.services.rest.model.RESTCategory;
+import it.geosolutions.geostore.services.rest.model.RESTResource;
+import it.geosolutions.geostore.services.rest.model.ResourceList;
+import jakarta.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.apache.cxf.jaxrs.impl.MetadataMap;
+import org.apache.cxf.jaxrs.provider.json.JSONProvider;
+import org.junit.Test;
+
+public class StreamingJSONProviderTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void testResourceListShape() throws Exception {
+        assertSameJson(new ResourceList(new ArrayList<>()));
+        assertSameJson(new ResourceList(List.of(resource(1, 0))));
+        assertSameJson(new ResourceList(List.of(resource(1, 1), resource(2, 3), resource(3, 2))));
+
+        JsonNode single = MAPPER.readTree(write(new StreamingJSONProvider<>(), singleList()));
+        // a single element is not wrapped in an array
+        assertTrue(single.get("ResourceList").get("Resource").isObject());
+    }
+
+    @Test
+    public void testTypedValues() throws Exception {
+        RESTResource resource = new RESTResource();
+        resource.setName("007");
+        resource.setDescription("1.50");
+        resource.setMetadata("true");
+        resource.setCategory(new RESTCategory("12"));
+        resource.setAttribute(
+                List.of(
+                        new ShortAttribute("number", "1.5", DataType.NUMBER),
+                        new ShortAttribute("big", "12345678901234", DataType.NUMBER),
+                        new ShortAttribute("text", "a \"quoted\" </value>", DataType.STRING)));
+        assertSameJson(resource);
+
+        JsonNode json = MAPPER.readTree(write(new StreamingJSONProvider<>(), resource));
+        assertEquals("007", json.get("Resource").get("name").asText());
+        assertTrue(json.get("Resource").get("metadata").isBoolean());
+    }
+
+    @Test
+    public void testDropRootElement() throws Exception {
+        JSONProvider<Object> jettison = new JSONProvider<>();
+        jettison.setDropRootElement(true);
+        StreamingJSONProvider<Object> streaming = new StreamingJSONProvider<>();
+        streaming.setDropRootElement(true);
+
+        Object list = singleList();
+        assertEquals(
+                MAPPER.readTree(write(jettison, list)), MAPPER.readTree(write(streaming, list)));
+    }
+
+    @Test
+    public void testFallbackWhenCustomized() throws Exception {
+        StreamingJSONProvider<Object> streaming = new StreamingJSONProvider<>();
+        streaming.setSerializeAsArray(true);
+        streaming.setArrayKeys(List.of("Resource"));
+
+        JsonNode json = MAPPER.readTree(write(streaming, singleList()));
+        assertTrue(json.get("ResourceList").get("Resource").isArray());
+    }
+
+    private static ResourceList singleList() {
+        return new ResourceList(List.of(resource(1, 2)));
+    }
+
+    private static Resource resource(long id, int attributes) {
+        Category category = new Category();
+        category.setId(10L);
+        category.setName("MAP");
+
+        Resource resource = new Resource();
+        resource.setId(id);
+        resource.setName("resource " + id);
+        resource.setDescription("description of " + id);
+        resource.setCreation(new Date(1700000000000L + id));
+        resource.setCategory(category);
+        resource.setAdvertised(id % 2 == 0);
+        List<Attribute> list = new ArrayList<>();
+        for (int i = 0; i < attributes; i++) {
+            Attribute attribute = new Attribute();
+            attribute.setName("attr" + i);
+            attribute.setTextValue("value " + i);
+            attribute.setType(DataType.STRING);
+            list.add(attribute);
+        }
+        resource.setAttribute(list);
+        return resource;
+    }
+
+    private static void assertSameJson(Object entity) throws Exception {
+        String expected = write(new JSONProvider<>(), entity);
+        String actual = write(new StreamingJSONProvider<>(), entity);
+        assertEquals(MAPPER.readTree(expected), MAPPER.readTree(actual));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static String write(JSONProvider provider, Object entity) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        provider.writeTo(
+                entity,
+                entity.getClass(),
+                entity.getClass(),
+                new Annotation[0],
+                MediaType.APPLICATION_JSON_TYPE,
+                new MetadataMap<>(),
+                out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
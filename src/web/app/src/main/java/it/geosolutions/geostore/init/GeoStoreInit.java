@@ -19,6 +19,7 @@
  */
 package it.geosolutions.geostore.init;
 
+import it.geosolutions.geostore.core.dao.SecurityDAO;
 import it.geosolutions.geostore.core.model.Category;
 import it.geosolutions.geostore.core.model.User;
 import it.geosolutions.geostore.core.model.UserGroup;
@@ -54,6 +55,8 @@ public class GeoStoreInit implements InitializingBean {
 
     protected UserGroupService userGroupService;
 
+    protected SecurityDAO securityDAO;
+
     protected File userListInitFile = null;
 
     protected File categoryListInitFile = null;
@@ -107,6 +110,11 @@ public class GeoStoreInit implements InitializingBean {
         } else {
             LOGGER.info("Users already in db: " + userCnt);
         }
+
+        if (securityDAO != null) {
+            // fills the ACL projection the first time it is enabled on an existing db
+            securityDAO.initAclProjection();
+        }
     }
 
     private void initCategories(File file) {
@@ -257,6 +265,10 @@ public class GeoStoreInit implements InitializingBean {
         this.userService = userService;
     }
 
+    public void setSecurityDAO(SecurityDAO securityDAO) {
+        this.securityDAO = securityDAO;
+    }
+
     public void setUserGroupService(UserGroupService userGroupService) {
         this.userGroupService = userGroupService;
     }